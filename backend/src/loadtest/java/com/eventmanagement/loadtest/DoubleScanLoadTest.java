@@ -0,0 +1,104 @@
+package com.eventmanagement.loadtest;
+
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.TicketRepository;
+import com.eventmanagement.service.QrCodeService;
+import com.eventmanagement.service.TicketService;
+import com.eventmanagement.util.IdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many gates scanning the same tickets at the same instant, half by QR and half by ticket number,
+ * against a real (embedded) MongoDB: each ticket must be admitted exactly once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "de.flapdoodle.mongodb.embedded.version=7.0.4",
+        "spring.data.mongodb.port=0",
+        "razorpay.keyId=rzp_test_loadtest",
+        "razorpay.keySecret=loadtest-secret",
+        "app.inventory.journal.dir=target/loadtest/journal",
+        "app.id.node-id=1",
+        "logging.level.com.eventmanagement=WARN"
+})
+public class DoubleScanLoadTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private QrCodeService qrCodeService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Test
+    public void concurrentScansAdmitEachTicketOnce() throws Exception {
+        // Arrange
+        int tickets = Integer.getInteger("loadtest.doublescan.tickets", 200);
+        int gates = Integer.getInteger("loadtest.doublescan.gates", 8);
+        List<Ticket> saved = new ArrayList<>(tickets);
+        for (int i = 0; i < tickets; i++) {
+            String id = idGenerator.nextId();
+            Ticket ticket = new Ticket(id, idGenerator.ticketNumber(id), "doublescan-event", "Double Scan",
+                    LocalDateTime.now().plusDays(1).toString(), "Gate Hall", "general", "General", BigDecimal.TEN,
+                    "guest" + i + "@loadtest.local", "Guest " + i, "guest" + i + "@loadtest.local");
+            ticket.setQrImageRef(qrCodeService.payload(id));
+            ticket.setPaymentStatus(Ticket.PaymentStatus.COMPLETED);
+            saved.add(ticket);
+        }
+        ticketRepository.saveAll(saved);
+        ExecutorService pool = Executors.newFixedThreadPool(gates);
+
+        // Act: every gate scans every ticket, all gates released together per ticket
+        List<Future<CheckInResult>> results = new ArrayList<>();
+        for (Ticket ticket : saved) {
+            CountDownLatch start = new CountDownLatch(1);
+            for (int g = 0; g < gates; g++) {
+                String gate = "gate-" + g;
+                boolean byQr = g % 2 == 0;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return byQr
+                            ? ticketService.checkInByQR(ticket.getQrImageRef(), gate)
+                            : ticketService.checkIn(ticket.getTicketNumber(), gate);
+                }));
+            }
+            start.countDown();
+        }
+        List<CheckInResult> outcomes = new ArrayList<>(results.size());
+        for (Future<CheckInResult> result : results) {
+            outcomes.add(result.get());
+        }
+        pool.shutdown();
+
+        // Assert
+        Map<CheckInResult.Outcome, Long> byOutcome = outcomes.stream()
+                .collect(Collectors.groupingBy(CheckInResult::outcome, Collectors.counting()));
+        assertEquals(Map.of(CheckInResult.Outcome.ACCEPTED, (long) tickets,
+                CheckInResult.Outcome.ALREADY_USED, (long) tickets * (gates - 1)), byOutcome);
+        Map<String, Long> admittedPerTicket = outcomes.stream()
+                .filter(CheckInResult::accepted)
+                .collect(Collectors.groupingBy(r -> r.ticket().getId(), Collectors.counting()));
+        assertEquals(tickets, admittedPerTicket.size());
+        assertEquals(tickets, ticketRepository.findUsedTicketsByEventId("doublescan-event").size());
+    }
+}
@@ -0,0 +1,163 @@
+package com.eventmanagement.loadtest;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.service.EventCatalogCache;
+import com.eventmanagement.service.EventService;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Public catalog reads (event by id, published and upcoming pages, featured) from many threads while
+ * an admin keeps toggling featured events, first with the catalog cache switched off and then on.
+ * Counts the read commands that reach MongoDB for the {@code events} collection and prints reads
+ * per second and database queries per second for both runs.
+ * Tuned with -Dloadtest.catalog.events, -Dloadtest.catalog.threads and -Dloadtest.catalog.seconds.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "de.flapdoodle.mongodb.embedded.version=7.0.4",
+        "spring.data.mongodb.port=0",
+        "razorpay.keyId=rzp_test_loadtest",
+        "razorpay.keySecret=loadtest-secret",
+        "app.inventory.journal.dir=target/loadtest/journal",
+        "app.id.node-id=1",
+        "logging.level.com.eventmanagement=WARN"
+})
+public class EventCatalogLoadTest {
+
+    private static final Set<String> READS = Set.of("find", "count", "aggregate");
+    static final AtomicLong eventQueries = new AtomicLong();
+
+    @TestConfiguration
+    static class CountEventQueries {
+        @Bean
+        MongoClientSettingsBuilderCustomizer countEventQueries() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    BsonValue collection = event.getCommand().get(event.getCommandName());
+                    if (READS.contains(event.getCommandName()) && collection != null && collection.isString()
+                            && collection.asString().getValue().equals("events")) {
+                        eventQueries.incrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventCatalogCache catalogCache;
+
+    @Test
+    public void cacheCutsDatabaseQueries() throws Exception {
+        // Arrange
+        int events = Integer.getInteger("loadtest.catalog.events", 500);
+        int threads = Integer.getInteger("loadtest.catalog.threads", 16);
+        int seconds = Integer.getInteger("loadtest.catalog.seconds", 5);
+        List<Event> saved = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            Event event = new Event();
+            event.setId(UUID.randomUUID().toString());
+            event.setName("Catalog Event " + i);
+            event.setOrganizerId("organizer@loadtest.local");
+            event.setCategory("music");
+            event.setCity("Pune");
+            event.setStatus(Event.EventStatus.PUBLISHED);
+            event.setPublished(true);
+            event.setFeatured(i % 25 == 0);
+            event.setEventDate(LocalDateTime.now().plusDays(1 + i % 60));
+            event.setCreatedAt(LocalDateTime.now());
+            saved.add(event);
+        }
+        eventRepository.saveAll(saved);
+        List<String> ids = saved.stream().map(Event::getId).toList();
+
+        // Act
+        EventCatalogCache off = new EventCatalogCache(new SimpleMeterRegistry(), false, 0, 0, 0, 0);
+        ReflectionTestUtils.setField(eventService, "catalogCache", off);
+        double[] uncached = run(ids, threads, seconds);
+        ReflectionTestUtils.setField(eventService, "catalogCache", catalogCache);
+        double[] cached = run(ids, threads, seconds);
+
+        // Assert
+        System.out.printf("catalog  %-8s %,10.0f reads/s  %,10.0f db queries/s%n", "uncached", uncached[0], uncached[1]);
+        System.out.printf("catalog  %-8s %,10.0f reads/s  %,10.0f db queries/s%n", "cached", cached[0], cached[1]);
+        System.out.println("catalog  cache " + catalogCache.stats());
+        assertTrue(cached[1] * 10 < uncached[1], "cache should take at least 90% of queries off the database");
+    }
+
+    // Reads per second and event queries per second over one run
+    private double[] run(List<String> ids, int threads, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long queriesBefore = eventQueries.get();
+        long started = System.nanoTime();
+        List<Future<Long>> readers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            readers.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long reads = 0;
+                while (System.nanoTime() < deadline) {
+                    int pick = random.nextInt(100);
+                    if (pick < 50) {
+                        eventService.getPublicEvent(ids.get(random.nextInt(ids.size())));
+                    } else if (pick < 75) {
+                        eventService.getPublishedEvents(PageRequest.of(random.nextInt(5), 10));
+                    } else if (pick < 90) {
+                        eventService.getUpcomingEvents(PageRequest.of(random.nextInt(5), 10));
+                    } else {
+                        eventService.getFeaturedEvents();
+                    }
+                    reads++;
+                }
+                return reads;
+            }));
+        }
+        // An admin featuring and unfeaturing events throughout, so invalidations happen under load
+        Future<?> writer = pool.submit(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                eventService.toggleFeatured(ids.get(random.nextInt(ids.size())));
+                Thread.sleep(100);
+            }
+            return null;
+        });
+        long reads = 0;
+        for (Future<Long> reader : readers) {
+            reads += reader.get();
+        }
+        writer.get();
+        pool.shutdown();
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        return new double[] {reads / elapsed, (eventQueries.get() - queriesBefore) / elapsed};
+    }
+}
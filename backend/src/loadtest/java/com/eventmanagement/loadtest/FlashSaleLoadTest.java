@@ -0,0 +1,289 @@
+package com.eventmanagement.loadtest;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.User;
+import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.repository.TicketRepository;
+import com.eventmanagement.repository.UserRepository;
+import com.eventmanagement.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.razorpay.Order;
+import com.razorpay.OrderClient;
+import com.razorpay.RazorpayClient;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives concurrent buyers through create-order, verify and validate against the full application,
+ * backed by embedded MongoDB, a fake Razorpay client and a GreenMail SMTP sink.
+ * Tuned with -Dloadtest.buyers, -Dloadtest.capacity, -Dloadtest.concurrency, -Dloadtest.report.dir
+ * and -Dloadtest.baseline (a previous report to compare against).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "de.flapdoodle.mongodb.embedded.version=7.0.4",
+        "spring.data.mongodb.port=0",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "razorpay.keyId=rzp_test_loadtest",
+        "razorpay.keySecret=" + FlashSaleLoadTest.KEY_SECRET,
+        "app.inventory.journal.dir=target/loadtest/journal",
+        "app.id.node-id=1",
+        "logging.level.com.eventmanagement=WARN"
+})
+public class FlashSaleLoadTest {
+    static final String KEY_SECRET = "loadtest-secret";
+
+    private static final String CREATE_ORDER = "createOrder";
+    private static final String VERIFY = "verify";
+    private static final String VALIDATE = "validate";
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", () -> ServerSetupTest.SMTP.getPort());
+    }
+
+    @TestConfiguration
+    static class FakeRazorpay {
+        @Bean
+        @Primary
+        RazorpayClient fakeRazorpayClient() throws Exception {
+            AtomicLong orders = new AtomicLong();
+            OrderClient orderClient = mock(OrderClient.class);
+            when(orderClient.create(any(JSONObject.class))).thenAnswer(inv -> {
+                JSONObject request = inv.getArgument(0);
+                return new Order(new JSONObject()
+                        .put("id", "order_load_" + orders.incrementAndGet())
+                        .put("amount", request.get("amount"))
+                        .put("currency", request.get("currency"))
+                        .put("status", "created"));
+            });
+            RazorpayClient client = mock(RazorpayClient.class);
+            client.orders = orderClient;
+            return client;
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    public void flashSale() throws Exception {
+        // Arrange
+        int buyers = Integer.getInteger("loadtest.buyers", 2000);
+        int capacity = Integer.getInteger("loadtest.capacity", 1000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        Path reportDir = Path.of(System.getProperty("loadtest.report.dir", "target/loadtest"));
+        String baseline = System.getProperty("loadtest.baseline");
+
+        Event event = saveEvent(capacity);
+        List<String> emails = new ArrayList<>(buyers);
+        List<User> users = new ArrayList<>(buyers);
+        for (int i = 0; i < buyers; i++) {
+            User user = new User();
+            user.setEmail("buyer" + i + "@loadtest.local");
+            user.setPassword("unused");
+            user.setFirstName("Buyer");
+            user.setLastName(String.valueOf(i));
+            user.setRole(User.UserRole.ATTENDEE);
+            user.setCreatedAt(LocalDateTime.now());
+            users.add(user);
+            emails.add(user.getEmail());
+        }
+        userRepository.saveAll(users);
+        List<String> tokens = emails.stream().map(jwtTokenProvider::generateTokenFromUsername).toList();
+
+        LoadReport report = new LoadReport(buyers * 2, CREATE_ORDER, VERIFY, VALIDATE);
+        report.parameter("buyers", buyers);
+        report.parameter("capacity", capacity);
+        report.parameter("concurrency", concurrency);
+        AtomicInteger completed = new AtomicInteger();
+
+        // Act
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int i = 0; i < buyers; i++) {
+            int buyer = i;
+            pool.execute(() -> {
+                try {
+                    if (buy(event, emails.get(buyer), tokens.get(buyer), buyer, report)) {
+                        completed.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    // Transport failure (timeout, refused connection)
+                    report.failure(CREATE_ORDER, 0, -1);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.MINUTES));
+        double elapsed = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        // Assert
+        long issued = ticketRepository.findByEventId(event.getId()).size();
+        Event.TicketType type = eventRepository.findById(event.getId()).orElseThrow().getTicketTypes().get(0);
+        long oversold = Math.max(0, issued - capacity);
+        smtp.waitForIncomingEmail(30_000, completed.get());
+
+        report.outcome("purchasesCompleted", completed.get());
+        report.outcome("purchasesPerSecond", completed.get() / elapsed);
+        report.outcome("ticketsIssued", issued);
+        report.outcome("oversold", oversold);
+        report.outcome("soldQuantity", type.getSoldQuantity());
+        report.outcome("availableQuantity", type.getAvailableQuantity());
+        report.outcome("emailsDelivered", smtp.getReceivedMessages().length);
+        report.write(reportDir, elapsed, baseline != null ? Path.of(baseline) : null);
+
+        assertEquals(0, oversold, "tickets issued beyond capacity");
+        assertTrue(type.getAvailableQuantity() >= 0, "availability went negative");
+    }
+
+    // One buyer's whole flow; returns true when a ticket was bought and validated
+    private boolean buy(Event event, String email, String token, int buyer, LoadReport report) throws Exception {
+        Map<String, Object> order = new HashMap<>();
+        order.put("eventId", event.getId());
+        order.put("ticketTypeId", event.getTicketTypes().get(0).getId());
+        order.put("quantity", 1);
+        Timed created = post("/payments/create-order", order, token);
+        if (created.response().statusCode() != 200) {
+            report.failure(CREATE_ORDER, created.nanos(), created.response().statusCode());
+            return false;
+        }
+        report.success(CREATE_ORDER, created.nanos());
+
+        String orderId = mapper.readTree(created.response().body()).get("orderId").asText();
+        String paymentId = "pay_load_" + buyer;
+        Map<String, Object> verify = new HashMap<>(order);
+        verify.put("razorpayOrderId", orderId);
+        verify.put("razorpayPaymentId", paymentId);
+        verify.put("razorpaySignature", sign(orderId + "|" + paymentId));
+        verify.put("attendeeName", "Buyer " + buyer);
+        verify.put("attendeeEmail", email);
+        Timed verified = post("/payments/verify", verify, token);
+        if (verified.response().statusCode() != 200) {
+            report.failure(VERIFY, verified.nanos(), verified.response().statusCode());
+            return false;
+        }
+        report.success(VERIFY, verified.nanos());
+
+        boolean allValid = true;
+        for (JsonNode ticket : mapper.readTree(verified.response().body()).get("tickets")) {
+            Timed validated = post("/tickets/validate", Map.of("ticketNumber", ticket.get("ticketNumber").asText()), token);
+            boolean valid = validated.response().statusCode() == 200
+                    && mapper.readTree(validated.response().body()).path("valid").asBoolean();
+            if (valid) {
+                report.success(VALIDATE, validated.nanos());
+            } else {
+                // Status 200 here means the endpoint answered but rejected the ticket
+                report.failure(VALIDATE, validated.nanos(), validated.response().statusCode());
+                allValid = false;
+            }
+        }
+        return allValid;
+    }
+
+    private record Timed(HttpResponse<String> response, long nanos) {}
+
+    private Timed post(String path, Object body, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api" + path))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        long started = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        return new Timed(response, System.nanoTime() - started);
+    }
+
+    private Event saveEvent(int capacity) {
+        Event.TicketType type = new Event.TicketType();
+        type.setId("general");
+        type.setName("General Admission");
+        type.setPrice(new BigDecimal("499.00"));
+        type.setTotalQuantity(capacity);
+        type.setAvailableQuantity(capacity);
+        type.setActive(true);
+        type.setSaleEndDate(LocalDateTime.now().plusDays(1));
+
+        Event event = new Event();
+        event.setId("loadtest-" + System.currentTimeMillis());
+        event.setName("Flash Sale Load Test");
+        event.setOrganizerId("loadtest-organizer");
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        event.setVenue("Load Test Arena");
+        event.setStatus(Event.EventStatus.PUBLISHED);
+        event.setPublished(true);
+        event.setTicketTypes(List.of(type));
+        event.setSettings(new Event.EventSettings());
+        event.setCreatedAt(LocalDateTime.now());
+        return eventRepository.save(event);
+    }
+
+    private static String sign(String payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,149 @@
+package com.eventmanagement.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency samples and error counts per step of the purchase flow, written out as one JSON document
+ * per run. The layout is versioned so reports from different runs can be diffed or charted.
+ */
+public class LoadReport {
+    public static final String SCHEMA = "flashsale-loadtest/v1";
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private final Map<String, Object> outcome = new LinkedHashMap<>();
+
+    public LoadReport(int capacityPerStep, String... stepNames) {
+        for (String name : stepNames) {
+            steps.put(name, new Step(capacityPerStep));
+        }
+    }
+
+    public void parameter(String name, Object value) {
+        parameters.put(name, value);
+    }
+
+    public void outcome(String name, Object value) {
+        outcome.put(name, value);
+    }
+
+    public void success(String step, long nanos) {
+        steps.get(step).record(nanos);
+    }
+
+    public void failure(String step, long nanos, int status) {
+        Step s = steps.get(step);
+        s.record(nanos);
+        s.errors.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public Map<String, Object> toMap(double elapsedSeconds) {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("schema", SCHEMA);
+        root.put("timestamp", Instant.now().toString());
+        root.put("parameters", parameters);
+        root.put("elapsedSeconds", elapsedSeconds);
+        root.put("outcome", outcome);
+        Map<String, Object> stepMap = new LinkedHashMap<>();
+        for (Map.Entry<String, Step> e : steps.entrySet()) {
+            stepMap.put(e.getKey(), e.getValue().summary(elapsedSeconds));
+        }
+        root.put("steps", stepMap);
+        return root;
+    }
+
+    /** Writes the report and a copy as latest.json; prints deltas against {@code baseline} when given. */
+    public Path write(Path dir, double elapsedSeconds, Path baseline) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Map<String, Object> root = toMap(elapsedSeconds);
+        if (baseline != null && Files.exists(baseline)) {
+            root.put("comparison", compare(mapper.readTree(baseline.toFile()), mapper.valueToTree(root)));
+        }
+        Files.createDirectories(dir);
+        Path file = dir.resolve("flashsale-" + System.currentTimeMillis() + ".json");
+        mapper.writeValue(file.toFile(), root);
+        Files.copy(file, dir.resolve("latest.json"), StandardCopyOption.REPLACE_EXISTING);
+        System.out.println(mapper.writeValueAsString(root));
+        return file;
+    }
+
+    private static Map<String, Object> compare(JsonNode before, JsonNode after) {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("baselineTimestamp", before.path("timestamp").asText());
+        after.path("steps").fields().forEachRemaining(e -> {
+            JsonNode old = before.path("steps").path(e.getKey());
+            if (old.isMissingNode()) {
+                return;
+            }
+            Map<String, Object> delta = new LinkedHashMap<>();
+            for (String metric : new String[] {"throughputPerSecond", "p50Ms", "p99Ms", "p999Ms", "errorRate"}) {
+                double was = old.path(metric).asDouble();
+                double now = e.getValue().path(metric).asDouble();
+                delta.put(metric, Map.of("baseline", was, "current", now,
+                        "changePercent", was == 0 ? 0 : (now - was) * 100 / was));
+            }
+            res.put(e.getKey(), delta);
+        });
+        return res;
+    }
+
+    private static final class Step {
+        final AtomicLongArray samples;
+        final AtomicInteger count = new AtomicInteger();
+        final Map<Integer, AtomicInteger> errors = new ConcurrentHashMap<>();
+
+        Step(int capacity) {
+            samples = new AtomicLongArray(capacity);
+        }
+
+        void record(long nanos) {
+            int i = count.getAndIncrement();
+            if (i < samples.length()) {
+                samples.set(i, nanos);
+            }
+        }
+
+        Map<String, Object> summary(double elapsedSeconds) {
+            int n = Math.min(count.get(), samples.length());
+            long[] sorted = new long[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int errorCount = errors.values().stream().mapToInt(AtomicInteger::get).sum();
+            Map<String, Object> res = new LinkedHashMap<>();
+            res.put("requests", count.get());
+            res.put("errors", errorCount);
+            res.put("errorRate", count.get() == 0 ? 0.0 : (double) errorCount / count.get());
+            res.put("errorsByStatus", new LinkedHashMap<>(errors));
+            res.put("throughputPerSecond", (count.get() - errorCount) / elapsedSeconds);
+            res.put("p50Ms", percentile(sorted, 0.50));
+            res.put("p99Ms", percentile(sorted, 0.99));
+            res.put("p999Ms", percentile(sorted, 0.999));
+            res.put("maxMs", n == 0 ? 0.0 : sorted[n - 1] / 1_000_000.0);
+            return res;
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int idx = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.eventmanagement.loadtest;
+
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.dto.ScanSyncRequest;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.TicketRepository;
+import com.eventmanagement.service.QrCodeService;
+import com.eventmanagement.service.ScanSyncService;
+import com.eventmanagement.util.IdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Devices replaying offline queues through the batch sync against a real (embedded) MongoDB. Every
+ * ticket is scanned twice, by QR and by number, in shuffled order across batches: each must
+ * end up checked in once, at the time of its earliest scan.
+ *
+ * Tuned with -Dloadtest.scansync.tickets, -Dloadtest.scansync.batch and
+ * -Dloadtest.scansync.minPerSecond (0, the default, only reports the rate).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "de.flapdoodle.mongodb.embedded.version=7.0.4",
+        "spring.data.mongodb.port=0",
+        "razorpay.keyId=rzp_test_loadtest",
+        "razorpay.keySecret=loadtest-secret",
+        "app.inventory.journal.dir=target/loadtest/journal",
+        "app.id.node-id=1",
+        "logging.level.com.eventmanagement=WARN"
+})
+public class ScanSyncLoadTest {
+
+    @Autowired
+    private ScanSyncService scanSyncService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private QrCodeService qrCodeService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Test
+    public void replayedScansCheckEachTicketInAtItsEarliestScan() {
+        // Arrange
+        int tickets = Integer.getInteger("loadtest.scansync.tickets", 20000);
+        int batch = Integer.getInteger("loadtest.scansync.batch", 5000);
+        int minPerSecond = Integer.getInteger("loadtest.scansync.minPerSecond", 0);
+        LocalDateTime doorsOpen = LocalDateTime.now().minusHours(1).withNano(0);
+        List<Ticket> saved = new ArrayList<>(tickets);
+        List<ScanSyncRequest.Scan> scans = new ArrayList<>(tickets * 2);
+        Map<String, LocalDateTime> earliest = new HashMap<>(tickets * 2);
+        for (int i = 0; i < tickets; i++) {
+            String id = idGenerator.nextId();
+            Ticket ticket = new Ticket(id, idGenerator.ticketNumber(id), "scansync-event", "Scan Sync",
+                    LocalDateTime.now().plusDays(1).toString(), "Gate Hall", "general", "General", BigDecimal.TEN,
+                    "guest" + i + "@loadtest.local", "Guest " + i, "guest" + i + "@loadtest.local");
+            ticket.setQrImageRef(qrCodeService.payload(id));
+            ticket.setPaymentStatus(Ticket.PaymentStatus.COMPLETED);
+            saved.add(ticket);
+            // The QR scan is always the earlier one
+            LocalDateTime first = doorsOpen.plusSeconds(i % 3000);
+            earliest.put(id, first);
+            scans.add(new ScanSyncRequest.Scan("qr-" + i, ticket.getQrImageRef(), null, first));
+            scans.add(new ScanSyncRequest.Scan("number-" + i, null, ticket.getTicketNumber(), first.plusSeconds(1)));
+        }
+        ticketRepository.saveAll(saved);
+        Collections.shuffle(scans, new Random(17));
+
+        // Act
+        List<CheckInResult> results = new ArrayList<>(scans.size());
+        long started = System.nanoTime();
+        for (int from = 0; from < scans.size(); from += batch) {
+            results.addAll(scanSyncService.sync(scans.subList(from, Math.min(from + batch, scans.size())), "device-1"));
+        }
+        double elapsed = (System.nanoTime() - started) / 1_000_000_000.0;
+        double perSecond = scans.size() / elapsed;
+        System.out.printf("scan sync: %d scans in %.2fs, %.0f scans/s%n", scans.size(), elapsed, perSecond);
+
+        // Assert: a number scan synced before its earlier QR scan is accepted, then taken over
+        long accepted = results.stream().filter(CheckInResult::accepted).count();
+        long repeats = results.stream().filter(r -> r.outcome() == CheckInResult.Outcome.ALREADY_USED).count();
+        assertEquals(scans.size(), accepted + repeats);
+        assertTrue(accepted >= tickets);
+        List<Ticket> used = ticketRepository.findUsedTicketsByEventId("scansync-event");
+        assertEquals(tickets, used.size());
+        for (Ticket ticket : used) {
+            assertEquals(earliest.get(ticket.getId()), ticket.getValidatedAt(), ticket.getTicketNumber());
+            assertEquals("device-1", ticket.getValidatedBy());
+        }
+        assertTrue(perSecond >= minPerSecond, "scan sync managed " + perSecond + " scans/s");
+    }
+}
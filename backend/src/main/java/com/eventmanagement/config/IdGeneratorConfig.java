@@ -0,0 +1,45 @@
+package com.eventmanagement.config;
+
+import com.eventmanagement.util.IdGenerator;
+import com.eventmanagement.util.SnowflakeIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class IdGeneratorConfig {
+	private static final Logger log = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+	// Every node writing to the same database needs its own value; -1 derives one from the host name under dev or test
+	@Value("${app.id.node-id:-1}")
+	private int nodeId;
+
+	// Keys the check characters of ticket numbers; empty uses a random key per process
+	@Value("${app.id.ticket-number-key:}")
+	private String ticketNumberKey;
+
+	@Bean
+	public IdGenerator idGenerator(Environment environment) throws Exception {
+		int node = nodeId;
+		if (node < 0) {
+			// Host name hashes can collide, and two nodes sharing an id can issue the same ticket ids
+			if (!environment.acceptsProfiles(Profiles.of("dev", "test"))) {
+				throw new IllegalStateException("app.id.node-id must be set to a value unique to this node (0-"
+						+ SnowflakeIdGenerator.MAX_NODE_ID + "); only the dev and test profiles may leave it unset");
+			}
+			String host = InetAddress.getLocalHost().getHostName();
+			node = Math.floorMod(host.hashCode(), SnowflakeIdGenerator.MAX_NODE_ID + 1);
+			log.warn("app.id.node-id is not set; using {} derived from host {}. Set it explicitly when running several nodes.", node, host);
+		}
+		return ticketNumberKey.isEmpty()
+				? new SnowflakeIdGenerator(node)
+				: new SnowflakeIdGenerator(node, ticketNumberKey.getBytes(StandardCharsets.UTF_8));
+	}
+}
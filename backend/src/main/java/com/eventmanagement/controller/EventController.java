@@ -1,6 +1,10 @@
 package com.eventmanagement.controller;
 
+import com.eventmanagement.dto.CursorPage;
+import com.eventmanagement.dto.EventCard;
 import com.eventmanagement.dto.EventRequest;
+import com.eventmanagement.dto.NearbyEvent;
+import com.eventmanagement.dto.SearchSuggestion;
 import com.eventmanagement.model.Event;
 import com.eventmanagement.model.User;
 import com.eventmanagement.repository.UserRepository;
@@ -10,13 +14,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/events")
@@ -31,7 +38,7 @@ public class EventController {
     
     // Public endpoints
     @GetMapping("/public")
-    public ResponseEntity<Page<Event>> getPublishedEvents(
+    public ResponseEntity<Page<EventCard>> getPublishedEvents(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -39,29 +46,80 @@ public class EventController {
     }
     
     @GetMapping("/public/upcoming")
-    public ResponseEntity<Page<Event>> getUpcomingEvents(
+    public ResponseEntity<Page<EventCard>> getUpcomingEvents(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(eventService.getUpcomingEvents(pageable));
     }
     
+    // Keyset pages: pass the previous page's "next" as cursor; no total unless includeTotal
+    @GetMapping("/public/keyset")
+    public ResponseEntity<CursorPage<EventCard>> getPublishedEventsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(eventService.getPublishedEvents(cursor, size, false, includeTotal));
+    }
+    
+    @GetMapping("/public/upcoming/keyset")
+    public ResponseEntity<CursorPage<EventCard>> getUpcomingEventsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(eventService.getPublishedEvents(cursor, size, true, includeTotal));
+    }
+    
     @GetMapping("/public/featured")
-    public ResponseEntity<List<Event>> getFeaturedEvents() {
+    public ResponseEntity<List<EventCard>> getFeaturedEvents() {
         return ResponseEntity.ok(eventService.getFeaturedEvents());
     }
     
     @GetMapping("/public/search")
-    public ResponseEntity<Page<Event>> searchEvents(
+    public ResponseEntity<Page<EventCard>> searchEvents(
             @RequestParam String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(eventService.searchEvents(query, pageable));
+        return ResponseEntity.ok(eventService.searchEvents(query, category, city, from, to, pageable));
+    }
+    
+    // Typeahead: call as the user types; the last word matches as a prefix
+    @GetMapping("/public/search/suggest")
+    public ResponseEntity<List<SearchSuggestion>> suggestEvents(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(eventService.suggestEvents(query, limit));
+    }
+    
+    // Either lat, lng and radiusKm, or a box given by minLat, minLng, maxLat and maxLng
+    @GetMapping("/public/nearby")
+    public ResponseEntity<List<NearbyEvent>> getNearbyEvents(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(defaultValue = "25") double radiusKm,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLng,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLng,
+            @RequestParam(defaultValue = "true") boolean upcoming,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (minLat != null && minLng != null && maxLat != null && maxLng != null) {
+            return ResponseEntity.ok(eventService.getEventsInBox(minLat, minLng, maxLat, maxLng, upcoming, page, size));
+        }
+        if (lat == null || lng == null) {
+            throw new IllegalArgumentException("Give lat and lng, or all of minLat, minLng, maxLat and maxLng");
+        }
+        return ResponseEntity.ok(eventService.getEventsNear(lat, lng, radiusKm, upcoming, page, size));
     }
     
     @GetMapping("/public/category/{category}")
-    public ResponseEntity<Page<Event>> getEventsByCategory(
+    public ResponseEntity<Page<EventCard>> getEventsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -70,7 +128,7 @@ public class EventController {
     }
     
     @GetMapping("/public/city/{city}")
-    public ResponseEntity<Page<Event>> getEventsByCity(
+    public ResponseEntity<Page<EventCard>> getEventsByCity(
             @PathVariable String city,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -80,7 +138,7 @@ public class EventController {
     
     @GetMapping("/public/{id}")
     public ResponseEntity<Event> getEventById(@PathVariable String id) {
-        return eventService.getEventById(id)
+        return eventService.getPublicEvent(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -171,6 +229,18 @@ public class EventController {
         return ResponseEntity.ok(eventService.getOrganizerEvents(user.getId(), pageable));
     }
     
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats() {
+        return ResponseEntity.ok(eventService.getCatalogCacheStats());
+    }
+    
+    @GetMapping("/search/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        return ResponseEntity.ok(eventService.getSearchIndexStats());
+    }
+    
     @PostMapping("/{id}/feature")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Event> toggleFeatured(@PathVariable String id) {
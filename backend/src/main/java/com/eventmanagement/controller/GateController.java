@@ -0,0 +1,69 @@
+package com.eventmanagement.controller;
+
+import com.eventmanagement.model.User;
+import com.eventmanagement.service.GateService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/gate/events/{eventId}")
+@CrossOrigin
+@PreAuthorize("hasAnyRole('ORGANIZER','ADMIN')")
+public class GateController {
+	private final GateService gateService;
+
+	public GateController(GateService gateService) {
+		this.gateService = gateService;
+	}
+
+	// Preload the event's tickets and validate its scans from memory; reopening reloads
+	@PostMapping
+	public ResponseEntity<Map<String, Object>> open(@PathVariable String eventId, @AuthenticationPrincipal UserDetails user) {
+		return ResponseEntity.ok(gateService.open(eventId, userId(user), isAdmin(user)));
+	}
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> status(@PathVariable String eventId) {
+		return gateService.status(eventId)
+				.map(ResponseEntity::ok)
+				.orElse(ResponseEntity.notFound().build());
+	}
+
+	// Write back pending admissions and return the event to database validation
+	@DeleteMapping
+	public ResponseEntity<Map<String, Object>> close(@PathVariable String eventId, @AuthenticationPrincipal UserDetails user) {
+		boolean closed = gateService.close(eventId, userId(user), isAdmin(user));
+		return ResponseEntity.ok(Map.of("closed", closed));
+	}
+
+	// Delta-encoded key set for scanners validating offline; layout documented on GateSet#snapshot
+	@GetMapping("/snapshot")
+	public ResponseEntity<byte[]> snapshot(@PathVariable String eventId, @AuthenticationPrincipal UserDetails user) {
+		return gateService.snapshot(eventId, userId(user), isAdmin(user))
+				.map(bytes -> ResponseEntity.ok()
+						.contentType(MediaType.APPLICATION_OCTET_STREAM)
+						.cacheControl(CacheControl.noStore())
+						.header(HttpHeaders.CONTENT_DISPOSITION,
+								ContentDisposition.attachment().filename("gate-" + eventId + ".bin").build().toString())
+						.body(bytes))
+				.orElse(ResponseEntity.notFound().build());
+	}
+
+	// Events name their organizer by user id; the principal's username is the e-mail address
+	private static String userId(UserDetails user) {
+		return user instanceof User u ? u.getId() : user.getUsername();
+	}
+
+	private static boolean isAdmin(UserDetails user) {
+		return user.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+	}
+}
@@ -3,6 +3,7 @@ package com.eventmanagement.controller;
 import com.eventmanagement.dto.PaymentDtos.CreateOrderRequest;
 import com.eventmanagement.dto.PaymentDtos.CreateOrderResponse;
 import com.eventmanagement.dto.PaymentDtos.VerifyPaymentRequest;
+import com.eventmanagement.service.IdempotencyService;
 import com.eventmanagement.service.PaymentService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -10,6 +11,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/payments")
 @CrossOrigin
@@ -19,14 +24,22 @@ public class PaymentController {
 	public PaymentController(PaymentService paymentService) { this.paymentService = paymentService; }
 
 	@PostMapping("/create-order")
-	public ResponseEntity<CreateOrderResponse> createOrder(@Validated @RequestBody CreateOrderRequest request) throws Exception {
-		return ResponseEntity.ok(paymentService.createOrder(request));
+	public ResponseEntity<CreateOrderResponse> createOrder(@Validated @RequestBody CreateOrderRequest request,
+			@AuthenticationPrincipal UserDetails user) throws Exception {
+		return ResponseEntity.ok(paymentService.createOrder(request, user.getUsername()));
 	}
 
 	@PostMapping("/verify")
 	public ResponseEntity<?> verify(@Validated @RequestBody VerifyPaymentRequest request,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
 			@AuthenticationPrincipal UserDetails user) throws Exception {
-		boolean ok = paymentService.verifyPayment(request, user.getUsername());
-		return ok ? ResponseEntity.ok().build() : ResponseEntity.badRequest().body("Signature mismatch");
+		Optional<IdempotencyService.Outcome> outcome = paymentService.verifyPayment(request, user.getUsername(), idempotencyKey);
+		if (outcome.isEmpty()) {
+			return ResponseEntity.badRequest().body("Signature mismatch");
+		}
+		Map<String, Object> res = new HashMap<>();
+		res.put("tickets", outcome.get().tickets());
+		res.put("replayed", outcome.get().replayed());
+		return ResponseEntity.ok(res);
 	}
 }
\ No newline at end of file
@@ -1,20 +1,37 @@
 package com.eventmanagement.controller;
 
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.dto.CursorPage;
+import com.eventmanagement.dto.ScanSyncRequest;
 import com.eventmanagement.model.Event;
 import com.eventmanagement.model.Ticket;
+import com.eventmanagement.model.User;
 import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.service.CheckInStatsService;
 import com.eventmanagement.service.PaymentService;
+import com.eventmanagement.service.QrCodeService;
+import com.eventmanagement.service.ScanSyncService;
+import com.eventmanagement.service.TicketExportService;
 import com.eventmanagement.service.TicketService;
+import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,31 +43,59 @@ public class TicketController {
 	private final TicketService ticketService;
 	private final PaymentService paymentService;
 	private final EventRepository eventRepository;
+	private final QrCodeService qrCodeService;
+	private final TicketExportService ticketExportService;
+	private final ScanSyncService scanSyncService;
+	private final CheckInStatsService checkInStatsService;
 
-	public TicketController(TicketService ticketService, PaymentService paymentService, EventRepository eventRepository) {
+	public TicketController(TicketService ticketService, PaymentService paymentService, EventRepository eventRepository,
+			QrCodeService qrCodeService, TicketExportService ticketExportService, ScanSyncService scanSyncService,
+			CheckInStatsService checkInStatsService) {
 		this.ticketService = ticketService;
 		this.paymentService = paymentService;
 		this.eventRepository = eventRepository;
+		this.qrCodeService = qrCodeService;
+		this.ticketExportService = ticketExportService;
+		this.scanSyncService = scanSyncService;
+		this.checkInStatsService = checkInStatsService;
 	}
 
-	// Validate by ticket number or QR
+	// Validate by ticket number or QR; "valid" and "message" as before, plus why a ticket was turned away
 	@PostMapping("/validate")
 	public ResponseEntity<Map<String, Object>> validate(@RequestBody Map<String, String> body,
 			@AuthenticationPrincipal UserDetails user) {
 		String ticketNumber = body.get("ticketNumber");
 		String qrCode = body.get("qrCode");
-		boolean valid;
+		String validatedBy = user != null ? user.getUsername() : "system";
+		CheckInResult result;
 		if (ticketNumber != null && !ticketNumber.isEmpty()) {
-			valid = ticketService.validateTicket(ticketNumber, user != null ? user.getUsername() : "system");
+			result = ticketService.checkIn(ticketNumber, validatedBy);
 		} else if (qrCode != null && !qrCode.isEmpty()) {
-			valid = ticketService.validateTicketByQR(qrCode, user != null ? user.getUsername() : "system");
+			result = ticketService.checkInByQR(qrCode, validatedBy);
 		} else {
 			return ResponseEntity.badRequest().body(Map.of("valid", false, "message", "Provide ticketNumber or qrCode"));
 		}
-		Map<String, Object> res = new HashMap<>();
-		res.put("valid", valid);
-		res.put("message", valid ? "Ticket valid" : "Invalid or already used ticket");
-		return ResponseEntity.ok(res);
+		return ResponseEntity.ok(result.toMap(isStaff(user, result, new HashMap<>())));
+	}
+
+	// Scans a device queued offline, replayed at once; results come back in the order sent
+	@PostMapping("/validate/batch")
+	@PreAuthorize("hasAnyRole('ORGANIZER','ADMIN')")
+	public ResponseEntity<Map<String, Object>> validateBatch(@Valid @RequestBody ScanSyncRequest request,
+			@AuthenticationPrincipal UserDetails user) {
+		List<CheckInResult> outcomes = scanSyncService.sync(request.getScans(), user.getUsername(), userId(user), isAdmin(user));
+		List<Map<String, Object>> results = new ArrayList<>(outcomes.size());
+		Map<String, Boolean> staffByEvent = new HashMap<>();
+		int accepted = 0;
+		for (int i = 0; i < outcomes.size(); i++) {
+			Map<String, Object> result = outcomes.get(i).toMap(isStaff(user, outcomes.get(i), staffByEvent));
+			result.put("scanId", request.getScans().get(i).getScanId());
+			results.add(result);
+			if (outcomes.get(i).accepted()) {
+				accepted++;
+			}
+		}
+		return ResponseEntity.ok(Map.of("accepted", accepted, "rejected", outcomes.size() - accepted, "results", results));
 	}
 
 	// Current user's tickets
@@ -62,6 +107,15 @@ public class TicketController {
 		return ResponseEntity.ok(ticketService.getTicketsByAttendee(user.getUsername(), pageable));
 	}
 
+	// Current user's tickets by keyset: pass the previous page's "next" as cursor
+	@GetMapping("/keyset")
+	public ResponseEntity<CursorPage<Ticket>> getUserTicketsByCursor(@AuthenticationPrincipal UserDetails user,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "12") int size,
+			@RequestParam(defaultValue = "false") boolean includeTotal) {
+		return ResponseEntity.ok(ticketService.getTicketsByAttendee(user.getUsername(), cursor, size, includeTotal));
+	}
+
 	// Tickets by event (organizer view)
 	@GetMapping("/event/{eventId}")
 	@PreAuthorize("hasAnyRole('ORGANIZER','ADMIN')")
@@ -81,6 +135,50 @@ public class TicketController {
 		return ResponseEntity.ok(ticketService.getUsedTicketsByEvent(eventId));
 	}
 
+	// Live attendance from in-memory counters: totals, totals by ticket type and scans per minute
+	@GetMapping("/event/{eventId}/checkins")
+	@PreAuthorize("hasAnyRole('ORGANIZER','ADMIN')")
+	public ResponseEntity<Map<String, Object>> getCheckInTotals(@PathVariable String eventId,
+			@AuthenticationPrincipal UserDetails user) {
+		return ResponseEntity.ok(checkInStatsService.snapshot(eventId, userId(user), isAdmin(user)));
+	}
+
+	// The same totals pushed as they change; reconnecting clients resume with Last-Event-ID (or ?since=)
+	@GetMapping(value = "/event/{eventId}/checkins/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@PreAuthorize("hasAnyRole('ORGANIZER','ADMIN')")
+	public SseEmitter streamCheckIns(@PathVariable String eventId,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+			@RequestParam(required = false) Long since,
+			@AuthenticationPrincipal UserDetails user) {
+		return checkInStatsService.subscribe(eventId, userId(user), isAdmin(user), lastEventId != null ? lastEventId : since);
+	}
+
+	// Every ticket's QR code and attendee details for printing, streamed as a ZIP or a PDF of badges
+	@GetMapping("/event/{eventId}/export")
+	@PreAuthorize("hasAnyRole('ORGANIZER','ADMIN')")
+	public ResponseEntity<StreamingResponseBody> exportTickets(@PathVariable String eventId,
+			@RequestParam(defaultValue = "zip") String format,
+			@AuthenticationPrincipal UserDetails user) {
+		TicketExportService.ExportJob job = ticketExportService.start(eventId, TicketExportService.Format.parse(format),
+				userId(user), isAdmin(user));
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(job.getFormat().contentType()))
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(job.fileName()).build().toString())
+				.header("X-Export-Id", job.getId())
+				.header("X-Total-Count", String.valueOf(job.getTotal()))
+				.body(out -> ticketExportService.write(job, out));
+	}
+
+	// Progress of an export started above, by the X-Export-Id it returned
+	@GetMapping("/exports/{exportId}")
+	@PreAuthorize("hasAnyRole('ORGANIZER','ADMIN')")
+	public ResponseEntity<Map<String, Object>> exportProgress(@PathVariable String exportId,
+			@AuthenticationPrincipal UserDetails user) {
+		return ticketExportService.progress(exportId, userId(user), isAdmin(user))
+				.map(job -> ResponseEntity.ok(job.toMap()))
+				.orElse(ResponseEntity.notFound().build());
+	}
+
 	// Refund request by attendee
 	@PostMapping("/{ticketId}/refund-request")
 	public ResponseEntity<?> requestRefund(@PathVariable String ticketId, @RequestBody Map<String, String> body,
@@ -114,10 +212,58 @@ public class TicketController {
 		return ResponseEntity.ok(ticketService.getExpiredTickets());
 	}
 
+	// QR image by the ticket's qrImageRef. The image is an admission pass: no shared cache may keep it, and the
+	// browser revalidates its copy with the ETag on every use
+	@GetMapping("/qr/{ref}")
+	public ResponseEntity<byte[]> getQrImage(@PathVariable String ref,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		// A forged or unsigned ref must not get a 304 just by echoing its own ETag back
+		if (!qrCodeService.isValidRef(ref)) {
+			return ResponseEntity.notFound().build();
+		}
+		String etag = qrCodeService.etag(ref);
+		CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+		if (etag.equals(ifNoneMatch)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+		}
+		return qrCodeService.image(ref)
+				.map(image -> ResponseEntity.ok()
+						.contentType(MediaType.IMAGE_PNG)
+						.eTag(image.etag())
+						.cacheControl(cacheControl)
+						.body(image.png()))
+				.orElse(ResponseEntity.notFound().build());
+	}
+
 	// Ticket QR regenerate (utility)
 	@GetMapping("/{ticketId}/qr")
 	public ResponseEntity<Map<String, String>> getQr(@PathVariable String ticketId) {
 		String base64 = ticketService.generateQRCode(ticketId);
 		return ResponseEntity.ok(Map.of("qr", base64));
 	}
+
+	// Attendee names and who scanned a ticket are for the event's organizer and admins only
+	private boolean isStaff(UserDetails user, CheckInResult result, Map<String, Boolean> staffByEvent) {
+		if (user == null || result.ticket() == null) {
+			return false;
+		}
+		if (isAdmin(user)) {
+			return true;
+		}
+		if (!(user instanceof User caller)) {
+			return false;
+		}
+		return staffByEvent.computeIfAbsent(result.ticket().getEventId(), eventId -> eventRepository.findById(eventId)
+				.map(event -> caller.getId().equals(event.getOrganizerId()))
+				.orElse(false));
+	}
+
+	// Events name their organizer by user id; the principal's username is the e-mail address
+	private static String userId(UserDetails user) {
+		return user instanceof User u ? u.getId() : user.getUsername();
+	}
+
+	private static boolean isAdmin(UserDetails user) {
+		return user.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+	}
 }
\ No newline at end of file
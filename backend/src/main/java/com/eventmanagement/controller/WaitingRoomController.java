@@ -0,0 +1,46 @@
+package com.eventmanagement.controller;
+
+import com.eventmanagement.security.WaitingRoomFilter;
+import com.eventmanagement.service.WaitingRoomService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/queue")
+@CrossOrigin
+public class WaitingRoomController {
+	private final WaitingRoomService waitingRoomService;
+
+	public WaitingRoomController(WaitingRoomService waitingRoomService) {
+		this.waitingRoomService = waitingRoomService;
+	}
+
+	// Take a place in line; events without a waiting room need no token
+	@PostMapping("/{eventId}/join")
+	public ResponseEntity<Map<String, Object>> join(@PathVariable String eventId) {
+		return waitingRoomService.join(eventId)
+				.<ResponseEntity<Map<String, Object>>>map(t -> ResponseEntity.ok(Map.of(
+						"token", t.token(),
+						"position", t.position(),
+						"header", WaitingRoomFilter.TOKEN_HEADER)))
+				.orElse(ResponseEntity.ok(Map.of("gated", false)));
+	}
+
+	// Poll target for queued clients; answered from memory only
+	@GetMapping("/status")
+	public ResponseEntity<WaitingRoomService.Status> status(@RequestParam String token) {
+		return waitingRoomService.status(token)
+				.map(s -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(s))
+				.orElse(ResponseEntity.notFound().build());
+	}
+
+	@GetMapping("/rooms")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<Map<String, Map<String, Long>>> rooms() {
+		return ResponseEntity.ok(waitingRoomService.snapshot());
+	}
+}
@@ -0,0 +1,72 @@
+package com.eventmanagement.dto;
+
+import com.eventmanagement.model.Ticket;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Outcome of scanning a ticket at the gate, with what staff need to act on a rejection. */
+public record CheckInResult(Outcome outcome, Ticket ticket) {
+
+	public enum Outcome {
+		ACCEPTED("Ticket valid"),
+		ALREADY_USED("Ticket already used"),
+		REFUNDED("Ticket was refunded"),
+		CANCELLED("Ticket was cancelled"),
+		EXPIRED("Event has already taken place"),
+		PAYMENT_PENDING("Payment not completed"),
+		OUTSIDE_SCAN_WINDOW("Scan time is outside the accepted window"),
+		UNKNOWN("Unknown ticket");
+
+		private final String message;
+
+		Outcome(String message) {
+			this.message = message;
+		}
+	}
+
+	public static CheckInResult unknown() {
+		return new CheckInResult(Outcome.UNKNOWN, null);
+	}
+
+	public boolean accepted() {
+		return outcome == Outcome.ACCEPTED;
+	}
+
+	public String message() {
+		if (outcome == Outcome.ALREADY_USED && ticket.getValidatedAt() != null) {
+			return outcome.message + " at " + ticket.getValidatedAt().withNano(0)
+					+ (ticket.getValidatedBy() != null ? " by " + ticket.getValidatedBy() : "");
+		}
+		return outcome.message;
+	}
+
+	/**
+	 * Gate response: {@code valid} and {@code message} as before, plus the outcome and ticket details.
+	 *
+	 * @param staff whether the caller organizes the ticket's event or is an admin; anyone else holding
+	 *              a ticket number learns whether it admits, but not who it belongs to or who scanned it
+	 */
+	public Map<String, Object> toMap(boolean staff) {
+		Map<String, Object> res = new LinkedHashMap<>();
+		res.put("valid", accepted());
+		res.put("message", staff ? message() : outcome.message);
+		res.put("result", outcome);
+		if (ticket != null) {
+			res.put("ticketNumber", ticket.getTicketNumber());
+			if (staff) {
+				res.put("attendeeName", ticket.getAttendeeName());
+			}
+			res.put("ticketType", ticket.getTicketTypeName());
+			LocalDateTime validatedAt = ticket.getValidatedAt();
+			if (validatedAt != null) {
+				res.put("validatedAt", validatedAt);
+				if (staff) {
+					res.put("validatedBy", ticket.getValidatedBy());
+				}
+			}
+		}
+		return res;
+	}
+}
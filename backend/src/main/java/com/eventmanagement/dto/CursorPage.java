@@ -0,0 +1,12 @@
+package com.eventmanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of a keyset listing. {@code next} is the token for the following page and is null on
+ * the last one; {@code total} is only counted when the caller asks for it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPage<T>(List<T> items, String next, Long total) {}
@@ -0,0 +1,45 @@
+package com.eventmanagement.dto;
+
+import com.eventmanagement.model.Event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What a catalog listing shows for an event. Read straight from Mongo with {@link #FIELDS}, so
+ * ticket types, settings, analytics and the full description never leave the database for a
+ * listing page; the event page loads the whole document.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventCard {
+
+    /** Characters of the description kept as {@link #summary}. */
+    public static final int SUMMARY_LENGTH = 160;
+
+    /** Projection for repository queries returning cards; the summary is cut server-side. */
+    public static final String FIELDS = "{ 'name': 1, 'eventDate': 1, 'endDate': 1, 'venue': 1, 'city': 1,"
+            + " 'state': 1, 'country': 1, 'eventImage': 1, 'category': 1, 'tags': 1, 'organizerName': 1,"
+            + " 'status': 1, 'isFeatured': 1,"
+            + " 'summary': { $substrCP: [ { $ifNull: [ '$description', '' ] }, 0, " + SUMMARY_LENGTH + " ] } }";
+
+    private String id;
+    private String name;
+    private String summary;
+    private LocalDateTime eventDate;
+    private LocalDateTime endDate;
+    private String venue;
+    private String city;
+    private String state;
+    private String country;
+    private String eventImage;
+    private String category;
+    private List<String> tags;
+    private String organizerName;
+    private Event.EventStatus status;
+    private boolean isFeatured;
+}
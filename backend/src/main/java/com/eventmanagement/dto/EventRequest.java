@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -47,6 +49,16 @@ public class EventRequest {
     private String country;
     
     private String postalCode;
+    
+    // Optional map pin; without one the address is located from the gazetteer
+    @DecimalMin(value = "-90", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
     private String eventImage;
     private String category;
     private List<String> tags;
@@ -86,5 +98,7 @@ public class EventRequest {
         private Boolean allowGroupDiscounts = false;
         private Boolean requirePhoneNumber = false;
         private Boolean requireAddress = false;
+        private Boolean highDemand = false;
+        private Integer admissionRatePerSecond = 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.eventmanagement.dto;
+
+/** An event card with how far the event is from the searched point, in kilometres to one decimal. */
+public record NearbyEvent(EventCard event, double distanceKm) {}
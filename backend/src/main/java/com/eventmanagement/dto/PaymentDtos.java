@@ -4,6 +4,8 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalDateTime;
+
 public class PaymentDtos {
 	public static class CreateOrderRequest {
 		@NotBlank
@@ -30,14 +32,20 @@ public class PaymentDtos {
 		private long amount;
 		private String currency;
 		private String key;
+		private LocalDateTime holdExpiresAt;
 
 		public CreateOrderResponse(String orderId, long amount, String currency, String key) {
 			this.orderId = orderId; this.amount = amount; this.currency = currency; this.key = key;
 		}
+		public CreateOrderResponse(String orderId, long amount, String currency, String key, LocalDateTime holdExpiresAt) {
+			this(orderId, amount, currency, key);
+			this.holdExpiresAt = holdExpiresAt;
+		}
 		public String getOrderId() { return orderId; }
 		public long getAmount() { return amount; }
 		public String getCurrency() { return currency; }
 		public String getKey() { return key; }
+		public LocalDateTime getHoldExpiresAt() { return holdExpiresAt; }
 	}
 
 	public static class VerifyPaymentRequest {
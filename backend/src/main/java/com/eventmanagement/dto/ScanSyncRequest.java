@@ -0,0 +1,36 @@
+package com.eventmanagement.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Scans a device queued while offline, replayed in one request. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanSyncRequest {
+    
+    @Valid
+    @NotEmpty(message = "At least one scan is required")
+    private List<Scan> scans;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scan {
+        // Device-side id, echoed back so the device can match outcomes to its queue
+        private String scanId;
+        // One of qrCode or ticketNumber
+        private String qrCode;
+        private String ticketNumber;
+        // When the device scanned it; missing is taken as the time of sync, and times further back than
+        // app.scan-sync.max-backdate-minutes or ahead by more than the clock skew are rejected
+        private LocalDateTime scannedAt;
+    }
+}
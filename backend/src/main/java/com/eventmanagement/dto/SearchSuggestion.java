@@ -0,0 +1,6 @@
+package com.eventmanagement.dto;
+
+import java.time.LocalDateTime;
+
+/** One typeahead match: enough to show in a dropdown and link to the event page. */
+public record SearchSuggestion(String id, String name, String city, LocalDateTime eventDate) {}
@@ -60,6 +60,12 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
 	}
 
+	@ExceptionHandler(IdempotencyConflictException.class)
+	public ResponseEntity<ApiError> handleIdempotencyConflict(IdempotencyConflictException ex, WebRequest request) {
+		ApiError body = new ApiError(HttpStatus.CONFLICT, ex.getMessage(), request.getDescription(false));
+		return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+	}
+
 	@ExceptionHandler(IllegalArgumentException.class)
 	public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException ex, WebRequest request) {
 		ApiError body = new ApiError(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getDescription(false));
@@ -4,7 +4,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.index.Indexed;
 
@@ -17,6 +20,15 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "events")
+@CompoundIndexes({
+    @CompoundIndex(name = "published_eventDate", def = "{'status': 1, 'isPublished': 1, 'eventDate': 1, '_id': 1}"),
+    @CompoundIndex(name = "published_category", def = "{'status': 1, 'isPublished': 1, 'category': 1, 'eventDate': 1}"),
+    @CompoundIndex(name = "published_city", def = "{'status': 1, 'isPublished': 1, 'city': 1, 'eventDate': 1}"),
+    @CompoundIndex(name = "published_tags", def = "{'status': 1, 'isPublished': 1, 'tags': 1}"),
+    @CompoundIndex(name = "published_featured", def = "{'status': 1, 'isPublished': 1, 'isFeatured': 1}"),
+    @CompoundIndex(name = "organizer_published", def = "{'organizerId': 1, 'status': 1, 'isPublished': 1}"),
+    @CompoundIndex(name = "location_published", def = "{'location': '2dsphere', 'status': 1, 'isPublished': 1, 'eventDate': 1}")
+})
 public class Event {
     
     @Id
@@ -38,6 +50,8 @@ public class Event {
     private String state;
     private String country;
     private String postalCode;
+    // Venue position as longitude/latitude; null when the address is not in the gazetteer (see EventGeocoder)
+    private GeoJsonPoint location;
     private String eventImage;
     private String category;
     private List<String> tags;
@@ -59,6 +73,9 @@ public class Event {
     private LocalDateTime updatedAt;
     private LocalDateTime publishedAt;
     
+    // Last inventory journal sequence flushed into ticketTypes (hot events only)
+    private long inventoryLedgerSeq;
+    
     public enum EventStatus {
         DRAFT,
         PUBLISHED,
@@ -97,6 +114,8 @@ public class Event {
         private Map<String, BigDecimal> groupDiscounts;
         private boolean requirePhoneNumber;
         private boolean requireAddress;
+        private boolean highDemand;
+        private int admissionRatePerSecond;
     }
     
     @Data
@@ -0,0 +1,39 @@
+package com.eventmanagement.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    
+    // The idempotency key itself; the _id index makes a second insert fail
+    @Id
+    private String id;
+    
+    private String ownerId;
+    private String fingerprint;
+    private RecordStatus status;
+    private List<String> ticketIds;
+    private LocalDateTime createdAt;
+    private LocalDateTime lockedUntil;
+    private LocalDateTime completedAt;
+    
+    // Mongo drops the record once this passes
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+    
+    public enum RecordStatus {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
@@ -0,0 +1,56 @@
+package com.eventmanagement.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "inventory_holds")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_expiresAt", def = "{'status': 1, 'expiresAt': 1}"),
+    @CompoundIndex(name = "unreleased", def = "{'released': 1, 'releaseClaimedAt': 1}", partialFilter = "{'released': false}")
+})
+public class InventoryHold {
+    
+    @Id
+    private String id;
+    
+    @Indexed(unique = true, sparse = true)
+    private String razorpayOrderId;
+    
+    private String eventId;
+    private String ticketTypeId;
+    private int quantity;
+    private String holderId;
+    private HoldStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime closedAt;
+    
+    // Tags the holds claimed by one sweeper pass so they can be released together
+    @Indexed(sparse = true)
+    private String sweepId;
+    
+    // Set false when an EXPIRED or RELEASED hold is closed and true once its seats are back on sale;
+    // null on holds that never gave seats back (ACTIVE, CONVERTED)
+    private Boolean released;
+    
+    // When the seat release was last claimed; claims older than the retry delay are picked up again
+    private LocalDateTime releaseClaimedAt;
+    
+    public enum HoldStatus {
+        ACTIVE,
+        CONVERTED,
+        EXPIRED,
+        RELEASED
+    }
+}
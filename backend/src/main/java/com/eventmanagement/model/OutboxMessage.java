@@ -0,0 +1,54 @@
+package com.eventmanagement.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "email_outbox")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_nextAttemptAt", def = "{'status': 1, 'nextAttemptAt': 1}"),
+    @CompoundIndex(name = "status_lockedUntil", def = "{'status': 1, 'lockedUntil': 1}")
+})
+public class OutboxMessage {
+    
+    @Id
+    private String id;
+    
+    // One message per order: the payment id, or the first ticket id when there is no payment
+    @Indexed(unique = true)
+    private String orderRef;
+    
+    private String recipient;
+    private String recipientName;
+    private String eventName;
+    private List<String> ticketIds;
+    private OutboxStatus status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime lockedUntil;
+    
+    @Indexed(sparse = true)
+    private String claimId;
+    
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+    
+    public enum OutboxStatus {
+        PENDING,
+        SENDING,
+        SENT,
+        FAILED
+    }
+}
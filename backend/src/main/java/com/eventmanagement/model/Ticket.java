@@ -5,16 +5,27 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "tickets")
+@CompoundIndexes({
+    @CompoundIndex(name = "event_id", def = "{'eventId': 1, '_id': 1}"),
+    @CompoundIndex(name = "attendee_purchaseDate", def = "{'attendeeId': 1, 'purchaseDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "event_status_type", def = "{'eventId': 1, 'status': 1, 'ticketTypeId': 1}"),
+    @CompoundIndex(name = "event_type", def = "{'eventId': 1, 'ticketTypeId': 1}"),
+    @CompoundIndex(name = "status_eventDate", def = "{'status': 1, 'eventDate': 1}"),
+    @CompoundIndex(name = "paymentStatus_status", def = "{'paymentStatus': 1, 'status': 1}"),
+    // Only the few tickets with a pending refund request are indexed
+    @CompoundIndex(name = "refund_requested", def = "{'refundRequested': 1}", partialFilter = "{'refundRequested': true}")
+})
 public class Ticket {
     
     @Id
@@ -32,17 +43,23 @@ public class Ticket {
     private BigDecimal price;
     private String attendeeId;
     private String attendeeName;
+    @Indexed
     private String attendeeEmail;
     private String attendeePhone;
-    private String qrCode;
+    // Signed QR payload (see QrCodeService), or the digest of an image migrated into QrImageStore
+    private String qrImageRef;
     private TicketStatus status;
+    @Indexed
     private LocalDateTime purchaseDate;
+    @Indexed(sparse = true)
     private LocalDateTime validatedAt;
+    @Indexed(sparse = true)
     private String validatedBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
     // Payment Information
+    @Indexed(sparse = true)
     private String paymentId;
     private String paymentMethod;
     private PaymentStatus paymentStatus;
@@ -69,11 +86,12 @@ public class Ticket {
         REFUNDED
     }
     
-    public Ticket(String eventId, String eventName, String eventDate, String eventVenue,
+    public Ticket(String id, String ticketNumber,
+                 String eventId, String eventName, String eventDate, String eventVenue,
                  String ticketTypeId, String ticketTypeName, BigDecimal price,
                  String attendeeId, String attendeeName, String attendeeEmail) {
-        this.id = UUID.randomUUID().toString();
-        this.ticketNumber = generateTicketNumber();
+        this.id = id;
+        this.ticketNumber = ticketNumber;
         this.eventId = eventId;
         this.eventName = eventName;
         this.eventDate = eventDate;
@@ -89,17 +107,6 @@ public class Ticket {
         this.purchaseDate = LocalDateTime.now();
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
-        this.qrCode = generateQRCode();
-    }
-    
-    private String generateTicketNumber() {
-        return "TKT-" + System.currentTimeMillis() + "-" + 
-               UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
-    
-    private String generateQRCode() {
-        // This will be replaced with actual QR code generation logic
-        return this.ticketNumber + "|" + this.eventId + "|" + this.attendeeId;
     }
     
     public boolean isValid() {
@@ -31,9 +31,11 @@ public class User implements UserDetails {
     private String lastName;
     private String phoneNumber;
     private String profileImage;
+    @Indexed
     private UserRole role;
     private boolean enabled = true;
     private boolean emailVerified = false;
+    @Indexed
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime lastLoginAt;
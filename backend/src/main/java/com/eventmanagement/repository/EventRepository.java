@@ -1,5 +1,6 @@
 package com.eventmanagement.repository;
 
+import com.eventmanagement.dto.EventCard;
 import com.eventmanagement.model.Event;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,34 +12,35 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
+// Catalog listings return cards; only findById loads the whole document for the public event page
 public interface EventRepository extends MongoRepository<Event, String> {
     
     @Query("{'organizerId': ?0}")
     Page<Event> findByOrganizerId(String organizerId, Pageable pageable);
     
-    @Query("{'status': 'PUBLISHED', 'isPublished': true}")
-    Page<Event> findPublishedEvents(Pageable pageable);
+    @Query(value = "{'status': 'PUBLISHED', 'isPublished': true}", fields = EventCard.FIELDS)
+    Page<EventCard> findPublishedEvents(Pageable pageable);
     
-    @Query("{'status': 'PUBLISHED', 'isPublished': true, 'eventDate': {$gte: ?0}}")
-    Page<Event> findUpcomingEvents(LocalDateTime now, Pageable pageable);
+    @Query(value = "{'status': 'PUBLISHED', 'isPublished': true, 'eventDate': {$gte: ?0}}", fields = EventCard.FIELDS)
+    Page<EventCard> findUpcomingEvents(LocalDateTime now, Pageable pageable);
     
-    @Query("{'status': 'PUBLISHED', 'isPublished': true, 'isFeatured': true}")
-    List<Event> findFeaturedEvents();
+    @Query(value = "{'status': 'PUBLISHED', 'isPublished': true, 'isFeatured': true}", fields = EventCard.FIELDS)
+    List<EventCard> findFeaturedEvents();
     
-    @Query("{'status': 'PUBLISHED', 'isPublished': true, 'category': ?0}")
-    Page<Event> findByCategory(String category, Pageable pageable);
+    @Query(value = "{'status': 'PUBLISHED', 'isPublished': true, 'category': ?0}", fields = EventCard.FIELDS)
+    Page<EventCard> findByCategory(String category, Pageable pageable);
     
-    @Query("{'status': 'PUBLISHED', 'isPublished': true, 'tags': {$in: ?0}}")
-    Page<Event> findByTags(List<String> tags, Pageable pageable);
+    @Query(value = "{'status': 'PUBLISHED', 'isPublished': true, 'tags': {$in: ?0}}", fields = EventCard.FIELDS)
+    Page<EventCard> findByTags(List<String> tags, Pageable pageable);
     
-    @Query("{'status': 'PUBLISHED', 'isPublished': true, $text: {$search: ?0}}")
-    Page<Event> searchEvents(String searchTerm, Pageable pageable);
+    @Query(value = "{'status': 'PUBLISHED', 'isPublished': true, $text: {$search: ?0}}", fields = EventCard.FIELDS)
+    Page<EventCard> searchEvents(String searchTerm, Pageable pageable);
     
-    @Query("{'status': 'PUBLISHED', 'isPublished': true, 'city': ?0}")
-    Page<Event> findByCity(String city, Pageable pageable);
+    @Query(value = "{'status': 'PUBLISHED', 'isPublished': true, 'city': ?0}", fields = EventCard.FIELDS)
+    Page<EventCard> findByCity(String city, Pageable pageable);
     
-    @Query("{'status': 'PUBLISHED', 'isPublished': true, 'eventDate': {$gte: ?0, $lte: ?1}}")
-    Page<Event> findEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    @Query(value = "{'status': 'PUBLISHED', 'isPublished': true, 'eventDate': {$gte: ?0, $lte: ?1}}", fields = EventCard.FIELDS)
+    Page<EventCard> findEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
     
     @Query("{'status': 'PUBLISHED', 'isPublished': true, 'organizerId': ?0}")
     List<Event> findOrganizerEvents(String organizerId);
@@ -0,0 +1,29 @@
+package com.eventmanagement.repository;
+
+import com.eventmanagement.model.InventoryHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryHoldRepository extends MongoRepository<InventoryHold, String> {
+    
+    @Query(value = "{'status': 'ACTIVE', 'expiresAt': {$lt: ?0}}", fields = "{'_id': 1}")
+    List<InventoryHold> findExpiredHoldIds(LocalDateTime now, Pageable pageable);
+    
+    @Query(value = "{'released': false, 'releaseClaimedAt': {$lt: ?0}}", fields = "{'_id': 1}")
+    List<InventoryHold> findUnreleasedHoldIds(LocalDateTime claimedBefore, Pageable pageable);
+    
+    Optional<InventoryHold> findByRazorpayOrderId(String razorpayOrderId);
+    
+    @Query("{'sweepId': ?0}")
+    List<InventoryHold> findBySweepId(String sweepId);
+    
+    @Query(value = "{'status': 'ACTIVE'}", count = true)
+    long countActiveHolds();
+}
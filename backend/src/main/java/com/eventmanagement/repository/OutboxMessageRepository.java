@@ -0,0 +1,23 @@
+package com.eventmanagement.repository;
+
+import com.eventmanagement.model.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends MongoRepository<OutboxMessage, String> {
+    
+    @Query(value = "{$or: [{'status': 'PENDING', 'nextAttemptAt': {$lte: ?0}}, {'status': 'SENDING', 'lockedUntil': {$lt: ?0}}]}", fields = "{'_id': 1}")
+    List<OutboxMessage> findDueMessageIds(LocalDateTime now, Pageable pageable);
+    
+    @Query("{'claimId': ?0}")
+    List<OutboxMessage> findByClaimId(String claimId);
+    
+    @Query(value = "{'status': 'PENDING'}", count = true)
+    long countPendingMessages();
+}
@@ -10,13 +10,15 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TicketRepository extends MongoRepository<Ticket, String> {
     
     Optional<Ticket> findByTicketNumber(String ticketNumber);
     
-    Optional<Ticket> findByQrCode(String qrCode);
+    @Query("{'paymentId': ?0}")
+    List<Ticket> findByPaymentId(String paymentId);
     
     @Query("{'attendeeId': ?0}")
     Page<Ticket> findByAttendeeId(String attendeeId, Pageable pageable);
@@ -24,6 +26,13 @@ public interface TicketRepository extends MongoRepository<Ticket, String> {
     @Query("{'eventId': ?0}")
     List<Ticket> findByEventId(String eventId);
     
+    // Cursor-backed; the caller must close the stream
+    @Query(value = "{'eventId': ?0}", sort = "{'_id': 1}")
+    Stream<Ticket> streamByEventId(String eventId);
+    
+    @Query(value = "{'eventId': ?0}", count = true)
+    long countByEventId(String eventId);
+    
     @Query("{'eventId': ?0, 'status': 'ACTIVE'}")
     List<Ticket> findActiveTicketsByEventId(String eventId);
     
@@ -33,7 +33,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                requestURI.startsWith("/api/swagger-ui/") ||
                requestURI.startsWith("/api/v3/api-docs/") ||
                requestURI.startsWith("/api/uploads/") ||
-               requestURI.equals("/api/tickets/validate");
+               requestURI.equals("/api/tickets/validate") ||
+               requestURI.equals("/api/queue/status");
     }
     
     @Override
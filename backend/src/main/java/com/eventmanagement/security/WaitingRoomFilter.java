@@ -0,0 +1,161 @@
+package com.eventmanagement.security;
+
+import com.eventmanagement.exception.ApiError;
+import com.eventmanagement.service.WaitingRoomService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns purchase attempts for high-demand events away unless they carry an admitted waiting-room
+ * token in the {@code X-Queue-Token} header. Other events pass straight through.
+ */
+@Component
+public class WaitingRoomFilter extends OncePerRequestFilter {
+    
+    public static final String TOKEN_HEADER = "X-Queue-Token";
+    
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    
+    private final WaitingRoomService waitingRoomService;
+    private final ObjectMapper objectMapper;
+    
+    public WaitingRoomFilter(WaitingRoomService waitingRoomService, ObjectMapper objectMapper) {
+        this.waitingRoomService = waitingRoomService;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        return !("POST".equals(request.getMethod()) && request.getRequestURI().equals("/api/payments/create-order"));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        
+        // One byte past the limit tells a chunked body that is too large from one that just fits
+        byte[] body = request.getContentLengthLong() > MAX_BODY_BYTES ? null
+                : request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body == null || body.length > MAX_BODY_BYTES) {
+            writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+            return;
+        }
+        String eventId = null;
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            if (node != null && node.hasNonNull("eventId")) {
+                eventId = node.get("eventId").asText();
+            }
+        } catch (IOException ignore) {
+            // Malformed bodies are left for the controller to reject
+        }
+        
+        if (eventId == null || !waitingRoomService.isGated(eventId)) {
+            filterChain.doFilter(new CachedBodyRequest(request, body), response);
+            return;
+        }
+        String token = request.getHeader(TOKEN_HEADER);
+        WaitingRoomService.Admission admission = waitingRoomService.admit(eventId, token);
+        if (admission != WaitingRoomService.Admission.ADMITTED) {
+            reject(request, response, admission);
+            return;
+        }
+        // The token is spent only by an order that went through; a 4xx or 5xx keeps the buyer's place
+        boolean succeeded = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), response);
+            succeeded = response.getStatus() < 400;
+        } finally {
+            if (!succeeded) {
+                waitingRoomService.giveBack(eventId, token);
+            }
+        }
+    }
+    
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        WaitingRoomService.Admission admission) throws IOException {
+        HttpStatus status;
+        String message;
+        switch (admission) {
+            case WAITING -> {
+                status = HttpStatus.TOO_MANY_REQUESTS;
+                message = "Waiting room: not admitted yet";
+            }
+            case USED -> {
+                status = HttpStatus.CONFLICT;
+                message = "Waiting room token already used";
+            }
+            default -> {
+                status = HttpStatus.FORBIDDEN;
+                message = "Waiting room token required";
+            }
+        }
+        writeError(request, response, status, message);
+    }
+    
+    private void writeError(HttpServletRequest request, HttpServletResponse response,
+                            HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiError(status, message, request.getRequestURI()));
+    }
+    
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() { return in.available() == 0; }
+                @Override
+                public boolean isReady() { return true; }
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The body is already in memory, so all of it is available at once
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+                @Override
+                public int read() { return in.read(); }
+                @Override
+                public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
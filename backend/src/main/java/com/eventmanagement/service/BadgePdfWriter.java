@@ -0,0 +1,269 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Ticket;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming PDF writer for printable badges, one page per ticket. Pages are written as they
+ * arrive and only each object's byte offset is kept for the cross-reference table, so memory is
+ * 8 bytes per object however large the event. PNG image data is embedded as-is: FlateDecode's PNG
+ * predictor undoes the row filters, so nothing is decoded or recompressed.
+ */
+final class BadgePdfWriter {
+	// 4 x 6 in badge stock, in points
+	static final int PAGE_WIDTH = 288;
+	static final int PAGE_HEIGHT = 432;
+	private static final int QR_SIZE = 216;
+
+	private static final int CATALOG = 1;
+	private static final int PAGES = 2;
+	private static final int FONT = 3;
+	private static final int BOLD_FONT = 4;
+	private static final int FIRST_PAGE = 5;
+	// Page, content stream and QR image
+	private static final int OBJECTS_PER_PAGE = 3;
+
+	private final CountingOutputStream out;
+	private long[] offsets = new long[64];
+	private int pages;
+
+	BadgePdfWriter(OutputStream out) throws IOException {
+		this.out = new CountingOutputStream(new BufferedOutputStream(out, 1 << 16));
+		// Binary comment so transfer tools treat the file as binary
+		ascii("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+		beginObject(CATALOG);
+		ascii("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\n");
+		endObject();
+		beginObject(FONT);
+		ascii("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\n");
+		endObject();
+		beginObject(BOLD_FONT);
+		ascii("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>\n");
+		endObject();
+	}
+
+	int pageCount() {
+		return pages;
+	}
+
+	void addBadge(Ticket ticket, byte[] png) throws IOException {
+		int page = FIRST_PAGE + pages * OBJECTS_PER_PAGE;
+		int contents = page + 1;
+		int image = page + 2;
+
+		beginObject(page);
+		ascii("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "]"
+				+ " /Resources << /Font << /F1 " + FONT + " 0 R /F2 " + BOLD_FONT + " 0 R >> /XObject << /QR " + image + " 0 R >> >>"
+				+ " /Contents " + contents + " 0 R >>\n");
+		endObject();
+
+		StringBuilder content = new StringBuilder(512);
+		text(content, BOLD_FONT, 16, 24, 400, ticket.getEventName(), 30);
+		text(content, FONT, 10, 24, 384, join(ticket.getEventDate(), ticket.getEventVenue()), 48);
+		int qrX = (PAGE_WIDTH - QR_SIZE) / 2;
+		content.append("q ").append(QR_SIZE).append(" 0 0 ").append(QR_SIZE).append(' ')
+				.append(qrX).append(" 148 cm /QR Do Q\n");
+		text(content, BOLD_FONT, 18, 24, 116, ticket.getAttendeeName(), 24);
+		text(content, FONT, 12, 24, 96, ticket.getTicketTypeName(), 40);
+		text(content, FONT, 10, 24, 76, ticket.getTicketNumber(), 48);
+		byte[] contentBytes = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+		beginObject(contents);
+		ascii("<< /Length " + contentBytes.length + " >>\nstream\n");
+		out.write(contentBytes);
+		ascii("\nendstream\n");
+		endObject();
+
+		beginObject(image);
+		writeImage(png);
+		endObject();
+		pages++;
+	}
+
+	/** Writes the page tree, cross-reference table and trailer. Does not close the underlying stream. */
+	void finish() throws IOException {
+		beginObject(PAGES);
+		ascii("<< /Type /Pages /Count " + pages + " /Kids [");
+		for (int i = 0; i < pages; i++) {
+			ascii((FIRST_PAGE + i * OBJECTS_PER_PAGE) + " 0 R ");
+		}
+		ascii("] >>\n");
+		endObject();
+
+		int size = FIRST_PAGE + pages * OBJECTS_PER_PAGE;
+		long xref = out.count;
+		ascii("xref\n0 " + size + "\n0000000000 65535 f \n");
+		for (int i = 1; i < size; i++) {
+			ascii(String.format("%010d 00000 n \n", offsets[i]));
+		}
+		ascii("trailer\n<< /Size " + size + " /Root " + CATALOG + " 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+		out.flush();
+	}
+
+	private void writeImage(byte[] png) throws IOException {
+		Png image = Png.parse(png);
+		String colorSpace;
+		int colors;
+		switch (image.colorType) {
+			case 0 -> {
+				colorSpace = "/DeviceGray";
+				colors = 1;
+			}
+			case 2 -> {
+				colorSpace = "/DeviceRGB";
+				colors = 3;
+			}
+			case 3 -> {
+				StringBuilder palette = new StringBuilder("[/Indexed /DeviceRGB ").append(image.paletteLength / 3 - 1).append(" <");
+				for (int i = 0; i < image.paletteLength; i++) {
+					palette.append(String.format("%02x", png[image.paletteOffset + i] & 0xFF));
+				}
+				colorSpace = palette.append(">]").toString();
+				colors = 1;
+			}
+			default -> throw new IllegalArgumentException("Unsupported PNG colour type " + image.colorType);
+		}
+		ascii("<< /Type /XObject /Subtype /Image /Width " + image.width + " /Height " + image.height
+				+ " /ColorSpace " + colorSpace + " /BitsPerComponent " + image.bitDepth
+				+ " /Filter /FlateDecode /DecodeParms << /Predictor 15 /Colors " + colors
+				+ " /BitsPerComponent " + image.bitDepth + " /Columns " + image.width + " >>"
+				+ " /Length " + image.dataLength + " >>\nstream\n");
+		// IDAT chunks, in order, form one zlib stream
+		int pos = Png.SIGNATURE_LENGTH;
+		while (pos + 8 <= png.length) {
+			int length = Png.readInt(png, pos);
+			if (Png.isType(png, pos + 4, "IDAT")) {
+				out.write(png, pos + 8, length);
+			}
+			pos += 12 + length;
+		}
+		ascii("\nendstream\n");
+	}
+
+	private void beginObject(int number) throws IOException {
+		if (number >= offsets.length) {
+			offsets = Arrays.copyOf(offsets, Math.max(number + 1, offsets.length * 2));
+		}
+		offsets[number] = out.count;
+		ascii(number + " 0 obj\n");
+	}
+
+	private void endObject() throws IOException {
+		ascii("endobj\n");
+	}
+
+	private void ascii(String s) throws IOException {
+		out.write(s.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	private static void text(StringBuilder content, int font, int size, int x, int y, String value, int maxChars) {
+		if (value == null || value.isBlank()) {
+			return;
+		}
+		String text = value.length() > maxChars ? value.substring(0, maxChars - 1) + '\u2026' : value;
+		content.append("BT /F").append(font == BOLD_FONT ? 2 : 1).append(' ').append(size).append(" Tf ")
+				.append(x).append(' ').append(y).append(" Td (");
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '(' || c == ')' || c == '\\') {
+				content.append('\\').append(c);
+			} else if (c == '\u2026') {
+				// WinAnsi ellipsis
+				content.append("\\205");
+			} else if (c < 0x20 || c > 0xFF) {
+				content.append('?');
+			} else {
+				content.append(c);
+			}
+		}
+		content.append(") Tj ET\n");
+	}
+
+	private static String join(String a, String b) {
+		if (a == null || a.isBlank()) {
+			return b;
+		}
+		return b == null || b.isBlank() ? a : a + " \u00b7 " + b;
+	}
+
+	/** Header fields of a PNG and where its palette and image data sit. */
+	private static final class Png {
+		static final int SIGNATURE_LENGTH = 8;
+
+		int width;
+		int height;
+		int bitDepth;
+		int colorType;
+		int paletteOffset;
+		int paletteLength;
+		int dataLength;
+
+		static Png parse(byte[] png) {
+			Png image = new Png();
+			int pos = SIGNATURE_LENGTH;
+			while (pos + 8 <= png.length) {
+				int length = readInt(png, pos);
+				int data = pos + 8;
+				if (isType(png, pos + 4, "IHDR")) {
+					image.width = readInt(png, data);
+					image.height = readInt(png, data + 4);
+					image.bitDepth = png[data + 8];
+					image.colorType = png[data + 9];
+					if (png[data + 12] != 0) {
+						throw new IllegalArgumentException("Interlaced PNGs cannot be embedded");
+					}
+				} else if (isType(png, pos + 4, "PLTE")) {
+					image.paletteOffset = data;
+					image.paletteLength = length;
+				} else if (isType(png, pos + 4, "IDAT")) {
+					image.dataLength += length;
+				} else if (isType(png, pos + 4, "IEND")) {
+					break;
+				}
+				pos = data + length + 4;
+			}
+			if (image.width == 0 || image.dataLength == 0) {
+				throw new IllegalArgumentException("Not a PNG image");
+			}
+			return image;
+		}
+
+		static int readInt(byte[] b, int pos) {
+			return ((b[pos] & 0xFF) << 24) | ((b[pos + 1] & 0xFF) << 16) | ((b[pos + 2] & 0xFF) << 8) | (b[pos + 3] & 0xFF);
+		}
+
+		static boolean isType(byte[] b, int pos, String type) {
+			for (int i = 0; i < 4; i++) {
+				if (b[pos + i] != type.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+		long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.exception.ResourceNotFoundException;
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.EventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+/**
+ * Running check-in totals per event, kept in memory and updated by every admission (database,
+ * gate and batch sync alike), streamed to door dashboards over SSE. An event's counters are seeded
+ * with one aggregation the first time it is touched; after that nothing reads the database.
+ *
+ * Dashboards are not pushed to on every scan: a publisher serialises each changed event once per
+ * interval and writes the same payload to all of its watchers. Every payload carries the event's
+ * sequence number as the SSE id, so a reconnecting client (Last-Event-ID) is only sent a snapshot
+ * when it missed something.
+ */
+@Service
+public class CheckInStatsService {
+	private static final Logger log = LoggerFactory.getLogger(CheckInStatsService.class);
+	/** Minutes of per-minute scan counts kept and reported. */
+	static final int MINUTES = 15;
+
+	private final MongoTemplate mongoTemplate;
+	private final EventRepository eventRepository;
+	private final ObjectMapper objectMapper;
+	private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+	private final Map<String, Set<SseEmitter>> watchers = new ConcurrentHashMap<>();
+
+	@Value("${app.checkin-stream.timeout-ms:1800000}")
+	private long emitterTimeoutMs;
+
+	public CheckInStatsService(MongoTemplate mongoTemplate, EventRepository eventRepository, ObjectMapper objectMapper,
+			MeterRegistry meterRegistry) {
+		this.mongoTemplate = mongoTemplate;
+		this.eventRepository = eventRepository;
+		this.objectMapper = objectMapper;
+		Gauge.builder("checkin.stream.watchers", watchers, w -> w.values().stream().mapToInt(Set::size).sum())
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Counts an admission. {@code persisted} says whether the ticket is already USED in the database,
+	 * in which case a first-time seed has counted it and it is not added again.
+	 */
+	public void record(Ticket ticket, boolean persisted) {
+		if (ticket == null || ticket.getEventId() == null) {
+			return;
+		}
+		boolean[] seededNow = new boolean[1];
+		Counters c = counters.computeIfAbsent(ticket.getEventId(), eventId -> {
+			seededNow[0] = true;
+			return seed(eventId);
+		});
+		if (seededNow[0] && persisted) {
+			return;
+		}
+		c.add(ticket.getTicketTypeName(), System.currentTimeMillis());
+	}
+
+	public Map<String, Object> snapshot(String eventId, String userId, boolean admin) {
+		checkAccess(eventId, userId, admin);
+		return counters(eventId).snapshot(eventId, System.currentTimeMillis());
+	}
+
+	/** Opens a stream of the event's totals; {@code lastEventId} is the sequence the client last saw, if any. */
+	public SseEmitter subscribe(String eventId, String userId, boolean admin, Long lastEventId) {
+		checkAccess(eventId, userId, admin);
+		Counters c = counters(eventId);
+		SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+		Set<SseEmitter> eventWatchers = watchers.computeIfAbsent(eventId, k -> new CopyOnWriteArraySet<>());
+		eventWatchers.add(emitter);
+		emitter.onCompletion(() -> eventWatchers.remove(emitter));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> eventWatchers.remove(emitter));
+		// A restart begins a new, higher sequence, so any mismatch means the client is behind
+		Map<String, Object> current = c.snapshot(eventId, System.currentTimeMillis());
+		if (lastEventId == null || lastEventId != (long) current.get("sequence")) {
+			send(eventWatchers, emitter, (long) current.get("sequence"), toJson(current));
+		}
+		return emitter;
+	}
+
+	@Scheduled(fixedDelayString = "${app.checkin-stream.publish-interval-ms:1000}")
+	public void publish() {
+		long now = System.currentTimeMillis();
+		watchers.forEach((eventId, eventWatchers) -> {
+			Counters c = counters.get(eventId);
+			if (c == null || eventWatchers.isEmpty() || !c.changedSincePublished()) {
+				return;
+			}
+			Map<String, Object> current = c.snapshot(eventId, now);
+			long sequence = (long) current.get("sequence");
+			c.published(sequence);
+			String json = toJson(current);
+			for (SseEmitter emitter : eventWatchers) {
+				send(eventWatchers, emitter, sequence, json);
+			}
+		});
+	}
+
+	// Keeps idle connections from being closed by proxies, and finds the ones that went away
+	@Scheduled(fixedDelayString = "${app.checkin-stream.heartbeat-interval-ms:15000}")
+	public void heartbeat() {
+		watchers.forEach((eventId, eventWatchers) -> {
+			for (SseEmitter emitter : eventWatchers) {
+				try {
+					emitter.send(SseEmitter.event().comment("keepalive"));
+				} catch (IOException | IllegalStateException e) {
+					eventWatchers.remove(emitter);
+				}
+			}
+		});
+	}
+
+	private void send(Set<SseEmitter> eventWatchers, SseEmitter emitter, long sequence, String json) {
+		try {
+			emitter.send(SseEmitter.event().id(String.valueOf(sequence)).name("checkins").data(json, MediaType.APPLICATION_JSON));
+		} catch (IOException | IllegalStateException e) {
+			// Client went away; the container completes the emitter
+			eventWatchers.remove(emitter);
+		}
+	}
+
+	private Counters counters(String eventId) {
+		return counters.computeIfAbsent(eventId, this::seed);
+	}
+
+	// Check-ins that land while this runs may be counted twice; it runs once per event per process
+	private Counters seed(String eventId) {
+		Aggregation byType = newAggregation(
+				match(Criteria.where("eventId").is(eventId).and("status").is(Ticket.TicketStatus.USED.name())),
+				group("ticketTypeName").count().as("count"));
+		Counters c = new Counters();
+		for (Document row : mongoTemplate.aggregate(byType, Ticket.class, Document.class).getMappedResults()) {
+			c.seed(row.getString("_id"), ((Number) row.get("count")).longValue());
+		}
+		return c;
+	}
+
+	private String toJson(Map<String, Object> snapshot) {
+		try {
+			return objectMapper.writeValueAsString(snapshot);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot serialise check-in totals", e);
+		}
+	}
+
+	private void checkAccess(String eventId, String userId, boolean admin) {
+		Event event = eventRepository.findById(eventId)
+				.orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+		if (!admin && !event.getOrganizerId().equals(userId)) {
+			throw new RuntimeException("Unauthorized to view check-ins for this event");
+		}
+	}
+
+	/** One event's totals. Check-in rates are low enough that a monitor per event is no contention. */
+	private static final class Counters {
+		private static final String UNTYPED = "Unspecified";
+
+		// Starts at the wall clock so sequences after a restart are above any from before
+		private long sequence = System.currentTimeMillis();
+		private volatile long publishedSequence = -1;
+		private long total;
+		private final Map<String, Long> byType = new TreeMap<>();
+		private final long[] minuteStamps = new long[MINUTES];
+		private final long[] minuteCounts = new long[MINUTES];
+
+		synchronized void seed(String ticketType, long count) {
+			byType.merge(ticketType != null ? ticketType : UNTYPED, count, Long::sum);
+			total += count;
+		}
+
+		synchronized void add(String ticketType, long nowMillis) {
+			byType.merge(ticketType != null ? ticketType : UNTYPED, 1L, Long::sum);
+			total++;
+			long minute = nowMillis / 60_000;
+			int slot = (int) (minute % MINUTES);
+			if (minuteStamps[slot] != minute) {
+				minuteStamps[slot] = minute;
+				minuteCounts[slot] = 0;
+			}
+			minuteCounts[slot]++;
+			sequence++;
+		}
+
+		synchronized boolean changedSincePublished() {
+			return sequence != publishedSequence;
+		}
+
+		void published(long sequence) {
+			publishedSequence = sequence;
+		}
+
+		synchronized Map<String, Object> snapshot(String eventId, long nowMillis) {
+			long minute = nowMillis / 60_000;
+			// Oldest first, ending with the minute in progress
+			long[] perMinute = new long[MINUTES];
+			for (int i = 0; i < MINUTES; i++) {
+				long m = minute - (MINUTES - 1 - i);
+				int slot = (int) (m % MINUTES);
+				perMinute[i] = minuteStamps[slot] == m ? minuteCounts[slot] : 0;
+			}
+			Map<String, Object> res = new LinkedHashMap<>();
+			res.put("eventId", eventId);
+			res.put("sequence", sequence);
+			res.put("checkedIn", total);
+			res.put("byTicketType", new LinkedHashMap<>(byType));
+			res.put("scansPerMinute", perMinute);
+			// The last complete minute; the current one is still filling
+			res.put("lastMinute", perMinute[MINUTES - 2]);
+			res.put("at", LocalDateTime.now());
+			return res;
+		}
+	}
+}
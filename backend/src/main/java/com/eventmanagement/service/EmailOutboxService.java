@@ -0,0 +1,222 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.OutboxMessage;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.OutboxMessageRepository;
+import com.eventmanagement.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent outbox for ticket emails. Purchases only insert one message per order; a scheduled
+ * dispatcher claims due messages in batches, sends each batch over one SMTP connection, and
+ * retries failures with exponential backoff.
+ */
+@Service
+public class EmailOutboxService {
+	private static final Logger log = LoggerFactory.getLogger(EmailOutboxService.class);
+
+	private final OutboxMessageRepository outboxRepository;
+	private final TicketRepository ticketRepository;
+	private final MailService mailService;
+	private final QrCodeService qrCodeService;
+	private final MongoTemplate mongoTemplate;
+	private final Counter sentCounter;
+	private final Counter retriedCounter;
+	private final Counter failedCounter;
+	private final AtomicLong pendingMessages = new AtomicLong();
+
+	@Value("${app.mail.outbox.batch-size:100}")
+	private int batchSize;
+
+	@Value("${app.mail.outbox.max-attempts:8}")
+	private int maxAttempts;
+
+	@Value("${app.mail.outbox.backoff-seconds:30}")
+	private long backoffSeconds;
+
+	@Value("${app.mail.outbox.lock-seconds:300}")
+	private long lockSeconds;
+
+	public EmailOutboxService(OutboxMessageRepository outboxRepository, TicketRepository ticketRepository,
+			MailService mailService, QrCodeService qrCodeService, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+		this.outboxRepository = outboxRepository;
+		this.ticketRepository = ticketRepository;
+		this.mailService = mailService;
+		this.qrCodeService = qrCodeService;
+		this.mongoTemplate = mongoTemplate;
+		this.sentCounter = meterRegistry.counter("mail.outbox.sent");
+		this.retriedCounter = meterRegistry.counter("mail.outbox.retried");
+		this.failedCounter = meterRegistry.counter("mail.outbox.failed");
+		Gauge.builder("mail.outbox.pending", pendingMessages, AtomicLong::get).register(meterRegistry);
+	}
+
+	/** Records the confirmation email for an order; sending happens later on the dispatcher. */
+	public void enqueueOrder(List<Ticket> tickets, String recipientName) {
+		if (tickets.isEmpty()) {
+			return;
+		}
+		Ticket first = tickets.get(0);
+		LocalDateTime now = LocalDateTime.now();
+		OutboxMessage message = new OutboxMessage();
+		message.setId(UUID.randomUUID().toString());
+		message.setOrderRef(first.getPaymentId() != null ? first.getPaymentId() : first.getId());
+		message.setRecipient(first.getAttendeeEmail());
+		message.setRecipientName(recipientName);
+		message.setEventName(first.getEventName());
+		message.setTicketIds(tickets.stream().map(Ticket::getId).collect(Collectors.toList()));
+		message.setStatus(OutboxMessage.OutboxStatus.PENDING);
+		message.setNextAttemptAt(now);
+		message.setCreatedAt(now);
+		try {
+			outboxRepository.insert(message);
+		} catch (DuplicateKeyException e) {
+			log.debug("Outbox message for order {} already exists", message.getOrderRef());
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:1000}")
+	public void dispatch() {
+		List<OutboxMessage> claimed;
+		do {
+			claimed = claimBatch();
+			if (!claimed.isEmpty()) {
+				sendClaimed(claimed);
+			}
+		} while (claimed.size() == batchSize);
+		pendingMessages.set(outboxRepository.countPendingMessages());
+	}
+
+	private List<OutboxMessage> claimBatch() {
+		LocalDateTime now = LocalDateTime.now();
+		List<String> ids = outboxRepository.findDueMessageIds(now, PageRequest.of(0, batchSize)).stream()
+				.map(OutboxMessage::getId)
+				.collect(Collectors.toList());
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		String claimId = UUID.randomUUID().toString();
+		// Re-check the due condition so two dispatchers never claim the same message
+		Query query = new Query(Criteria.where("id").in(ids).orOperator(
+				Criteria.where("status").is(OutboxMessage.OutboxStatus.PENDING).and("nextAttemptAt").lte(now),
+				Criteria.where("status").is(OutboxMessage.OutboxStatus.SENDING).and("lockedUntil").lt(now)));
+		Update update = new Update()
+				.set("status", OutboxMessage.OutboxStatus.SENDING)
+				.set("claimId", claimId)
+				.set("lockedUntil", now.plusSeconds(lockSeconds));
+		mongoTemplate.updateMulti(query, update, OutboxMessage.class);
+		return outboxRepository.findByClaimId(claimId);
+	}
+
+	private void sendClaimed(List<OutboxMessage> claimed) {
+		List<String> allTicketIds = claimed.stream()
+				.flatMap(m -> m.getTicketIds().stream())
+				.collect(Collectors.toList());
+		Map<String, Ticket> tickets = new LinkedHashMap<>();
+		ticketRepository.findAllById(allTicketIds).forEach(t -> tickets.put(t.getId(), t));
+
+		List<OutboxMessage> sending = new ArrayList<>();
+		List<MimeMessage> mimeMessages = new ArrayList<>();
+		for (OutboxMessage message : claimed) {
+			List<Ticket> orderTickets = message.getTicketIds().stream()
+					.map(tickets::get)
+					.filter(t -> t != null)
+					.collect(Collectors.toList());
+			try {
+				mimeMessages.add(build(message, orderTickets));
+				sending.add(message);
+			} catch (MessagingException | RuntimeException e) {
+				defer(message, e);
+			}
+		}
+
+		Map<Integer, Exception> failures = mailService.sendBatch(mimeMessages);
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < sending.size(); i++) {
+			OutboxMessage message = sending.get(i);
+			Exception failure = failures.get(i);
+			if (failure == null) {
+				mongoTemplate.updateFirst(new Query(Criteria.where("id").is(message.getId())),
+						new Update().set("status", OutboxMessage.OutboxStatus.SENT)
+								.set("sentAt", now)
+								.inc("attempts", 1)
+								.unset("lockedUntil"),
+						OutboxMessage.class);
+				sentCounter.increment();
+			} else {
+				defer(message, failure);
+			}
+		}
+	}
+
+	private void defer(OutboxMessage message, Exception error) {
+		int attempts = message.getAttempts() + 1;
+		Update update = new Update()
+				.set("attempts", attempts)
+				.set("lastError", String.valueOf(error.getMessage()))
+				.unset("lockedUntil");
+		if (attempts >= maxAttempts) {
+			update.set("status", OutboxMessage.OutboxStatus.FAILED);
+			failedCounter.increment();
+			log.error("Giving up on email for order {} after {} attempts", message.getOrderRef(), attempts, error);
+		} else {
+			long delay = backoffSeconds << Math.min(Math.max(attempts - 1, 0), 10);
+			update.set("status", OutboxMessage.OutboxStatus.PENDING)
+					.set("nextAttemptAt", LocalDateTime.now().plusSeconds(delay));
+			retriedCounter.increment();
+			log.warn("Email for order {} failed (attempt {}), retrying in {}s", message.getOrderRef(), attempts, delay);
+		}
+		mongoTemplate.updateFirst(new Query(Criteria.where("id").is(message.getId())), update, OutboxMessage.class);
+	}
+
+	private MimeMessage build(OutboxMessage message, List<Ticket> tickets) throws MessagingException {
+		StringBuilder html = new StringBuilder();
+		html.append("<h2>").append(HtmlUtils.htmlEscape(String.valueOf(message.getEventName()))).append("</h2>");
+		if (message.getRecipientName() != null) {
+			html.append("<p>Hi ").append(HtmlUtils.htmlEscape(message.getRecipientName())).append(", here are your tickets.</p>");
+		}
+		Map<String, byte[]> images = new LinkedHashMap<>();
+		for (Ticket t : tickets) {
+			String cid = "qr-" + t.getId();
+			html.append("<div style=\"margin-bottom:24px;\">")
+					.append("<p>Ticket Number: ").append(HtmlUtils.htmlEscape(t.getTicketNumber())).append("</p>")
+					.append("<p>Type: ").append(HtmlUtils.htmlEscape(String.valueOf(t.getTicketTypeName()))).append("</p>")
+					.append("<p>Venue: ").append(HtmlUtils.htmlEscape(String.valueOf(t.getEventVenue()))).append("</p>");
+			Optional<QrCodeService.Image> qr = t.getQrImageRef() != null ? qrCodeService.image(t.getQrImageRef()) : Optional.empty();
+			if (qr.isPresent()) {
+				images.put(cid, qr.get().png());
+				html.append("<img alt=\"QR\" src=\"cid:").append(cid).append("\" style=\"max-width:240px;border-radius:8px;\" />");
+			}
+			html.append("</div>");
+		}
+		String subject = tickets.size() == 1
+				? "Your Ticket - " + message.getEventName()
+				: "Your " + tickets.size() + " Tickets - " + message.getEventName();
+		return mailService.buildHtml(message.getRecipient(), subject, html.toString(), images);
+	}
+}
@@ -0,0 +1,258 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.EventCard;
+import com.eventmanagement.model.Event;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the public catalog: one entry per event plus the listing pages
+ * (published, upcoming, featured). Both are bounded LRUs whose entries also expire after a TTL.
+ *
+ * Writers report what an event looked like before and after a change. The event's own entry is
+ * always dropped; a listing the event stays in only loses the pages that show it, while a listing
+ * it joins or leaves is cleared, because every one of its pages carries the total and may shift.
+ * A change to the date listings are ordered by moves the event between pages, so it clears every
+ * listing the event is in as well.
+ * Seat counts moved by sales are not reported and show up once an entry expires; checkout always
+ * re-checks availability against the database.
+ */
+@Service
+public class EventCatalogCache {
+	public enum Listing { PUBLISHED, UPCOMING, FEATURED }
+
+	private record PageKey(Listing listing, int page, int size, String sort) {}
+
+	private final boolean enabled;
+	private final Region<String, Event> events;
+	private final Region<PageKey, Object> pages;
+
+	public EventCatalogCache(MeterRegistry meterRegistry,
+			@Value("${app.event-cache.enabled:true}") boolean enabled,
+			@Value("${app.event-cache.max-events:10000}") int maxEvents,
+			@Value("${app.event-cache.max-pages:1000}") int maxPages,
+			@Value("${app.event-cache.event-ttl-seconds:30}") long eventTtlSeconds,
+			@Value("${app.event-cache.page-ttl-seconds:30}") long pageTtlSeconds) {
+		this.enabled = enabled;
+		this.events = new Region<>("events", maxEvents, eventTtlSeconds, meterRegistry);
+		this.pages = new Region<>("pages", maxPages, pageTtlSeconds, meterRegistry);
+	}
+
+	/** The listings an event belongs to in this state; misses the upcoming cut-off moving, which the TTL covers. */
+	public static Set<Listing> listings(Event event) {
+		Set<Listing> res = EnumSet.noneOf(Listing.class);
+		if (event == null || event.getStatus() != Event.EventStatus.PUBLISHED || !event.isPublished()) {
+			return res;
+		}
+		res.add(Listing.PUBLISHED);
+		if (event.getEventDate() != null && !event.getEventDate().isBefore(LocalDateTime.now())) {
+			res.add(Listing.UPCOMING);
+		}
+		if (event.isFeatured()) {
+			res.add(Listing.FEATURED);
+		}
+		return res;
+	}
+
+	public Optional<Event> event(String eventId, Supplier<Optional<Event>> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		Event cached = events.get(eventId);
+		if (cached != null) {
+			return Optional.of(cached);
+		}
+		long generation = events.generation();
+		Optional<Event> loaded = loader.get();
+		// Unknown ids are not remembered; a new event is visible as soon as it is saved
+		loaded.ifPresent(event -> events.putUnlessInvalidated(eventId, event, generation));
+		return loaded;
+	}
+
+	public Page<EventCard> page(Listing listing, Pageable pageable, Supplier<Page<EventCard>> loader) {
+		return cachedPage(new PageKey(listing, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString()), loader);
+	}
+
+	public List<EventCard> featured(Supplier<List<EventCard>> loader) {
+		return cachedPage(new PageKey(Listing.FEATURED, 0, 0, ""), loader);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T cachedPage(PageKey key, Supplier<T> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		Object cached = pages.get(key);
+		if (cached != null) {
+			return (T) cached;
+		}
+		long generation = pages.generation();
+		T loaded = loader.get();
+		pages.putUnlessInvalidated(key, loaded, generation);
+		return loaded;
+	}
+
+	/** Drops what a change to one event makes stale, for a change that kept its date. */
+	public void invalidate(String eventId, Set<Listing> before, Set<Listing> after) {
+		invalidate(eventId, before, after, false);
+	}
+
+	/**
+	 * Drops what a change to one event makes stale.
+	 *
+	 * @param before listings the event was in before the change, see {@link #listings(Event)}
+	 * @param after listings it is in now; empty once it is deleted
+	 * @param moved whether the change touched the event date the listings are ordered by
+	 */
+	public void invalidate(String eventId, Set<Listing> before, Set<Listing> after, boolean moved) {
+		events.remove(eventId);
+		Set<Listing> cleared = EnumSet.noneOf(Listing.class);
+		Set<Listing> showing = EnumSet.noneOf(Listing.class);
+		for (Listing listing : Listing.values()) {
+			if (before.contains(listing) != after.contains(listing)
+					|| (moved && (before.contains(listing) || after.contains(listing)))) {
+				cleared.add(listing);
+			} else if (before.contains(listing)) {
+				showing.add(listing);
+			}
+		}
+		if (cleared.isEmpty() && showing.isEmpty()) {
+			return;
+		}
+		pages.removeIf((key, value) -> cleared.contains(key.listing())
+				|| (showing.contains(key.listing()) && shows(value, eventId)));
+	}
+
+	public Map<String, Object> stats() {
+		Map<String, Object> res = new LinkedHashMap<>();
+		res.put("enabled", enabled);
+		res.put("events", events.stats());
+		res.put("pages", pages.stats());
+		return res;
+	}
+
+	private static boolean shows(Object page, String eventId) {
+		Iterable<?> content = page instanceof Page<?> p ? p.getContent() : (List<?>) page;
+		for (Object o : content) {
+			if (o instanceof EventCard card && eventId.equals(card.getId())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A size-bounded, access-ordered map whose entries expire. Removals bump a generation so that a
+	 * load which started before an invalidation cannot put its now stale result back afterwards.
+	 */
+	private static final class Region<K, V> {
+		private record Entry<V>(V value, long expiresAtNanos) {}
+
+		private final int maxSize;
+		private final long ttlNanos;
+		private final LinkedHashMap<K, Entry<V>> map;
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong misses = new AtomicLong();
+		private final AtomicLong evictions = new AtomicLong();
+		private final AtomicLong expirations = new AtomicLong();
+		private final AtomicLong invalidations = new AtomicLong();
+		private long generation;
+
+		Region(String name, int maxSize, long ttlSeconds, MeterRegistry meterRegistry) {
+			this.maxSize = maxSize;
+			this.ttlNanos = ttlSeconds * 1_000_000_000L;
+			this.map = new LinkedHashMap<>(256, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+					if (size() > Region.this.maxSize) {
+						evictions.incrementAndGet();
+						return true;
+					}
+					return false;
+				}
+			};
+			FunctionCounter.builder("event.cache.hits", hits, AtomicLong::get).tag("cache", name).register(meterRegistry);
+			FunctionCounter.builder("event.cache.misses", misses, AtomicLong::get).tag("cache", name).register(meterRegistry);
+			FunctionCounter.builder("event.cache.evictions", evictions, AtomicLong::get).tag("cache", name).register(meterRegistry);
+			FunctionCounter.builder("event.cache.expirations", expirations, AtomicLong::get).tag("cache", name).register(meterRegistry);
+			FunctionCounter.builder("event.cache.invalidations", invalidations, AtomicLong::get).tag("cache", name).register(meterRegistry);
+			Gauge.builder("event.cache.size", this, Region::size).tag("cache", name).register(meterRegistry);
+		}
+
+		synchronized V get(K key) {
+			Entry<V> entry = map.get(key);
+			if (entry != null && entry.expiresAtNanos() - System.nanoTime() > 0) {
+				hits.incrementAndGet();
+				return entry.value();
+			}
+			if (entry != null) {
+				map.remove(key);
+				expirations.incrementAndGet();
+			}
+			misses.incrementAndGet();
+			return null;
+		}
+
+		synchronized long generation() {
+			return generation;
+		}
+
+		synchronized void putUnlessInvalidated(K key, V value, long loadedAt) {
+			if (generation == loadedAt && value != null) {
+				map.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+			}
+		}
+
+		synchronized void remove(K key) {
+			generation++;
+			if (map.remove(key) != null) {
+				invalidations.incrementAndGet();
+			}
+		}
+
+		synchronized void removeIf(BiPredicate<K, V> stale) {
+			generation++;
+			Predicate<Map.Entry<K, Entry<V>>> matches = e -> stale.test(e.getKey(), e.getValue().value());
+			int before = map.size();
+			map.entrySet().removeIf(matches);
+			invalidations.addAndGet(before - map.size());
+		}
+
+		synchronized int size() {
+			return map.size();
+		}
+
+		synchronized Map<String, Object> stats() {
+			long h = hits.get();
+			long m = misses.get();
+			Map<String, Object> res = new LinkedHashMap<>();
+			res.put("size", map.size());
+			res.put("maxSize", maxSize);
+			res.put("ttlSeconds", ttlNanos / 1_000_000_000L);
+			res.put("hits", h);
+			res.put("misses", m);
+			res.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+			res.put("evictions", evictions.get());
+			res.put("expirations", expirations.get());
+			res.put("invalidations", invalidations.get());
+			return res;
+		}
+	}
+}
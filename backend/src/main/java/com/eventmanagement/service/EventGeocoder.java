@@ -0,0 +1,178 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.util.IdRangeWalk;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Places events on the map from their address using a gazetteer loaded from a local file, so
+ * nothing is sent to an outside geocoding service. Matches by postal code and country first, then
+ * city with state and country, then city with country, then city alone; a name that matches
+ * different places at one of those levels is skipped rather than guessed. After startup it also
+ * locates events saved before they carried a location.
+ */
+@Component
+public class EventGeocoder {
+	private static final Logger log = LoggerFactory.getLogger(EventGeocoder.class);
+	private static final String HEADER = "country,state,city,postal_code,latitude,longitude";
+
+	private final MongoTemplate mongoTemplate;
+	private final Map<String, GeoJsonPoint> places = new HashMap<>();
+	private final Set<String> ambiguous = new HashSet<>();
+
+	@Value("${app.geocoding.backfill.enabled:true}")
+	private boolean backfillEnabled;
+
+	@Value("${app.geocoding.backfill.batch-size:500}")
+	private int batchSize;
+
+	public EventGeocoder(MongoTemplate mongoTemplate,
+			@Value("${app.geocoding.gazetteer:classpath:gazetteer/places.csv}") Resource gazetteer) {
+		this.mongoTemplate = mongoTemplate;
+		load(gazetteer);
+	}
+
+	public Optional<GeoJsonPoint> locate(String postalCode, String city, String state, String country) {
+		for (String key : new String[] {
+				key("postal", postalCode, country),
+				key("city", city, state, country),
+				key("city", city, country),
+				key("city", city)}) {
+			if (key != null && !ambiguous.contains(key) && places.containsKey(key)) {
+				return Optional.of(places.get(key));
+			}
+		}
+		return Optional.empty();
+	}
+
+	public Optional<GeoJsonPoint> locate(Event event) {
+		return locate(event.getPostalCode(), event.getCity(), event.getState(), event.getCountry());
+	}
+
+	public int size() {
+		return places.size();
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		if (!backfillEnabled) {
+			return;
+		}
+		String collection = mongoTemplate.getCollectionName(Event.class);
+		AtomicLong located = new AtomicLong();
+		AtomicLong unknown = new AtomicLong();
+		try {
+			IdRangeWalk.walk(mongoTemplate, collection, Criteria.where("location").exists(false).and("city").exists(true),
+					batchSize, batch -> {
+						BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+						int updates = 0;
+						for (Document doc : batch) {
+							Optional<GeoJsonPoint> point = locate(doc.getString("postalCode"), doc.getString("city"),
+									doc.getString("state"), doc.getString("country"));
+							if (point.isPresent()) {
+								bulk.updateOne(new Query(Criteria.where("_id").is(doc.get("_id"))), new Update().set("location", point.get()));
+								updates++;
+							} else {
+								unknown.incrementAndGet();
+							}
+						}
+						if (updates > 0) {
+							bulk.execute();
+							located.addAndGet(updates);
+						}
+					}, "postalCode", "city", "state", "country");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (located.get() + unknown.get() > 0) {
+			// Unknown addresses are looked up again on the next startup, in case the gazetteer has grown
+			log.info("Geocoding: located {} events, {} addresses not in the gazetteer", located, unknown);
+		}
+	}
+
+	private void load(Resource gazetteer) {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(gazetteer.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			int number = 0;
+			while ((line = reader.readLine()) != null) {
+				number++;
+				if (line.isBlank() || line.startsWith("#") || line.equals(HEADER)) {
+					continue;
+				}
+				String[] cols = line.split(",", -1);
+				if (cols.length != 6) {
+					throw new IllegalStateException("Gazetteer line " + number + ": expected 6 columns, got " + cols.length);
+				}
+				GeoJsonPoint point;
+				try {
+					double lat = Double.parseDouble(cols[4].trim());
+					double lng = Double.parseDouble(cols[5].trim());
+					if (Math.abs(lat) > 90 || Math.abs(lng) > 180) {
+						throw new NumberFormatException("out of range");
+					}
+					point = new GeoJsonPoint(lng, lat);
+				} catch (NumberFormatException e) {
+					throw new IllegalStateException("Gazetteer line " + number + ": bad coordinates", e);
+				}
+				put(key("postal", cols[3], cols[0]), point);
+				put(key("city", cols[2], cols[1], cols[0]), point);
+				put(key("city", cols[2], cols[0]), point);
+				put(key("city", cols[2]), point);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read gazetteer " + gazetteer, e);
+		}
+	}
+
+	private void put(String key, GeoJsonPoint point) {
+		if (key == null) {
+			return;
+		}
+		GeoJsonPoint existing = places.putIfAbsent(key, point);
+		if (existing != null && !existing.equals(point)) {
+			ambiguous.add(key);
+		}
+	}
+
+	// Case, accent and spacing-insensitive; null when any part is missing, so that level is skipped
+	private static String key(String level, String... parts) {
+		StringBuilder res = new StringBuilder(level);
+		for (String part : parts) {
+			if (part == null || part.isBlank()) {
+				return null;
+			}
+			String folded = Normalizer.normalize(part, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+			res.append('|').append(folded.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT));
+		}
+		return res.toString();
+	}
+}
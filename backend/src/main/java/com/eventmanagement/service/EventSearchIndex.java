@@ -0,0 +1,622 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.SearchSuggestion;
+import com.eventmanagement.model.Event;
+import com.eventmanagement.util.IdRangeWalk;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over published events for catalog search and typeahead. Name, tags,
+ * city, venue, organizer and description are indexed with per-field weights and ranked with BM25.
+ * The last word of a query also matches as a prefix, and a word with no exact match falls back to
+ * terms one or two edits away; every word has to match somewhere for an event to be returned.
+ *
+ * EventService keeps it current on each write. It is rebuilt from Mongo after startup, reading
+ * in {@code _id} order and analysing batches on a small pool; until a rebuild has read every batch
+ * {@link #isReady} is false and callers search Mongo instead. A failed rebuild is retried a few times
+ * and then left unready. Writes made during the rebuild win over what it read.
+ *
+ * Only writes through this node's EventService reach the index. With several instances, each one
+ * misses the others' writes and serves stale results for those events until it is restarted.
+ */
+@Service
+public class EventSearchIndex {
+	private static final Logger log = LoggerFactory.getLogger(EventSearchIndex.class);
+
+	public static final int MAX_RESULTS = 1000;
+	static final int MAX_QUERY_TERMS = 8;
+
+	// BM25 term-frequency saturation and length normalisation
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	private static final float PREFIX_WEIGHT = 0.7f;
+	private static final float FUZZY_WEIGHT = 0.5f;
+	private static final int MIN_PREFIX = 2;
+	private static final int MIN_FUZZY = 4;
+	private static final int MAX_EXPANSIONS = 30;
+	private static final int REBUILD_ATTEMPTS = 3;
+
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final Set<String> STOPWORDS = Set.of("a", "an", "and", "at", "by", "for", "in", "of", "on", "or", "the", "to", "with");
+
+	enum Field {
+		NAME(3f), TAGS(2f), CITY(1.5f), VENUE(1.5f), ORGANIZER(1.5f), DESCRIPTION(1f);
+
+		final float weight;
+
+		Field(float weight) {
+			this.weight = weight;
+		}
+	}
+
+	/** One page of matches, best first, and how many matched in all. */
+	public record Hits(List<String> ids, long total) {}
+
+	// What the index keeps per event: filter values, the typeahead label, and its postings for removal
+	private record Doc(String id, String name, String category, String city, LocalDateTime eventDate,
+			float length, Postings[] postings) {}
+
+	// An analysed event, ready to be added; built outside the lock
+	private record Entry(Event event, Map<String, Float> freqs, float length) {}
+
+	private record Expansion(Postings postings, float weight) {}
+
+	private final MongoTemplate mongoTemplate;
+	private final boolean enabled;
+	private final int rebuildThreads;
+	private final int rebuildBatchSize;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final TreeMap<String, Postings> terms = new TreeMap<>();
+	private final Map<String, Integer> slots = new HashMap<>();
+	private final List<Integer> freeSlots = new ArrayList<>();
+	private Doc[] docs = new Doc[1024];
+	private int slotCount;
+	private double totalLength;
+	// Ids written while a rebuild runs; the rebuild skips them, since what it read may be older
+	private Set<String> changedDuringRebuild;
+	private volatile boolean ready;
+
+	@Value("${app.search.rebuild-retry-ms:30000}")
+	private long rebuildRetryMs;
+
+	// Accumulators for searches in flight; as many as have ever run at once, each reused rather than reallocated
+	private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+	public EventSearchIndex(MongoTemplate mongoTemplate,
+			@Value("${app.search.enabled:true}") boolean enabled,
+			@Value("${app.search.rebuild-threads:0}") int rebuildThreads,
+			@Value("${app.search.rebuild-batch-size:1000}") int rebuildBatchSize) {
+		this.mongoTemplate = mongoTemplate;
+		this.enabled = enabled;
+		this.rebuildThreads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+		this.rebuildBatchSize = rebuildBatchSize;
+	}
+
+	/** False until the startup rebuild has finished, and always when the index is disabled. */
+	public boolean isReady() {
+		return ready;
+	}
+
+	public static boolean searchable(Event event) {
+		return event.getStatus() == Event.EventStatus.PUBLISHED && event.isPublished();
+	}
+
+	/** Adds or replaces the event, or removes it if it is no longer published. */
+	public void index(Event event) {
+		if (!enabled) {
+			return;
+		}
+		Entry entry = searchable(event) ? analyze(event) : null;
+		lock.writeLock().lock();
+		try {
+			if (changedDuringRebuild != null) {
+				changedDuringRebuild.add(event.getId());
+			}
+			delete(event.getId());
+			if (entry != null) {
+				add(entry);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(String eventId) {
+		if (!enabled) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if (changedDuringRebuild != null) {
+				changedDuringRebuild.add(eventId);
+			}
+			delete(eventId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Events matching every word of {@code text}, best first, optionally narrowed to a category, a
+	 * city (both case-insensitive) and an event date range.
+	 *
+	 * @throws IllegalArgumentException when the page reaches past the first {@link #MAX_RESULTS} matches
+	 */
+	public Hits search(String text, String category, String city, LocalDateTime from, LocalDateTime to,
+			int offset, int limit) {
+		if (offset + limit > MAX_RESULTS) {
+			throw new IllegalArgumentException("Search results are limited to the first " + MAX_RESULTS + " matches");
+		}
+		List<String> ids = new ArrayList<>();
+		long total = top(text, category, city, from, to, offset, limit, doc -> ids.add(doc.id()));
+		return new Hits(ids, total);
+	}
+
+	/** Typeahead: the best few events for what has been typed so far. */
+	public List<SearchSuggestion> suggest(String text, int limit) {
+		List<SearchSuggestion> res = new ArrayList<>();
+		top(text, null, null, null, null, 0, Math.min(limit, MAX_RESULTS),
+				doc -> res.add(new SearchSuggestion(doc.id(), doc.name(), doc.city(), doc.eventDate())));
+		return res;
+	}
+
+	public Map<String, Object> stats() {
+		lock.readLock().lock();
+		try {
+			Map<String, Object> res = new LinkedHashMap<>();
+			res.put("ready", ready);
+			res.put("events", slots.size());
+			res.put("terms", terms.size());
+			return res;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!enabled) {
+			return;
+		}
+		for (int attempt = 1; attempt <= REBUILD_ATTEMPTS && !Thread.currentThread().isInterrupted(); attempt++) {
+			if (build()) {
+				return;
+			}
+			log.warn("Search index rebuild attempt {} of {} did not complete", attempt, REBUILD_ATTEMPTS);
+			if (attempt < REBUILD_ATTEMPTS) {
+				try {
+					Thread.sleep(rebuildRetryMs);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		log.error("Search index was not rebuilt; searches keep going to Mongo until the next restart");
+	}
+
+	// One pass over the published events; the index only becomes ready if every batch made it in
+	private boolean build() {
+		long start = System.currentTimeMillis();
+		lock.writeLock().lock();
+		try {
+			ready = false;
+			terms.clear();
+			slots.clear();
+			freeSlots.clear();
+			docs = new Doc[1024];
+			slotCount = 0;
+			totalLength = 0;
+			changedDuringRebuild = new HashSet<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		AtomicInteger threadIds = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads, r -> {
+			Thread t = new Thread(r, "search-index-" + threadIds.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		// Bounds how far reading runs ahead of analysis
+		Semaphore inFlight = new Semaphore(rebuildThreads * 2);
+		AtomicBoolean complete = new AtomicBoolean(true);
+		try {
+			IdRangeWalk.walk(mongoTemplate, mongoTemplate.getCollectionName(Event.class),
+					Criteria.where("status").is(Event.EventStatus.PUBLISHED.name()).and("isPublished").is(true),
+					rebuildBatchSize, batch -> index(batch, pool, inFlight, complete),
+					"name", "description", "tags", "city", "venue", "organizerName", "category", "eventDate", "status",
+					"isPublished");
+		} catch (InterruptedException e) {
+			complete.set(false);
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			complete.set(false);
+			log.warn("Search index rebuild stopped reading events", e);
+		} finally {
+			pool.shutdown();
+			try {
+				if (!pool.awaitTermination(1, TimeUnit.HOURS)) {
+					complete.set(false);
+				}
+			} catch (InterruptedException e) {
+				complete.set(false);
+				Thread.currentThread().interrupt();
+			}
+		}
+		lock.writeLock().lock();
+		try {
+			changedDuringRebuild = null;
+			if (!complete.get()) {
+				return false;
+			}
+			ready = true;
+			log.info("Search index: {} events, {} terms, built in {}ms", slots.size(), terms.size(),
+					System.currentTimeMillis() - start);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Analyses one batch on the pool and adds it under the write lock
+	private void index(List<Document> work, ExecutorService pool, Semaphore inFlight, AtomicBoolean complete)
+			throws InterruptedException {
+		inFlight.acquire();
+		pool.execute(() -> {
+			try {
+				List<Entry> entries = new ArrayList<>(work.size());
+				for (Document doc : work) {
+					entries.add(analyze(mongoTemplate.getConverter().read(Event.class, doc)));
+				}
+				lock.writeLock().lock();
+				try {
+					for (Entry entry : entries) {
+						if (!changedDuringRebuild.contains(entry.event().getId())) {
+							add(entry);
+						}
+					}
+				} finally {
+					lock.writeLock().unlock();
+				}
+			} catch (RuntimeException e) {
+				complete.set(false);
+				log.warn("Search index batch of {} failed: {}", work.size(), e.getMessage());
+			} finally {
+				inFlight.release();
+			}
+		});
+	}
+
+	// Ranks the matches and hands the ones on the requested page to sink, best first; returns the total
+	private long top(String text, String category, String city, LocalDateTime from, LocalDateTime to,
+			int offset, int limit, Consumer<Doc> sink) {
+		List<String> words = tokens(text == null ? "" : text);
+		if (words.isEmpty() || limit <= 0) {
+			return 0;
+		}
+		if (words.size() > MAX_QUERY_TERMS) {
+			words = words.subList(0, MAX_QUERY_TERMS);
+		}
+		lock.readLock().lock();
+		try {
+			List<List<Expansion>> expansions = new ArrayList<>(words.size());
+			for (int i = 0; i < words.size(); i++) {
+				List<Expansion> expanded = expand(words.get(i), i == words.size() - 1);
+				if (expanded.isEmpty()) {
+					return 0;
+				}
+				expansions.add(expanded);
+			}
+			// Rarest word first, so the candidate set starts small and later words only narrow it
+			expansions.sort(Comparator.comparingLong(e -> e.stream().mapToLong(x -> x.postings().size).sum()));
+
+			Scratch pooled = scratchPool.poll();
+			Scratch s = (pooled != null ? pooled : new Scratch()).fit(slotCount);
+			int touched = 0;
+			float avgLength = slots.isEmpty() ? 1f : (float) (totalLength / slots.size());
+			try {
+				for (int t = 0; t < expansions.size(); t++) {
+					for (Expansion expansion : expansions.get(t)) {
+						Postings p = expansion.postings();
+						float idf = (float) Math.log(1 + (slots.size() - p.size + 0.5) / (p.size + 0.5));
+						for (int i = 0; i < p.size; i++) {
+							int slot = p.slots[i];
+							// Only events that matched every earlier word; the first expansion that hits a word wins
+							if (s.matched[slot] != t) {
+								continue;
+							}
+							if (t == 0) {
+								if (touched == s.touched.length) {
+									s.touched = Arrays.copyOf(s.touched, Math.max(1024, touched * 2));
+								}
+								s.touched[touched++] = slot;
+							}
+							s.matched[slot] = (byte) (t + 1);
+							float tf = p.freqs[i];
+							float norm = K1 * (1 - B + B * docs[slot].length() / avgLength);
+							s.scores[slot] += expansion.weight() * idf * tf * (K1 + 1) / (tf + norm);
+						}
+					}
+				}
+				long total = 0;
+				int keep = offset + limit;
+				PriorityQueue<Integer> best = new PriorityQueue<>(keep + 1, Comparator.comparingDouble(slot -> s.scores[slot]));
+				for (int i = 0; i < touched; i++) {
+					int slot = s.touched[i];
+					if (s.matched[slot] != expansions.size() || !accepts(docs[slot], category, city, from, to)) {
+						continue;
+					}
+					total++;
+					if (best.size() < keep) {
+						best.add(slot);
+					} else if (s.scores[slot] > s.scores[best.peek()]) {
+						best.poll();
+						best.add(slot);
+					}
+				}
+				Integer[] ranked = best.toArray(new Integer[0]);
+				Arrays.sort(ranked, Comparator.comparingDouble((Integer slot) -> s.scores[slot]).reversed());
+				for (int i = offset; i < ranked.length; i++) {
+					sink.accept(docs[ranked[i]]);
+				}
+				return total;
+			} finally {
+				for (int i = 0; i < touched; i++) {
+					s.matched[s.touched[i]] = 0;
+					s.scores[s.touched[i]] = 0;
+				}
+				scratchPool.offer(s);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// The postings a query word matches: itself, completions if it is the last word, else near misses
+	private List<Expansion> expand(String word, boolean last) {
+		List<Expansion> res = new ArrayList<>();
+		Postings exact = terms.get(word);
+		if (exact != null) {
+			res.add(new Expansion(exact, 1f));
+		}
+		if (last && word.length() >= MIN_PREFIX) {
+			terms.subMap(word, false, word + Character.MAX_VALUE, false).values().stream()
+					.sorted(Comparator.comparingInt((Postings p) -> p.size).reversed())
+					.limit(MAX_EXPANSIONS)
+					.forEach(p -> res.add(new Expansion(p, PREFIX_WEIGHT)));
+		}
+		if (res.isEmpty() && word.length() >= MIN_FUZZY) {
+			int maxEdits = word.length() >= 8 ? 2 : 1;
+			// Typos in the first letter are rare enough that only terms sharing it are considered
+			String first = word.substring(0, 1);
+			List<Map.Entry<Postings, Integer>> near = new ArrayList<>();
+			for (Map.Entry<String, Postings> term : terms.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+				int edits = distance(word, term.getKey(), maxEdits);
+				if (edits <= maxEdits) {
+					near.add(Map.entry(term.getValue(), edits));
+				}
+			}
+			near.stream()
+					.sorted(Comparator.comparingInt((Map.Entry<Postings, Integer> e) -> e.getValue())
+							.thenComparing(e -> -e.getKey().size))
+					.limit(MAX_EXPANSIONS)
+					.forEach(e -> res.add(new Expansion(e.getKey(), FUZZY_WEIGHT / e.getValue())));
+		}
+		return res;
+	}
+
+	private static boolean accepts(Doc doc, String category, String city, LocalDateTime from, LocalDateTime to) {
+		if (category != null && !category.equalsIgnoreCase(doc.category())) {
+			return false;
+		}
+		if (city != null && !city.equalsIgnoreCase(doc.city())) {
+			return false;
+		}
+		if ((from != null || to != null) && doc.eventDate() == null) {
+			return false;
+		}
+		return (from == null || !doc.eventDate().isBefore(from)) && (to == null || !doc.eventDate().isAfter(to));
+	}
+
+	private static Entry analyze(Event event) {
+		Map<String, Float> freqs = new HashMap<>();
+		float length = 0;
+		length += analyze(event.getName(), Field.NAME, freqs);
+		if (event.getTags() != null) {
+			length += analyze(String.join(" ", event.getTags()), Field.TAGS, freqs);
+		}
+		length += analyze(event.getCity(), Field.CITY, freqs);
+		length += analyze(event.getVenue(), Field.VENUE, freqs);
+		length += analyze(event.getOrganizerName(), Field.ORGANIZER, freqs);
+		length += analyze(event.getDescription(), Field.DESCRIPTION, freqs);
+		return new Entry(event, freqs, length);
+	}
+
+	// Adds the field's weighted term counts and returns its weighted length
+	private static float analyze(String text, Field field, Map<String, Float> freqs) {
+		if (text == null) {
+			return 0;
+		}
+		List<String> words = tokens(text);
+		for (String word : words) {
+			freqs.merge(word, field.weight, Float::sum);
+		}
+		return words.size() * field.weight;
+	}
+
+	/** Lower-cased, accent-free words, without stopwords. */
+	static List<String> tokens(String text) {
+		String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+		List<String> res = new ArrayList<>();
+		for (String word : SEPARATORS.split(folded)) {
+			if (!word.isEmpty() && word.length() <= 40 && !STOPWORDS.contains(word)) {
+				res.add(word);
+			}
+		}
+		return res;
+	}
+
+	/** Edit distance counting adjacent transpositions as one edit; anything over max is reported as max + 1. */
+	static int distance(String a, String b, int max) {
+		if (Math.abs(a.length() - b.length()) > max) {
+			return max + 1;
+		}
+		int[] before = new int[b.length() + 1];
+		int[] prev = new int[b.length() + 1];
+		int[] cur = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			prev[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			cur[0] = i;
+			int rowMin = i;
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				cur[j] = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+				if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+					cur[j] = Math.min(cur[j], before[j - 2] + 1);
+				}
+				rowMin = Math.min(rowMin, cur[j]);
+			}
+			if (rowMin > max) {
+				return max + 1;
+			}
+			int[] recycled = before;
+			before = prev;
+			prev = cur;
+			cur = recycled;
+		}
+		return Math.min(prev[b.length()], max + 1);
+	}
+
+	// Callers hold the write lock
+	private void add(Entry entry) {
+		Event event = entry.event();
+		int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.remove(freeSlots.size() - 1);
+		if (slot >= docs.length) {
+			docs = Arrays.copyOf(docs, docs.length * 2);
+		}
+		Postings[] postings = new Postings[entry.freqs().size()];
+		int i = 0;
+		for (Map.Entry<String, Float> term : entry.freqs().entrySet()) {
+			Postings p = terms.computeIfAbsent(term.getKey(), Postings::new);
+			p.put(slot, term.getValue());
+			postings[i++] = p;
+		}
+		docs[slot] = new Doc(event.getId(), event.getName(), event.getCategory(), event.getCity(), event.getEventDate(),
+				entry.length(), postings);
+		slots.put(event.getId(), slot);
+		totalLength += entry.length();
+	}
+
+	// Callers hold the write lock
+	private void delete(String eventId) {
+		Integer slot = slots.remove(eventId);
+		if (slot == null) {
+			return;
+		}
+		Doc doc = docs[slot];
+		for (Postings p : doc.postings()) {
+			p.remove(slot);
+			if (p.size == 0) {
+				terms.remove(p.term);
+			}
+		}
+		totalLength -= doc.length();
+		docs[slot] = null;
+		freeSlots.add(slot);
+	}
+
+	/** The events containing one term, by slot, with the term's weighted frequency in each. */
+	private static final class Postings {
+		final String term;
+		int[] slots = new int[4];
+		float[] freqs = new float[4];
+		int size;
+
+		Postings(String term) {
+			this.term = term;
+		}
+
+		void put(int slot, float freq) {
+			int i = Arrays.binarySearch(slots, 0, size, slot);
+			if (i >= 0) {
+				freqs[i] = freq;
+				return;
+			}
+			i = -i - 1;
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size * 2);
+				freqs = Arrays.copyOf(freqs, size * 2);
+			}
+			// Rebuilds hand out slots in order, so this is almost always an append
+			System.arraycopy(slots, i, slots, i + 1, size - i);
+			System.arraycopy(freqs, i, freqs, i + 1, size - i);
+			slots[i] = slot;
+			freqs[i] = freq;
+			size++;
+		}
+
+		void remove(int slot) {
+			int i = Arrays.binarySearch(slots, 0, size, slot);
+			if (i < 0) {
+				return;
+			}
+			System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+			System.arraycopy(freqs, i + 1, freqs, i, size - i - 1);
+			size--;
+		}
+	}
+
+	/** Accumulators for one search: a score and a words-matched count per slot, left zeroed afterwards. */
+	private static final class Scratch {
+		float[] scores = new float[0];
+		byte[] matched = new byte[0];
+		int[] touched = new int[1024];
+
+		Scratch fit(int slots) {
+			if (scores.length < slots) {
+				int size = Math.max(slots, scores.length * 2);
+				scores = new float[size];
+				matched = new byte[size];
+			}
+			return this;
+		}
+	}
+}
@@ -1,31 +1,66 @@
 package com.eventmanagement.service;
 
+import com.eventmanagement.dto.CursorPage;
+import com.eventmanagement.dto.EventCard;
 import com.eventmanagement.dto.EventRequest;
+import com.eventmanagement.dto.NearbyEvent;
+import com.eventmanagement.dto.SearchSuggestion;
 import com.eventmanagement.model.Event;
 import com.eventmanagement.model.User;
 import com.eventmanagement.repository.EventRepository;
 import com.eventmanagement.repository.UserRepository;
+import com.eventmanagement.util.KeysetCursor;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class EventService {
     
+    private static final KeysetCursor PUBLISHED_CURSOR = new KeysetCursor("events:published", "eventDate", Sort.Direction.ASC);
+    private static final KeysetCursor UPCOMING_CURSOR = new KeysetCursor("events:upcoming", "eventDate", Sort.Direction.ASC);
+    private static final double MAX_NEARBY_RADIUS_KM = 200;
+    private static final int MAX_NEARBY_RESULTS = 1000;
+    
     @Autowired
     private EventRepository eventRepository;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private EventCatalogCache catalogCache;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private EventSearchIndex searchIndex;
+    
+    @Autowired
+    private EventGeocoder geocoder;
+    
     public Event createEvent(EventRequest eventRequest, String organizerEmail) {
         User organizer = userRepository.findByEmail(organizerEmail)
                 .orElseThrow(() -> new RuntimeException("Organizer not found"));
@@ -42,6 +77,7 @@ public class EventService {
         event.setState(eventRequest.getState());
         event.setCountry(eventRequest.getCountry());
         event.setPostalCode(eventRequest.getPostalCode());
+        event.setLocation(location(eventRequest));
         event.setEventImage(eventRequest.getEventImage());
         event.setCategory(eventRequest.getCategory());
         event.setTags(eventRequest.getTags());
@@ -71,7 +107,10 @@ public class EventService {
         // Initialize analytics
         event.setAnalytics(new Event.EventAnalytics());
         
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        catalogCache.invalidate(saved.getId(), Set.of(), EventCatalogCache.listings(saved));
+        searchIndex.index(saved);
+        return saved;
     }
     
     public Event updateEvent(String eventId, EventRequest eventRequest, String organizerId) {
@@ -81,6 +120,8 @@ public class EventService {
         if (!event.getOrganizerId().equals(organizerId)) {
             throw new RuntimeException("Unauthorized to update this event");
         }
+        Set<EventCatalogCache.Listing> listedBefore = EventCatalogCache.listings(event);
+        LocalDateTime dateBefore = event.getEventDate();
         
         event.setName(eventRequest.getName());
         event.setDescription(eventRequest.getDescription());
@@ -92,6 +133,7 @@ public class EventService {
         event.setState(eventRequest.getState());
         event.setCountry(eventRequest.getCountry());
         event.setPostalCode(eventRequest.getPostalCode());
+        event.setLocation(location(eventRequest));
         event.setEventImage(eventRequest.getEventImage());
         event.setCategory(eventRequest.getCategory());
         event.setTags(eventRequest.getTags());
@@ -108,7 +150,7 @@ public class EventService {
             event.setSettings(convertToEventSettings(eventRequest.getSettings()));
         }
         
-        return eventRepository.save(event);
+        return saveAndInvalidate(event, listedBefore, !Objects.equals(dateBefore, event.getEventDate()));
     }
     
     public Event publishEvent(String eventId, String organizerId) {
@@ -118,13 +160,14 @@ public class EventService {
         if (!event.getOrganizerId().equals(organizerId)) {
             throw new RuntimeException("Unauthorized to publish this event");
         }
+        Set<EventCatalogCache.Listing> listedBefore = EventCatalogCache.listings(event);
         
         event.setStatus(Event.EventStatus.PUBLISHED);
         event.setPublished(true);
         event.setPublishedAt(LocalDateTime.now());
         event.setUpdatedAt(LocalDateTime.now());
         
-        return eventRepository.save(event);
+        return saveAndInvalidate(event, listedBefore);
     }
     
     public Event cancelEvent(String eventId, String organizerId) {
@@ -134,39 +177,229 @@ public class EventService {
         if (!event.getOrganizerId().equals(organizerId)) {
             throw new RuntimeException("Unauthorized to cancel this event");
         }
+        Set<EventCatalogCache.Listing> listedBefore = EventCatalogCache.listings(event);
         
         event.setStatus(Event.EventStatus.CANCELLED);
         event.setUpdatedAt(LocalDateTime.now());
         
-        return eventRepository.save(event);
+        return saveAndInvalidate(event, listedBefore);
     }
     
     public Optional<Event> getEventById(String eventId) {
         return eventRepository.findById(eventId);
     }
     
-    public Page<Event> getPublishedEvents(Pageable pageable) {
-        return eventRepository.findPublishedEvents(pageable);
+    /**
+     * Same as {@link #getEventById} but may answer from the catalog cache, so seat counts can lag
+     * by the cache TTL. For display only; anything that sells tickets reads the database.
+     */
+    public Optional<Event> getPublicEvent(String eventId) {
+        return catalogCache.event(eventId, () -> eventRepository.findById(eventId));
+    }
+    
+    public Page<EventCard> getPublishedEvents(Pageable pageable) {
+        return catalogCache.page(EventCatalogCache.Listing.PUBLISHED, pageable,
+                () -> eventRepository.findPublishedEvents(pageable));
     }
     
-    public Page<Event> getUpcomingEvents(Pageable pageable) {
-        return eventRepository.findUpcomingEvents(LocalDateTime.now(), pageable);
+    public Page<EventCard> getUpcomingEvents(Pageable pageable) {
+        return catalogCache.page(EventCatalogCache.Listing.UPCOMING, pageable,
+                () -> eventRepository.findUpcomingEvents(LocalDateTime.now(), pageable));
     }
     
-    public List<Event> getFeaturedEvents() {
-        return eventRepository.findFeaturedEvents();
+    /**
+     * Published (or only upcoming) events by date, one keyset page at a time. Each page is an index
+     * range scan starting where the previous one ended, so deep pages cost the same as the first;
+     * the total is a separate count, run only when asked for.
+     */
+    public CursorPage<EventCard> getPublishedEvents(String cursor, int size, boolean upcoming, boolean includeTotal) {
+        KeysetCursor keyset = upcoming ? UPCOMING_CURSOR : PUBLISHED_CURSOR;
+        Criteria listing = Criteria.where("status").is(Event.EventStatus.PUBLISHED).and("isPublished").is(true);
+        if (upcoming) {
+            listing = listing.and("eventDate").gte(LocalDateTime.now());
+        }
+        Query query = new BasicQuery(new Criteria().andOperator(listing, keyset.from(cursor)).getCriteriaObject(),
+                Document.parse(EventCard.FIELDS))
+                .with(keyset.sort())
+                .limit(keyset.fetchSize(size));
+        List<EventCard> rows = mongoTemplate.find(query, EventCard.class, "events");
+        Long total = includeTotal
+                ? mongoTemplate.count(new Query(new Criteria().andOperator(listing, keyset.from(null))), Event.class)
+                : null;
+        return keyset.page(rows, size, EventCard::getEventDate, EventCard::getId, total);
     }
     
-    public Page<Event> getEventsByCategory(String category, Pageable pageable) {
+    public List<EventCard> getFeaturedEvents() {
+        return catalogCache.featured(() -> eventRepository.findFeaturedEvents());
+    }
+    
+    public Map<String, Object> getCatalogCacheStats() {
+        return catalogCache.stats();
+    }
+    
+    public Page<EventCard> getEventsByCategory(String category, Pageable pageable) {
         return eventRepository.findByCategory(category, pageable);
     }
     
-    public Page<Event> getEventsByCity(String city, Pageable pageable) {
+    public Page<EventCard> getEventsByCity(String city, Pageable pageable) {
         return eventRepository.findByCity(city, pageable);
     }
     
-    public Page<Event> searchEvents(String searchTerm, Pageable pageable) {
-        return eventRepository.searchEvents(searchTerm, pageable);
+    /**
+     * Ranked search over published events, optionally narrowed by category, city and date. Served
+     * by the in-memory search index; while it is still loading after startup, by Mongo's text index,
+     * which matches whole words only and compares category and city exactly.
+     */
+    public Page<EventCard> searchEvents(String searchTerm, String category, String city,
+            LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        if (!searchIndex.isReady()) {
+            return searchWithTextIndex(searchTerm, category, city, from, to, pageable);
+        }
+        EventSearchIndex.Hits hits = searchIndex.search(searchTerm, category, city, from, to,
+                (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(cards(hits.ids()), pageable, hits.total());
+    }
+    
+    // Index only: while it loads after startup suggestions may be incomplete, which typeahead can live with
+    public List<SearchSuggestion> suggestEvents(String prefix, int limit) {
+        if (limit < 1 || limit > 20) {
+            throw new IllegalArgumentException("Limit must be between 1 and 20");
+        }
+        return searchIndex.suggest(prefix, limit);
+    }
+    
+    public Map<String, Object> getSearchIndexStats() {
+        return searchIndex.stats();
+    }
+    
+    /**
+     * Published events within {@code radiusKm} of a point, nearest first; events at the same spot
+     * (to within 100 m) come in date order. Only events with a location are found, see
+     * {@link EventGeocoder}.
+     */
+    public List<NearbyEvent> getEventsNear(double lat, double lng, double radiusKm, boolean upcoming, int page, int size) {
+        checkPoint(lat, lng);
+        if (!(radiusKm > 0) || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + MAX_NEARBY_RADIUS_KM + " km");
+        }
+        Document geoNear = nearbyStage(lat, lng, nearbyFilter(upcoming)).append("maxDistance", radiusKm * 1000);
+        return nearby(geoNear, page, size);
+    }
+    
+    /**
+     * Published events inside a latitude/longitude box, ordered by distance from its centre and
+     * then by date. Boxes crossing the antimeridian are not supported.
+     */
+    public List<NearbyEvent> getEventsInBox(double minLat, double minLng, double maxLat, double maxLng,
+            boolean upcoming, int page, int size) {
+        checkPoint(minLat, minLng);
+        checkPoint(maxLat, maxLng);
+        if (minLat >= maxLat || minLng >= maxLng) {
+            throw new IllegalArgumentException("Box minimums must be below its maximums");
+        }
+        List<List<Double>> ring = List.of(List.of(minLng, minLat), List.of(maxLng, minLat),
+                List.of(maxLng, maxLat), List.of(minLng, maxLat), List.of(minLng, minLat));
+        Document filter = nearbyFilter(upcoming).append("location", new Document("$geoWithin",
+                new Document("$geometry", new Document("type", "Polygon").append("coordinates", List.of(ring)))));
+        return nearby(nearbyStage((minLat + maxLat) / 2, (minLng + maxLng) / 2, filter), page, size);
+    }
+    
+    private List<NearbyEvent> nearby(Document geoNear, int page, int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            throw new IllegalArgumentException("Page must be 0 or more and size between 1 and 100");
+        }
+        if ((long) (page + 1) * size > MAX_NEARBY_RESULTS) {
+            throw new IllegalArgumentException("Nearby results stop at " + MAX_NEARBY_RESULTS + "; narrow the area instead");
+        }
+        List<Document> pipeline = List.of(
+                new Document("$geoNear", geoNear),
+                // Cut down to card fields before sorting, so the sort holds cards rather than whole events.
+                // Distance is rounded so that events at one venue tie on it and fall back to date order
+                new Document("$project", Document.parse(EventCard.FIELDS).append("distanceKm",
+                        new Document("$round", List.of(new Document("$divide", List.of("$distance", 1000)), 1)))),
+                new Document("$sort", new Document("distanceKm", 1).append("eventDate", 1).append("_id", 1)),
+                new Document("$skip", page * size),
+                new Document("$limit", size));
+        List<NearbyEvent> res = new ArrayList<>(size);
+        for (Document doc : mongoTemplate.getCollection("events").aggregate(pipeline)) {
+            EventCard card = mongoTemplate.getConverter().read(EventCard.class, doc);
+            res.add(new NearbyEvent(card, ((Number) doc.get("distanceKm")).doubleValue()));
+        }
+        return res;
+    }
+    
+    private static Document nearbyStage(double lat, double lng, Document filter) {
+        return new Document("near", new Document("type", "Point").append("coordinates", List.of(lng, lat)))
+                .append("key", "location")
+                .append("distanceField", "distance")
+                .append("spherical", true)
+                .append("query", filter);
+    }
+    
+    private Document nearbyFilter(boolean upcoming) {
+        Document filter = new Document("status", Event.EventStatus.PUBLISHED.name()).append("isPublished", true);
+        if (upcoming) {
+            filter.append("eventDate", new Document("$gte", mongoTemplate.getConverter().convertToMongoType(LocalDateTime.now())));
+        }
+        return filter;
+    }
+    
+    private static void checkPoint(double lat, double lng) {
+        if (!(lat >= -90 && lat <= 90) || !(lng >= -180 && lng <= 180)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+    }
+    
+    // A pin set by the organizer wins over the gazetteer
+    private GeoJsonPoint location(EventRequest request) {
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            return new GeoJsonPoint(request.getLongitude(), request.getLatitude());
+        }
+        return geocoder.locate(request.getPostalCode(), request.getCity(), request.getState(), request.getCountry())
+                .orElse(null);
+    }
+    
+    // Cards for the given ids, in the order given; events deleted since they were ranked are left out
+    private List<EventCard> cards(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Query query = new BasicQuery(Criteria.where("_id").in(ids).getCriteriaObject(), Document.parse(EventCard.FIELDS));
+        Map<String, EventCard> byId = mongoTemplate.find(query, EventCard.class, "events").stream()
+                .collect(Collectors.toMap(EventCard::getId, Function.identity()));
+        List<EventCard> res = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            EventCard card = byId.get(id);
+            if (card != null) {
+                res.add(card);
+            }
+        }
+        return res;
+    }
+    
+    private Page<EventCard> searchWithTextIndex(String searchTerm, String category, String city,
+            LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        Criteria criteria = Criteria.where("status").is(Event.EventStatus.PUBLISHED).and("isPublished").is(true);
+        if (category != null) {
+            criteria = criteria.and("category").is(category);
+        }
+        if (city != null) {
+            criteria = criteria.and("city").is(city);
+        }
+        if (from != null || to != null) {
+            Criteria eventDate = criteria.and("eventDate");
+            if (from != null) {
+                eventDate.gte(from);
+            }
+            if (to != null) {
+                eventDate.lte(to);
+            }
+        }
+        Document filter = criteria.getCriteriaObject();
+        filter.putAll(TextCriteria.forDefaultLanguage().matching(searchTerm).getCriteriaObject());
+        Query query = new BasicQuery(filter, Document.parse(EventCard.FIELDS)).with(pageable);
+        List<EventCard> rows = mongoTemplate.find(query, EventCard.class, "events");
+        return new PageImpl<>(rows, pageable, mongoTemplate.count(new BasicQuery(filter), Event.class));
     }
     
     public Page<Event> getOrganizerEvents(String organizerId, Pageable pageable) {
@@ -190,16 +423,31 @@ public class EventService {
         }
         
         eventRepository.delete(event);
+        catalogCache.invalidate(eventId, EventCatalogCache.listings(event), Set.of());
+        searchIndex.remove(eventId);
     }
     
     public Event toggleFeatured(String eventId) {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
+        Set<EventCatalogCache.Listing> listedBefore = EventCatalogCache.listings(event);
         
         event.setFeatured(!event.isFeatured());
         event.setUpdatedAt(LocalDateTime.now());
         
-        return eventRepository.save(event);
+        return saveAndInvalidate(event, listedBefore);
+    }
+    
+    // Drops the cached entry and whichever listing pages the change affects, and reindexes the event for search
+    private Event saveAndInvalidate(Event event, Set<EventCatalogCache.Listing> listedBefore) {
+        return saveAndInvalidate(event, listedBefore, false);
+    }
+    
+    private Event saveAndInvalidate(Event event, Set<EventCatalogCache.Listing> listedBefore, boolean dateChanged) {
+        Event saved = eventRepository.save(event);
+        catalogCache.invalidate(saved.getId(), listedBefore, EventCatalogCache.listings(saved), dateChanged);
+        searchIndex.index(saved);
+        return saved;
     }
     
     private Event.TicketType convertToTicketType(EventRequest.TicketTypeRequest request) {
@@ -229,6 +477,8 @@ public class EventService {
         settings.setAllowGroupDiscounts(request.getAllowGroupDiscounts());
         settings.setRequirePhoneNumber(request.getRequirePhoneNumber());
         settings.setRequireAddress(request.getRequireAddress());
+        settings.setHighDemand(request.getHighDemand());
+        settings.setAdmissionRatePerSecond(request.getAdmissionRatePerSecond());
         return settings;
     }
 }
\ No newline at end of file
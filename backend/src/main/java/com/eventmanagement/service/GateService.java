@@ -0,0 +1,294 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.exception.ResourceNotFoundException;
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Gate mode: an event's admissible tickets preloaded into a {@link GateSet}, so check-in at the
+ * doors is answered from memory with no database round trip. Admissions are queued and written
+ * back in batches by a scheduled flush, which keeps retrying while Mongo is unreachable. Scanners
+ * can download a snapshot of the set to keep validating when they lose the network.
+ *
+ * Each node holds its own copy: run gate mode on one node per event (or pin the event's scanners
+ * to one node), otherwise two nodes could each admit the same ticket before their flushes meet.
+ */
+@Service
+public class GateService {
+	private static final Logger log = LoggerFactory.getLogger(GateService.class);
+
+	private final TicketRepository ticketRepository;
+	private final EventRepository eventRepository;
+	private final QrCodeService qrCodeService;
+	private final MongoTemplate mongoTemplate;
+	private final CheckInStatsService checkInStatsService;
+	private final Map<String, GateSet> gates = new ConcurrentHashMap<>();
+	// Scans hold it shared; a reload takes it exclusively to copy the old set's admissions and swap
+	private final StampedLock swapLock = new StampedLock();
+	private final ConcurrentLinkedDeque<UsedMark> pending = new ConcurrentLinkedDeque<>();
+	private final Counter admittedCounter;
+	private final Counter rejectedCounter;
+	private final Counter conflictCounter;
+
+	@Value("${app.gate.flush-batch-size:500}")
+	private int flushBatchSize;
+
+	@Value("${app.qr-code.accept-legacy-payloads:true}")
+	private boolean acceptLegacyPayloads;
+
+	private record UsedMark(String ticketId, LocalDateTime at, String by) {}
+
+	public GateService(TicketRepository ticketRepository, EventRepository eventRepository, QrCodeService qrCodeService,
+			MongoTemplate mongoTemplate, CheckInStatsService checkInStatsService, MeterRegistry meterRegistry) {
+		this.ticketRepository = ticketRepository;
+		this.eventRepository = eventRepository;
+		this.qrCodeService = qrCodeService;
+		this.mongoTemplate = mongoTemplate;
+		this.checkInStatsService = checkInStatsService;
+		this.admittedCounter = meterRegistry.counter("gate.scans", "outcome", "admitted");
+		this.rejectedCounter = meterRegistry.counter("gate.scans", "outcome", "rejected");
+		this.conflictCounter = meterRegistry.counter("gate.flush.conflicts");
+		Gauge.builder("gate.pending", pending, ConcurrentLinkedDeque::size).register(meterRegistry);
+	}
+
+	/**
+	 * Loads (or reloads) the event's paid, active and used tickets and routes its check-ins here. A
+	 * reload writes back queued admissions first and refuses to go ahead if it cannot, then carries
+	 * the previous set's admissions over, so no scan is forgotten by the swap.
+	 */
+	public Map<String, Object> open(String eventId, String userId, boolean admin) {
+		checkAccess(eventId, userId, admin);
+		if (!flushPending()) {
+			throw new IllegalStateException("Could not write back pending gate admissions; gate mode was not reloaded");
+		}
+		List<GateSet.Entry> entries = new ArrayList<>();
+		try (Stream<Ticket> tickets = ticketRepository.streamByEventId(eventId)) {
+			Iterator<Ticket> it = tickets.iterator();
+			while (it.hasNext()) {
+				Ticket ticket = it.next();
+				boolean admissible = ticket.getPaymentStatus() == Ticket.PaymentStatus.COMPLETED
+						&& (ticket.getStatus() == Ticket.TicketStatus.ACTIVE || ticket.getStatus() == Ticket.TicketStatus.USED);
+				if (admissible && !ticket.isExpired()) {
+					entries.add(new GateSet.Entry(ticket, qrPayloads(ticket)));
+				}
+			}
+		}
+		GateSet set = new GateSet(eventId, entries);
+		// Admissions made on the old set while the tickets were read are copied under the write lock
+		long stamp = swapLock.writeLock();
+		try {
+			GateSet previous = gates.get(eventId);
+			if (previous != null) {
+				set.carryOver(previous);
+			}
+			gates.put(eventId, set);
+		} finally {
+			swapLock.unlockWrite(stamp);
+		}
+		log.info("Gate mode open for event {}: {} tickets, {} already used", eventId, set.size(), set.usedCount());
+		return status(set);
+	}
+
+	/** Writes back outstanding admissions and returns the event's check-ins to the database path. */
+	public boolean close(String eventId, String userId, boolean admin) {
+		checkAccess(eventId, userId, admin);
+		flush();
+		return gates.remove(eventId) != null;
+	}
+
+	public Optional<Map<String, Object>> status(String eventId) {
+		return Optional.ofNullable(gates.get(eventId)).map(this::status);
+	}
+
+	public Optional<byte[]> snapshot(String eventId, String userId, boolean admin) {
+		checkAccess(eventId, userId, admin);
+		return Optional.ofNullable(gates.get(eventId)).map(GateSet::snapshot);
+	}
+
+	/** Check-in by scanned QR against every open gate; empty when no gate knows the code. */
+	public Optional<CheckInResult> checkInByQR(String qrCode, String validatedBy, LocalDateTime at) {
+		return checkInByQR(qrCode, validatedBy, at, eventId -> true);
+	}
+
+	/** As {@link #checkInByQR(String, String, LocalDateTime)}, skipping gates of events {@code events} rejects. */
+	public Optional<CheckInResult> checkInByQR(String qrCode, String validatedBy, LocalDateTime at, Predicate<String> events) {
+		if (gates.isEmpty() || qrCode == null) {
+			return Optional.empty();
+		}
+		long stamp = swapLock.readLock();
+		try {
+			for (GateSet set : gates.values()) {
+				int slot = set.slotForQr(qrCode);
+				if (slot >= 0 && events.test(set.eventId())) {
+					return Optional.of(admit(set, slot, validatedBy, at));
+				}
+			}
+			return Optional.empty();
+		} finally {
+			swapLock.unlockRead(stamp);
+		}
+	}
+
+	/** Check-in by typed ticket number against every open gate; empty when no gate knows it. */
+	public Optional<CheckInResult> checkIn(String ticketNumber, String validatedBy, LocalDateTime at) {
+		return checkIn(ticketNumber, validatedBy, at, eventId -> true);
+	}
+
+	/** As {@link #checkIn(String, String, LocalDateTime)}, skipping gates of events {@code events} rejects. */
+	public Optional<CheckInResult> checkIn(String ticketNumber, String validatedBy, LocalDateTime at, Predicate<String> events) {
+		if (gates.isEmpty() || ticketNumber == null) {
+			return Optional.empty();
+		}
+		long stamp = swapLock.readLock();
+		try {
+			for (GateSet set : gates.values()) {
+				int slot = set.slotForTicketNumber(ticketNumber);
+				if (slot >= 0 && events.test(set.eventId())) {
+					return Optional.of(admit(set, slot, validatedBy, at));
+				}
+			}
+			return Optional.empty();
+		} finally {
+			swapLock.unlockRead(stamp);
+		}
+	}
+
+	/** Keeps a refunded or cancelled ticket out of any open gate. */
+	public void revoke(Ticket ticket) {
+		long stamp = swapLock.readLock();
+		try {
+			GateSet set = gates.get(ticket.getEventId());
+			if (set != null && ticket.getTicketNumber() != null && set.revoke(ticket.getTicketNumber())) {
+				log.info("Revoked ticket {} from open gate for event {}", ticket.getTicketNumber(), ticket.getEventId());
+			}
+		} finally {
+			swapLock.unlockRead(stamp);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.gate.flush-interval-ms:500}")
+	public void flush() {
+		flushPending();
+	}
+
+	// False when a batch failed and was put back
+	private boolean flushPending() {
+		List<UsedMark> batch = new ArrayList<>(flushBatchSize);
+		UsedMark mark;
+		while (true) {
+			batch.clear();
+			while (batch.size() < flushBatchSize && (mark = pending.pollFirst()) != null) {
+				batch.add(mark);
+			}
+			if (batch.isEmpty()) {
+				return true;
+			}
+			BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ticket.class);
+			for (UsedMark m : batch) {
+				bulk.updateOne(new Query(Criteria.where("_id").is(m.ticketId()).and("status").is(Ticket.TicketStatus.ACTIVE.name())),
+						new Update()
+								.set("status", Ticket.TicketStatus.USED.name())
+								.set("validatedAt", m.at())
+								.set("validatedBy", m.by())
+								.set("updatedAt", LocalDateTime.now()));
+			}
+			try {
+				int modified = bulk.execute().getModifiedCount();
+				if (modified < batch.size()) {
+					// Admitted here but already USED (or no longer ACTIVE) in the database
+					conflictCounter.increment(batch.size() - modified);
+					log.warn("Gate flush: {} of {} admissions were already recorded elsewhere", batch.size() - modified, batch.size());
+				}
+			} catch (RuntimeException e) {
+				// Put the batch back in order and try again on the next tick
+				for (int i = batch.size() - 1; i >= 0; i--) {
+					pending.addFirst(batch.get(i));
+				}
+				log.warn("Gate flush failed, {} admissions pending: {}", pending.size(), e.getMessage());
+				return false;
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		try {
+			flush();
+		} finally {
+			if (!pending.isEmpty()) {
+				log.error("Shutting down with {} gate admissions not written to the database", pending.size());
+			}
+		}
+	}
+
+	private CheckInResult admit(GateSet set, int slot, String validatedBy, LocalDateTime at) {
+		CheckInResult result = set.admit(slot, validatedBy, at);
+		if (result.accepted()) {
+			pending.addLast(new UsedMark(set.ticketId(slot), at, validatedBy));
+			admittedCounter.increment();
+			checkInStatsService.record(result.ticket(), false);
+		} else {
+			rejectedCounter.increment();
+		}
+		return result;
+	}
+
+	// Every payload that admits the ticket: the signed one, plus the printed legacy one while accepted
+	private List<String> qrPayloads(Ticket ticket) {
+		List<String> payloads = new ArrayList<>(2);
+		payloads.add(qrCodeService.payload(ticket.getId()));
+		if (acceptLegacyPayloads && ticket.getTicketNumber() != null) {
+			payloads.add(ticket.getTicketNumber() + "|" + ticket.getEventId() + "|" + ticket.getAttendeeId());
+		}
+		return payloads;
+	}
+
+	private Map<String, Object> status(GateSet set) {
+		Map<String, Object> res = new LinkedHashMap<>();
+		res.put("eventId", set.eventId());
+		res.put("tickets", set.size());
+		res.put("used", set.usedCount());
+		res.put("version", set.version());
+		res.put("loadedAt", set.loadedAt());
+		res.put("pendingWrites", pending.size());
+		return res;
+	}
+
+	private void checkAccess(String eventId, String userId, boolean admin) {
+		Event event = eventRepository.findById(eventId)
+				.orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+		if (!admin && !event.getOrganizerId().equals(userId)) {
+			throw new RuntimeException("Unauthorized to manage gate mode for this event");
+		}
+	}
+}
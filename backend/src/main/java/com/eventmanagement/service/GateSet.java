@@ -0,0 +1,337 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.model.Ticket;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * One event's admissible tickets, held in memory for gate mode. Every scannable string (signed QR
+ * payload, legacy payload, ticket number) is reduced to a 63-bit key; keys sit in sorted arrays
+ * pointing at a ticket slot, and a bitset records which slots have been admitted. A lookup is a
+ * hash and a binary search; admission is one CAS on the bitset.
+ */
+final class GateSet {
+	/** Snapshot layout version; bump when {@link #snapshot()} changes. */
+	static final int SNAPSHOT_FORMAT = 1;
+	/** Snapshots carry the top 48 of each key's 63 bits, which keeps the deltas short. */
+	static final int SNAPSHOT_KEY_BITS = 48;
+	private static final byte[] MAGIC = {'G', 'A', 'T', 'E'};
+	private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 unavailable", e);
+		}
+	});
+
+	private final String eventId;
+	private final LocalDateTime loadedAt = LocalDateTime.now();
+	// QR keys (what a scanner reads) and ticket number keys (what staff type), each sorted with its slot
+	private final long[] qrKeys;
+	private final int[] qrSlots;
+	private final long[] numberKeys;
+	private final int[] numberSlots;
+	// Per slot
+	private final String[] ticketIds;
+	private final String[] ticketNumbers;
+	private final String[] attendeeNames;
+	private final String[] ticketTypeNames;
+	private final AtomicLongArray used;
+	private final AtomicLongArray revoked;
+	private final AtomicLongArray usedAtMillis;
+	private final AtomicReferenceArray<String> usedBy;
+	private final AtomicLong usedCount = new AtomicLong();
+	private final AtomicLong version = new AtomicLong();
+
+	/** A ticket to load, with every QR payload that should admit it. */
+	record Entry(Ticket ticket, List<String> qrPayloads) {}
+
+	GateSet(String eventId, List<Entry> entries) {
+		this.eventId = eventId;
+		int n = entries.size();
+		ticketIds = new String[n];
+		ticketNumbers = new String[n];
+		attendeeNames = new String[n];
+		ticketTypeNames = new String[n];
+		used = new AtomicLongArray((n + 63) / 64);
+		revoked = new AtomicLongArray((n + 63) / 64);
+		usedAtMillis = new AtomicLongArray(n);
+		usedBy = new AtomicReferenceArray<>(n);
+
+		int qrCount = entries.stream().mapToInt(e -> e.qrPayloads().size()).sum();
+		long[] qrPairs = new long[qrCount * 2];
+		long[] numberPairs = new long[n * 2];
+		int q = 0;
+		for (int slot = 0; slot < n; slot++) {
+			Ticket ticket = entries.get(slot).ticket();
+			ticketIds[slot] = ticket.getId();
+			ticketNumbers[slot] = ticket.getTicketNumber();
+			attendeeNames[slot] = ticket.getAttendeeName();
+			ticketTypeNames[slot] = ticket.getTicketTypeName();
+			if (ticket.getStatus() == Ticket.TicketStatus.USED) {
+				setBit(used, slot);
+				usedCount.incrementAndGet();
+				if (ticket.getValidatedAt() != null) {
+					usedAtMillis.set(slot, ticket.getValidatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+				}
+				usedBy.set(slot, ticket.getValidatedBy());
+			}
+			for (String payload : entries.get(slot).qrPayloads()) {
+				qrPairs[q++] = key(payload);
+				qrPairs[q++] = slot;
+			}
+			numberPairs[slot * 2] = ticket.getTicketNumber() != null ? key(ticket.getTicketNumber()) : Long.MAX_VALUE;
+			numberPairs[slot * 2 + 1] = slot;
+		}
+		long[][] qr = sortPairs(qrPairs);
+		long[][] numbers = sortPairs(numberPairs);
+		qrKeys = qr[0];
+		qrSlots = toInts(qr[1]);
+		numberKeys = numbers[0];
+		numberSlots = toInts(numbers[1]);
+	}
+
+	/** Key of a scanned string: the first 63 bits of its SHA-256. Scanning devices compute the same. */
+	static long key(String scanned) {
+		byte[] digest = SHA256.get().digest(scanned.getBytes(StandardCharsets.UTF_8));
+		long k = 0;
+		for (int i = 0; i < 8; i++) {
+			k = (k << 8) | (digest[i] & 0xFF);
+		}
+		return k >>> 1;
+	}
+
+	String eventId() {
+		return eventId;
+	}
+
+	int size() {
+		return ticketIds.length;
+	}
+
+	long usedCount() {
+		return usedCount.get();
+	}
+
+	long version() {
+		return version.get();
+	}
+
+	LocalDateTime loadedAt() {
+		return loadedAt;
+	}
+
+	int slotForQr(String payload) {
+		return find(qrKeys, qrSlots, key(payload));
+	}
+
+	int slotForTicketNumber(String ticketNumber) {
+		return find(numberKeys, numberSlots, key(ticketNumber));
+	}
+
+	String ticketId(int slot) {
+		return ticketIds[slot];
+	}
+
+	/**
+	 * Admits the ticket in {@code slot} unless it was admitted or revoked before; the first caller
+	 * wins. {@code at} is when the scan happened, which for offline scans is earlier than now.
+	 */
+	CheckInResult admit(int slot, String validatedBy, LocalDateTime at) {
+		if (isSet(revoked, slot)) {
+			return new CheckInResult(CheckInResult.Outcome.REFUNDED, ticket(slot));
+		}
+		if (!setBit(used, slot)) {
+			return new CheckInResult(CheckInResult.Outcome.ALREADY_USED, ticket(slot));
+		}
+		usedAtMillis.set(slot, at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		usedBy.set(slot, validatedBy);
+		usedCount.incrementAndGet();
+		version.incrementAndGet();
+		return new CheckInResult(CheckInResult.Outcome.ACCEPTED, ticket(slot));
+	}
+
+	/**
+	 * Copies admissions and revocations from the set this one replaces, matched by ticket id, so a
+	 * reload keeps scans the database has not seen yet. Tickets missing from this set stay out.
+	 */
+	void carryOver(GateSet previous) {
+		Map<String, Integer> slots = new HashMap<>(ticketIds.length * 2);
+		for (int slot = 0; slot < ticketIds.length; slot++) {
+			slots.put(ticketIds[slot], slot);
+		}
+		for (int old = 0; old < previous.ticketIds.length; old++) {
+			boolean wasUsed = isSet(previous.used, old);
+			boolean wasRevoked = isSet(previous.revoked, old);
+			Integer slot = wasUsed || wasRevoked ? slots.get(previous.ticketIds[old]) : null;
+			if (slot == null) {
+				continue;
+			}
+			if (wasRevoked) {
+				setBit(revoked, slot);
+			}
+			if (wasUsed && setBit(used, slot)) {
+				usedAtMillis.set(slot, previous.usedAtMillis.get(old));
+				usedBy.set(slot, previous.usedBy.get(old));
+				usedCount.incrementAndGet();
+			}
+		}
+		// Scanners compare versions, so a reload must not start over from zero
+		version.set(Math.max(version.get(), previous.version.get()) + 1);
+	}
+
+	/** Stops a ticket being admitted, e.g. after a refund. Returns false if it is not in this set. */
+	boolean revoke(String ticketNumber) {
+		int slot = slotForTicketNumber(ticketNumber);
+		if (slot < 0) {
+			return false;
+		}
+		setBit(revoked, slot);
+		version.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Compact copy for scanners working offline. Big-endian layout:
+	 * <pre>
+	 * "GATE" | format:u8 | version:u64 | keyBits:u8 | keyCount:varint | keys:varint* | usedCount:varint | used:varint*
+	 * </pre>
+	 * Keys are the top {@link #SNAPSHOT_KEY_BITS} bits of each QR key, ascending, each written as the
+	 * difference from the previous one (the first from zero). Used entries are indexes into that key
+	 * list, delta-encoded the same way; revoked tickets are left out entirely.
+	 */
+	byte[] snapshot() {
+		long snapshotVersion = version.get();
+		int shift = 63 - SNAPSHOT_KEY_BITS;
+		long[] keys = new long[qrKeys.length];
+		boolean[] keyUsed = new boolean[qrKeys.length];
+		int count = 0;
+		long previous = -1;
+		for (int i = 0; i < qrKeys.length; i++) {
+			int slot = qrSlots[i];
+			long k = qrKeys[i] >>> shift;
+			// Truncation can merge neighbours; order is preserved because keys are non-negative
+			if (isSet(revoked, slot) || k == previous) {
+				continue;
+			}
+			keys[count] = k;
+			keyUsed[count] = isSet(used, slot);
+			count++;
+			previous = k;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16 + count * 6);
+		out.writeBytes(MAGIC);
+		out.write(SNAPSHOT_FORMAT);
+		for (int i = 7; i >= 0; i--) {
+			out.write((int) (snapshotVersion >>> (i * 8)));
+		}
+		out.write(SNAPSHOT_KEY_BITS);
+		writeVarint(out, count);
+		long last = 0;
+		int usedKeys = 0;
+		for (int i = 0; i < count; i++) {
+			writeVarint(out, keys[i] - last);
+			last = keys[i];
+			if (keyUsed[i]) {
+				usedKeys++;
+			}
+		}
+		writeVarint(out, usedKeys);
+		int lastIndex = 0;
+		for (int i = 0; i < count; i++) {
+			if (keyUsed[i]) {
+				writeVarint(out, i - lastIndex);
+				lastIndex = i;
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private Ticket ticket(int slot) {
+		Ticket ticket = new Ticket();
+		ticket.setId(ticketIds[slot]);
+		ticket.setEventId(eventId);
+		ticket.setTicketNumber(ticketNumbers[slot]);
+		ticket.setAttendeeName(attendeeNames[slot]);
+		ticket.setTicketTypeName(ticketTypeNames[slot]);
+		long at = usedAtMillis.get(slot);
+		if (isSet(used, slot)) {
+			ticket.setStatus(Ticket.TicketStatus.USED);
+			ticket.setValidatedAt(at == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(at), ZoneId.systemDefault()));
+			ticket.setValidatedBy(usedBy.get(slot));
+		} else {
+			ticket.setStatus(Ticket.TicketStatus.ACTIVE);
+		}
+		return ticket;
+	}
+
+	private static int find(long[] keys, int[] slots, long key) {
+		int i = Arrays.binarySearch(keys, key);
+		return i >= 0 ? slots[i] : -1;
+	}
+
+	// Sorts (key, slot) pairs by key; returns {keys, slots}
+	private static long[][] sortPairs(long[] pairs) {
+		int n = pairs.length / 2;
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(pairs[a * 2], pairs[b * 2]));
+		long[] keys = new long[n];
+		long[] slots = new long[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = pairs[order[i] * 2];
+			slots[i] = pairs[order[i] * 2 + 1];
+		}
+		return new long[][] {keys, slots};
+	}
+
+	private static int[] toInts(long[] values) {
+		int[] res = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			res[i] = (int) values[i];
+		}
+		return res;
+	}
+
+	// Sets the bit; returns false if it was already set
+	private static boolean setBit(AtomicLongArray bits, int index) {
+		int word = index >>> 6;
+		long mask = 1L << (index & 63);
+		long prev;
+		do {
+			prev = bits.get(word);
+			if ((prev & mask) != 0) {
+				return false;
+			}
+		} while (!bits.compareAndSet(word, prev, prev | mask));
+		return true;
+	}
+
+	private static boolean isSet(AtomicLongArray bits, int index) {
+		return (bits.get(index >>> 6) & (1L << (index & 63))) != 0;
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+}
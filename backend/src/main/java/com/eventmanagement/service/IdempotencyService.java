@@ -0,0 +1,147 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.exception.IdempotencyConflictException;
+import com.eventmanagement.model.IdempotencyRecord;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.IdempotencyRecordRepository;
+import com.eventmanagement.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Makes ticket-issuing calls safe to retry. The first call for a key claims it in the
+ * {@code idempotency_keys} collection and runs; later calls with the same key get the original
+ * tickets back, from a bounded in-memory cache when possible and otherwise by id from Mongo.
+ */
+@Service
+public class IdempotencyService {
+	private final IdempotencyRecordRepository recordRepository;
+	private final TicketRepository ticketRepository;
+	private final MongoTemplate mongoTemplate;
+	private final Counter replayCounter;
+	private final Map<String, Cached> cache;
+	private final long ttlSeconds;
+	private final long lockSeconds;
+
+	public record Outcome(List<Ticket> tickets, boolean replayed) {}
+
+	private record Cached(String ownerId, String fingerprint, List<Ticket> tickets, LocalDateTime expiresAt) {}
+
+	public IdempotencyService(IdempotencyRecordRepository recordRepository, TicketRepository ticketRepository,
+			MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+			@Value("${app.idempotency.cache-size:10000}") int cacheSize,
+			@Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+			@Value("${app.idempotency.lock-seconds:60}") long lockSeconds) {
+		this.recordRepository = recordRepository;
+		this.ticketRepository = ticketRepository;
+		this.mongoTemplate = mongoTemplate;
+		this.replayCounter = meterRegistry.counter("idempotency.replays");
+		this.ttlSeconds = ttlHours * 3600;
+		this.lockSeconds = lockSeconds;
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+				return size() > cacheSize;
+			}
+		});
+	}
+
+	/**
+	 * Runs {@code action} once per key. A repeat with the same key returns the tickets from the first
+	 * run; a repeat while the first run is still going fails with {@link IdempotencyConflictException}.
+	 *
+	 * @param fingerprint what the request asked for; reusing a key for a different request is rejected
+	 */
+	public Outcome execute(String key, String ownerId, String fingerprint, Supplier<List<Ticket>> action) {
+		LocalDateTime now = LocalDateTime.now();
+		Cached cached = cache.get(key);
+		if (cached != null && cached.expiresAt().isAfter(now)) {
+			checkSameRequest(key, cached.ownerId(), cached.fingerprint(), ownerId, fingerprint);
+			replayCounter.increment();
+			return new Outcome(cached.tickets(), true);
+		}
+
+		IdempotencyRecord record = new IdempotencyRecord();
+		record.setId(key);
+		record.setOwnerId(ownerId);
+		record.setFingerprint(fingerprint);
+		record.setStatus(IdempotencyRecord.RecordStatus.IN_PROGRESS);
+		record.setCreatedAt(now);
+		record.setLockedUntil(now.plusSeconds(lockSeconds));
+		record.setExpiresAt(now.plusSeconds(ttlSeconds));
+		try {
+			recordRepository.insert(record);
+		} catch (DuplicateKeyException e) {
+			Outcome replay = replayOrTakeOver(key, ownerId, fingerprint, now);
+			if (replay != null) {
+				return replay;
+			}
+		}
+
+		List<Ticket> tickets;
+		try {
+			tickets = action.get();
+		} catch (RuntimeException e) {
+			// Let the client retry the same key once the failure is fixed
+			mongoTemplate.remove(new Query(Criteria.where("id").is(key)
+					.and("status").is(IdempotencyRecord.RecordStatus.IN_PROGRESS)), IdempotencyRecord.class);
+			throw e;
+		}
+		mongoTemplate.updateFirst(new Query(Criteria.where("id").is(key)),
+				new Update()
+						.set("status", IdempotencyRecord.RecordStatus.COMPLETED)
+						.set("ticketIds", tickets.stream().map(Ticket::getId).collect(Collectors.toList()))
+						.set("completedAt", LocalDateTime.now())
+						.unset("lockedUntil"),
+				IdempotencyRecord.class);
+		cache.put(key, new Cached(ownerId, fingerprint, tickets, now.plusSeconds(ttlSeconds)));
+		return new Outcome(tickets, false);
+	}
+
+	// Returns the stored result, or null when this caller took over an abandoned claim and should run
+	private Outcome replayOrTakeOver(String key, String ownerId, String fingerprint, LocalDateTime now) {
+		IdempotencyRecord existing = recordRepository.findById(key)
+				.orElseThrow(() -> new IdempotencyConflictException("Request is being processed, retry shortly"));
+		checkSameRequest(key, existing.getOwnerId(), existing.getFingerprint(), ownerId, fingerprint);
+		if (existing.getStatus() == IdempotencyRecord.RecordStatus.COMPLETED) {
+			List<Ticket> tickets = ticketRepository.findAllById(existing.getTicketIds());
+			cache.put(key, new Cached(existing.getOwnerId(), existing.getFingerprint(), tickets, existing.getExpiresAt()));
+			replayCounter.increment();
+			return new Outcome(tickets, true);
+		}
+		// The first caller died without finishing; claim the key once its lock has lapsed
+		IdempotencyRecord claimed = mongoTemplate.findAndModify(
+				new Query(Criteria.where("id").is(key)
+						.and("status").is(IdempotencyRecord.RecordStatus.IN_PROGRESS)
+						.and("lockedUntil").lt(now)),
+				new Update().set("lockedUntil", now.plusSeconds(lockSeconds)),
+				FindAndModifyOptions.options().returnNew(true), IdempotencyRecord.class);
+		if (claimed == null) {
+			throw new IdempotencyConflictException("Request is being processed, retry shortly");
+		}
+		return null;
+	}
+
+	private void checkSameRequest(String key, String storedOwner, String storedFingerprint, String ownerId, String fingerprint) {
+		if (!Objects.equals(storedOwner, ownerId) || !Objects.equals(storedFingerprint, fingerprint)) {
+			throw new IllegalArgumentException("Idempotency key " + key + " was already used for a different request");
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package com.eventmanagement.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the indexes declared on the {@code @Document} classes, in place of Spring's
+ * {@code auto-index-creation}, which builds them all in the foreground while the context starts.
+ * Unique indexes are constraints, so they are created before the application takes requests; the
+ * rest are built in the background once it is up. It then checks every repository query against
+ * the declared and existing indexes and reports each query shape no index supports.
+ */
+@Component
+public class IndexCatalog {
+	private static final Logger log = LoggerFactory.getLogger(IndexCatalog.class);
+
+	private final MongoTemplate mongoTemplate;
+	private final ApplicationContext applicationContext;
+
+	@Value("${app.indexes.build-on-startup:true}")
+	private boolean buildOnStartup;
+
+	@Value("${app.indexes.report.min-documents:10000}")
+	private long reportMinDocuments;
+
+	public IndexCatalog(MongoTemplate mongoTemplate, ApplicationContext applicationContext) {
+		this.mongoTemplate = mongoTemplate;
+		this.applicationContext = applicationContext;
+	}
+
+	@PostConstruct
+	public void ensureUniqueIndexes() {
+		if (!buildOnStartup) {
+			return;
+		}
+		for (IndexDefinitionHolder index : declared()) {
+			if (isUnique(index)) {
+				// Not caught: running without a constraint the code relies on is worse than not starting
+				mongoTemplate.indexOps(index.getCollection()).ensureIndex(index);
+			}
+		}
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildAndReport() {
+		List<IndexDefinitionHolder> declared = declared();
+		report(declared);
+		if (!buildOnStartup) {
+			return;
+		}
+		int built = 0;
+		long start = System.currentTimeMillis();
+		for (IndexDefinitionHolder index : declared) {
+			if (isUnique(index)) {
+				continue;
+			}
+			try {
+				mongoTemplate.indexOps(index.getCollection()).ensureIndex(inBackground(index));
+				built++;
+			} catch (DataAccessException e) {
+				// One bad definition, or a clash with an index built by hand, shouldn't hold up the others
+				log.warn("Index {} on {} not built: {}", index.getIndexKeys().toJson(), index.getCollection(), e.getMessage());
+			}
+		}
+		log.info("Index build: {} of {} declared indexes in place after {}ms", built,
+				declared.stream().filter(index -> !isUnique(index)).count(), System.currentTimeMillis() - start);
+	}
+
+	/** Indexes declared by annotations on every mapped {@code @Document} class. */
+	List<IndexDefinitionHolder> declared() {
+		MongoPersistentEntityIndexResolver resolver =
+				new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+		List<IndexDefinitionHolder> indexes = new ArrayList<>();
+		for (MongoPersistentEntity<?> entity : mongoTemplate.getConverter().getMappingContext().getPersistentEntities()) {
+			if (entity.isAnnotationPresent(Document.class)) {
+				indexes.addAll(resolver.resolveIndexForEntity(entity));
+			}
+		}
+		return indexes;
+	}
+
+	/**
+	 * Logs each repository query shape that no declared or existing index fully supports: as a
+	 * warning when the collection is large enough for a collection scan to hurt, otherwise at info.
+	 */
+	Map<QueryShape.Support, Integer> report(List<IndexDefinitionHolder> declared) {
+		Map<String, List<List<String>>> keysByCollection = new LinkedHashMap<>();
+		for (IndexDefinitionHolder index : declared) {
+			keysByCollection.computeIfAbsent(index.getCollection(), c -> new ArrayList<>()).add(keys(index));
+		}
+		Map<QueryShape.Support, Integer> totals = new EnumMap<>(QueryShape.Support.class);
+		Repositories repositories = new Repositories(applicationContext);
+		for (Class<?> domainType : repositories) {
+			RepositoryInformation repository = repositories.getRequiredRepositoryInformation(domainType);
+			String collection = mongoTemplate.getCollectionName(domainType);
+			List<List<String>> indexes = new ArrayList<>(keysByCollection.getOrDefault(collection, List.of()));
+			for (IndexInfo info : mongoTemplate.indexOps(collection).getIndexInfo()) {
+				indexes.add(info.getIndexFields().stream().map(f -> f.isText() ? QueryShape.TEXT : f.getKey()).toList());
+			}
+			long documents = mongoTemplate.estimatedCount(collection);
+			for (Method method : repository.getQueryMethods()) {
+				String name = repository.getRepositoryInterface().getSimpleName() + "." + method.getName();
+				List<QueryShape> shapes;
+				try {
+					shapes = shapes(method, domainType);
+				} catch (RuntimeException e) {
+					log.warn("Index report: could not read the query of {}: {}", name, e.getMessage());
+					continue;
+				}
+				for (QueryShape shape : shapes) {
+					QueryShape.Support support = shape.supportedBy(indexes);
+					totals.merge(support, 1, Integer::sum);
+					if (support == QueryShape.Support.INDEXED) {
+						continue;
+					}
+					if (support == QueryShape.Support.UNINDEXED && documents >= reportMinDocuments) {
+						log.warn("Index report: {} on {} ({} documents) is {}: {}", name, collection, documents, support, shape);
+					} else {
+						log.info("Index report: {} on {} ({} documents) is {}: {}", name, collection, documents, support, shape);
+					}
+				}
+			}
+		}
+		log.info("Index report: {} query shapes, {} indexed, {} partially indexed, {} unindexed",
+				totals.values().stream().mapToInt(Integer::intValue).sum(), totals.getOrDefault(QueryShape.Support.INDEXED, 0),
+				totals.getOrDefault(QueryShape.Support.PARTIAL, 0), totals.getOrDefault(QueryShape.Support.UNINDEXED, 0));
+		return totals;
+	}
+
+	private static List<QueryShape> shapes(Method method, Class<?> domainType) {
+		Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+		if (query != null && !query.value().isEmpty()) {
+			return QueryShape.parse(query.value(), query.sort());
+		}
+		return QueryShape.derived(method.getName(), domainType);
+	}
+
+	private static List<String> keys(IndexDefinition index) {
+		return index.getIndexKeys().entrySet().stream()
+				.map(key -> "text".equals(key.getValue()) ? QueryShape.TEXT : key.getKey())
+				.toList();
+	}
+
+	private static boolean isUnique(IndexDefinition index) {
+		return Boolean.TRUE.equals(index.getIndexOptions().get("unique"));
+	}
+
+	// Servers before 4.2 lock the collection for a foreground build; later ones ignore the option
+	private static IndexDefinition inBackground(IndexDefinition index) {
+		org.bson.Document options = new org.bson.Document(index.getIndexOptions()).append("background", true);
+		return new IndexDefinition() {
+			@Override
+			public org.bson.Document getIndexKeys() {
+				return index.getIndexKeys();
+			}
+
+			@Override
+			public org.bson.Document getIndexOptions() {
+				return options;
+			}
+		};
+	}
+}
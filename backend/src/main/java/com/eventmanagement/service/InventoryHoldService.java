@@ -0,0 +1,236 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.InventoryHold;
+import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.repository.InventoryHoldRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Time-limited reservations taken at order creation. A hold owns its seats until it is converted
+ * into tickets on payment, released, or picked up by the sweeper after {@code expiresAt}.
+ */
+@Service
+public class InventoryHoldService {
+	private static final Logger log = LoggerFactory.getLogger(InventoryHoldService.class);
+
+	private final InventoryHoldRepository holdRepository;
+	private final EventRepository eventRepository;
+	private final InventoryService inventoryService;
+	private final MongoTemplate mongoTemplate;
+	private final Counter createdCounter;
+	private final Counter convertedCounter;
+	private final Counter expiredCounter;
+	private final AtomicLong activeHolds = new AtomicLong();
+
+	@Value("${app.inventory.hold.ttl-seconds:600}")
+	private long ttlSeconds;
+
+	@Value("${app.inventory.hold.sweep-batch:500}")
+	private int sweepBatch;
+
+	@Value("${app.inventory.hold.release-retry-seconds:60}")
+	private long releaseRetrySeconds;
+
+	public InventoryHoldService(InventoryHoldRepository holdRepository, EventRepository eventRepository,
+			InventoryService inventoryService, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+		this.holdRepository = holdRepository;
+		this.eventRepository = eventRepository;
+		this.inventoryService = inventoryService;
+		this.mongoTemplate = mongoTemplate;
+		this.createdCounter = meterRegistry.counter("inventory.holds.created");
+		this.convertedCounter = meterRegistry.counter("inventory.holds.converted");
+		this.expiredCounter = meterRegistry.counter("inventory.holds.expired");
+		Gauge.builder("inventory.holds.active", activeHolds, AtomicLong::get).register(meterRegistry);
+	}
+
+	/** Takes the seats now; returns empty when the ticket type cannot cover the quantity. */
+	public Optional<InventoryHold> place(Event event, Event.TicketType type, int quantity, String holderId) {
+		if (!inventoryService.reserve(event, type, quantity)) {
+			return Optional.empty();
+		}
+		LocalDateTime now = LocalDateTime.now();
+		InventoryHold hold = new InventoryHold();
+		hold.setId(UUID.randomUUID().toString());
+		hold.setEventId(event.getId());
+		hold.setTicketTypeId(type.getId());
+		hold.setQuantity(quantity);
+		hold.setHolderId(holderId);
+		hold.setStatus(InventoryHold.HoldStatus.ACTIVE);
+		hold.setCreatedAt(now);
+		hold.setExpiresAt(now.plusSeconds(ttlSeconds));
+		try {
+			hold = holdRepository.save(hold);
+		} catch (RuntimeException e) {
+			inventoryService.release(event, type, quantity);
+			throw e;
+		}
+		createdCounter.increment();
+		activeHolds.incrementAndGet();
+		return Optional.of(hold);
+	}
+
+	/**
+	 * Links the payment order to a hold that is still active. Conditional, so it cannot undo a
+	 * status the sweeper has just written.
+	 *
+	 * @throws RuntimeException when the hold is no longer active
+	 */
+	public void attachOrder(InventoryHold hold, String razorpayOrderId) {
+		Query query = new Query(Criteria.where("id").is(hold.getId()).and("status").is(InventoryHold.HoldStatus.ACTIVE));
+		if (mongoTemplate.updateFirst(query, new Update().set("razorpayOrderId", razorpayOrderId), InventoryHold.class)
+				.getModifiedCount() != 1) {
+			throw new RuntimeException("Hold expired before the payment order was created");
+		}
+		hold.setRazorpayOrderId(razorpayOrderId);
+	}
+
+	/** The hold an order was created against, whatever has happened to it since. */
+	public Optional<InventoryHold> findByOrder(String razorpayOrderId) {
+		return holdRepository.findByRazorpayOrderId(razorpayOrderId);
+	}
+
+	/**
+	 * Claims the active, unexpired hold for an order so its seats can be turned into tickets.
+	 * Only one caller can win; an expired or already converted hold yields empty.
+	 */
+	public Optional<InventoryHold> convert(String razorpayOrderId) {
+		LocalDateTime now = LocalDateTime.now();
+		Query query = new Query(Criteria.where("razorpayOrderId").is(razorpayOrderId)
+				.and("status").is(InventoryHold.HoldStatus.ACTIVE)
+				.and("expiresAt").gt(now));
+		Update update = new Update()
+				.set("status", InventoryHold.HoldStatus.CONVERTED)
+				.set("closedAt", now);
+		InventoryHold hold = mongoTemplate.findAndModify(query, update,
+				FindAndModifyOptions.options().returnNew(true), InventoryHold.class);
+		if (hold == null) {
+			return Optional.empty();
+		}
+		convertedCounter.increment();
+		activeHolds.decrementAndGet();
+		return Optional.of(hold);
+	}
+
+	/** Gives an unused hold's seats back, e.g. when the payment order could not be created. */
+	public void release(InventoryHold hold, Event event, Event.TicketType type) {
+		LocalDateTime now = LocalDateTime.now();
+		Query query = new Query(Criteria.where("id").is(hold.getId()).and("status").is(InventoryHold.HoldStatus.ACTIVE));
+		Update update = new Update()
+				.set("status", InventoryHold.HoldStatus.RELEASED)
+				.set("closedAt", now)
+				.set("released", false)
+				.set("releaseClaimedAt", now);
+		if (mongoTemplate.updateFirst(query, update, InventoryHold.class).getModifiedCount() == 1) {
+			activeHolds.decrementAndGet();
+			inventoryService.release(event, type, hold.getQuantity());
+			markReleased(Criteria.where("id").is(hold.getId()));
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.inventory.hold.sweep-interval-ms:5000}")
+	public void sweepExpired() {
+		LocalDateTime now = LocalDateTime.now();
+		List<InventoryHold> candidates;
+		do {
+			// Range scan on (status, expiresAt), oldest first
+			candidates = holdRepository.findExpiredHoldIds(now,
+					PageRequest.of(0, sweepBatch, Sort.by("expiresAt")));
+			if (!candidates.isEmpty()) {
+				int expired = claimAndRelease(candidates, Criteria.where("status").is(InventoryHold.HoldStatus.ACTIVE)
+						.and("expiresAt").lt(now), new Update()
+						.set("status", InventoryHold.HoldStatus.EXPIRED)
+						.set("closedAt", now), now);
+				expiredCounter.increment(expired);
+				if (expired > 0) {
+					log.info("Released {} expired inventory holds", expired);
+				}
+			}
+		} while (candidates.size() == sweepBatch);
+
+		// Closed holds whose seats never made it back, because the process releasing them died
+		LocalDateTime claimedBefore = now.minusSeconds(releaseRetrySeconds);
+		do {
+			candidates = holdRepository.findUnreleasedHoldIds(claimedBefore,
+					PageRequest.of(0, sweepBatch, Sort.by("releaseClaimedAt")));
+			if (!candidates.isEmpty()) {
+				int retried = claimAndRelease(candidates, Criteria.where("released").is(false)
+						.and("releaseClaimedAt").lt(claimedBefore), new Update(), now);
+				if (retried > 0) {
+					log.warn("Released seats again for {} closed inventory holds left unreleased", retried);
+				}
+			}
+		} while (candidates.size() == sweepBatch);
+		activeHolds.set(holdRepository.countActiveHolds());
+	}
+
+	/**
+	 * Tags the candidates still matching {@code guard} with a fresh sweep id, then puts their seats
+	 * back one ticket type at a time and only then marks them released. A crash in between leaves
+	 * them {@code released=false} for a later sweep to claim again once the claim is older than the
+	 * retry delay; at worst one ticket type's seats are released twice, never lost.
+	 *
+	 * @return the number of holds claimed
+	 */
+	private int claimAndRelease(List<InventoryHold> candidates, Criteria guard, Update close, LocalDateTime now) {
+		String sweepId = UUID.randomUUID().toString();
+		List<String> ids = candidates.stream().map(InventoryHold::getId).collect(Collectors.toList());
+		// The guard leaves out anything converted, or claimed by another sweeper, since the scan
+		Query query = new Query(Criteria.where("id").in(ids).andOperator(guard));
+		close.set("sweepId", sweepId)
+				.set("released", false)
+				.set("releaseClaimedAt", now);
+		mongoTemplate.updateMulti(query, close, InventoryHold.class);
+
+		List<InventoryHold> claimed = holdRepository.findBySweepId(sweepId);
+		Map<String, Map<String, Integer>> byEvent = new HashMap<>();
+		for (InventoryHold hold : claimed) {
+			byEvent.computeIfAbsent(hold.getEventId(), k -> new HashMap<>())
+					.merge(hold.getTicketTypeId(), hold.getQuantity(), Integer::sum);
+		}
+		// One release per ticket type, however many holds it had
+		for (Map.Entry<String, Map<String, Integer>> e : byEvent.entrySet()) {
+			Optional<Event> event = eventRepository.findById(e.getKey());
+			if (event.isPresent() && event.get().getTicketTypes() != null) {
+				for (Event.TicketType type : event.get().getTicketTypes()) {
+					Integer quantity = e.getValue().get(type.getId());
+					if (quantity != null) {
+						inventoryService.release(event.get(), type, quantity);
+						markReleased(Criteria.where("sweepId").is(sweepId).and("eventId").is(e.getKey())
+								.and("ticketTypeId").is(type.getId()));
+					}
+				}
+			}
+		}
+		// Holds for deleted events or ticket types have nowhere to go back to
+		markReleased(Criteria.where("sweepId").is(sweepId));
+		return claimed.size();
+	}
+
+	private void markReleased(Criteria holds) {
+		mongoTemplate.updateMulti(new Query(holds.and("released").is(false)), new Update().set("released", true), InventoryHold.class);
+	}
+}
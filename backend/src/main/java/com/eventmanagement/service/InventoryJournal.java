@@ -0,0 +1,239 @@
+package com.eventmanagement.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Append-only write-ahead log for {@link InventoryLedger}. Every ledger movement is written here
+ * before it is acknowledged; a checkpoint line marks the point up to which Mongo is known to be current.
+ *
+ * Callers only take a sequence number and queue their line; one writer thread writes whatever has
+ * queued and syncs the file once for the whole group, then wakes the callers. Concurrent purchases
+ * therefore share an fsync instead of waiting in line for one each.
+ *
+ * Line format: {@code M <seq> <eventId> <ticketTypeId> <soldDelta>} and {@code C <seq>}.
+ */
+@Component
+public class InventoryJournal {
+	private static final Logger log = LoggerFactory.getLogger(InventoryJournal.class);
+	private static final String FILE_NAME = "inventory.journal";
+
+	private final Path file;
+	private final boolean fsync;
+	private final long compactBytes;
+	private FileChannel channel;
+	private long seq;
+	private long checkpoint;
+
+	// Guarded by this; lines in the order their sequence numbers were taken
+	private List<Pending> queue = new ArrayList<>();
+	private Thread writer;
+	private boolean closed;
+
+	// Touched by the writer thread only
+	private long writtenSeq;
+	private long writtenCheckpoint;
+
+	public InventoryJournal(@Value("${app.inventory.journal.dir:data/inventory-journal}") String dir,
+			@Value("${app.inventory.journal.fsync:true}") boolean fsync,
+			@Value("${app.inventory.journal.compact-bytes:16777216}") long compactBytes) {
+		this.file = Paths.get(dir).toAbsolutePath().normalize().resolve(FILE_NAME);
+		this.fsync = fsync;
+		this.compactBytes = compactBytes;
+	}
+
+	public record Entry(long seq, String eventId, String ticketTypeId, int soldDelta) {}
+
+	private record Pending(String line, long seq, boolean isCheckpoint, CompletableFuture<Void> done) {}
+
+	/** Entries written after the last checkpoint, i.e. movements Mongo may not have seen yet. */
+	public synchronized List<Entry> open() {
+		List<Entry> pending = new ArrayList<>();
+		try {
+			Files.createDirectories(file.getParent());
+			if (Files.exists(file)) {
+				for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+					String[] parts = line.split(" ");
+					if (parts.length == 2 && parts[0].equals("C")) {
+						checkpoint = Long.parseLong(parts[1]);
+						seq = Math.max(seq, checkpoint);
+						pending.clear();
+					} else if (parts.length == 5 && parts[0].equals("M")) {
+						Entry entry = new Entry(Long.parseLong(parts[1]), parts[2], parts[3], Integer.parseInt(parts[4]));
+						seq = Math.max(seq, entry.seq());
+						pending.add(entry);
+					}
+					// anything else is a torn tail from a crash mid-write; the movement was never acknowledged
+				}
+			}
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not open inventory journal " + file, e);
+		}
+		writtenSeq = seq;
+		writtenCheckpoint = checkpoint;
+		writer = new Thread(this::writeLoop, "inventory-journal");
+		writer.setDaemon(true);
+		writer.start();
+		return pending;
+	}
+
+	/** Journals one movement and returns once it is on disk (or written, with fsync off). */
+	public long append(String eventId, String ticketTypeId, int soldDelta) {
+		Pending pending;
+		synchronized (this) {
+			long next = seq + 1;
+			pending = enqueue("M " + next + " " + eventId + " " + ticketTypeId + " " + soldDelta + "\n", next, false);
+			seq = next;
+		}
+		await(pending);
+		return pending.seq();
+	}
+
+	public synchronized long currentSeq() {
+		return seq;
+	}
+
+	public void checkpoint(long upTo) {
+		Pending pending;
+		synchronized (this) {
+			if (upTo <= checkpoint) {
+				return;
+			}
+			pending = enqueue("C " + upTo + "\n", upTo, true);
+			checkpoint = upTo;
+		}
+		await(pending);
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		synchronized (this) {
+			closed = true;
+			notifyAll();
+		}
+		if (writer != null) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	private Pending enqueue(String line, long lineSeq, boolean isCheckpoint) {
+		if (closed || writer == null) {
+			throw new IllegalStateException("Inventory journal is not open");
+		}
+		Pending pending = new Pending(line, lineSeq, isCheckpoint, new CompletableFuture<>());
+		queue.add(pending);
+		notifyAll();
+		return pending;
+	}
+
+	private void await(Pending pending) {
+		try {
+			pending.done().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for the inventory journal", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	// Drains on close too, so nothing acknowledged before shutdown is left unwritten
+	private void writeLoop() {
+		while (true) {
+			List<Pending> batch;
+			synchronized (this) {
+				while (queue.isEmpty() && !closed) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				if (queue.isEmpty()) {
+					return;
+				}
+				batch = queue;
+				queue = new ArrayList<>();
+			}
+			write(batch);
+		}
+	}
+
+	private void write(List<Pending> batch) {
+		StringBuilder lines = new StringBuilder(batch.size() * 48);
+		for (Pending pending : batch) {
+			lines.append(pending.line());
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			if (fsync) {
+				channel.force(false);
+			}
+			for (Pending pending : batch) {
+				if (pending.isCheckpoint()) {
+					writtenCheckpoint = pending.seq();
+				} else {
+					writtenSeq = pending.seq();
+				}
+			}
+		} catch (IOException e) {
+			UncheckedIOException failure = new UncheckedIOException("Could not write inventory journal " + file, e);
+			batch.forEach(pending -> pending.done().completeExceptionally(failure));
+			return;
+		}
+		batch.forEach(pending -> pending.done().complete(null));
+		try {
+			if (writtenCheckpoint >= writtenSeq && channel.size() > compactBytes) {
+				compact();
+			}
+		} catch (IOException e) {
+			// The lines are durable either way; an uncompacted file only makes the next replay longer
+			log.warn("Could not compact inventory journal {}", file, e);
+		}
+	}
+
+	// Everything written is checkpointed: restart the file from a single checkpoint line
+	private void compact() throws IOException {
+		Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+		Files.writeString(tmp, "C " + writtenCheckpoint + "\n", StandardCharsets.UTF_8);
+		channel.close();
+		try {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		}
+	}
+}
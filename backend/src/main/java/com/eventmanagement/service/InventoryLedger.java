@@ -0,0 +1,210 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.util.StripedCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process availability for events flagged {@code highDemand}. Purchases take seats from striped
+ * counters instead of writing the event document; the sold deltas are journaled first and then
+ * flushed to Mongo in batches, one update per event.
+ *
+ * The ledger is authoritative for a hot event only within this node, so hot mode assumes purchases
+ * for that event are routed to a single instance.
+ */
+@Component
+public class InventoryLedger {
+	private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+	private final MongoTemplate mongoTemplate;
+	private final InventoryJournal journal;
+	private final int stripes;
+
+	private final Map<String, StripedCounter> available = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> unflushedSold = new ConcurrentHashMap<>();
+	// Cut batches not yet confirmed in Mongo, per event in seq order; touched by flush only
+	private final Map<String, Deque<Batch>> unapplied = new HashMap<>();
+	// Movements hold the read side while journaling; a flush takes the write side to cut a consistent batch
+	private final ReentrantReadWriteLock batchLock = new ReentrantReadWriteLock();
+
+	public InventoryLedger(MongoTemplate mongoTemplate, InventoryJournal journal,
+			@Value("${app.inventory.ledger.stripes:16}") int stripes) {
+		this.mongoTemplate = mongoTemplate;
+		this.journal = journal;
+		this.stripes = stripes;
+	}
+
+	private record Batch(Map<String, Integer> soldByType, long seq) {}
+
+	public static boolean isHot(Event event) {
+		return event.getSettings() != null && event.getSettings().isHighDemand();
+	}
+
+	@PostConstruct
+	public void recover() {
+		List<InventoryJournal.Entry> pending = journal.open();
+		if (pending.isEmpty()) {
+			return;
+		}
+		Map<String, Map<String, Integer>> byEvent = new HashMap<>();
+		Map<String, Long> maxSeq = new HashMap<>();
+		for (InventoryJournal.Entry entry : pending) {
+			byEvent.computeIfAbsent(entry.eventId(), k -> new HashMap<>());
+			maxSeq.merge(entry.eventId(), entry.seq(), Math::max);
+		}
+		for (String eventId : byEvent.keySet()) {
+			Event event = mongoTemplate.findById(eventId, Event.class);
+			if (event == null) {
+				continue;
+			}
+			// Skip anything a flush already applied before the crash
+			long applied = event.getInventoryLedgerSeq();
+			Map<String, Integer> deltas = byEvent.get(eventId);
+			for (InventoryJournal.Entry entry : pending) {
+				if (entry.eventId().equals(eventId) && entry.seq() > applied) {
+					deltas.merge(entry.ticketTypeId(), entry.soldDelta(), Integer::sum);
+				}
+			}
+			applyToEvent(eventId, deltas, maxSeq.get(eventId));
+		}
+		journal.checkpoint(journal.currentSeq());
+		log.info("Inventory ledger replayed {} journal entries across {} events", pending.size(), byEvent.size());
+	}
+
+	public boolean reserve(Event event, Event.TicketType type, int quantity) {
+		String key = key(event.getId(), type.getId());
+		StripedCounter counter = counter(key, type);
+		if (!counter.tryTake(quantity)) {
+			return false;
+		}
+		try {
+			record(event.getId(), type.getId(), key, quantity);
+		} catch (RuntimeException e) {
+			// Nothing was journaled, so the seats were never sold
+			counter.give(quantity);
+			throw e;
+		}
+		return true;
+	}
+
+	public void release(Event event, Event.TicketType type, int quantity) {
+		String key = key(event.getId(), type.getId());
+		StripedCounter counter = counter(key, type);
+		record(event.getId(), type.getId(), key, -quantity);
+		counter.give(quantity);
+	}
+
+	/** Seats left for a hot ticket type, or the stored figure if the ledger has not seen it yet. */
+	public long available(Event event, Event.TicketType type) {
+		StripedCounter counter = available.get(key(event.getId(), type.getId()));
+		return counter != null ? counter.sum() : type.getAvailableQuantity();
+	}
+
+	@Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:500}")
+	public synchronized void flush() {
+		Map<String, Map<String, Integer>> byEvent = new HashMap<>();
+		long upTo;
+		batchLock.writeLock().lock();
+		try {
+			for (Map.Entry<String, LongAdder> e : unflushedSold.entrySet()) {
+				long delta = e.getValue().sumThenReset();
+				if (delta != 0) {
+					String[] ids = e.getKey().split("\\|", 2);
+					byEvent.computeIfAbsent(ids[0], k -> new HashMap<>()).merge(ids[1], (int) delta, Integer::sum);
+				}
+			}
+			upTo = journal.currentSeq();
+		} finally {
+			batchLock.writeLock().unlock();
+		}
+		for (Map.Entry<String, Map<String, Integer>> e : byEvent.entrySet()) {
+			unapplied.computeIfAbsent(e.getKey(), k -> new ArrayDeque<>()).add(new Batch(e.getValue(), upTo));
+		}
+		if (unapplied.isEmpty()) {
+			return;
+		}
+		for (Iterator<Map.Entry<String, Deque<Batch>>> it = unapplied.entrySet().iterator(); it.hasNext(); ) {
+			Map.Entry<String, Deque<Batch>> e = it.next();
+			Deque<Batch> batches = e.getValue();
+			try {
+				// Oldest first, each under the seq it was cut with: a write that reached the server but
+				// failed on the way back finds its own seq already stored and applies nothing the second time
+				while (!batches.isEmpty()) {
+					Batch batch = batches.peek();
+					applyToEvent(e.getKey(), batch.soldByType(), batch.seq());
+					batches.poll();
+				}
+				it.remove();
+			} catch (RuntimeException ex) {
+				// Kept for the next round; the journal stays un-checkpointed until then
+				log.warn("Inventory ledger flush failed for event {}", e.getKey(), ex);
+			}
+		}
+		if (unapplied.isEmpty()) {
+			journal.checkpoint(upTo);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		flush();
+	}
+
+	// Seeded on first touch, before any movement for the key, so the stored figure is still exact
+	private StripedCounter counter(String key, Event.TicketType type) {
+		return available.computeIfAbsent(key, k -> new StripedCounter(stripes, Math.max(0, type.getAvailableQuantity())));
+	}
+
+	private void record(String eventId, String ticketTypeId, String key, int soldDelta) {
+		batchLock.readLock().lock();
+		try {
+			journal.append(eventId, ticketTypeId, soldDelta);
+			unflushedSold.computeIfAbsent(key, k -> new LongAdder()).add(soldDelta);
+		} finally {
+			batchLock.readLock().unlock();
+		}
+	}
+
+	// One write per event; the seq guard makes a replay after a half-finished flush a no-op
+	private void applyToEvent(String eventId, Map<String, Integer> soldByType, long seq) {
+		Update update = new Update().set("inventoryLedgerSeq", seq);
+		int i = 0;
+		for (Map.Entry<String, Integer> e : soldByType.entrySet()) {
+			if (e.getValue() == 0) {
+				continue;
+			}
+			String slot = "t" + i++;
+			update.inc("ticketTypes.$[" + slot + "].availableQuantity", -e.getValue())
+					.inc("ticketTypes.$[" + slot + "].soldQuantity", e.getValue())
+					.filterArray(Criteria.where(slot + "._id").is(e.getKey()));
+		}
+		Query query = new Query(Criteria.where("id").is(eventId).orOperator(
+				Criteria.where("inventoryLedgerSeq").lt(seq),
+				Criteria.where("inventoryLedgerSeq").exists(false)));
+		mongoTemplate.updateFirst(query, update, Event.class);
+	}
+
+	private static String key(String eventId, String ticketTypeId) {
+		return eventId + "|" + ticketTypeId;
+	}
+}
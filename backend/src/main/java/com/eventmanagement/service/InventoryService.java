@@ -0,0 +1,87 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moves ticket type counters with a single conditional update on the event document,
+ * so concurrent buyers can never take the same seat twice or drive availability below zero.
+ * Events flagged {@code highDemand} are served from the {@link InventoryLedger} instead.
+ */
+@Service
+public class InventoryService {
+	private final MongoTemplate mongoTemplate;
+	private final InventoryLedger inventoryLedger;
+
+	public InventoryService(MongoTemplate mongoTemplate, InventoryLedger inventoryLedger) {
+		this.mongoTemplate = mongoTemplate;
+		this.inventoryLedger = inventoryLedger;
+	}
+
+	public boolean reserve(Event event, Event.TicketType type, int quantity) {
+		if (InventoryLedger.isHot(event)) {
+			return type.isActive() && inventoryLedger.reserve(event, type, quantity);
+		}
+		return reserve(event.getId(), type.getId(), quantity);
+	}
+
+	public boolean release(Event event, Event.TicketType type, int quantity) {
+		if (InventoryLedger.isHot(event)) {
+			inventoryLedger.release(event, type, quantity);
+			return true;
+		}
+		return release(event.getId(), type.getId(), quantity);
+	}
+
+	/** Current seats left, read from the ledger for hot events and from the loaded document otherwise. */
+	public long available(Event event, Event.TicketType type) {
+		if (InventoryLedger.isHot(event)) {
+			return inventoryLedger.available(event, type);
+		}
+		return type.getAvailableQuantity();
+	}
+
+	/**
+	 * Takes {@code quantity} tickets from the given type if it is active and has enough left.
+	 *
+	 * @return true when the counters were moved, false when the guard did not match
+	 */
+	public boolean reserve(String eventId, String ticketTypeId, int quantity) {
+		if (quantity <= 0) {
+			throw new IllegalArgumentException("Quantity must be at least 1");
+		}
+		Query query = new Query(Criteria.where("id").is(eventId)
+				.and("ticketTypes").elemMatch(Criteria.where("_id").is(ticketTypeId)
+						.and("isActive").is(true)
+						.and("availableQuantity").gte(quantity)));
+		Update update = new Update()
+				.inc("ticketTypes.$.availableQuantity", -quantity)
+				.inc("ticketTypes.$.soldQuantity", quantity);
+		UpdateResult result = mongoTemplate.updateFirst(query, update, Event.class);
+		return result.getModifiedCount() == 1;
+	}
+
+	/**
+	 * Gives {@code quantity} previously sold tickets back to the given type.
+	 *
+	 * @return true when the counters were moved, false when nothing that many was sold
+	 */
+	public boolean release(String eventId, String ticketTypeId, int quantity) {
+		if (quantity <= 0) {
+			throw new IllegalArgumentException("Quantity must be at least 1");
+		}
+		Query query = new Query(Criteria.where("id").is(eventId)
+				.and("ticketTypes").elemMatch(Criteria.where("_id").is(ticketTypeId)
+						.and("soldQuantity").gte(quantity)));
+		Update update = new Update()
+				.inc("ticketTypes.$.availableQuantity", quantity)
+				.inc("ticketTypes.$.soldQuantity", -quantity);
+		UpdateResult result = mongoTemplate.updateFirst(query, update, Event.class);
+		return result.getModifiedCount() == 1;
+	}
+}
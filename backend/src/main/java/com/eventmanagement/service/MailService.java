@@ -2,12 +2,18 @@ package com.eventmanagement.service;
 
 import jakarta.mail.MessagingException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import jakarta.mail.internet.MimeMessage;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class MailService {
 	private final JavaMailSender mailSender;
@@ -38,4 +44,52 @@ public class MailService {
 		helper.setText(html, true);
 		mailSender.send(message);
 	}
-}
\ No newline at end of file
+
+	/** Builds an HTML message whose {@code cid:} references resolve to the given inline PNGs. */
+	public MimeMessage buildHtml(String to, String subject, String html, Map<String, byte[]> inlinePngs) throws MessagingException {
+		MimeMessage message = mailSender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+		helper.setTo(to);
+		helper.setFrom(fromAddress);
+		helper.setSubject(subject);
+		helper.setText(html, true);
+		for (Map.Entry<String, byte[]> e : inlinePngs.entrySet()) {
+			helper.addInline(e.getKey(), new ByteArrayResource(e.getValue()), "image/png");
+		}
+		return message;
+	}
+
+	/**
+	 * Sends a batch over a single SMTP connection.
+	 *
+	 * @return failures keyed by index into {@code messages}; empty when everything went out
+	 */
+	public Map<Integer, Exception> sendBatch(List<MimeMessage> messages) {
+		Map<Integer, Exception> failures = new HashMap<>();
+		if (messages.isEmpty()) {
+			return failures;
+		}
+		try {
+			mailSender.send(messages.toArray(new MimeMessage[0]));
+		} catch (MailSendException e) {
+			Map<Object, Exception> failed = e.getFailedMessages();
+			if (failed.isEmpty()) {
+				// Connection-level failure: nothing was sent
+				for (int i = 0; i < messages.size(); i++) {
+					failures.put(i, e);
+				}
+			}
+			for (int i = 0; i < messages.size(); i++) {
+				Exception cause = failed.get(messages.get(i));
+				if (cause != null) {
+					failures.put(i, cause);
+				}
+			}
+		} catch (RuntimeException e) {
+			for (int i = 0; i < messages.size(); i++) {
+				failures.put(i, e);
+			}
+		}
+		return failures;
+	}
+}
@@ -4,6 +4,7 @@ import com.eventmanagement.dto.PaymentDtos.CreateOrderRequest;
 import com.eventmanagement.dto.PaymentDtos.CreateOrderResponse;
 import com.eventmanagement.dto.PaymentDtos.VerifyPaymentRequest;
 import com.eventmanagement.model.Event;
+import com.eventmanagement.model.InventoryHold;
 import com.eventmanagement.model.Ticket;
 import com.eventmanagement.repository.TicketRepository;
 import com.razorpay.Order;
@@ -14,6 +15,9 @@ import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Service
 public class PaymentService {
@@ -21,21 +25,25 @@ public class PaymentService {
 	private final EventService eventService;
 	private final TicketService ticketService;
 	private final TicketRepository ticketRepository;
-	private final MailService mailService;
+	private final InventoryService inventoryService;
+	private final InventoryHoldService inventoryHoldService;
+	private final IdempotencyService idempotencyService;
 	@Value("${razorpay.keyId}")
 	private String keyId;
 	@Value("${razorpay.keySecret}")
 	private String keySecret;
 
-	public PaymentService(RazorpayClient razorpayClient, EventService eventService, TicketService ticketService, TicketRepository ticketRepository, MailService mailService) {
+	public PaymentService(RazorpayClient razorpayClient, EventService eventService, TicketService ticketService, TicketRepository ticketRepository, InventoryService inventoryService, InventoryHoldService inventoryHoldService, IdempotencyService idempotencyService) {
 		this.razorpayClient = razorpayClient;
 		this.eventService = eventService;
 		this.ticketService = ticketService;
 		this.ticketRepository = ticketRepository;
-		this.mailService = mailService;
+		this.inventoryService = inventoryService;
+		this.inventoryHoldService = inventoryHoldService;
+		this.idempotencyService = idempotencyService;
 	}
 
-	public CreateOrderResponse createOrder(CreateOrderRequest req) throws Exception {
+	public CreateOrderResponse createOrder(CreateOrderRequest req, String userId) throws Exception {
 		Event event = eventService.getEventById(req.getEventId())
 				.orElseThrow(() -> new RuntimeException("Event not found"));
 		Event.TicketType type = event.getTicketTypes().stream()
@@ -43,7 +51,10 @@ public class PaymentService {
 				.findFirst()
 				.orElseThrow(() -> new RuntimeException("Ticket type not found"));
 		if (!type.isActive()) throw new RuntimeException("Ticket type inactive");
-		if (type.getAvailableQuantity() < req.getQuantity()) throw new RuntimeException("Insufficient availability");
+		if (inventoryService.available(event, type) < req.getQuantity()) throw new RuntimeException("Insufficient availability");
+		// Hold the seats for the length of the checkout
+		InventoryHold hold = inventoryHoldService.place(event, type, req.getQuantity(), userId)
+				.orElseThrow(() -> new RuntimeException("Insufficient availability"));
 
 		long amountPaise = Math.round(type.getPrice().multiply(java.math.BigDecimal.valueOf(100)).doubleValue()) * req.getQuantity();
 		JSONObject orderRequest = new JSONObject();
@@ -51,35 +62,76 @@ public class PaymentService {
 		orderRequest.put("currency", req.getCurrency());
 		orderRequest.put("receipt", "evt_" + event.getId() + "_" + System.currentTimeMillis());
 		orderRequest.put("payment_capture", 1);
-		Order order = razorpayClient.orders.create(orderRequest);
-		return new CreateOrderResponse(order.get("id"), amountPaise, req.getCurrency(), keyId);
+		Order order;
+		try {
+			order = razorpayClient.orders.create(orderRequest);
+			inventoryHoldService.attachOrder(hold, order.get("id"));
+		} catch (Exception e) {
+			inventoryHoldService.release(hold, event, type);
+			throw e;
+		}
+		return new CreateOrderResponse(order.get("id"), amountPaise, req.getCurrency(), keyId, hold.getExpiresAt());
 	}
 
-	public boolean verifyPayment(VerifyPaymentRequest req, String userId) throws Exception {
+	/**
+	 * Verifies the Razorpay signature and issues the tickets once per order and payment, whatever
+	 * {@code idempotencyKey} the client sends. Retries with the same key, or without one for the same
+	 * order and payment, get the original tickets.
+	 *
+	 * @return empty when the signature does not match
+	 */
+	public Optional<IdempotencyService.Outcome> verifyPayment(VerifyPaymentRequest req, String userId, String idempotencyKey) throws Exception {
 		String payload = req.getRazorpayOrderId() + '|' + req.getRazorpayPaymentId();
 		String expectedSig = hmacSHA256(payload, keySecret);
 		if (!expectedSig.equals(req.getRazorpaySignature())) {
-			return false;
+			return Optional.empty();
+		}
+		String fingerprint = payload + '|' + req.getEventId() + '|' + req.getTicketTypeId() + '|' + req.getQuantity();
+		Supplier<IdempotencyService.Outcome> issue = () ->
+				idempotencyService.execute("razorpay:" + payload, userId, fingerprint, () -> issueTickets(req, userId));
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return Optional.of(issue.get());
+		}
+		// The client's key sits on top of the payment's own, so a fresh key cannot issue a payment twice
+		AtomicBoolean replayed = new AtomicBoolean();
+		IdempotencyService.Outcome outcome = idempotencyService.execute("key:" + userId + ":" + idempotencyKey, userId, fingerprint, () -> {
+			IdempotencyService.Outcome paid = issue.get();
+			replayed.set(paid.replayed());
+			return paid.tickets();
+		});
+		return Optional.of(new IdempotencyService.Outcome(outcome.tickets(), outcome.replayed() || replayed.get()));
+	}
+
+	private List<Ticket> issueTickets(VerifyPaymentRequest req, String userId) {
+		// Tickets already written for this payment (e.g. under another key) are returned as they are
+		List<Ticket> existing = ticketRepository.findByPaymentId(req.getRazorpayPaymentId());
+		if (!existing.isEmpty()) {
+			return existing;
 		}
-		// Signature valid: create tickets
 		com.eventmanagement.dto.TicketPurchaseRequest purchaseRequest = new com.eventmanagement.dto.TicketPurchaseRequest();
-		purchaseRequest.setEventId(req.getEventId());
-		purchaseRequest.setTicketTypeId(req.getTicketTypeId());
-		purchaseRequest.setQuantity(req.getQuantity());
 		purchaseRequest.setAttendeeName(req.getAttendeeName());
 		purchaseRequest.setAttendeeEmail(req.getAttendeeEmail());
 		purchaseRequest.setAttendeePhone(req.getAttendeePhone());
 		purchaseRequest.setPaymentMethod("RAZORPAY");
 		
-		List<Ticket> tickets = ticketService.purchaseTickets(purchaseRequest, userId);
-		// Set payment id on tickets
-		for (Ticket ticket : tickets) {
-			ticket.setPaymentId(req.getRazorpayPaymentId());
+		// What was paid for is what the order's hold recorded, never what the verify call claims
+		String orderId = req.getRazorpayOrderId();
+		InventoryHold order = inventoryHoldService.findByOrder(orderId)
+				.filter(h -> userId.equals(h.getHolderId()))
+				.orElseThrow(() -> new IllegalArgumentException("No checkout found for order " + orderId));
+		purchaseRequest.setEventId(order.getEventId());
+		purchaseRequest.setTicketTypeId(order.getTicketTypeId());
+		purchaseRequest.setQuantity(order.getQuantity());
+
+		// Seats held at order creation become tickets; once the hold has lapsed, try to take them now
+		if (inventoryHoldService.convert(orderId).isPresent()) {
+			return ticketService.issueHeldTickets(purchaseRequest, userId, req.getRazorpayPaymentId());
+		}
+		// Re-read: the hold may have been converted since it was loaded above
+		if (inventoryHoldService.findByOrder(orderId).map(InventoryHold::getStatus).orElse(null) == InventoryHold.HoldStatus.CONVERTED) {
+			throw new IllegalArgumentException("Order " + orderId + " has already been fulfilled");
 		}
-		ticketRepository.saveAll(tickets);
-		// Email tickets
-		sendTicketEmails(tickets);
-		return tickets != null && !tickets.isEmpty();
+		return ticketService.purchaseTickets(purchaseRequest, userId, req.getRazorpayPaymentId());
 	}
 
 	public void refundPaymentForTicket(Ticket ticket) throws Exception {
@@ -93,20 +145,6 @@ public class PaymentService {
 		razorpayClient.payments.refund(ticket.getPaymentId(), body);
 	}
 
-	private void sendTicketEmails(List<Ticket> tickets) {
-		for (Ticket t : tickets) {
-			try {
-				String subject = "Your Ticket - " + t.getEventName();
-				String html = "<h2>" + t.getEventName() + "</h2>" +
-					"<p>Ticket Number: " + t.getTicketNumber() + "</p>" +
-					"<p>Type: " + t.getTicketTypeName() + "</p>" +
-					"<p>Venue: " + t.getEventVenue() + "</p>" +
-					"<img alt=\"QR\" src=\"data:image/png;base64," + (t.getQrCode() == null ? "" : t.getQrCode()) + "\" style=\"max-width:240px;border-radius:8px;\" />";
-				mailService.sendHtml(t.getAttendeeEmail(), subject, html);
-			} catch (Exception ignore) {}
-		}
-	}
-
 	private String hmacSHA256(String data, String secret) throws Exception {
 		javax.crypto.Mac mac = javax.crypto.Mac.getInstance("HmacSHA256");
 		javax.crypto.spec.SecretKeySpec secretKeySpec = new javax.crypto.spec.SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
@@ -0,0 +1,199 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.util.QRCodeGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signed QR payloads and their images. A payload is {@code <ticketId>.<mac>}, where the MAC is a
+ * truncated HMAC-SHA256 of the ticket id, so only the server can mint one and a scan needs no
+ * lookup to reject a forgery. Images are a pure function of the payload: they are rendered on
+ * first request and kept in an LRU cache bounded by total bytes.
+ */
+@Service
+public class QrCodeService {
+	private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+	private static final int MAC_BYTES = 12;
+	private static final String HKDF_INFO = "event-management/qr-code-signing";
+
+	private final QRCodeGenerator qrCodeGenerator;
+	private final QrImageStore qrImageStore;
+	private final byte[] secret;
+	private final long maxBytes;
+	private final int size;
+	private final ThreadLocal<Mac> macs;
+	private final LinkedHashMap<String, Image> cache = new LinkedHashMap<>(256, 0.75f, true);
+	private long cachedBytes;
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter evictions;
+	private final Timer renderTimer;
+
+	/** PNG bytes and the ETag that identifies them. */
+	public record Image(byte[] png, String etag) {}
+
+	/**
+	 * @param secret    key for payload MACs; when empty one is derived from {@code jwtSecret} with
+	 *                  HKDF, so the JWT key itself never signs anything but tokens
+	 */
+	public QrCodeService(QRCodeGenerator qrCodeGenerator, QrImageStore qrImageStore, MeterRegistry meterRegistry,
+			@Value("${app.qr-code.signing-secret:}") String secret,
+			@Value("${jwt.secret}") String jwtSecret,
+			@Value("${app.qr-code.cache-bytes:16777216}") long maxBytes,
+			@Value("${app.qr-code.size:300}") int size) {
+		this.qrCodeGenerator = qrCodeGenerator;
+		this.qrImageStore = qrImageStore;
+		this.secret = secret.isEmpty()
+				? hkdf(jwtSecret.getBytes(StandardCharsets.UTF_8), HKDF_INFO)
+				: secret.getBytes(StandardCharsets.UTF_8);
+		this.maxBytes = maxBytes;
+		this.size = size;
+		this.macs = ThreadLocal.withInitial(this::newMac);
+		this.hits = meterRegistry.counter("qr.cache.hits");
+		this.misses = meterRegistry.counter("qr.cache.misses");
+		this.evictions = meterRegistry.counter("qr.cache.evictions");
+		this.renderTimer = meterRegistry.timer("qr.render.latency");
+		Gauge.builder("qr.cache.bytes", this, QrCodeService::cachedBytes).register(meterRegistry);
+	}
+
+	/** The signed payload encoded into a ticket's QR code. */
+	public String payload(String ticketId) {
+		return ticketId + "." + B64.encodeToString(mac(ticketId));
+	}
+
+	/** Ticket id carried by a scanned payload, if its signature is genuine. */
+	public Optional<String> ticketIdFrom(String payload) {
+		if (payload == null) {
+			return Optional.empty();
+		}
+		int dot = payload.lastIndexOf('.');
+		if (dot <= 0) {
+			return Optional.empty();
+		}
+		String ticketId = payload.substring(0, dot);
+		try {
+			byte[] presented = B64_DECODER.decode(payload.substring(dot + 1));
+			return MessageDigest.isEqual(presented, mac(ticketId)) ? Optional.of(ticketId) : Optional.empty();
+		} catch (IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
+
+	/** ETag for a reference, known without rendering so revalidation never touches the renderer. */
+	public String etag(String ref) {
+		return "\"" + (QrImageStore.isRef(ref) ? ref : B64.encodeToString(sha256(ref + "|" + size))) + "\"";
+	}
+
+	/**
+	 * Image behind a ticket's {@code qrImageRef}: signed payloads are rendered through the cache,
+	 * content digests of images migrated from ticket documents are read from the image store.
+	 */
+	public Optional<Image> image(String ref) {
+		return image(ref, true);
+	}
+
+	/** As {@link #image}, but bypassing the cache; for bulk exports that would otherwise flush it. */
+	public Optional<Image> uncachedImage(String ref) {
+		return image(ref, false);
+	}
+
+	/** Whether {@code ref} is a stored image's digest or a payload signed with this service's key. */
+	public boolean isValidRef(String ref) {
+		return QrImageStore.isRef(ref) || ticketIdFrom(ref).isPresent();
+	}
+
+	private Optional<Image> image(String ref, boolean cached) {
+		if (QrImageStore.isRef(ref)) {
+			return qrImageStore.get(ref).map(png -> new Image(png, etag(ref)));
+		}
+		if (!isValidRef(ref)) {
+			return Optional.empty();
+		}
+		return Optional.of(cached ? render(ref) : new Image(qrCodeGenerator.generateQRCodeBytes(ref), etag(ref)));
+	}
+
+	Image render(String payload) {
+		synchronized (cache) {
+			Image cached = cache.get(payload);
+			if (cached != null) {
+				hits.increment();
+				return cached;
+			}
+		}
+		misses.increment();
+		long started = System.nanoTime();
+		Image image = new Image(qrCodeGenerator.generateQRCodeBytes(payload), etag(payload));
+		renderTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		synchronized (cache) {
+			Image previous = cache.put(payload, image);
+			cachedBytes += image.png().length - (previous != null ? previous.png().length : 0);
+			Iterator<Image> eldest = cache.values().iterator();
+			while (cachedBytes > maxBytes && eldest.hasNext()) {
+				cachedBytes -= eldest.next().png().length;
+				eldest.remove();
+				evictions.increment();
+			}
+		}
+		return image;
+	}
+
+	long cachedBytes() {
+		synchronized (cache) {
+			return cachedBytes;
+		}
+	}
+
+	private byte[] mac(String ticketId) {
+		return Arrays.copyOf(macs.get().doFinal(ticketId.getBytes(StandardCharsets.UTF_8)), MAC_BYTES);
+	}
+
+	private Mac newMac() {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 unavailable", e);
+		}
+	}
+
+	// RFC 5869 with SHA-256 and the default all-zero salt; one block of output is a whole key
+	static byte[] hkdf(byte[] inputKey, String info) {
+		try {
+			Mac extract = Mac.getInstance("HmacSHA256");
+			extract.init(new SecretKeySpec(new byte[32], "HmacSHA256"));
+			byte[] prk = extract.doFinal(inputKey);
+			Mac expand = Mac.getInstance("HmacSHA256");
+			expand.init(new SecretKeySpec(prk, "HmacSHA256"));
+			expand.update(info.getBytes(StandardCharsets.UTF_8));
+			return expand.doFinal(new byte[] {1});
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 unavailable", e);
+		}
+	}
+
+	private static byte[] sha256(String value) {
+		try {
+			return Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)), 16);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("SHA-256 unavailable", e);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.util.IdRangeWalk;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves base64 QR images still embedded in ticket documents into the {@link QrImageStore}, leaving
+ * only a reference behind. Tickets with no usable image (early placeholder payloads, or renders that
+ * never finished) get a signed payload instead. Runs in the background after startup and is a no-op
+ * once every ticket has a {@code qrImageRef}. Batches are read in {@code _id} order and written by a
+ * small pool, so a large collection is walked once rather than rescanned for every batch.
+ */
+@Component
+public class QrImageMigration {
+	private static final Logger log = LoggerFactory.getLogger(QrImageMigration.class);
+	private static final String LEGACY_FIELD = "qrCode";
+	private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G'};
+
+	private final MongoTemplate mongoTemplate;
+	private final QrImageStore qrImageStore;
+	private final QrCodeService qrCodeService;
+
+	@Value("${app.qr-code.migration.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.qr-code.migration.batch-size:200}")
+	private int batchSize;
+
+	@Value("${app.qr-code.migration.threads:4}")
+	private int threads;
+
+	public QrImageMigration(MongoTemplate mongoTemplate, QrImageStore qrImageStore, QrCodeService qrCodeService) {
+		this.mongoTemplate = mongoTemplate;
+		this.qrImageStore = qrImageStore;
+		this.qrCodeService = qrCodeService;
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void migrate() {
+		if (!enabled) {
+			return;
+		}
+		String collection = mongoTemplate.getCollectionName(Ticket.class);
+		int workers = Math.max(1, threads);
+		AtomicInteger threadIds = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+			Thread t = new Thread(r, "qr-migration-" + threadIds.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		// Bounds how far reading runs ahead of the workers, and so how many legacy images sit in memory
+		Semaphore inFlight = new Semaphore(workers * 2);
+		AtomicLong moved = new AtomicLong();
+		AtomicLong signed = new AtomicLong();
+		try {
+			// The whole collection is one index pass however many tickets still need moving
+			IdRangeWalk.walk(mongoTemplate, collection,
+					new Criteria().orOperator(
+							Criteria.where(LEGACY_FIELD).exists(true),
+							Criteria.where("qrImageRef").exists(false)),
+					batchSize, batch -> {
+						inFlight.acquire();
+						pool.execute(() -> {
+							try {
+								write(collection, batch, moved, signed);
+							} catch (RuntimeException e) {
+								// Left as they were; the next startup picks them up again
+								log.warn("QR migration batch of {} failed: {}", batch.size(), e.getMessage());
+							} finally {
+								inFlight.release();
+							}
+						});
+					}, "_id", LEGACY_FIELD);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pool.shutdown();
+			try {
+				pool.awaitTermination(1, TimeUnit.HOURS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (moved.get() + signed.get() > 0) {
+			log.info("QR migration: moved {} images to the image store, gave {} tickets a signed payload", moved, signed);
+		}
+	}
+
+	private void write(String collection, List<Document> batch, AtomicLong moved, AtomicLong signed) {
+		BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+		for (Document doc : batch) {
+			Object legacy = doc.get(LEGACY_FIELD);
+			byte[] png = decodePng(legacy);
+			Update update = new Update().unset(LEGACY_FIELD).unset("qrStatus");
+			if (png != null) {
+				update.set("qrImageRef", qrImageStore.put(png));
+				moved.incrementAndGet();
+			} else {
+				update.set("qrImageRef", qrCodeService.payload(String.valueOf(doc.get("_id"))));
+				signed.incrementAndGet();
+			}
+			bulk.updateOne(new Query(Criteria.where("_id").is(doc.get("_id")).and(LEGACY_FIELD).is(legacy)), update);
+		}
+		bulk.execute();
+	}
+
+	private static byte[] decodePng(Object value) {
+		if (!(value instanceof String s) || s.isEmpty()) {
+			return null;
+		}
+		try {
+			byte[] bytes = Base64.getDecoder().decode(s);
+			if (bytes.length < PNG_SIGNATURE.length) {
+				return null;
+			}
+			for (int i = 0; i < PNG_SIGNATURE.length; i++) {
+				if (bytes[i] != PNG_SIGNATURE[i]) {
+					return null;
+				}
+			}
+			return bytes;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.eventmanagement.service;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Content-addressed QR image store on GridFS. An image is filed under the SHA-256 of its bytes,
+ * which doubles as the reference kept on the ticket and as the HTTP ETag; the same bytes are
+ * only stored once.
+ */
+@Component
+public class QrImageStore {
+	public static final String CONTENT_TYPE = "image/png";
+
+	private final GridFsTemplate gridFsTemplate;
+
+	public QrImageStore(GridFsTemplate gridFsTemplate) {
+		this.gridFsTemplate = gridFsTemplate;
+	}
+
+	/** Stores the PNG unless an identical one is already there; returns its reference. */
+	public String put(byte[] png) {
+		String ref = digest(png);
+		if (gridFsTemplate.findOne(byRef(ref)) == null) {
+			gridFsTemplate.store(new ByteArrayInputStream(png), ref, CONTENT_TYPE);
+		}
+		return ref;
+	}
+
+	public Optional<byte[]> get(String ref) {
+		if (!isRef(ref)) {
+			return Optional.empty();
+		}
+		GridFSFile file = gridFsTemplate.findOne(byRef(ref));
+		if (file == null) {
+			return Optional.empty();
+		}
+		GridFsResource resource = gridFsTemplate.getResource(file);
+		try (InputStream in = resource.getInputStream()) {
+			return Optional.of(in.readAllBytes());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read QR image " + ref, e);
+		}
+	}
+
+	public static boolean isRef(String ref) {
+		return ref != null && ref.length() == 64 && ref.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+	}
+
+	private static Query byRef(String ref) {
+		return new Query(Criteria.where("filename").is(ref));
+	}
+
+	private static String digest(byte[] bytes) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 unavailable", e);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.eventmanagement.service;
+
+import org.bson.Document;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * What one branch of a repository query asks of an index, in equality-sort-range terms: the fields
+ * it matches exactly, the fields it sorts on and the fields it filters by range (or anything else
+ * that is not an exact match). An {@code $or} has one shape per branch, since each branch needs an
+ * index of its own.
+ */
+record QueryShape(Set<String> equality, List<String> sort, Set<String> range, boolean text) {
+
+	/** Stands in for a text index in a list of index keys. */
+	static final String TEXT = "$text";
+
+	enum Support { INDEXED, PARTIAL, UNINDEXED }
+
+	private static final Pattern PLACEHOLDER = Pattern.compile("\\?\\d+");
+	private static final Set<String> EQUALITY_OPERATORS = Set.of("$eq", "$in", "$all", "$elemMatch");
+
+	/** Shapes of an {@code @Query} filter and its optional sort, both as written on the annotation. */
+	static List<QueryShape> parse(String filter, String sort) {
+		List<String> sortFields = new ArrayList<>();
+		if (sort != null && !sort.isBlank()) {
+			for (String field : Document.parse(sort).keySet()) {
+				sortFields.add(field(field));
+			}
+		}
+		List<QueryShape> shapes = new ArrayList<>();
+		for (QueryShape branch : branches(Document.parse(PLACEHOLDER.matcher(filter).replaceAll("null")))) {
+			shapes.add(new QueryShape(branch.equality(), sortFields, branch.range(), branch.text()));
+		}
+		return shapes;
+	}
+
+	/** Shapes of a query derived from a method name, such as {@code findByTicketNumber}. */
+	static List<QueryShape> derived(String methodName, Class<?> domainType) {
+		PartTree tree = new PartTree(methodName, domainType);
+		List<String> sortFields = tree.getSort().stream().map(order -> field(order.getProperty())).toList();
+		List<QueryShape> shapes = new ArrayList<>();
+		for (PartTree.OrPart or : tree) {
+			Set<String> equality = new LinkedHashSet<>();
+			Set<String> range = new LinkedHashSet<>();
+			for (Part part : or) {
+				String field = field(part.getProperty().toDotPath());
+				switch (part.getType()) {
+					case SIMPLE_PROPERTY, IN, CONTAINING, TRUE, FALSE -> equality.add(field);
+					default -> range.add(field);
+				}
+			}
+			shapes.add(new QueryShape(equality, sortFields, range, false));
+		}
+		return shapes;
+	}
+
+	/**
+	 * How well the best of {@code indexes} serves this shape. INDEXED: its leading keys are exactly
+	 * the equality fields, followed by the sort field (or, without a sort, a range field). PARTIAL: it
+	 * narrows the scan, but more is filtered or sorted in memory. UNINDEXED: a collection scan.
+	 *
+	 * @param indexes each index's key names in order; {@link #TEXT} for a text index
+	 */
+	Support supportedBy(List<List<String>> indexes) {
+		if (text) {
+			return indexes.stream().anyMatch(keys -> keys.contains(TEXT)) ? Support.INDEXED : Support.UNINDEXED;
+		}
+		if (equality.contains("_id") || (equality.isEmpty() && sort.isEmpty() && range.isEmpty())) {
+			return Support.INDEXED;
+		}
+		Support best = Support.UNINDEXED;
+		int prefix = equality.size();
+		for (List<String> keys : indexes) {
+			if (keys.isEmpty() || keys.contains(TEXT)) {
+				continue;
+			}
+			if (keys.size() >= prefix && Set.copyOf(keys.subList(0, prefix)).equals(equality)) {
+				String next = keys.size() > prefix ? keys.get(prefix) : null;
+				boolean ordered = sort.isEmpty() ? range.isEmpty() || range.contains(next) : sort.get(0).equals(next);
+				if (ordered) {
+					return Support.INDEXED;
+				}
+				if (prefix > 0) {
+					best = Support.PARTIAL;
+				}
+			} else if (equality.contains(keys.get(0)) || range.contains(keys.get(0))) {
+				best = Support.PARTIAL;
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public String toString() {
+		return text ? "text search" : "equality " + equality + ", sort " + sort + ", range " + range;
+	}
+
+	// Splits a filter into its $or branches, merging $and clauses and plain fields into every branch
+	private static List<QueryShape> branches(Document filter) {
+		List<QueryShape> branches = List.of(new QueryShape(Set.of(), List.of(), Set.of(), false));
+		for (Map.Entry<String, Object> entry : filter.entrySet()) {
+			String key = entry.getKey();
+			if (key.equals("$and") || key.equals("$or")) {
+				List<QueryShape> alternatives = new ArrayList<>();
+				List<QueryShape> combined = branches;
+				for (Object clause : (List<?>) entry.getValue()) {
+					if (key.equals("$and")) {
+						combined = cross(combined, branches((Document) clause));
+					} else {
+						alternatives.addAll(cross(branches, branches((Document) clause)));
+					}
+				}
+				branches = key.equals("$and") ? combined : alternatives;
+			} else if (key.equals("$text")) {
+				branches = cross(branches, List.of(new QueryShape(Set.of(), List.of(), Set.of(), true)));
+			} else if (!key.startsWith("$")) {
+				boolean exact = !(entry.getValue() instanceof Document condition)
+						|| condition.keySet().stream().noneMatch(op -> op.startsWith("$"))
+						|| condition.keySet().stream().anyMatch(EQUALITY_OPERATORS::contains);
+				QueryShape field = exact
+						? new QueryShape(Set.of(field(key)), List.of(), Set.of(), false)
+						: new QueryShape(Set.of(), List.of(), Set.of(field(key)), false);
+				branches = cross(branches, List.of(field));
+			}
+		}
+		return branches;
+	}
+
+	private static List<QueryShape> cross(List<QueryShape> left, List<QueryShape> right) {
+		List<QueryShape> res = new ArrayList<>(left.size() * right.size());
+		for (QueryShape a : left) {
+			for (QueryShape b : right) {
+				Set<String> equality = new LinkedHashSet<>(a.equality());
+				equality.addAll(b.equality());
+				Set<String> range = new LinkedHashSet<>(a.range());
+				range.addAll(b.range());
+				// A field matched exactly in one clause and by range in another is still served by equality first
+				range.removeAll(equality);
+				res.add(new QueryShape(equality, List.of(), range, a.text() || b.text()));
+			}
+		}
+		return res;
+	}
+
+	private static String field(String property) {
+		return property.equals("id") ? "_id" : property;
+	}
+}
@@ -0,0 +1,293 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.dto.ScanSyncRequest;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Replays scans a device queued while offline. The whole batch costs one {@code $in} read and one
+ * unordered bulk write whatever its size: scans are resolved and ordered by when they happened,
+ * the earliest scan of each ticket wins, and every later one is reported as a repeat.
+ *
+ * Device clocks are trusted only within a window around the sync, and only for tickets of events
+ * the caller organizes; otherwise a backdated scan could admit a ticket after its event or take
+ * over someone else's check-in.
+ */
+@Service
+public class ScanSyncService {
+	private static final Logger log = LoggerFactory.getLogger(ScanSyncService.class);
+
+	private final MongoTemplate mongoTemplate;
+	private final QrCodeService qrCodeService;
+	private final GateService gateService;
+	private final CheckInStatsService checkInStatsService;
+	private final EventRepository eventRepository;
+
+	@Value("${app.scan-sync.max-scans:10000}")
+	private int maxScans;
+
+	@Value("${app.scan-sync.max-backdate-minutes:720}")
+	private long maxBackdateMinutes;
+
+	@Value("${app.scan-sync.clock-skew-seconds:120}")
+	private long clockSkewSeconds;
+
+	@Value("${app.qr-code.accept-legacy-payloads:true}")
+	private boolean acceptLegacyPayloads;
+
+	// An admission to write: ACTIVE -> USED, or an earlier scan taking over a later check-in
+	private record Admission(int scan, String ticketId, LocalDateTime at, LocalDateTime replacing) {}
+
+	public ScanSyncService(MongoTemplate mongoTemplate, QrCodeService qrCodeService, GateService gateService,
+			CheckInStatsService checkInStatsService, EventRepository eventRepository) {
+		this.mongoTemplate = mongoTemplate;
+		this.qrCodeService = qrCodeService;
+		this.gateService = gateService;
+		this.checkInStatsService = checkInStatsService;
+		this.eventRepository = eventRepository;
+	}
+
+	/**
+	 * Outcome of each scan, in the order the scans were given. Tickets of events {@code userId} does
+	 * not organize come back as unknown unless {@code admin}.
+	 */
+	public List<CheckInResult> sync(List<ScanSyncRequest.Scan> scans, String validatedBy, String userId, boolean admin) {
+		if (scans == null || scans.isEmpty()) {
+			throw new IllegalArgumentException("No scans to sync");
+		}
+		if (scans.size() > maxScans) {
+			throw new IllegalArgumentException("At most " + maxScans + " scans per sync");
+		}
+		int n = scans.size();
+		// Mongo keeps milliseconds; truncate so written and re-read times compare equal
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		LocalDateTime earliest = now.minusMinutes(maxBackdateMinutes);
+		LocalDateTime latest = now.plusSeconds(clockSkewSeconds);
+		Predicate<String> mayScan = eventsOf(userId, admin);
+		LocalDateTime[] at = new LocalDateTime[n];
+		String[] ticketIds = new String[n];
+		String[] ticketNumbers = new String[n];
+		String[][] legacy = new String[n][];
+		CheckInResult[] results = new CheckInResult[n];
+		for (int i = 0; i < n; i++) {
+			ScanSyncRequest.Scan scan = scans.get(i);
+			LocalDateTime scannedAt = scan.getScannedAt();
+			at[i] = scannedAt == null || scannedAt.isAfter(now) ? now : scannedAt.truncatedTo(ChronoUnit.MILLIS);
+			if (scannedAt != null && (scannedAt.isBefore(earliest) || scannedAt.isAfter(latest))) {
+				results[i] = new CheckInResult(CheckInResult.Outcome.OUTSIDE_SCAN_WINDOW, null);
+				continue;
+			}
+			resolve(scan, i, ticketIds, ticketNumbers, legacy);
+			if (ticketIds[i] == null && ticketNumbers[i] == null) {
+				results[i] = CheckInResult.unknown();
+			}
+		}
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		// Stable, so scans with the same time keep the order the device sent them in
+		Arrays.sort(order, Comparator.comparing(i -> at[i]));
+
+		// Events in gate mode answer from memory and persist through the gate's own flush
+		Set<String> idsToLoad = new HashSet<>();
+		Set<String> numbersToLoad = new HashSet<>();
+		for (int i : order) {
+			if (results[i] != null) {
+				continue;
+			}
+			ScanSyncRequest.Scan scan = scans.get(i);
+			Optional<CheckInResult> gate = hasText(scan.getQrCode())
+					? gateService.checkInByQR(scan.getQrCode(), validatedBy, at[i], mayScan)
+					: gateService.checkIn(scan.getTicketNumber(), validatedBy, at[i], mayScan);
+			if (gate.isPresent()) {
+				results[i] = gate.get();
+			} else if (ticketIds[i] != null) {
+				idsToLoad.add(ticketIds[i]);
+			} else {
+				numbersToLoad.add(ticketNumbers[i]);
+			}
+		}
+		if (idsToLoad.isEmpty() && numbersToLoad.isEmpty()) {
+			return Arrays.asList(results);
+		}
+
+		Map<String, Ticket> byId = new HashMap<>();
+		Map<String, Ticket> byNumber = new HashMap<>();
+		for (Ticket ticket : load(idsToLoad, numbersToLoad)) {
+			byId.put(ticket.getId(), ticket);
+			if (ticket.getTicketNumber() != null) {
+				byNumber.put(ticket.getTicketNumber(), ticket);
+			}
+		}
+
+		// Decide every scan in time order against the loaded state, updating it as tickets are admitted
+		List<Admission> admissions = new ArrayList<>();
+		Map<String, Integer> admittedBy = new HashMap<>();
+		for (int i : order) {
+			if (results[i] != null) {
+				continue;
+			}
+			Ticket ticket = ticketIds[i] != null ? byId.get(ticketIds[i]) : byNumber.get(ticketNumbers[i]);
+			if (ticket == null || !mayScan.test(ticket.getEventId()) || (legacy[i] != null
+					&& !(legacy[i][1].equals(ticket.getEventId()) && legacy[i][2].equals(ticket.getAttendeeId())))) {
+				results[i] = CheckInResult.unknown();
+				continue;
+			}
+			boolean eligible = ticket.getPaymentStatus() == Ticket.PaymentStatus.COMPLETED
+					&& !admittedBy.containsKey(ticket.getId())
+					// Same string comparison as the online check-in, against when the scan happened
+					&& (ticket.getEventDate() == null || ticket.getEventDate().compareTo(at[i].toString()) > 0);
+			LocalDateTime replacing = null;
+			if (eligible && ticket.getStatus() == Ticket.TicketStatus.USED
+					&& ticket.getValidatedAt() != null && at[i].isBefore(ticket.getValidatedAt())) {
+				// Checked in online after this device had already let the holder in: the earlier scan wins
+				replacing = ticket.getValidatedAt();
+			} else if (!eligible || ticket.getStatus() != Ticket.TicketStatus.ACTIVE) {
+				results[i] = new CheckInResult(TicketService.rejection(ticket), ticket);
+				continue;
+			}
+			ticket.setStatus(Ticket.TicketStatus.USED);
+			ticket.setValidatedAt(at[i]);
+			ticket.setValidatedBy(validatedBy);
+			admittedBy.put(ticket.getId(), i);
+			admissions.add(new Admission(i, ticket.getId(), at[i], replacing));
+			results[i] = new CheckInResult(CheckInResult.Outcome.ACCEPTED, ticket);
+		}
+		if (!admissions.isEmpty()) {
+			write(admissions, validatedBy, now, results);
+		}
+		return Arrays.asList(results);
+	}
+
+	private void write(List<Admission> admissions, String validatedBy, LocalDateTime now, CheckInResult[] results) {
+		BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ticket.class);
+		for (Admission admission : admissions) {
+			// Each update only applies to the state the decision was made on
+			Criteria unchanged = admission.replacing() == null
+					? Criteria.where("_id").is(admission.ticketId()).and("status").is(Ticket.TicketStatus.ACTIVE.name())
+					: Criteria.where("_id").is(admission.ticketId()).and("status").is(Ticket.TicketStatus.USED.name())
+							.and("validatedAt").is(admission.replacing());
+			bulk.updateOne(new Query(unchanged), new Update()
+					.set("status", Ticket.TicketStatus.USED.name())
+					.set("validatedAt", admission.at())
+					.set("validatedBy", validatedBy)
+					.set("updatedAt", now));
+		}
+		int modified = bulk.execute().getModifiedCount();
+		if (modified < admissions.size()) {
+			reconcile(admissions, validatedBy, results);
+		}
+		for (Admission admission : admissions) {
+			// A takeover moves an existing check-in earlier; it is not another one
+			if (admission.replacing() == null && results[admission.scan()].accepted()) {
+				checkInStatsService.record(results[admission.scan()].ticket(), true);
+			}
+		}
+	}
+
+	// Some tickets changed between the read and the write (another gate or sync got there); re-read them
+	private void reconcile(List<Admission> admissions, String validatedBy, CheckInResult[] results) {
+		Set<String> ids = new HashSet<>();
+		for (Admission admission : admissions) {
+			ids.add(admission.ticketId());
+		}
+		Map<String, Ticket> current = new HashMap<>();
+		for (Ticket ticket : mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Ticket.class)) {
+			current.put(ticket.getId(), ticket);
+		}
+		int lost = 0;
+		for (Admission admission : admissions) {
+			Ticket ticket = current.get(admission.ticketId());
+			boolean ours = ticket != null && ticket.getStatus() == Ticket.TicketStatus.USED
+					&& admission.at().equals(ticket.getValidatedAt()) && Objects.equals(validatedBy, ticket.getValidatedBy());
+			if (!ours) {
+				// Update the shared copy so later scans of this ticket in the batch report the real check-in too
+				Ticket mine = results[admission.scan()].ticket();
+				if (ticket == null) {
+					results[admission.scan()] = CheckInResult.unknown();
+				} else {
+					mine.setStatus(ticket.getStatus());
+					mine.setPaymentStatus(ticket.getPaymentStatus());
+					mine.setValidatedAt(ticket.getValidatedAt());
+					mine.setValidatedBy(ticket.getValidatedBy());
+					results[admission.scan()] = new CheckInResult(TicketService.rejection(mine), mine);
+				}
+				lost++;
+			}
+		}
+		log.info("Scan sync: {} of {} admissions lost to concurrent check-ins", lost, admissions.size());
+	}
+
+	private List<Ticket> load(Set<String> ids, Set<String> ticketNumbers) {
+		List<Criteria> any = new ArrayList<>(2);
+		if (!ids.isEmpty()) {
+			any.add(Criteria.where("_id").in(ids));
+		}
+		if (!ticketNumbers.isEmpty()) {
+			any.add(Criteria.where("ticketNumber").in(ticketNumbers));
+		}
+		Query query = new Query(any.size() == 1 ? any.get(0) : new Criteria().orOperator(any));
+		query.fields().include("ticketNumber", "eventId", "attendeeId", "attendeeName", "ticketTypeName",
+				"eventDate", "status", "paymentStatus", "validatedAt", "validatedBy");
+		return mongoTemplate.find(query, Ticket.class);
+	}
+
+	// Organizers replay scans for their own events only; one lookup per event per batch
+	private Predicate<String> eventsOf(String userId, boolean admin) {
+		if (admin) {
+			return eventId -> true;
+		}
+		Map<String, Boolean> organizes = new HashMap<>();
+		return eventId -> eventId != null && organizes.computeIfAbsent(eventId, id -> eventRepository.findById(id)
+				.map(event -> Objects.equals(userId, event.getOrganizerId()))
+				.orElse(false));
+	}
+
+	// Fills in the ticket id (signed QR) or ticket number (typed, or legacy QR) the scan refers to
+	private void resolve(ScanSyncRequest.Scan scan, int i, String[] ticketIds, String[] ticketNumbers, String[][] legacy) {
+		if (hasText(scan.getQrCode())) {
+			Optional<String> ticketId = qrCodeService.ticketIdFrom(scan.getQrCode());
+			if (ticketId.isPresent()) {
+				ticketIds[i] = ticketId.get();
+			} else if (acceptLegacyPayloads) {
+				// Legacy payloads carry ticketNumber|eventId|attendeeId; all three must match the stored ticket
+				String[] parts = scan.getQrCode().split("\\|", 3);
+				if (parts.length == 3) {
+					ticketNumbers[i] = parts[0];
+					legacy[i] = parts;
+				}
+			}
+		} else if (hasText(scan.getTicketNumber())) {
+			ticketNumbers[i] = scan.getTicketNumber();
+		}
+	}
+
+	private static boolean hasText(String s) {
+		return s != null && !s.isEmpty();
+	}
+}
@@ -0,0 +1,335 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.exception.ResourceNotFoundException;
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.repository.TicketRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk QR export of an event's tickets for on-site printing, as a ZIP (a CSV manifest plus one PNG
+ * per ticket) or a PDF with one badge per page. Tickets are read through a Mongo cursor and QR
+ * images are rendered on a shared pool, at most {@code app.export.window} ahead of the writer, so
+ * memory stays flat however large the event. Each export is tracked for progress polling.
+ */
+@Service
+public class TicketExportService {
+	private static final Logger log = LoggerFactory.getLogger(TicketExportService.class);
+	private static final String MANIFEST = "tickets.csv";
+	private static final int PROGRESS_LOG_EVERY = 5000;
+
+	public enum Format {
+		ZIP("application/zip"),
+		PDF("application/pdf");
+
+		private final String contentType;
+
+		Format(String contentType) {
+			this.contentType = contentType;
+		}
+
+		public String contentType() {
+			return contentType;
+		}
+
+		public static Format parse(String value) {
+			for (Format format : values()) {
+				if (format.name().equalsIgnoreCase(value)) {
+					return format;
+				}
+			}
+			throw new IllegalArgumentException("Unsupported export format: " + value);
+		}
+	}
+
+	public enum Status { RUNNING, COMPLETED, FAILED }
+
+	/** One export's identity and progress; safe to read while the export is running. */
+	public static final class ExportJob {
+		private final String id = UUID.randomUUID().toString();
+		private final String eventId;
+		private final String eventName;
+		private final String requestedBy;
+		private final Format format;
+		private final long total;
+		private final LocalDateTime startedAt = LocalDateTime.now();
+		private final AtomicLong written = new AtomicLong();
+		private volatile Status status = Status.RUNNING;
+		private volatile LocalDateTime finishedAt;
+		private volatile String error;
+
+		ExportJob(String eventId, String eventName, String requestedBy, Format format, long total) {
+			this.eventId = eventId;
+			this.eventName = eventName;
+			this.requestedBy = requestedBy;
+			this.format = format;
+			this.total = total;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public Format getFormat() {
+			return format;
+		}
+
+		public long getTotal() {
+			return total;
+		}
+
+		public long getWritten() {
+			return written.get();
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public String fileName() {
+			String base = eventName == null ? eventId : eventName.replaceAll("[^A-Za-z0-9-]+", "-").replaceAll("^-|-$", "");
+			return (base.isEmpty() ? eventId : base) + "-tickets." + format.name().toLowerCase(Locale.ROOT);
+		}
+
+		public Map<String, Object> toMap() {
+			Map<String, Object> res = new LinkedHashMap<>();
+			res.put("exportId", id);
+			res.put("eventId", eventId);
+			res.put("format", format);
+			res.put("status", status);
+			res.put("total", total);
+			res.put("written", written.get());
+			res.put("percent", total == 0 ? 100 : Math.min(100, written.get() * 100 / total));
+			res.put("startedAt", startedAt);
+			res.put("finishedAt", finishedAt);
+			if (error != null) {
+				res.put("error", error);
+			}
+			return res;
+		}
+
+		void finish(Status outcome, String message) {
+			status = outcome;
+			error = message;
+			finishedAt = LocalDateTime.now();
+		}
+	}
+
+	@FunctionalInterface
+	private interface BadgeSink {
+		void write(Ticket ticket, byte[] png) throws IOException;
+	}
+
+	private record Rendered(Ticket ticket, byte[] png) {}
+
+	private final TicketRepository ticketRepository;
+	private final EventRepository eventRepository;
+	private final QrCodeService qrCodeService;
+	private final ExecutorService renderPool;
+	private final int window;
+	private final Duration retention;
+	private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+	public TicketExportService(TicketRepository ticketRepository, EventRepository eventRepository, QrCodeService qrCodeService,
+			@Value("${app.export.render-threads:0}") int renderThreads,
+			@Value("${app.export.window:64}") int window,
+			@Value("${app.export.progress-retention-minutes:60}") long retentionMinutes) {
+		this.ticketRepository = ticketRepository;
+		this.eventRepository = eventRepository;
+		this.qrCodeService = qrCodeService;
+		int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadIds = new AtomicInteger();
+		this.renderPool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "qr-export-" + threadIds.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		this.window = Math.max(1, window);
+		this.retention = Duration.ofMinutes(retentionMinutes);
+	}
+
+	/** Checks access and registers the export; the caller then streams it with {@link #write}. */
+	public ExportJob start(String eventId, Format format, String userId, boolean admin) {
+		Event event = eventRepository.findById(eventId)
+				.orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+		if (!admin && !event.getOrganizerId().equals(userId)) {
+			throw new RuntimeException("Unauthorized to export tickets for this event");
+		}
+		LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+		jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+		ExportJob job = new ExportJob(eventId, event.getName(), userId, format, ticketRepository.countByEventId(eventId));
+		jobs.put(job.getId(), job);
+		return job;
+	}
+
+	public Optional<ExportJob> progress(String exportId, String userId, boolean admin) {
+		return Optional.ofNullable(jobs.get(exportId))
+				.filter(job -> admin || job.requestedBy.equals(userId));
+	}
+
+	public void write(ExportJob job, OutputStream out) throws IOException {
+		long started = System.nanoTime();
+		try {
+			if (job.format == Format.ZIP) {
+				writeZip(job, out);
+			} else {
+				writePdf(job, out);
+			}
+			job.finish(Status.COMPLETED, null);
+			log.info("Exported {} tickets of event {} as {} in {} ms", job.getWritten(), job.eventId, job.format,
+					(System.nanoTime() - started) / 1_000_000);
+		} catch (IOException | RuntimeException e) {
+			job.finish(Status.FAILED, e.getMessage());
+			log.warn("Ticket export {} for event {} failed after {} tickets", job.id, job.eventId, job.getWritten(), e);
+			throw e;
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		renderPool.shutdownNow();
+	}
+
+	private void writeZip(ExportJob job, OutputStream out) throws IOException {
+		ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 1 << 16));
+		zip.putNextEntry(new ZipEntry(MANIFEST));
+		// Not closed: that would close the zip
+		Writer csv = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+		csv.write("ticketNumber,attendeeName,attendeeEmail,ticketType,status,qrFile\n");
+		try (Stream<Ticket> tickets = ticketRepository.streamByEventId(job.eventId)) {
+			Iterator<Ticket> it = tickets.iterator();
+			while (it.hasNext()) {
+				Ticket t = it.next();
+				csv.write(String.join(",", csv(t.getTicketNumber()), csv(t.getAttendeeName()), csv(t.getAttendeeEmail()),
+						csv(t.getTicketTypeName()), csv(t.getStatus() != null ? t.getStatus().name() : null), csv(imageName(t))));
+				csv.write('\n');
+			}
+		}
+		csv.flush();
+		zip.closeEntry();
+
+		CRC32 crc = new CRC32();
+		try (Stream<Ticket> tickets = ticketRepository.streamByEventId(job.eventId)) {
+			renderInOrder(tickets, job, (ticket, png) -> {
+				// PNGs are already deflated; storing them saves a pointless second pass
+				ZipEntry entry = new ZipEntry(imageName(ticket));
+				entry.setMethod(ZipEntry.STORED);
+				entry.setSize(png.length);
+				entry.setCompressedSize(png.length);
+				crc.reset();
+				crc.update(png);
+				entry.setCrc(crc.getValue());
+				zip.putNextEntry(entry);
+				zip.write(png);
+				zip.closeEntry();
+			});
+		}
+		zip.finish();
+		zip.flush();
+	}
+
+	private void writePdf(ExportJob job, OutputStream out) throws IOException {
+		BadgePdfWriter pdf = new BadgePdfWriter(out);
+		try (Stream<Ticket> tickets = ticketRepository.streamByEventId(job.eventId)) {
+			renderInOrder(tickets, job, pdf::addBadge);
+		}
+		pdf.finish();
+	}
+
+	// Renders up to `window` tickets ahead on the pool and hands them to the sink in cursor order
+	private void renderInOrder(Stream<Ticket> tickets, ExportJob job, BadgeSink sink) throws IOException {
+		Deque<Future<Rendered>> inFlight = new ArrayDeque<>(window);
+		try {
+			Iterator<Ticket> it = tickets.iterator();
+			while (it.hasNext()) {
+				Ticket ticket = it.next();
+				inFlight.add(renderPool.submit(() -> new Rendered(ticket, png(ticket))));
+				if (inFlight.size() >= window) {
+					drain(inFlight.poll(), job, sink);
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				drain(inFlight.poll(), job, sink);
+			}
+		} finally {
+			inFlight.forEach(f -> f.cancel(true));
+		}
+	}
+
+	private void drain(Future<Rendered> future, ExportJob job, BadgeSink sink) throws IOException {
+		Rendered rendered;
+		try {
+			rendered = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Export interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("QR rendering failed", e.getCause());
+		}
+		sink.write(rendered.ticket(), rendered.png());
+		long written = job.written.incrementAndGet();
+		if (written % PROGRESS_LOG_EVERY == 0) {
+			log.info("Ticket export {}: {}/{} tickets", job.id, written, job.total);
+		}
+	}
+
+	private byte[] png(Ticket ticket) {
+		// A migrated image missing from the store falls back to a freshly signed payload
+		String signed = qrCodeService.payload(ticket.getId());
+		String ref = ticket.getQrImageRef() != null ? ticket.getQrImageRef() : signed;
+		return qrCodeService.uncachedImage(ref)
+				.or(() -> qrCodeService.uncachedImage(signed))
+				.map(QrCodeService.Image::png)
+				.orElseThrow(() -> new RuntimeException("QR image not found for ticket " + ticket.getId()));
+	}
+
+	private static String imageName(Ticket ticket) {
+		return "qr/" + (ticket.getTicketNumber() != null ? ticket.getTicketNumber() : ticket.getId()) + ".png";
+	}
+
+	private static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		// Keep spreadsheet apps from evaluating attendee-supplied text as a formula
+		String v = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+		if (v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0) {
+			return "\"" + v.replace("\"", "\"\"") + "\"";
+		}
+		return v;
+	}
+}
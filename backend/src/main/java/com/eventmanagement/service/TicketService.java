@@ -1,5 +1,7 @@
 package com.eventmanagement.service;
 
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.dto.CursorPage;
 import com.eventmanagement.dto.TicketPurchaseRequest;
 import com.eventmanagement.model.Event;
 import com.eventmanagement.model.Ticket;
@@ -7,10 +9,22 @@ import com.eventmanagement.model.User;
 import com.eventmanagement.repository.EventRepository;
 import com.eventmanagement.repository.TicketRepository;
 import com.eventmanagement.repository.UserRepository;
-import com.eventmanagement.util.QRCodeGenerator;
+import com.eventmanagement.util.IdGenerator;
+import com.eventmanagement.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,6 +35,10 @@ import java.util.Optional;
 @Service
 public class TicketService {
     
+    private static final Logger log = LoggerFactory.getLogger(TicketService.class);
+    private static final int OUTBOX_ATTEMPTS = 3;
+    private static final KeysetCursor ATTENDEE_CURSOR = new KeysetCursor("tickets:attendee", "purchaseDate", Sort.Direction.DESC);
+    
     @Autowired
     private TicketRepository ticketRepository;
     
@@ -31,16 +49,50 @@ public class TicketService {
     private UserRepository userRepository;
     
     @Autowired
-    private QRCodeGenerator qrCodeGenerator;
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QrCodeService qrCodeService;
 
     @Autowired
-    private EmailService emailService;
+    private GateService gateService;
+
+    @Autowired
+    private CheckInStatsService checkInStatsService;
+
+    // Unsigned ticketNumber|eventId|attendeeId payloads printed before QR signing
+    @Value("${app.qr-code.accept-legacy-payloads:true}")
+    private boolean acceptLegacyPayloads;
     
     public List<Ticket> purchaseTickets(TicketPurchaseRequest request, String attendeeId) {
+        return purchase(request, attendeeId, null, false);
+    }
+    
+    public List<Ticket> purchaseTickets(TicketPurchaseRequest request, String attendeeId, String paymentId) {
+        return purchase(request, attendeeId, paymentId, false);
+    }
+    
+    // Seats were already taken by an inventory hold; only the tickets are left to create
+    public List<Ticket> issueHeldTickets(TicketPurchaseRequest request, String attendeeId, String paymentId) {
+        return purchase(request, attendeeId, paymentId, true);
+    }
+    
+    private List<Ticket> purchase(TicketPurchaseRequest request, String attendeeId, String paymentId, boolean held) {
         Event event = eventRepository.findById(request.getEventId())
                 .orElseThrow(() -> new RuntimeException("Event not found"));
 
+        // Controllers pass the principal's username, which is the email
         User user = userRepository.findById(attendeeId)
+                .or(() -> userRepository.findByEmail(attendeeId))
                 .orElseThrow(() -> new RuntimeException("User not found, cannot send confirmation email."));
         
         Event.TicketType ticketType = event.getTicketTypes().stream()
@@ -48,28 +100,87 @@ public class TicketService {
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("Ticket type not found"));
         
-        		if (!ticketType.isActive()) {
-			throw new RuntimeException("Ticket type is not active");
-		}
-        
-        if (ticketType.getAvailableQuantity() < request.getQuantity()) {
-            throw new RuntimeException("Not enough tickets available");
+        if (!held) {
+            if (!ticketType.isActive()) {
+                throw new RuntimeException("Ticket type is not active");
+            }
+            
+            LocalDateTime now = LocalDateTime.now();
+            if (ticketType.getSaleEndDate() != null && now.isAfter(ticketType.getSaleEndDate())) {
+                throw new RuntimeException("Ticket sales for this type have ended");
+            }
+
+            // Take inventory with one conditional update; the loaded event may already be stale
+            if (!inventoryService.reserve(event, ticketType, request.getQuantity())) {
+                throw new RuntimeException("Not enough tickets available");
+            }
         }
         
-        LocalDateTime now = LocalDateTime.now();
-        if (ticketType.getSaleEndDate() != null && now.isAfter(ticketType.getSaleEndDate())) {
-            throw new RuntimeException("Ticket sales for this type have ended");
+        List<Ticket> tickets = buildTickets(event, ticketType, request, attendeeId, paymentId);
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ticket.class)
+                    .insert(tickets)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // Unordered: whatever was written is sold; only the seats of the rejected tickets go back
+            int unwritten = request.getQuantity() - e.getResult().getInsertedCount();
+            if (unwritten > 0) {
+                inventoryService.release(event, ticketType, unwritten);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            // The insert may still have been applied, e.g. when only the reply was lost
+            releaseUnwritten(event, ticketType, tickets);
+            throw e;
         }
-
-        // Update ticket availability
-        ticketType.setSoldQuantity(ticketType.getSoldQuantity() + request.getQuantity());
-        ticketType.setAvailableQuantity(ticketType.getAvailableQuantity() - request.getQuantity());
-        eventRepository.save(event);
         
-        // Create tickets
-        List<Ticket> tickets = new java.util.ArrayList<>();
+        // The tickets exist from here on, so a failure below must not put their seats back on sale
+        enqueueConfirmation(tickets, request.getAttendeeName());
+        return tickets;
+    }
+    
+    // Puts back the seats of the order's tickets that are not in the database; if that cannot be told, none
+    private void releaseUnwritten(Event event, Event.TicketType ticketType, List<Ticket> tickets) {
+        List<String> ids = tickets.stream().map(Ticket::getId).toList();
+        long written;
+        try {
+            written = mongoTemplate.count(new Query(Criteria.where("id").in(ids)), Ticket.class);
+        } catch (RuntimeException e) {
+            log.error("Could not check which of tickets {} were written; their seats stay taken", ids, e);
+            return;
+        }
+        int unwritten = tickets.size() - (int) written;
+        if (unwritten > 0) {
+            inventoryService.release(event, ticketType, unwritten);
+        }
+    }
+    
+    // One confirmation email per order, delivered by the outbox dispatcher
+    private void enqueueConfirmation(List<Ticket> tickets, String attendeeName) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                emailOutboxService.enqueueOrder(tickets, attendeeName);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == OUTBOX_ATTEMPTS) {
+                    log.error("Could not queue the confirmation email for tickets {}; the order stands",
+                            tickets.stream().map(Ticket::getId).toList(), e);
+                    return;
+                }
+                log.warn("Queueing confirmation email failed (attempt {} of {})", attempt, OUTBOX_ATTEMPTS, e);
+            }
+        }
+    }
+    
+    // The whole order in memory, ready for one unordered bulk insert
+    private List<Ticket> buildTickets(Event event, Event.TicketType ticketType, TicketPurchaseRequest request,
+                                      String attendeeId, String paymentId) {
+        List<Ticket> tickets = new java.util.ArrayList<>(request.getQuantity());
         for (int i = 0; i < request.getQuantity(); i++) {
+            String id = idGenerator.nextId();
             Ticket ticket = new Ticket(
+                id,
+                idGenerator.ticketNumber(id),
                 event.getId(),
                 event.getName(),
                 event.getEventDate().toString(),
@@ -85,29 +196,16 @@ public class TicketService {
             ticket.setAttendeePhone(request.getAttendeePhone());
             ticket.setPaymentStatus(Ticket.PaymentStatus.COMPLETED);
             ticket.setPaymentMethod(request.getPaymentMethod());
+            ticket.setPaymentId(paymentId);
             
-            // Generate QR code
-            String qrCodeData = ticket.getTicketNumber() + "|" + event.getId() + "|" + attendeeId;
-            byte[] qrCodeBytes = qrCodeGenerator.generateQRCodeBytes(qrCodeData);
-            ticket.setQrCode(Base64.getEncoder().encodeToString(qrCodeBytes)); // Save as base64 string
+            // The image is rendered from the signed payload on first request
+            ticket.setQrImageRef(qrCodeService.payload(id));
             
-            Ticket savedTicket = ticketRepository.save(ticket);
-            tickets.add(savedTicket);
-
-            // Send confirmation email
-            emailService.sendTicketConfirmationEmail(user, savedTicket, qrCodeBytes);
+            tickets.add(ticket);
         }
-        
         return tickets;
     }
     
-    public void setPaymentIdForTickets(List<Ticket> tickets, String paymentId) {
-        for (Ticket t : tickets) {
-            t.setPaymentId(paymentId);
-        }
-        ticketRepository.saveAll(tickets);
-    }
-    
     public Optional<Ticket> getTicketById(String ticketId) {
         return ticketRepository.findById(ticketId);
     }
@@ -117,13 +215,26 @@ public class TicketService {
     }
     
     public Optional<Ticket> getTicketByQRCode(String qrCode) {
-        return ticketRepository.findByQrCode(qrCode);
+        return qrSelector(qrCode).map(selector -> mongoTemplate.findOne(new Query(selector), Ticket.class));
     }
     
     public Page<Ticket> getTicketsByAttendee(String attendeeId, Pageable pageable) {
         return ticketRepository.findByAttendeeId(attendeeId, pageable);
     }
     
+    /** The attendee's tickets, newest purchase first, one keyset page at a time; see {@link KeysetCursor}. */
+    public CursorPage<Ticket> getTicketsByAttendee(String attendeeId, String cursor, int size, boolean includeTotal) {
+        Criteria attendee = Criteria.where("attendeeId").is(attendeeId);
+        Query query = new Query(new Criteria().andOperator(attendee, ATTENDEE_CURSOR.from(cursor)))
+                .with(ATTENDEE_CURSOR.sort())
+                .limit(ATTENDEE_CURSOR.fetchSize(size));
+        List<Ticket> rows = mongoTemplate.find(query, Ticket.class);
+        Long total = includeTotal
+                ? mongoTemplate.count(new Query(new Criteria().andOperator(attendee, ATTENDEE_CURSOR.from(null))), Ticket.class)
+                : null;
+        return ATTENDEE_CURSOR.page(rows, size, Ticket::getPurchaseDate, Ticket::getId, total);
+    }
+    
     public List<Ticket> getTicketsByEvent(String eventId) {
         return ticketRepository.findByEventId(eventId);
     }
@@ -137,35 +248,88 @@ public class TicketService {
     }
     
     public boolean validateTicket(String ticketNumber, String validatedBy) {
-        Optional<Ticket> ticketOpt = ticketRepository.findByTicketNumber(ticketNumber);
-        if (ticketOpt.isEmpty()) {
-            return false;
+        return checkIn(ticketNumber, validatedBy).accepted();
+    }
+    
+    public boolean validateTicketByQR(String qrCode, String validatedBy) {
+        return checkInByQR(qrCode, validatedBy).accepted();
+    }
+    
+    // Events in gate mode are answered from memory; anything the gate does not know goes to the database
+    public CheckInResult checkIn(String ticketNumber, String validatedBy) {
+        return gateService.checkIn(ticketNumber, validatedBy, LocalDateTime.now())
+                .orElseGet(() -> checkIn(Criteria.where("ticketNumber").is(ticketNumber), validatedBy));
+    }
+    
+    public CheckInResult checkInByQR(String qrCode, String validatedBy) {
+        return gateService.checkInByQR(qrCode, validatedBy, LocalDateTime.now())
+                .orElseGet(() -> qrSelector(qrCode)
+                        .map(selector -> checkIn(selector, validatedBy))
+                        .orElseGet(CheckInResult::unknown));
+    }
+    
+    /**
+     * Admits a ticket in one conditional findAndModify: ACTIVE becomes USED only while payment is
+     * COMPLETED and the event date is still ahead, so two gates scanning the same ticket cannot
+     * both accept it. Only a rejected scan costs a second read, to tell the gate why.
+     */
+    private CheckInResult checkIn(Criteria selector, String validatedBy) {
+        LocalDateTime now = LocalDateTime.now();
+        // eventDate is an ISO-8601 local date-time string, so string order is time order
+        Query admissible = new Query(new Criteria().andOperator(selector,
+                Criteria.where("status").is(Ticket.TicketStatus.ACTIVE.name()),
+                Criteria.where("paymentStatus").is(Ticket.PaymentStatus.COMPLETED.name()),
+                new Criteria().orOperator(Criteria.where("eventDate").is(null), Criteria.where("eventDate").gt(now.toString()))));
+        Update markUsed = new Update()
+                .set("status", Ticket.TicketStatus.USED.name())
+                .set("validatedAt", now)
+                .set("validatedBy", validatedBy)
+                .set("updatedAt", now);
+        Ticket admitted = mongoTemplate.findAndModify(admissible, markUsed, FindAndModifyOptions.options().returnNew(true), Ticket.class);
+        if (admitted != null) {
+            checkInStatsService.record(admitted, true);
+            return new CheckInResult(CheckInResult.Outcome.ACCEPTED, admitted);
         }
-        
-        Ticket ticket = ticketOpt.get();
-        if (!ticket.isValid()) {
-            return false;
+        Ticket ticket = mongoTemplate.findOne(new Query(selector), Ticket.class);
+        return new CheckInResult(rejection(ticket), ticket);
+    }
+    
+    // Why a ticket that could not be admitted was turned away; also used by batch scan sync
+    static CheckInResult.Outcome rejection(Ticket ticket) {
+        if (ticket == null) {
+            return CheckInResult.Outcome.UNKNOWN;
         }
-        
-        ticket.markAsUsed(validatedBy);
-        ticketRepository.save(ticket);
-        return true;
+        if (ticket.getStatus() == Ticket.TicketStatus.USED) {
+            return CheckInResult.Outcome.ALREADY_USED;
+        }
+        if (ticket.getStatus() == Ticket.TicketStatus.REFUNDED || ticket.getPaymentStatus() == Ticket.PaymentStatus.REFUNDED) {
+            return CheckInResult.Outcome.REFUNDED;
+        }
+        if (ticket.getStatus() == Ticket.TicketStatus.CANCELLED) {
+            return CheckInResult.Outcome.CANCELLED;
+        }
+        if (ticket.getPaymentStatus() != Ticket.PaymentStatus.COMPLETED) {
+            return CheckInResult.Outcome.PAYMENT_PENDING;
+        }
+        // Status EXPIRED, or the event date has passed
+        return CheckInResult.Outcome.EXPIRED;
     }
     
-    public boolean validateTicketByQR(String qrCode, String validatedBy) {
-        Optional<Ticket> ticketOpt = ticketRepository.findByQrCode(qrCode);
-        if (ticketOpt.isEmpty()) {
-            return false;
+    // The ticket a QR payload refers to; empty when the payload cannot be genuine
+    private Optional<Criteria> qrSelector(String qrCode) {
+        Optional<String> ticketId = qrCodeService.ticketIdFrom(qrCode);
+        if (ticketId.isPresent()) {
+            return Optional.of(Criteria.where("_id").is(ticketId.get()));
         }
-        
-        Ticket ticket = ticketOpt.get();
-        if (!ticket.isValid()) {
-            return false;
+        if (!acceptLegacyPayloads || qrCode == null) {
+            return Optional.empty();
         }
-        
-        ticket.markAsUsed(validatedBy);
-        ticketRepository.save(ticket);
-        return true;
+        // Legacy payloads carry ticketNumber|eventId|attendeeId; all three must match the stored ticket
+        String[] parts = qrCode.split("\\|", 3);
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        return Optional.of(Criteria.where("ticketNumber").is(parts[0]).and("eventId").is(parts[1]).and("attendeeId").is(parts[2]));
     }
     
     public boolean requestRefund(String ticketId, String reason, String attendeeId) {
@@ -202,18 +366,13 @@ public class TicketService {
         
         ticket.processRefund(ticket.getPrice());
         ticketRepository.save(ticket);
+        gateService.revoke(ticket);
         
-        // Update event ticket availability
-        Event.TicketType ticketType = event.getTicketTypes().stream()
+        // Return the seat to the ticket type
+        event.getTicketTypes().stream()
                 .filter(type -> type.getId().equals(ticket.getTicketTypeId()))
                 .findFirst()
-                .orElse(null);
-        
-        if (ticketType != null) {
-            ticketType.setSoldQuantity(ticketType.getSoldQuantity() - 1);
-            ticketType.setAvailableQuantity(ticketType.getAvailableQuantity() + 1);
-            eventRepository.save(event);
-        }
+                .ifPresent(type -> inventoryService.release(event, type, 1));
         
         return true;
     }
@@ -230,8 +389,10 @@ public class TicketService {
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new RuntimeException("Ticket not found"));
         
-        String qrCodeData = ticket.getTicketNumber() + "|" + ticket.getEventId() + "|" + ticket.getAttendeeId();
-        return qrCodeGenerator.generateQRCode(qrCodeData);
+        String ref = ticket.getQrImageRef() != null ? ticket.getQrImageRef() : qrCodeService.payload(ticket.getId());
+        return qrCodeService.image(ref)
+                .map(image -> Base64.getEncoder().encodeToString(image.png()))
+                .orElseThrow(() -> new RuntimeException("QR image not found"));
     }
     
     public boolean isRefundRequested(String ticketId) {
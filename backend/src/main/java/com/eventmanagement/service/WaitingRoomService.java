@@ -0,0 +1,270 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual waiting room for high-demand events. Buyers join a per-event queue and receive a signed
+ * token carrying their position; positions are admitted at the event's configured rate and each
+ * admitted token buys one pass through the purchase endpoints. All state lives in memory: gate
+ * flags in a bounded cache, and rooms only for gated events, dropped once idle for a token lifetime.
+ */
+@Service
+public class WaitingRoomService {
+	private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+	private static final int SIGNATURE_BYTES = 16;
+
+	private final EventRepository eventRepository;
+	private final byte[] secret;
+	private final int defaultRate;
+	private final long tokenTtlSeconds;
+	private final long gateCacheMillis;
+
+	private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+	// Bounded because join is public: unknown ids are cached as not gated instead of growing the heap
+	private final Map<String, GateFlag> gateFlags;
+	private final ThreadLocal<Mac> macs;
+
+	public WaitingRoomService(EventRepository eventRepository,
+			@Value("${app.waiting-room.secret:${jwt.secret}}") String secret,
+			@Value("${app.waiting-room.admit-per-second:50}") int defaultRate,
+			@Value("${app.waiting-room.token-ttl-seconds:900}") long tokenTtlSeconds,
+			@Value("${app.waiting-room.gate-cache-ms:30000}") long gateCacheMillis,
+			@Value("${app.waiting-room.gate-cache-size:10000}") int gateCacheSize) {
+		this.eventRepository = eventRepository;
+		this.secret = secret.getBytes(StandardCharsets.UTF_8);
+		this.defaultRate = defaultRate;
+		this.tokenTtlSeconds = tokenTtlSeconds;
+		this.gateCacheMillis = gateCacheMillis;
+		this.macs = ThreadLocal.withInitial(this::newMac);
+		this.gateFlags = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, GateFlag> eldest) {
+				return size() > gateCacheSize;
+			}
+		});
+	}
+
+	public record QueueTicket(String token, long position) {}
+
+	public record Status(String eventId, long position, long admittedUpTo, long ahead,
+			long estimatedWaitSeconds, boolean admitted) {}
+
+	public enum Admission { ADMITTED, WAITING, INVALID, USED }
+
+	private static final class Room {
+		final String eventId;
+		final AtomicLong issued = new AtomicLong();
+		final Set<Long> used = ConcurrentHashMap.newKeySet();
+		volatile long admitted;
+		volatile int ratePerSecond;
+		volatile long lastJoinMillis = System.currentTimeMillis();
+		// Ticker-owned; only the scheduled thread touches these
+		double credit;
+		long lastTickNanos;
+
+		Room(String eventId, int ratePerSecond, long now) {
+			this.eventId = eventId;
+			this.ratePerSecond = ratePerSecond;
+			this.lastTickNanos = now;
+		}
+	}
+
+	private record GateFlag(boolean gated, int ratePerSecond, long loadedAt) {}
+
+	/** Whether purchases for this event must pass the waiting room. Cached briefly to stay off Mongo. */
+	public boolean isGated(String eventId) {
+		return gateFlag(eventId).gated();
+	}
+
+	public Optional<QueueTicket> join(String eventId) {
+		GateFlag flag = gateFlag(eventId);
+		if (!flag.gated()) {
+			return Optional.empty();
+		}
+		// Stamped inside compute so the idle sweep cannot drop the room under a join
+		Room room = rooms.compute(eventId, (id, existing) -> {
+			Room r = existing != null ? existing : new Room(id, flag.ratePerSecond(), System.nanoTime());
+			r.lastJoinMillis = System.currentTimeMillis();
+			return r;
+		});
+		long position = room.issued.incrementAndGet();
+		return Optional.of(new QueueTicket(sign(eventId, position, System.currentTimeMillis() / 1000), position));
+	}
+
+	public Optional<Status> status(String token) {
+		Optional<Claims> claims = verify(token);
+		if (claims.isEmpty()) {
+			return Optional.empty();
+		}
+		Room room = rooms.get(claims.get().eventId());
+		if (room == null) {
+			return Optional.empty();
+		}
+		long position = claims.get().position();
+		long admitted = room.admitted;
+		long ahead = Math.max(0, position - admitted);
+		int rate = Math.max(1, room.ratePerSecond);
+		return Optional.of(new Status(room.eventId, position, admitted, ahead, (ahead + rate - 1) / rate, ahead == 0));
+	}
+
+	/**
+	 * Checks a token for a purchase of {@code eventId} and claims it if admitted, so the same token
+	 * cannot run two purchases at once. Call {@link #giveBack} if the purchase then fails.
+	 */
+	public Admission admit(String eventId, String token) {
+		Optional<Claims> claims = verify(token);
+		if (claims.isEmpty() || !claims.get().eventId().equals(eventId)) {
+			return Admission.INVALID;
+		}
+		Room room = rooms.get(eventId);
+		if (room == null) {
+			return Admission.INVALID;
+		}
+		long position = claims.get().position();
+		if (position > room.admitted) {
+			return Admission.WAITING;
+		}
+		return room.used.add(position) ? Admission.ADMITTED : Admission.USED;
+	}
+
+	/** Returns a claimed token to its holder after a rejected or failed purchase. */
+	public void giveBack(String eventId, String token) {
+		Optional<Claims> claims = verify(token);
+		Room room = rooms.get(eventId);
+		if (claims.isPresent() && room != null && claims.get().eventId().equals(eventId)) {
+			room.used.remove(claims.get().position());
+		}
+	}
+
+	/** Snapshot of every open room, for monitoring. */
+	public Map<String, Map<String, Long>> snapshot() {
+		Map<String, Map<String, Long>> res = new HashMap<>();
+		for (Room room : rooms.values()) {
+			res.put(room.eventId, Map.of(
+					"issued", room.issued.get(),
+					"admitted", room.admitted,
+					"ratePerSecond", (long) room.ratePerSecond));
+		}
+		return res;
+	}
+
+	@Scheduled(fixedRateString = "${app.waiting-room.tick-ms:100}")
+	public void tick() {
+		tick(System.nanoTime());
+		evictIdle(System.currentTimeMillis());
+	}
+
+	// Every token a room has issued has expired, so nothing can be admitted or checked against it any more
+	void evictIdle(long nowMillis) {
+		for (String eventId : rooms.keySet()) {
+			rooms.computeIfPresent(eventId, (id, room) -> nowMillis - room.lastJoinMillis > tokenTtlSeconds * 1000 ? null : room);
+		}
+	}
+
+	// Moves each room's admission watermark forward by rate * elapsed time; idle rooms bank at most one second
+	void tick(long now) {
+		for (Room room : rooms.values()) {
+			double elapsed = (now - room.lastTickNanos) / 1_000_000_000.0;
+			room.lastTickNanos = now;
+			room.credit = Math.min(room.credit + room.ratePerSecond * elapsed, Math.max(1, room.ratePerSecond));
+			long whole = (long) room.credit;
+			long waiting = room.issued.get() - room.admitted;
+			long step = Math.min(whole, waiting);
+			if (step > 0) {
+				room.admitted += step;
+				room.credit -= step;
+			}
+		}
+	}
+
+	private GateFlag gateFlag(String eventId) {
+		long now = System.currentTimeMillis();
+		GateFlag flag = gateFlags.get(eventId);
+		if (flag == null || now - flag.loadedAt() > gateCacheMillis) {
+			flag = eventRepository.findById(eventId)
+					.map(e -> new GateFlag(InventoryLedger.isHot(e), rateFor(e), now))
+					.orElse(new GateFlag(false, defaultRate, now));
+			gateFlags.put(eventId, flag);
+			Room room = rooms.get(eventId);
+			if (room != null) {
+				room.ratePerSecond = flag.ratePerSecond();
+			}
+		}
+		return flag;
+	}
+
+	private int rateFor(Event event) {
+		int rate = event.getSettings() != null ? event.getSettings().getAdmissionRatePerSecond() : 0;
+		return rate > 0 ? rate : defaultRate;
+	}
+
+	private record Claims(String eventId, long position) {}
+
+	private String sign(String eventId, long position, long issuedAt) {
+		String payload = eventId + ":" + position + ":" + issuedAt;
+		return B64.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + B64.encodeToString(mac(payload));
+	}
+
+	private Optional<Claims> verify(String token) {
+		if (token == null) {
+			return Optional.empty();
+		}
+		int dot = token.indexOf('.');
+		if (dot <= 0) {
+			return Optional.empty();
+		}
+		try {
+			String payload = new String(B64_DECODER.decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+			byte[] signature = B64_DECODER.decode(token.substring(dot + 1));
+			if (!MessageDigest.isEqual(signature, mac(payload))) {
+				return Optional.empty();
+			}
+			String[] parts = payload.split(":");
+			if (parts.length != 3) {
+				return Optional.empty();
+			}
+			long issuedAt = Long.parseLong(parts[2]);
+			if (System.currentTimeMillis() / 1000 - issuedAt > tokenTtlSeconds) {
+				return Optional.empty();
+			}
+			return Optional.of(new Claims(parts[0], Long.parseLong(parts[1])));
+		} catch (IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
+
+	private byte[] mac(String payload) {
+		return Arrays.copyOf(macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8)), SIGNATURE_BYTES);
+	}
+
+	private Mac newMac() {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 unavailable", e);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.eventmanagement.util;
+
+/**
+ * Source of document ids. Implementations must be thread-safe and unique across every node
+ * writing to the same database.
+ */
+public interface IdGenerator {
+
+	String nextId();
+
+	/** Human-friendly ticket number for an id produced by this generator. */
+	default String ticketNumber(String id) {
+		return "TKT-" + id.toUpperCase();
+	}
+}
@@ -0,0 +1,56 @@
+package com.eventmanagement.util;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+/**
+ * Reads a whole collection in {@code _id} order, each batch resuming after the last id of the one
+ * before, so a backfill or rebuild is a single pass over the {@code _id} index however large the
+ * collection. Documents the caller updates behind the walk are never read twice.
+ *
+ * Spring stores ObjectId-shaped string ids as ObjectIds, and range bounds only match their own BSON
+ * type, so string ids are walked first and ObjectIds after them.
+ */
+public final class IdRangeWalk {
+	private static final Object[] FIRST_IDS = {"", new ObjectId(new byte[12])};
+
+	/** Takes one batch; may block, e.g. to wait for a worker. */
+	@FunctionalInterface
+	public interface BatchHandler {
+		void accept(List<Document> batch) throws InterruptedException;
+	}
+
+	private IdRangeWalk() {
+	}
+
+	/**
+	 * @param filter which documents to read besides the id range, or null for all of them
+	 * @param fields the fields to read; {@code _id} is always included
+	 */
+	public static void walk(MongoTemplate mongoTemplate, String collection, Criteria filter, int batchSize,
+			BatchHandler handler, String... fields) throws InterruptedException {
+		for (Object first : FIRST_IDS) {
+			Object lastId = first;
+			List<Document> batch;
+			do {
+				Criteria range = Criteria.where("_id").gt(lastId);
+				Query query = new Query(filter == null ? range : new Criteria().andOperator(range, filter))
+						.with(Sort.by("_id"))
+						.limit(batchSize);
+				query.fields().include(fields);
+				batch = mongoTemplate.find(query, Document.class, collection);
+				if (batch.isEmpty()) {
+					break;
+				}
+				lastId = batch.get(batch.size() - 1).get("_id");
+				handler.accept(batch);
+			} while (batch.size() == batchSize);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.eventmanagement.util;
+
+import com.eventmanagement.dto.CursorPage;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Continuation tokens for keyset pagination over (a date field, {@code _id}). A token names the
+ * listing it came from and the last row the client saw; the next page is whatever sorts after that
+ * row, found by walking the index from there instead of skipping over every earlier page.
+ * Tokens are opaque to clients but not secret: they only ever narrow a query the caller may run.
+ */
+public final class KeysetCursor {
+	public static final int MAX_PAGE_SIZE = 100;
+	private static final String VERSION = "k1";
+
+	private final String scope;
+	private final String field;
+	private final Sort.Direction direction;
+
+	/** Position of the last row on a page. */
+	public record Position(LocalDateTime value, String id) {}
+
+	/**
+	 * @param scope names the listing; a token issued for one scope is rejected by every other
+	 * @param field the date field rows are ordered by, with {@code _id} breaking ties
+	 */
+	public KeysetCursor(String scope, String field, Sort.Direction direction) {
+		this.scope = scope;
+		this.field = field;
+		this.direction = direction;
+	}
+
+	public String encode(LocalDateTime value, String id) {
+		String raw = VERSION + "|" + scope + "|" + value + "|" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/** @throws IllegalArgumentException when the token is malformed or belongs to another listing */
+	public Position decode(String token) {
+		String raw;
+		try {
+			raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
+		String[] parts = raw.split("\\|", 4);
+		if (parts.length != 4 || !VERSION.equals(parts[0]) || !scope.equals(parts[1]) || parts[3].isEmpty()) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
+		try {
+			return new Position(LocalDateTime.parse(parts[2]), parts[3]);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid cursor");
+		}
+	}
+
+	/**
+	 * Where the page for {@code token} starts: the whole listing for no token, otherwise the rows after
+	 * the one it points at. Rows without a value in the sort field are never listed.
+	 */
+	public Criteria from(String token) {
+		if (token == null || token.isEmpty()) {
+			return Criteria.where(field).ne(null);
+		}
+		return after(decode(token));
+	}
+
+	/** Rows strictly after {@code position} in this cursor's order. */
+	public Criteria after(Position position) {
+		// The outer bound lets the index scan start at the position; the $or only trims the ties there
+		if (direction.isAscending()) {
+			return Criteria.where(field).gte(position.value())
+					.orOperator(Criteria.where(field).gt(position.value()), Criteria.where("_id").gt(position.id()));
+		}
+		return Criteria.where(field).lte(position.value())
+				.orOperator(Criteria.where(field).lt(position.value()), Criteria.where("_id").lt(position.id()));
+	}
+
+	/** Rows to fetch for a page of {@code size}: one more, to tell whether there is a next page. */
+	public int fetchSize(int size) {
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		return size + 1;
+	}
+
+	/** Cuts the rows fetched with {@link #fetchSize} into a page and the token for the next one. */
+	public <T> CursorPage<T> page(List<T> rows, int size, Function<T, LocalDateTime> value, Function<T, String> id, Long total) {
+		if (rows.size() <= size) {
+			return new CursorPage<>(rows, null, total);
+		}
+		List<T> items = new ArrayList<>(rows.subList(0, size));
+		T last = items.get(size - 1);
+		return new CursorPage<>(items, encode(value.apply(last), id.apply(last)), total);
+	}
+
+	/** The order pages are cut from; must match an index on (filter fields, field, _id). */
+	public Sort sort() {
+		return Sort.by(direction, field).and(Sort.by(direction, "_id"));
+	}
+}
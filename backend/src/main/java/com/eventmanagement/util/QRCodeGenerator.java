@@ -14,57 +14,48 @@ import java.util.Base64;
 
 @Component
 public class QRCodeGenerator {
-    
+
     @Value("${app.qr-code.size:300}")
     private int qrCodeSize;
-    
+
     @Value("${app.qr-code.format:PNG}")
     private String qrCodeFormat;
-    
+
+    private final QrEncoder encoder = new QrEncoder();
+
     public String generateQRCode(String data) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, qrCodeSize, qrCodeSize);
-            
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, qrCodeFormat, outputStream);
-            
-            byte[] qrCodeBytes = outputStream.toByteArray();
-            return Base64.getEncoder().encodeToString(qrCodeBytes);
-            
-        } catch (WriterException | IOException e) {
-            throw new RuntimeException("Error generating QR code", e);
-        }
+        return Base64.getEncoder().encodeToString(generateQRCodeBytes(data));
     }
-    
+
     public byte[] generateQRCodeBytes(String data) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, qrCodeSize, qrCodeSize);
-            
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, qrCodeFormat, outputStream);
-            
-            return outputStream.toByteArray();
-            
-        } catch (WriterException | IOException e) {
-            throw new RuntimeException("Error generating QR code", e);
-        }
+        return render(data, qrCodeSize);
     }
-    
+
     public String generateQRCodeWithCustomSize(String data, int size) {
+        return Base64.getEncoder().encodeToString(render(data, size));
+    }
+
+    public String generateQRCodeSvg(String data) {
+        return encoder.svg(data, qrCodeSize);
+    }
+
+    // One bit per module, no quiet zone; for clients that draw the code themselves
+    public BitMatrix generateQRCodeModules(String data) {
+        return encoder.modules(data);
+    }
+
+    private byte[] render(String data, int size) {
+        if ("PNG".equalsIgnoreCase(qrCodeFormat)) {
+            return encoder.png(data, size);
+        }
+        // Other formats still go through ImageIO
         try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, size, size);
-            
+            BitMatrix bitMatrix = new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, size, size);
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             MatrixToImageWriter.writeToStream(bitMatrix, qrCodeFormat, outputStream);
-            
-            byte[] qrCodeBytes = outputStream.toByteArray();
-            return Base64.getEncoder().encodeToString(qrCodeBytes);
-            
+            return outputStream.toByteArray();
         } catch (WriterException | IOException e) {
             throw new RuntimeException("Error generating QR code", e);
         }
     }
-}
\ No newline at end of file
+}
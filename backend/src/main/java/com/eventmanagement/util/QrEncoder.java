@@ -0,0 +1,224 @@
+package com.eventmanagement.util;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes QR codes straight from the module matrix. PNGs are 1-bit grayscale, scaled while the
+ * scanlines are packed and deflated in per-thread buffers, so the only image-sized allocation is
+ * the returned array. Layout (quiet zone, integer module scale, centring) matches ZXing's
+ * {@code QRCodeWriter}, so output is pixel-identical to the {@code MatrixToImageWriter} path.
+ */
+public class QrEncoder {
+	public static final int DEFAULT_QUIET_ZONE = 4;
+
+	private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+	private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+	private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+	private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+	// Chunk length + type + CRC around each chunk's data
+	private static final int CHUNK_OVERHEAD = 12;
+	private static final int IHDR_LENGTH = 13;
+
+	private final ErrorCorrectionLevel errorCorrection;
+	private final int quietZone;
+	private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+	public QrEncoder() {
+		this(ErrorCorrectionLevel.L, DEFAULT_QUIET_ZONE);
+	}
+
+	public QrEncoder(ErrorCorrectionLevel errorCorrection, int quietZone) {
+		if (quietZone < 0) {
+			throw new IllegalArgumentException("quietZone must not be negative");
+		}
+		this.errorCorrection = errorCorrection;
+		this.quietZone = quietZone;
+	}
+
+	/** The code's modules, one bit per module and no quiet zone. */
+	public BitMatrix modules(String data) {
+		ByteMatrix input = encode(data);
+		int n = input.getWidth();
+		BitMatrix modules = new BitMatrix(n, n);
+		for (int y = 0; y < n; y++) {
+			for (int x = 0; x < n; x++) {
+				if (input.get(x, y) == 1) {
+					modules.set(x, y);
+				}
+			}
+		}
+		return modules;
+	}
+
+	/** A square PNG at least {@code size} pixels wide. */
+	public byte[] png(String data, int size) {
+		ByteMatrix input = encode(data);
+		int n = input.getWidth();
+		int outputSize = Math.max(size, n + 2 * quietZone);
+		int multiple = outputSize / (n + 2 * quietZone);
+		int padding = (outputSize - n * multiple) / 2;
+		int stride = 1 + (outputSize + 7) / 8;
+
+		Buffers buf = buffers.get();
+		byte[] raw = buf.raw(outputSize * stride);
+		// Filter byte 0 (none) then all-white pixels; quiet zone rows stay like this
+		byte[] blank = buf.row(stride);
+		Arrays.fill(blank, (byte) 0xFF);
+		blank[0] = 0;
+		for (int y = 0; y < padding; y++) {
+			System.arraycopy(blank, 0, raw, y * stride, stride);
+		}
+		for (int my = 0; my < n; my++) {
+			int rowStart = (padding + my * multiple) * stride;
+			System.arraycopy(blank, 0, raw, rowStart, stride);
+			for (int mx = 0; mx < n; mx++) {
+				if (input.get(mx, my) == 1) {
+					clearBits(raw, rowStart + 1, padding + mx * multiple, multiple);
+				}
+			}
+			for (int i = 1; i < multiple; i++) {
+				System.arraycopy(raw, rowStart, raw, rowStart + i * stride, stride);
+			}
+		}
+		for (int y = padding + n * multiple; y < outputSize; y++) {
+			System.arraycopy(blank, 0, raw, y * stride, stride);
+		}
+
+		int idatLength = buf.deflate(raw, outputSize * stride);
+		byte[] png = new byte[PNG_SIGNATURE.length + 3 * CHUNK_OVERHEAD + IHDR_LENGTH + idatLength];
+		System.arraycopy(PNG_SIGNATURE, 0, png, 0, PNG_SIGNATURE.length);
+		int pos = PNG_SIGNATURE.length;
+
+		int ihdr = pos + 8;
+		writeInt(png, ihdr, outputSize);
+		writeInt(png, ihdr + 4, outputSize);
+		png[ihdr + 8] = 1; // bit depth
+		png[ihdr + 9] = 0; // colour type: grayscale
+		// compression, filter and interlace methods stay 0
+		pos = chunk(buf.crc, png, pos, IHDR, IHDR_LENGTH);
+
+		System.arraycopy(buf.deflated, 0, png, pos + 8, idatLength);
+		pos = chunk(buf.crc, png, pos, IDAT, idatLength);
+
+		chunk(buf.crc, png, pos, IEND, 0);
+		return png;
+	}
+
+	/** A square SVG {@code size} pixels wide, one horizontal run of dark modules per path segment. */
+	public String svg(String data, int size) {
+		ByteMatrix input = encode(data);
+		int n = input.getWidth();
+		int viewBox = n + 2 * quietZone;
+		StringBuilder sb = buffers.get().text;
+		sb.setLength(0);
+		sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size)
+				.append("\" height=\"").append(size)
+				.append("\" viewBox=\"0 0 ").append(viewBox).append(' ').append(viewBox)
+				.append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path fill=\"#000\" d=\"");
+		for (int y = 0; y < n; y++) {
+			int x = 0;
+			while (x < n) {
+				if (input.get(x, y) != 1) {
+					x++;
+					continue;
+				}
+				int start = x;
+				while (x < n && input.get(x, y) == 1) {
+					x++;
+				}
+				sb.append('M').append(start + quietZone).append(' ').append(y + quietZone)
+						.append('h').append(x - start).append("v1h-").append(x - start).append('z');
+			}
+		}
+		sb.append("\"/></svg>");
+		return sb.toString();
+	}
+
+	private ByteMatrix encode(String data) {
+		if (data == null || data.isEmpty()) {
+			throw new IllegalArgumentException("QR data must not be empty");
+		}
+		try {
+			return Encoder.encode(data, errorCorrection).getMatrix();
+		} catch (WriterException e) {
+			throw new RuntimeException("Error generating QR code", e);
+		}
+	}
+
+	// Clears (darkens) count pixels starting at pixel x of the scanline whose packed bits begin at offset
+	private static void clearBits(byte[] row, int offset, int x, int count) {
+		int end = x + count;
+		while (x < end) {
+			if ((x & 7) == 0 && end - x >= 8) {
+				row[offset + (x >> 3)] = 0;
+				x += 8;
+			} else {
+				row[offset + (x >> 3)] &= (byte) ~(0x80 >>> (x & 7));
+				x++;
+			}
+		}
+	}
+
+	// Frames length bytes already written at pos + 8 as a chunk; returns the position after it
+	private static int chunk(CRC32 crc, byte[] png, int pos, byte[] type, int length) {
+		writeInt(png, pos, length);
+		System.arraycopy(type, 0, png, pos + 4, 4);
+		crc.reset();
+		crc.update(png, pos + 4, 4 + length);
+		writeInt(png, pos + 8 + length, (int) crc.getValue());
+		return pos + CHUNK_OVERHEAD + length;
+	}
+
+	private static void writeInt(byte[] b, int pos, int value) {
+		b[pos] = (byte) (value >>> 24);
+		b[pos + 1] = (byte) (value >>> 16);
+		b[pos + 2] = (byte) (value >>> 8);
+		b[pos + 3] = (byte) value;
+	}
+
+	private static final class Buffers {
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		final CRC32 crc = new CRC32();
+		final StringBuilder text = new StringBuilder(4096);
+		byte[] raw = new byte[0];
+		byte[] row = new byte[0];
+		byte[] deflated = new byte[4096];
+
+		byte[] raw(int length) {
+			if (raw.length < length) {
+				raw = new byte[length];
+			}
+			return raw;
+		}
+
+		byte[] row(int length) {
+			if (row.length < length) {
+				row = new byte[length];
+			}
+			return row;
+		}
+
+		// Compresses raw[0..length) into deflated, growing it as needed; returns the compressed length
+		int deflate(byte[] input, int length) {
+			deflater.reset();
+			deflater.setInput(input, 0, length);
+			deflater.finish();
+			int written = 0;
+			while (!deflater.finished()) {
+				if (written == deflated.length) {
+					deflated = Arrays.copyOf(deflated, deflated.length * 2);
+				}
+				written += deflater.deflate(deflated, written, deflated.length - written);
+			}
+			return written;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.eventmanagement.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered 64-bit ids: 41 bits of milliseconds since {@link #EPOCH_MILLIS}, 10 bits of node id
+ * and a 12-bit per-millisecond sequence. Ids are rendered as 13 Crockford base32 characters, so
+ * string order matches creation order and new documents land at the right edge of the _id index.
+ * No locks and no SecureRandom; a burst beyond 4096 ids in one millisecond borrows the next one.
+ * Ticket numbers add a keyed MAC of the id, since the id alone can be guessed from its neighbours.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+	// 2024-01-01T00:00:00Z; 41 bits of millis lasts until 2093
+	public static final long EPOCH_MILLIS = 1704067200000L;
+	public static final int NODE_BITS = 10;
+	public static final int SEQUENCE_BITS = 12;
+	public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+	private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+	private static final int ENCODED_LENGTH = 13;
+	private static final int CHECK_LENGTH = 5;
+
+	private final long nodeBits;
+	// (millis since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+	private final AtomicLong last = new AtomicLong();
+	private final ThreadLocal<Mac> macs;
+
+	// Ticket numbers are stored, never recomputed, so a key that changes on restart is fine
+	public SnowflakeIdGenerator(int nodeId) {
+		this(nodeId, randomKey());
+	}
+
+	public SnowflakeIdGenerator(int nodeId, byte[] ticketNumberKey) {
+		if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+			throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID);
+		}
+		if (ticketNumberKey.length < 16) {
+			throw new IllegalArgumentException("Ticket number key must be at least 16 bytes");
+		}
+		this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+		SecretKeySpec key = new SecretKeySpec(ticketNumberKey.clone(), "HmacSHA256");
+		this.macs = ThreadLocal.withInitial(() -> newMac(key));
+	}
+
+	@Override
+	public String nextId() {
+		return encode(nextLong());
+	}
+
+	public long nextLong() {
+		long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+		long prev;
+		long next;
+		do {
+			prev = last.get();
+			// A clock that steps back keeps counting from the last issued value
+			next = now > prev ? now : prev + 1;
+		} while (!last.compareAndSet(prev, next));
+		long millis = next >>> SEQUENCE_BITS;
+		return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+	}
+
+	/**
+	 * Formats the id as TKT-XXXXX-XXXX-XXXX-CCCCC: unambiguous to read out and unique like the id,
+	 * with 25 bits of HMAC so that knowing one ticket's number does not give away its neighbours'.
+	 */
+	@Override
+	public String ticketNumber(String id) {
+		char[] out = new char[4 + ENCODED_LENGTH + 3 + CHECK_LENGTH];
+		out[0] = 'T';
+		out[1] = 'K';
+		out[2] = 'T';
+		out[3] = '-';
+		int o = 4;
+		for (int i = 0; i < id.length(); i++) {
+			if (i == 5 || i == 9) {
+				out[o++] = '-';
+			}
+			out[o++] = id.charAt(i);
+		}
+		out[o++] = '-';
+		byte[] mac = macs.get().doFinal(id.getBytes(StandardCharsets.US_ASCII));
+		long check = ((mac[0] & 0xFFL) << 24) | ((mac[1] & 0xFFL) << 16) | ((mac[2] & 0xFFL) << 8) | (mac[3] & 0xFFL);
+		for (int i = 0; i < CHECK_LENGTH; i++) {
+			out[o++] = ALPHABET[(int) (check & 31)];
+			check >>>= 5;
+		}
+		return new String(out, 0, o);
+	}
+
+	public static String encode(long value) {
+		char[] out = new char[ENCODED_LENGTH];
+		// 13 * 5 = 65 bits; the leading character carries the top 4
+		for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+			out[i] = ALPHABET[(int) (value & 31)];
+			value >>>= 5;
+		}
+		return new String(out);
+	}
+
+	public static long decode(String id) {
+		long value = 0;
+		for (int i = 0; i < id.length(); i++) {
+			char c = Character.toUpperCase(id.charAt(i));
+			int digit = indexOf(c);
+			if (digit < 0) {
+				throw new IllegalArgumentException("Invalid id: " + id);
+			}
+			value = (value << 5) | digit;
+		}
+		return value;
+	}
+
+	public static long timestampMillis(long id) {
+		return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+	}
+
+	private static byte[] randomKey() {
+		byte[] key = new byte[32];
+		new SecureRandom().nextBytes(key);
+		return key;
+	}
+
+	private static Mac newMac(SecretKeySpec key) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(key);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 unavailable", e);
+		}
+	}
+
+	private static int indexOf(char c) {
+		for (int i = 0; i < ALPHABET.length; i++) {
+			if (ALPHABET[i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,73 @@
+package com.eventmanagement.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Non-negative counter spread over several padded cells so that concurrent takers
+ * mostly CAS on different cache lines. Takes never drive the total below zero.
+ */
+public class StripedCounter {
+	// 8 longs = 64 bytes, one cell per cache line
+	private static final int PAD = 8;
+
+	private final int stripes;
+	private final AtomicLongArray cells;
+
+	public StripedCounter(int stripes, long initial) {
+		if (stripes < 1) {
+			throw new IllegalArgumentException("stripes must be at least 1");
+		}
+		if (initial < 0) {
+			throw new IllegalArgumentException("initial must not be negative");
+		}
+		this.stripes = stripes;
+		this.cells = new AtomicLongArray(stripes * PAD);
+		long share = initial / stripes;
+		for (int i = 0; i < stripes; i++) {
+			cells.set(i * PAD, share);
+		}
+		cells.addAndGet(0, initial - share * stripes);
+	}
+
+	public boolean tryTake(long amount) {
+		int home = ThreadLocalRandom.current().nextInt(stripes);
+		for (int n = 0; n < stripes; n++) {
+			int idx = ((home + n) % stripes) * PAD;
+			long current;
+			while ((current = cells.get(idx)) >= amount) {
+				if (cells.compareAndSet(idx, current, current - amount)) {
+					return true;
+				}
+			}
+		}
+		return takeFragmented(amount, home);
+	}
+
+	public void give(long amount) {
+		int idx = ThreadLocalRandom.current().nextInt(stripes) * PAD;
+		cells.addAndGet(idx, amount);
+	}
+
+	public long sum() {
+		long total = 0;
+		for (int i = 0; i < stripes; i++) {
+			total += cells.get(i * PAD);
+		}
+		return total;
+	}
+
+	// No single cell holds enough: pool everything into the home cell and retry once
+	private synchronized boolean takeFragmented(long amount, int home) {
+		long pooled = 0;
+		for (int i = 0; i < stripes; i++) {
+			pooled += cells.getAndSet(i * PAD, 0);
+		}
+		if (pooled >= amount) {
+			cells.addAndGet(home * PAD, pooled - amount);
+			return true;
+		}
+		cells.addAndGet(home * PAD, pooled);
+		return false;
+	}
+}
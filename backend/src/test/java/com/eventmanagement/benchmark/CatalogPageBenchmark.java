@@ -0,0 +1,143 @@
+package com.eventmanagement.benchmark;
+
+import com.eventmanagement.dto.EventCard;
+import com.eventmanagement.model.Event;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One 50-item catalog page as the API sends it: full {@link Event} documents, as the listing
+ * endpoints used to return, against {@link EventCard} projections. Prints the JSON size of each
+ * page, raw and gzipped, then times serialising it. Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanagement.benchmark.CatalogPageBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogPageBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    // Configured as Spring Boot configures the MVC mapper: ISO dates rather than timestamps
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final Page<Event> fullPage = fullPage();
+    private final Page<EventCard> cardPage = fullPage.map(CatalogPageBenchmark::card);
+
+    @Benchmark
+    public byte[] fullDocuments() throws IOException {
+        return mapper.writeValueAsBytes(fullPage);
+    }
+
+    @Benchmark
+    public byte[] cards() throws IOException {
+        return mapper.writeValueAsBytes(cardPage);
+    }
+
+    public static void main(String[] args) throws Exception {
+        CatalogPageBenchmark pages = new CatalogPageBenchmark();
+        printSize("fullDocuments", pages.fullDocuments());
+        printSize("cards", pages.cards());
+        new Runner(new OptionsBuilder()
+                .include(CatalogPageBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    private static void printSize(String name, byte[] json) throws IOException {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        System.out.printf("%-14s %,9d bytes  %,8d gzipped  per %d-event page%n", name, json.length, gzipped.size(), PAGE_SIZE);
+    }
+
+    // Mirrors EventCard.FIELDS, which Mongo applies when the card is read through the repository
+    private static EventCard card(Event event) {
+        String description = event.getDescription();
+        return new EventCard(event.getId(), event.getName(),
+                description.substring(0, Math.min(description.length(), EventCard.SUMMARY_LENGTH)),
+                event.getEventDate(), event.getEndDate(), event.getVenue(), event.getCity(), event.getState(),
+                event.getCountry(), event.getEventImage(), event.getCategory(), event.getTags(),
+                event.getOrganizerName(), event.getStatus(), event.isFeatured());
+    }
+
+    // Sized like a typical published event: a few paragraphs of description and four ticket tiers
+    private static Page<Event> fullPage() {
+        String paragraph = "Join us for an evening of live performances, talks and workshops with artists from around"
+                + " the region. Doors open an hour before the first set; food and drinks are available on site. ";
+        List<Event> events = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            LocalDateTime date = LocalDateTime.of(2026, 11, 1, 18, 0).plusDays(i);
+            Event event = new Event();
+            event.setId("6f1c2d3e-4b5a-4c6d-8e7f-" + String.format("%012d", i));
+            event.setName("City Lights Festival " + i);
+            event.setDescription(paragraph.repeat(8));
+            event.setOrganizerId("organizer-" + (i % 7));
+            event.setOrganizerName("Riverside Events Co.");
+            event.setEventDate(date);
+            event.setEndDate(date.plusHours(5));
+            event.setVenue("Riverside Convention Centre, Hall " + (i % 4 + 1));
+            event.setAddress("12 Harbour Road");
+            event.setCity("Pune");
+            event.setState("Maharashtra");
+            event.setCountry("India");
+            event.setPostalCode("411001");
+            event.setEventImage("https://cdn.example.com/events/" + i + "/cover.jpg");
+            event.setCategory("music");
+            event.setTags(List.of("live", "festival", "outdoor"));
+            event.setStatus(Event.EventStatus.PUBLISHED);
+            event.setPublished(true);
+            event.setFeatured(i % 10 == 0);
+            List<Event.TicketType> types = new ArrayList<>();
+            for (String tier : List.of("Early Bird", "General", "VIP", "Backstage")) {
+                types.add(new Event.TicketType(tier.toLowerCase().replace(' ', '-') + "-" + i, tier,
+                        tier + " admission to all stages for the full evening", BigDecimal.valueOf(499 + 500L * types.size()),
+                        500, 120, 380, true, date.minusDays(30), date.minusHours(2),
+                        List.of("Entry to all stages", "Festival wristband", "Free cloakroom", "Priority queue")));
+            }
+            event.setTicketTypes(types);
+            event.setSettings(new Event.EventSettings(true, false, true, 7, true, 2, true,
+                    Map.of("5", BigDecimal.valueOf(5), "10", BigDecimal.valueOf(10)), false, false, false, 0));
+            event.setAnalytics(new Event.EventAnalytics(480, BigDecimal.valueOf(412_320), 455,
+                    Map.of("General", 240, "VIP", 120, "Early Bird", 100, "Backstage", 20),
+                    Map.of("General", BigDecimal.valueOf(239_760), "VIP", BigDecimal.valueOf(179_880)),
+                    date.minusDays(1), 18_250, 312));
+            event.setCreatedAt(date.minusDays(45));
+            event.setUpdatedAt(date.minusDays(3));
+            event.setPublishedAt(date.minusDays(40));
+            events.add(event);
+        }
+        return new PageImpl<>(events, PageRequest.of(0, PAGE_SIZE), 5_000);
+    }
+}
@@ -0,0 +1,107 @@
+package com.eventmanagement.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Latency of one deep catalog page (page 100 of 20 by default) as the {@code events} collection
+ * grows, read the way {@code /events/public} pages (skip/limit plus a count) and the way
+ * {@code /events/public/keyset} does (an index range starting at the previous page's last row).
+ * The first grows with the collection and the page number; the second should not.
+ * Needs a running MongoDB; writes only to a scratch collection, which it drops afterwards.
+ * Usage: {@code DeepPageLatency [mongoUri] [sizes] [page] [pageSize]}, defaults
+ * mongodb://localhost:27017, 100000,1000000,3000000, 100 and 20.
+ */
+public class DeepPageLatency {
+
+    private static final int BATCH = 5000;
+    private static final int RUNS = 200;
+
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017";
+        int[] sizes = Arrays.stream((args.length > 1 ? args[1] : "100000,1000000,3000000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int page = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int pageSize = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        if (page < 2) {
+            throw new IllegalArgumentException("page must be 2 or more; page 1 needs no cursor");
+        }
+        Random random = new Random(42);
+        long start = System.currentTimeMillis();
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoDatabase db = client.getDatabase("event_management_bench");
+            MongoCollection<Document> events = db.getCollection("events_deep_page");
+            events.drop();
+            events.createIndex(Indexes.ascending("status", "isPublished", "eventDate", "_id"));
+            Bson listing = Filters.and(Filters.eq("status", "PUBLISHED"), Filters.eq("isPublished", true));
+            Bson order = Sorts.ascending("eventDate", "_id");
+
+            int loaded = 0;
+            for (int size : sizes) {
+                while (loaded < size) {
+                    List<Document> batch = new ArrayList<>(BATCH);
+                    for (int i = loaded; i < Math.min(loaded + BATCH, size); i++) {
+                        // Dates spread over two years, so pages interleave old and new inserts
+                        batch.add(new Document("_id", UUID.randomUUID().toString())
+                                .append("name", "Event " + i)
+                                .append("status", i % 10 == 0 ? "DRAFT" : "PUBLISHED")
+                                .append("isPublished", i % 10 != 0)
+                                .append("eventDate", new Date(start + (long) random.nextInt(730 * 24 * 60) * 60_000)));
+                    }
+                    events.insertMany(batch, new InsertManyOptions().ordered(false));
+                    loaded = Math.min(loaded + BATCH, size);
+                }
+
+                int skip = (page - 1) * pageSize;
+                // The row the client's token would point at: last row of the page before
+                Document previous = events.find(listing).sort(order).skip(skip - 1).limit(1).first();
+                Bson after = Filters.and(listing, Filters.gte("eventDate", previous.get("eventDate")),
+                        Filters.or(Filters.gt("eventDate", previous.get("eventDate")), Filters.gt("_id", previous.get("_id"))));
+
+                System.out.printf("%,10d events, page %d of %d%n", size, page, pageSize);
+                time("  skip/limit + count", () -> {
+                    List<Document> rows = events.find(listing).sort(order).skip(skip).limit(pageSize).into(new ArrayList<>());
+                    events.countDocuments(listing);
+                    return rows;
+                });
+                time("  skip/limit", () -> events.find(listing).sort(order).skip(skip).limit(pageSize).into(new ArrayList<>()));
+                time("  keyset", () -> events.find(after).sort(order).limit(pageSize + 1).into(new ArrayList<>()));
+            }
+            events.drop();
+        }
+    }
+
+    private static void time(String name, Supplier<List<Document>> page) {
+        for (int i = 0; i < RUNS / 10; i++) {
+            page.get();
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long t = System.nanoTime();
+            if (page.get().isEmpty()) {
+                throw new IllegalStateException("Page came back empty; collection too small for the page asked for");
+            }
+            nanos[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-22s p50 %8.3fms  p99 %8.3fms  max %8.3fms%n", name,
+                nanos[RUNS / 2] / 1e6, nanos[(int) (RUNS * 0.99)] / 1e6, nanos[RUNS - 1] / 1e6);
+    }
+}
@@ -0,0 +1,111 @@
+package com.eventmanagement.benchmark;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.service.EventSearchIndex;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search and typeahead latency on {@link EventSearchIndex} holding 1M published events by default:
+ * a two-word search, a search narrowed by city and date, a misspelt word and a two-letter prefix.
+ * The events are synthetic, with names and descriptions drawn from a fixed vocabulary of common
+ * words and a long tail of rarer ones. Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanagement.benchmark.EventSearchBenchmark}
+ * and a heap of a few GB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx6g")
+public class EventSearchBenchmark {
+
+    private static final String[] COMMON = {"music", "festival", "live", "night", "jazz", "rock", "comedy", "show",
+            "tech", "conference", "workshop", "startup", "food", "market", "art", "gallery", "film", "screening",
+            "yoga", "retreat", "marathon", "charity", "dance", "party", "summit", "meetup", "wine", "tasting"};
+    private static final String[] CITIES = {"Pune", "Mumbai", "Bengaluru", "Delhi", "Chennai", "Hyderabad", "Kolkata", "Jaipur"};
+
+    @Param("1000000")
+    public int events;
+
+    private EventSearchIndex index;
+    private final LocalDateTime start = LocalDateTime.of(2026, 1, 1, 18, 0);
+
+    @Setup
+    public void setUp() {
+        index = new EventSearchIndex(Mockito.mock(MongoTemplate.class), true, 1, 1000);
+        Random random = new Random(42);
+        for (int i = 0; i < events; i++) {
+            Event event = new Event();
+            event.setId("event-" + i);
+            event.setName(word(random) + " " + word(random) + " " + COMMON[random.nextInt(COMMON.length)]);
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 40; w++) {
+                description.append(word(random)).append(' ');
+            }
+            event.setDescription(description.toString());
+            event.setTags(List.of(COMMON[random.nextInt(COMMON.length)], COMMON[random.nextInt(COMMON.length)]));
+            event.setCity(CITIES[random.nextInt(CITIES.length)]);
+            event.setVenue("Hall " + random.nextInt(500));
+            event.setOrganizerName("Organizer " + random.nextInt(20_000));
+            event.setCategory(COMMON[random.nextInt(COMMON.length)]);
+            event.setEventDate(start.plusHours(random.nextInt(2 * 365 * 24)));
+            event.setStatus(Event.EventStatus.PUBLISHED);
+            event.setPublished(true);
+            index.index(event);
+        }
+    }
+
+    @Benchmark
+    public EventSearchIndex.Hits twoWords() {
+        return index.search("jazz festival", null, null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public EventSearchIndex.Hits filtered() {
+        return index.search("comedy night", null, "Pune", start.plusMonths(3), start.plusMonths(4), 0, 20);
+    }
+
+    @Benchmark
+    public EventSearchIndex.Hits misspelt() {
+        return index.search("conferense", null, null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public Object typeahead() {
+        return index.suggest("wo", 8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EventSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // A third of words come from the common list, the rest from a long tail of 50k made-up terms
+    private static String word(Random random) {
+        if (random.nextInt(3) == 0) {
+            return COMMON[random.nextInt(COMMON.length)];
+        }
+        return "w" + Integer.toString(random.nextInt(50_000), 36);
+    }
+}
@@ -0,0 +1,192 @@
+package com.eventmanagement.benchmark;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Latency of the repository queries on {@code events} and {@code tickets} at production-like sizes
+ * (1M events, 20M tickets by default), first with only {@code _id} indexed and then with the
+ * indexes declared on {@link Event} and {@link Ticket}, resolved from their annotations as
+ * IndexCatalog resolves them. Paged listings are timed as a Page reads them: the first 20 rows
+ * plus a count. Prints each query's plan stage, documents examined and p50/max, and the time each
+ * index took to build. Needs a running MongoDB; writes only to scratch collections, which it drops
+ * afterwards. Usage: {@code IndexedQueryLatency [mongoUri] [events] [tickets]}, defaults
+ * mongodb://localhost:27017, 1000000 and 20000000.
+ */
+public class IndexedQueryLatency {
+
+    private static final int BATCH = 5000;
+    private static final int PAGE = 20;
+    // Collection scans take seconds each at 20M documents
+    private static final int UNINDEXED_RUNS = 3;
+    private static final int INDEXED_RUNS = 200;
+    private static final String[] CATEGORIES = {"music", "tech", "sports", "arts", "food", "business", "comedy", "film"};
+    private static final String[] STATUSES = {"ACTIVE", "ACTIVE", "ACTIVE", "ACTIVE", "ACTIVE", "ACTIVE", "USED", "USED", "CANCELLED", "REFUNDED"};
+
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017";
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int ticketCount = args.length > 2 ? Integer.parseInt(args[2]) : 20_000_000;
+        Random random = new Random(42);
+        long start = System.currentTimeMillis();
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoDatabase db = client.getDatabase("event_management_bench");
+            MongoCollection<Document> events = db.getCollection("events_indexed_query");
+            MongoCollection<Document> tickets = db.getCollection("tickets_indexed_query");
+            events.drop();
+            tickets.drop();
+
+            String[] eventIds = new String[eventCount];
+            for (int done = 0; done < eventCount; done += BATCH) {
+                List<Document> batch = new ArrayList<>(BATCH);
+                for (int i = done; i < Math.min(done + BATCH, eventCount); i++) {
+                    eventIds[i] = UUID.randomUUID().toString();
+                    boolean published = i % 10 != 0;
+                    batch.add(new Document("_id", eventIds[i])
+                            .append("name", "Event " + i)
+                            .append("description", CATEGORIES[i % CATEGORIES.length] + " night in city " + i % 500)
+                            .append("organizerId", "organizer-" + random.nextInt(20_000))
+                            .append("status", published ? "PUBLISHED" : "DRAFT")
+                            .append("isPublished", published)
+                            .append("isFeatured", published && i % 200 == 0)
+                            .append("category", CATEGORIES[random.nextInt(CATEGORIES.length)])
+                            .append("city", "city-" + random.nextInt(500))
+                            .append("tags", List.of("tag-" + random.nextInt(200), "tag-" + random.nextInt(200)))
+                            .append("eventDate", new Date(start + (random.nextInt(730) - 365) * 86_400_000L)));
+                }
+                events.insertMany(batch, new InsertManyOptions().ordered(false));
+            }
+            for (int done = 0; done < ticketCount; done += BATCH) {
+                List<Document> batch = new ArrayList<>(BATCH);
+                for (int i = done; i < Math.min(done + BATCH, ticketCount); i++) {
+                    String status = STATUSES[random.nextInt(STATUSES.length)];
+                    Date purchased = new Date(start - random.nextInt(365 * 24 * 60) * 60_000L);
+                    Document ticket = new Document("_id", UUID.randomUUID().toString())
+                            .append("ticketNumber", "TKT-" + i)
+                            .append("eventId", eventIds[random.nextInt(eventCount)])
+                            .append("ticketTypeId", "type-" + random.nextInt(4))
+                            .append("attendeeId", "user-" + random.nextInt(2_000_000))
+                            .append("attendeeEmail", "user" + random.nextInt(2_000_000) + "@example.com")
+                            .append("status", status)
+                            .append("purchaseDate", purchased)
+                            .append("paymentId", "pay-" + i / 2)
+                            .append("paymentStatus", i % 50 == 0 ? "PENDING" : "COMPLETED")
+                            .append("refundRequested", i % 1000 == 0);
+                    if (status.equals("USED")) {
+                        ticket.append("validatedAt", new Date(purchased.getTime() + 86_400_000L))
+                                .append("validatedBy", "staff-" + random.nextInt(5000));
+                    }
+                    batch.add(ticket);
+                }
+                tickets.insertMany(batch, new InsertManyOptions().ordered(false));
+            }
+            System.out.printf("Loaded %,d events and %,d tickets in %,ds%n", eventCount, ticketCount,
+                    (System.currentTimeMillis() - start) / 1000);
+
+            String event = eventIds[eventCount / 2];
+            Date now = new Date(start);
+            Map<String, Query> queries = new LinkedHashMap<>();
+            Bson listed = Filters.and(Filters.eq("status", "PUBLISHED"), Filters.eq("isPublished", true));
+            queries.put("events upcoming", new Query(events, Filters.and(listed, Filters.gte("eventDate", now)), true));
+            queries.put("events by category", new Query(events, Filters.and(listed, Filters.eq("category", "film")), true));
+            queries.put("events by city", new Query(events, Filters.and(listed, Filters.eq("city", "city-7")), true));
+            queries.put("events by tags", new Query(events, Filters.and(listed, Filters.in("tags", List.of("tag-3", "tag-9"))), true));
+            queries.put("events featured", new Query(events, Filters.and(listed, Filters.eq("isFeatured", true)), false));
+            queries.put("events of organizer", new Query(events, Filters.eq("organizerId", "organizer-42"), true));
+            queries.put("tickets by number", new Query(tickets, Filters.eq("ticketNumber", "TKT-" + ticketCount / 3), false));
+            queries.put("tickets by payment", new Query(tickets, Filters.eq("paymentId", "pay-" + ticketCount / 5), false));
+            queries.put("tickets by email", new Query(tickets, Filters.eq("attendeeEmail", "user42@example.com"), false));
+            queries.put("tickets active for event", new Query(tickets, Filters.and(Filters.eq("eventId", event), Filters.eq("status", "ACTIVE")), false));
+            queries.put("tickets of event and type", new Query(tickets,
+                    Filters.and(Filters.eq("eventId", event), Filters.eq("ticketTypeId", "type-1")), false));
+            queries.put("tickets validated by", new Query(tickets, Filters.eq("validatedBy", "staff-42"), false));
+            queries.put("tickets validated in hour", new Query(tickets, Filters.and(
+                    Filters.gte("validatedAt", new Date(start - 86_400_000L * 30)),
+                    Filters.lte("validatedAt", new Date(start - 86_400_000L * 30 + 3_600_000L))), false));
+            queries.put("tickets refund requested", new Query(tickets, Filters.eq("refundRequested", true), true));
+
+            System.out.println("Only _id indexed:");
+            queries.forEach((name, query) -> time(name, query, UNINDEXED_RUNS));
+
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setInitialEntitySet(Set.of(Event.class, Ticket.class));
+            mappingContext.initialize();
+            MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+            MongoTemplate template = new MongoTemplate(client, db.getName());
+            System.out.println("Declared indexes:");
+            for (Class<?> type : List.of(Event.class, Ticket.class)) {
+                MongoCollection<Document> collection = type == Event.class ? events : tickets;
+                for (IndexDefinitionHolder index : resolver.resolveIndexForEntity(mappingContext.getRequiredPersistentEntity(type))) {
+                    long t = System.currentTimeMillis();
+                    template.indexOps(collection.getNamespace().getCollectionName()).ensureIndex(index);
+                    System.out.printf("  %-10s %-70s %,8dms%n", type.getSimpleName(), index.getIndexKeys().toJson(),
+                            System.currentTimeMillis() - t);
+                }
+            }
+
+            System.out.println("With declared indexes:");
+            queries.forEach((name, query) -> time(name, query, INDEXED_RUNS));
+            events.drop();
+            tickets.drop();
+        }
+    }
+
+    /** One repository query: a filter, and whether it is read as a Page (first page plus a count). */
+    private record Query(MongoCollection<Document> collection, Bson filter, boolean paged) {
+
+        int run() {
+            if (!paged) {
+                return collection.find(filter).into(new ArrayList<>()).size();
+            }
+            collection.countDocuments(filter);
+            return collection.find(filter).limit(PAGE).into(new ArrayList<>()).size();
+        }
+    }
+
+    private static void time(String name, Query query, int runs) {
+        Document stats = query.collection().find(query.filter()).explain(ExplainVerbosity.EXECUTION_STATS)
+                .get("executionStats", Document.class);
+        query.run();
+        long[] nanos = new long[runs];
+        int rows = 0;
+        for (int i = 0; i < runs; i++) {
+            long t = System.nanoTime();
+            rows = query.run();
+            nanos[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("  %-26s %,7d rows  %,11d examined  p50 %10.3fms  max %10.3fms  %s%n", name, rows,
+                stats.get("totalDocsExamined", Number.class).longValue(), nanos[runs / 2] / 1e6, nanos[runs - 1] / 1e6,
+                stage(stats.get("executionStages", Document.class)));
+    }
+
+    // Innermost stage of the winning plan: IXSCAN, COLLSCAN, TEXT_MATCH and so on
+    private static String stage(Document stage) {
+        Document input = stage.get("inputStage", Document.class);
+        return input == null ? stage.getString("stage") : stage(input);
+    }
+}
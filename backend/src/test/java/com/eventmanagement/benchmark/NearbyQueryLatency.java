@@ -0,0 +1,155 @@
+package com.eventmanagement.benchmark;
+
+import com.eventmanagement.dto.EventCard;
+import com.eventmanagement.model.Event;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Latency of the {@code /events/public/nearby} pipeline on 1M events by default: radius searches
+ * of 5, 25 and 100 km and a bounding box around a city, each on the first page and on page 20.
+ * Events are scattered around a handful of Indian cities, most within 30 km of the centre, as real
+ * venues would be, with the 2dsphere index declared on {@link Event}. Prints rows, p50, p99 and max.
+ * Needs a running MongoDB; writes only to a scratch collection, which it drops afterwards. Usage:
+ * {@code NearbyQueryLatency [mongoUri] [events]}, defaults mongodb://localhost:27017 and 1000000.
+ */
+public class NearbyQueryLatency {
+
+    private static final int BATCH = 5000;
+    private static final int PAGE = 20;
+    private static final int RUNS = 500;
+    // Longitude, latitude and share of events
+    private static final double[][] CITIES = {
+            {72.8777, 19.0760, 25}, {77.2090, 28.6139, 25}, {77.5946, 12.9716, 15}, {73.8567, 18.5204, 10},
+            {80.2707, 13.0827, 10}, {78.4867, 17.3850, 10}, {88.3639, 22.5726, 5}};
+
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017";
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        Random random = new Random(42);
+        long start = System.currentTimeMillis();
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoDatabase db = client.getDatabase("event_management_bench");
+            MongoCollection<Document> events = db.getCollection("events_nearby");
+            events.drop();
+
+            for (int done = 0; done < eventCount; done += BATCH) {
+                List<Document> batch = new ArrayList<>(BATCH);
+                for (int i = done; i < Math.min(done + BATCH, eventCount); i++) {
+                    double[] city = city(random);
+                    // Exponential spread: dense centre, a thin tail out to the suburbs
+                    double km = -Math.log(1 - random.nextDouble()) * 8;
+                    double bearing = random.nextDouble() * 2 * Math.PI;
+                    double lat = city[1] + km * Math.cos(bearing) / 111.32;
+                    double lng = city[0] + km * Math.sin(bearing) / (111.32 * Math.cos(Math.toRadians(city[1])));
+                    boolean published = i % 10 != 0;
+                    batch.add(new Document("_id", UUID.randomUUID().toString())
+                            .append("name", "Event " + i)
+                            .append("description", "Venue " + i % 5000 + " presents event " + i)
+                            .append("venue", "Venue " + i % 5000)
+                            .append("status", published ? "PUBLISHED" : "DRAFT")
+                            .append("isPublished", published)
+                            .append("location", new Document("type", "Point").append("coordinates", List.of(lng, lat)))
+                            .append("eventDate", new Date(start + (random.nextInt(730) - 365) * 86_400_000L)));
+                }
+                events.insertMany(batch, new InsertManyOptions().ordered(false));
+            }
+            System.out.printf("Loaded %,d events in %,ds%n", eventCount, (System.currentTimeMillis() - start) / 1000);
+
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setInitialEntitySet(Set.of(Event.class));
+            mappingContext.initialize();
+            MongoTemplate template = new MongoTemplate(client, db.getName());
+            for (IndexDefinitionHolder index : new MongoPersistentEntityIndexResolver(mappingContext)
+                    .resolveIndexForEntity(mappingContext.getRequiredPersistentEntity(Event.class))) {
+                if (index.getIndexKeys().containsKey("location")) {
+                    long t = System.currentTimeMillis();
+                    template.indexOps(events.getNamespace().getCollectionName()).ensureIndex(index);
+                    System.out.printf("Built %s in %,dms%n", index.getIndexKeys().toJson(), System.currentTimeMillis() - t);
+                }
+            }
+
+            Date now = new Date(start);
+            double[] pune = CITIES[3];
+            for (int page : new int[] {0, 19}) {
+                for (double radiusKm : new double[] {5, 25, 100}) {
+                    Document geoNear = geoNear(pune[0], pune[1], filter(now)).append("maxDistance", radiusKm * 1000);
+                    time(String.format("radius %3.0f km, page %d", radiusKm, page + 1), events, geoNear, page);
+                }
+                List<List<Double>> ring = List.of(List.of(73.7, 18.4), List.of(74.0, 18.4), List.of(74.0, 18.65),
+                        List.of(73.7, 18.65), List.of(73.7, 18.4));
+                Document box = filter(now).append("location", new Document("$geoWithin",
+                        new Document("$geometry", new Document("type", "Polygon").append("coordinates", List.of(ring)))));
+                time(String.format("box 32x28 km, page %d", page + 1), events, geoNear(73.85, 18.525, box), page);
+            }
+            events.drop();
+        }
+    }
+
+    // Same stages as EventService.getEventsNear and getEventsInBox
+    private static List<Document> pipeline(Document geoNear, int page) {
+        return List.of(
+                new Document("$geoNear", geoNear),
+                new Document("$project", Document.parse(EventCard.FIELDS).append("distanceKm",
+                        new Document("$round", List.of(new Document("$divide", List.of("$distance", 1000)), 1)))),
+                new Document("$sort", new Document("distanceKm", 1).append("eventDate", 1).append("_id", 1)),
+                new Document("$skip", page * PAGE),
+                new Document("$limit", PAGE));
+    }
+
+    private static Document geoNear(double lng, double lat, Document filter) {
+        return new Document("near", new Document("type", "Point").append("coordinates", List.of(lng, lat)))
+                .append("key", "location")
+                .append("distanceField", "distance")
+                .append("spherical", true)
+                .append("query", filter);
+    }
+
+    private static Document filter(Date now) {
+        return new Document("status", "PUBLISHED").append("isPublished", true)
+                .append("eventDate", new Document("$gte", now));
+    }
+
+    private static void time(String name, MongoCollection<Document> events, Document geoNear, int page) {
+        List<Document> pipeline = pipeline(geoNear, page);
+        events.aggregate(pipeline).into(new ArrayList<>());
+        long[] nanos = new long[RUNS];
+        int rows = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long t = System.nanoTime();
+            rows = events.aggregate(pipeline).into(new ArrayList<>()).size();
+            nanos[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("  %-24s %3d rows  p50 %8.3fms  p99 %8.3fms  max %8.3fms%n", name, rows,
+                nanos[RUNS / 2] / 1e6, nanos[RUNS * 99 / 100] / 1e6, nanos[RUNS - 1] / 1e6);
+    }
+
+    private static double[] city(Random random) {
+        double pick = random.nextDouble() * 100;
+        for (double[] city : CITIES) {
+            pick -= city[2];
+            if (pick < 0) {
+                return city;
+            }
+        }
+        return CITIES[CITIES.length - 1];
+    }
+}
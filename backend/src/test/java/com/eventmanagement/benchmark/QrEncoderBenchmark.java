@@ -0,0 +1,75 @@
+package com.eventmanagement.benchmark;
+
+import com.eventmanagement.util.QrEncoder;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation per QR: the old QRCodeWriter + MatrixToImageWriter path against
+ * {@link QrEncoder}'s PNG, SVG and raw-module outputs. Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanagement.benchmark.QrEncoderBenchmark};
+ * the GC profiler reports bytes allocated per operation as gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class QrEncoderBenchmark {
+
+    private static final String PAYLOAD = "0ABCDEFGHJKMN.q1w2e3r4t5y6u7i8";
+    private static final int SIZE = 300;
+
+    private final QrEncoder encoder = new QrEncoder();
+
+    @Benchmark
+    public byte[] imageIoPng() throws Exception {
+        // What QRCodeGenerator used to do
+        BitMatrix bitMatrix = new QRCodeWriter().encode(PAYLOAD, BarcodeFormat.QR_CODE, SIZE, SIZE);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] directPng() {
+        return encoder.png(PAYLOAD, SIZE);
+    }
+
+    @Benchmark
+    public String svg() {
+        return encoder.svg(PAYLOAD, SIZE);
+    }
+
+    @Benchmark
+    public BitMatrix modules() {
+        return encoder.modules(PAYLOAD);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(QrEncoderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.eventmanagement.benchmark;
+
+import com.eventmanagement.util.SnowflakeIdGenerator;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Latency of the lookups behind QR validation in a copy of the {@code tickets} collection with its
+ * real indexes: a signed payload resolves to {@code _id}, a legacy payload to the unique
+ * ticketNumber (plus eventId and attendeeId). For contrast it also times a few lookups on an
+ * unindexed payload field, which is what matching the scanned string against a stored QR value
+ * costs. Prints each query's winning plan stage and p50/p99/max. Needs a running MongoDB; writes
+ * only to a scratch collection, which it drops afterwards.
+ * Usage: {@code QrLookupLatency [mongoUri] [documents] [lookups]}, defaults mongodb://localhost:27017, 10000000 and 100000.
+ */
+public class QrLookupLatency {
+
+    private static final int BATCH = 5000;
+    private static final int EVENTS = 2000;
+    // Collection scans take seconds each at 10M documents
+    private static final int UNINDEXED_LOOKUPS = 20;
+
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017";
+        int documents = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(1);
+        Random random = new Random(42);
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoDatabase db = client.getDatabase("event_management_bench");
+            MongoCollection<Document> tickets = db.getCollection("tickets_qr_lookup");
+            tickets.drop();
+            tickets.createIndex(Indexes.ascending("ticketNumber"), new IndexOptions().unique(true));
+            tickets.createIndex(Indexes.ascending("eventId", "_id"));
+
+            // Keep a sample of what gets scanned; sampling every k-th ticket spreads it over the collection
+            int samples = Math.min(documents, 100_000);
+            int every = Math.max(1, documents / samples);
+            List<String[]> scanned = new ArrayList<>(samples);
+            long started = System.nanoTime();
+            for (int done = 0; done < documents; done += BATCH) {
+                List<Document> batch = new ArrayList<>(BATCH);
+                for (int i = done; i < Math.min(done + BATCH, documents); i++) {
+                    String id = snowflake.nextId();
+                    String ticketNumber = snowflake.ticketNumber(id);
+                    String eventId = "event-" + (i % EVENTS);
+                    String attendeeId = "guest" + i + "@bench.local";
+                    String payload = id + "." + Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+                    batch.add(new Document("_id", id)
+                            .append("ticketNumber", ticketNumber)
+                            .append("eventId", eventId)
+                            .append("attendeeId", attendeeId)
+                            .append("status", "ACTIVE")
+                            .append("qrPayload", payload));
+                    if (i % every == 0 && scanned.size() < samples) {
+                        scanned.add(new String[] {id, ticketNumber, eventId, attendeeId, payload});
+                    }
+                }
+                tickets.insertMany(batch, new InsertManyOptions().ordered(false));
+            }
+            System.out.printf("loaded %,d tickets in %.1fs%n", documents, (System.nanoTime() - started) / 1_000_000_000.0);
+
+            run(tickets, "signed (_id)", lookups, i -> Filters.eq("_id", scanned.get(random.nextInt(scanned.size()))[0]));
+            run(tickets, "legacy (ticketNumber)", lookups, i -> {
+                String[] s = scanned.get(random.nextInt(scanned.size()));
+                return Filters.and(Filters.eq("ticketNumber", s[1]), Filters.eq("eventId", s[2]), Filters.eq("attendeeId", s[3]));
+            });
+            run(tickets, "unindexed payload", UNINDEXED_LOOKUPS, i -> Filters.eq("qrPayload", scanned.get(random.nextInt(scanned.size()))[4]));
+            tickets.drop();
+        }
+    }
+
+    private static void run(MongoCollection<Document> tickets, String name, int lookups, IntFunction<Bson> filters) {
+        Document plan = tickets.find(filters.apply(0)).explain().get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        // Warm up the index and connection pool before timing
+        for (int i = 0; i < Math.min(lookups / 10, 1000); i++) {
+            tickets.find(filters.apply(i)).first();
+        }
+        long[] nanos = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            Bson filter = filters.apply(i);
+            long t = System.nanoTime();
+            if (tickets.find(filter).first() == null) {
+                throw new IllegalStateException("Sampled ticket not found: " + filter);
+            }
+            nanos[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-22s %-10s %,9d lookups  p50 %8.3fms  p99 %8.3fms  max %8.3fms%n", name, stage(plan), lookups,
+                nanos[lookups / 2] / 1e6, nanos[(int) (lookups * 0.99)] / 1e6, nanos[lookups - 1] / 1e6);
+    }
+
+    // Innermost stage of the winning plan: IDHACK / EXPRESS_IXSCAN / IXSCAN for index lookups, COLLSCAN otherwise
+    private static String stage(Document plan) {
+        Document stage = plan.containsKey("queryPlan") ? plan.get("queryPlan", Document.class) : plan;
+        while (stage.containsKey("inputStage")) {
+            stage = stage.get("inputStage", Document.class);
+        }
+        return stage.getString("stage");
+    }
+}
@@ -0,0 +1,66 @@
+package com.eventmanagement.benchmark;
+
+import com.eventmanagement.service.QrCodeService;
+import com.eventmanagement.util.QRCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of serving a QR image through {@link QrCodeService}: a cold cache renders every request,
+ * a warm one returns the cached PNG. Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanagement.benchmark.QrRenderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class QrRenderBenchmark {
+
+    private final AtomicLong ticketIds = new AtomicLong();
+    private QrCodeService qrCodeService;
+    private String warmPayload;
+
+    @Setup
+    public void setUp() {
+        QRCodeGenerator generator = new QRCodeGenerator();
+        ReflectionTestUtils.setField(generator, "qrCodeSize", 300);
+        ReflectionTestUtils.setField(generator, "qrCodeFormat", "PNG");
+        qrCodeService = new QrCodeService(generator, null, new SimpleMeterRegistry(), "benchmark-secret", "", 16 * 1024 * 1024, 300);
+        warmPayload = qrCodeService.payload("warm");
+        qrCodeService.image(warmPayload);
+    }
+
+    @Benchmark
+    public QrCodeService.Image cold() {
+        // A fresh ticket id every call, so the cache never hits
+        return qrCodeService.image(qrCodeService.payload(Long.toString(ticketIds.incrementAndGet()))).orElseThrow();
+    }
+
+    @Benchmark
+    public QrCodeService.Image warm() {
+        return qrCodeService.image(warmPayload).orElseThrow();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(QrRenderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
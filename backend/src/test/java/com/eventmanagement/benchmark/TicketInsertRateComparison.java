@@ -0,0 +1,66 @@
+package com.eventmanagement.benchmark;
+
+import com.eventmanagement.util.SnowflakeIdGenerator;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Insert rate into a copy of the {@code tickets} collection (same unique ticketNumber index) with
+ * random UUID ids against time-ordered ids. Needs a running MongoDB; writes only to scratch
+ * collections, which it drops afterwards.
+ * Usage: {@code TicketInsertRateComparison [mongoUri] [documents]}, defaults mongodb://localhost:27017 and 500000.
+ */
+public class TicketInsertRateComparison {
+
+    private static final int BATCH = 1000;
+
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017";
+        int documents = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(1);
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoDatabase db = client.getDatabase("event_management_bench");
+            run(db, "tickets_uuid", documents, () -> {
+                String id = UUID.randomUUID().toString();
+                return new String[] {id, "TKT-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase()};
+            });
+            run(db, "tickets_snowflake", documents, () -> {
+                String id = snowflake.nextId();
+                return new String[] {id, snowflake.ticketNumber(id)};
+            });
+        }
+    }
+
+    private static void run(MongoDatabase db, String name, int documents, Supplier<String[]> ids) {
+        MongoCollection<Document> collection = db.getCollection(name);
+        collection.drop();
+        collection.createIndex(Indexes.ascending("ticketNumber"), new IndexOptions().unique(true));
+        long started = System.nanoTime();
+        for (int done = 0; done < documents; done += BATCH) {
+            List<Document> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                String[] pair = ids.get();
+                batch.add(new Document("_id", pair[0])
+                        .append("ticketNumber", pair[1])
+                        .append("eventId", "bench")
+                        .append("status", "ACTIVE"));
+            }
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        System.out.printf("%-18s %,d docs in %.1fs = %,.0f inserts/s%n", name, documents, seconds, documents / seconds);
+        collection.drop();
+    }
+}
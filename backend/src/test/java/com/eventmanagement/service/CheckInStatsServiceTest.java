@@ -0,0 +1,100 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.EventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CheckInStatsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private CheckInStatsService statsService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        statsService = new CheckInStatsService(mongoTemplate, eventRepository, new ObjectMapper(), new SimpleMeterRegistry());
+
+        Event event = new Event();
+        event.setId("eventId");
+        event.setOrganizerId("organizer@example.com");
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+        // Already checked in before this process started
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Ticket.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "VIP").append("count", 3),
+                        new Document("_id", "General").append("count", 10)), new Document()));
+    }
+
+    @Test
+    public void testRecord_seedsOnceThenCountsFromMemory() {
+        // Arrange
+        Map<String, Object> before = statsService.snapshot("eventId", "organizer@example.com", false);
+
+        // Act
+        statsService.record(ticket("General"), true);
+        statsService.record(ticket("VIP"), false);
+        Map<String, Object> after = statsService.snapshot("eventId", "organizer@example.com", false);
+
+        // Assert
+        assertEquals(13L, before.get("checkedIn"));
+        assertEquals(15L, after.get("checkedIn"));
+        assertEquals(Map.of("General", 11L, "VIP", 4L), after.get("byTicketType"));
+        long[] perMinute = (long[]) after.get("scansPerMinute");
+        assertEquals(CheckInStatsService.MINUTES, perMinute.length);
+        // Both land in the current minute, or straddle into it
+        assertEquals(2L, perMinute[perMinute.length - 2] + perMinute[perMinute.length - 1]);
+        assertNotEquals(before.get("sequence"), after.get("sequence"));
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Ticket.class), eq(Document.class));
+    }
+
+    @Test
+    public void testRecord_persistedCheckInThatSeedsTheEventIsNotCountedTwice() {
+        // Act: the seed already sees this ticket as USED
+        statsService.record(ticket("General"), true);
+
+        // Assert
+        assertEquals(13L, statsService.snapshot("eventId", "organizer@example.com", false).get("checkedIn"));
+    }
+
+    @Test
+    public void testSnapshot_onlyTheEventOrganizerOrAnAdmin() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> statsService.snapshot("eventId", "someone@example.com", false));
+        assertEquals(13L, statsService.snapshot("eventId", "admin@example.com", true).get("checkedIn"));
+    }
+
+    private static Ticket ticket(String type) {
+        Ticket ticket = new Ticket();
+        ticket.setEventId("eventId");
+        ticket.setTicketTypeName(type);
+        return ticket;
+    }
+}
@@ -0,0 +1,203 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.EventCard;
+import com.eventmanagement.model.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventCatalogCacheTest {
+
+    private EventCatalogCache cache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        cache = new EventCatalogCache(new SimpleMeterRegistry(), true, 2, 10, 60, 60);
+    }
+
+    @Test
+    public void testEvent_servedFromCacheUntilInvalidated() {
+        // Act
+        cache.event("e1", () -> load(event("e1", false)));
+        cache.event("e1", () -> load(event("e1", false)));
+        cache.invalidate("e1", Set.of(), Set.of());
+        cache.event("e1", () -> load(event("e1", false)));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testEvent_leastRecentlyUsedIsEvictedPastMaxSize() {
+        // Act: room for two, e1 is read again before e3 arrives
+        cache.event("e1", () -> load(event("e1", false)));
+        cache.event("e2", () -> load(event("e2", false)));
+        cache.event("e1", () -> load(event("e1", false)));
+        cache.event("e3", () -> load(event("e3", false)));
+        cache.event("e1", () -> load(event("e1", false)));
+        cache.event("e2", () -> load(event("e2", false)));
+
+        // Assert
+        assertEquals(4, loads.get());
+        assertEquals(2L, stats("events").get("evictions"));
+    }
+
+    @Test
+    public void testInvalidate_contentChangeOnlyDropsPagesShowingTheEvent() {
+        // Arrange
+        Event e1 = event("e1", false);
+        Event e2 = event("e2", false);
+        page(0, e1);
+        page(1, e2);
+
+        // Act: e2 is edited but stays published
+        cache.invalidate("e2", EventCatalogCache.listings(e2), EventCatalogCache.listings(e2));
+        page(0, e1);
+        page(1, e2);
+
+        // Assert: only page 1 was read again
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testInvalidate_dateChangeClearsTheListingsTheEventStaysIn() {
+        // Arrange
+        Event e1 = event("e1", false);
+        Event e2 = event("e2", false);
+        page(0, e1);
+        page(1, e2);
+
+        // Act: e2 moves earlier, onto a page that does not show it yet
+        e2.setEventDate(e2.getEventDate().minusDays(3));
+        cache.invalidate("e2", EventCatalogCache.listings(e2), EventCatalogCache.listings(e2), true);
+        page(0, e2);
+        page(1, e1);
+
+        // Assert: both pages were read again
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testInvalidate_joiningOrLeavingAListingClearsIt() {
+        // Arrange
+        Event e1 = event("e1", false);
+        Event e2 = event("e2", true);
+        page(0, e1);
+        cache.featured(() -> {
+            loads.incrementAndGet();
+            return List.of(card(e2));
+        });
+
+        // Act: e1 becomes featured, which moves nothing in the published listing
+        Set<EventCatalogCache.Listing> before = EventCatalogCache.listings(e1);
+        e1.setFeatured(true);
+        cache.invalidate("e1", before, EventCatalogCache.listings(e1));
+        page(0, e1);
+        cache.featured(() -> {
+            loads.incrementAndGet();
+            return List.of(card(e2), card(e1));
+        });
+
+        // Assert: published page 0 shows e1 so it reloads; featured was cleared although it did not show e1
+        assertEquals(4, loads.get());
+        assertEquals(EnumSet.of(EventCatalogCache.Listing.PUBLISHED, EventCatalogCache.Listing.UPCOMING,
+                EventCatalogCache.Listing.FEATURED), EventCatalogCache.listings(e1));
+    }
+
+    @Test
+    public void testInvalidate_draftsTouchNoPages() {
+        // Arrange
+        Event draft = event("draft", false);
+        draft.setStatus(Event.EventStatus.DRAFT);
+        draft.setPublished(false);
+        page(0, event("e1", false));
+
+        // Act
+        cache.invalidate("draft", EventCatalogCache.listings(draft), EventCatalogCache.listings(draft));
+        page(0, event("e1", false));
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(0L, stats("pages").get("invalidations"));
+    }
+
+    @Test
+    public void testPage_loadOverlappingAnInvalidationIsNotKept() {
+        // Act: the event is unpublished while its page is being read
+        Event e1 = event("e1", false);
+        cache.page(EventCatalogCache.Listing.PUBLISHED, PageRequest.of(0, 10), () -> {
+            loads.incrementAndGet();
+            cache.invalidate("e1", EventCatalogCache.listings(e1), Set.of());
+            return new PageImpl<>(List.of(card(e1)));
+        });
+        page(0);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testDisabled_alwaysReads() {
+        // Arrange
+        cache = new EventCatalogCache(new SimpleMeterRegistry(), false, 2, 10, 60, 60);
+
+        // Act
+        page(0);
+        page(0);
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(0L, stats("pages").get("hits"));
+    }
+
+    private Page<EventCard> page(int page, Event... content) {
+        return cache.page(EventCatalogCache.Listing.PUBLISHED, PageRequest.of(page, 10), () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(Arrays.stream(content).map(EventCatalogCacheTest::card).toList());
+        });
+    }
+
+    private Optional<Event> load(Event event) {
+        loads.incrementAndGet();
+        return Optional.of(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> stats(String region) {
+        return (Map<String, Object>) cache.stats().get(region);
+    }
+
+    private static Event event(String id, boolean featured) {
+        Event event = new Event();
+        event.setId(id);
+        event.setStatus(Event.EventStatus.PUBLISHED);
+        event.setPublished(true);
+        event.setFeatured(featured);
+        event.setEventDate(LocalDateTime.now().plusDays(7));
+        return event;
+    }
+
+    private static EventCard card(Event event) {
+        EventCard card = new EventCard();
+        card.setId(event.getId());
+        card.setStatus(event.getStatus());
+        card.setFeatured(event.isFeatured());
+        return card;
+    }
+}
@@ -0,0 +1,67 @@
+package com.eventmanagement.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class EventGeocoderTest {
+
+    @Test
+    public void testLocate_bundledGazetteerMatchesCitiesAndAliases() {
+        // Arrange
+        EventGeocoder geocoder = new EventGeocoder(mock(MongoTemplate.class), new ClassPathResource("gazetteer/places.csv"));
+
+        // Act
+        Optional<GeoJsonPoint> pune = geocoder.locate(null, "Pune", "Maharashtra", "India");
+        Optional<GeoJsonPoint> bangalore = geocoder.locate("560001", "  BANGALORE ", "Karnataka", "India");
+
+        // Assert
+        assertTrue(pune.isPresent());
+        assertEquals(18.52, pune.get().getY(), 0.1);
+        assertEquals(73.86, pune.get().getX(), 0.1);
+        assertEquals(geocoder.locate(null, "Bengaluru", null, null), bangalore);
+        assertEquals(Optional.empty(), geocoder.locate(null, "Atlantis", "Nowhere", "India"));
+    }
+
+    @Test
+    public void testLocate_prefersPostalCodesAndSkipsAmbiguousNames() {
+        // Arrange
+        String csv = """
+                country,state,city,postal_code,latitude,longitude
+                US,Oregon,Portland,,45.52,-122.68
+                US,Maine,Portland,,43.66,-70.26
+                US,Maine,Portland,04101,43.66,-70.25
+                Deutschland,Bayern,München,,48.14,11.58
+                """;
+        EventGeocoder geocoder = new EventGeocoder(mock(MongoTemplate.class), resource(csv));
+
+        // Act & Assert
+        assertEquals(new GeoJsonPoint(-122.68, 45.52), geocoder.locate(null, "Portland", "Oregon", "US").get());
+        assertEquals(new GeoJsonPoint(-70.25, 43.66), geocoder.locate("04101", "Portland", "Oregon", "US").get());
+        assertEquals(Optional.empty(), geocoder.locate(null, "Portland", null, "US"));
+        assertEquals(new GeoJsonPoint(11.58, 48.14), geocoder.locate(null, "Munchen", null, null).get());
+    }
+
+    @Test
+    public void testLoad_rejectsMalformedLines() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> new EventGeocoder(mock(MongoTemplate.class), resource("India,Goa,Panaji,,15.49\n")));
+        assertThrows(IllegalStateException.class,
+                () -> new EventGeocoder(mock(MongoTemplate.class), resource("India,Goa,Panaji,,95.0,73.8\n")));
+    }
+
+    private static ByteArrayResource resource(String csv) {
+        return new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
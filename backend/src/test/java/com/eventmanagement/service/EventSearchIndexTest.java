@@ -0,0 +1,156 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventSearchIndexTest {
+
+    private final LocalDateTime date = LocalDateTime.of(2026, 11, 20, 19, 0);
+
+    private EventSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new EventSearchIndex(mock(MongoTemplate.class), true, 1, 100);
+        index.index(event("e1", "Riverside Jazz Night", "Live jazz by the river", "music", "Pune", date));
+        index.index(event("e2", "Startup Pitch Evening", "Founders pitch to investors; jazz trio after", "business", "Mumbai", date.plusDays(3)));
+        index.index(event("e3", "Monsoon Food Festival", "Street food from twenty stalls", "food", "Pune", date.plusDays(10)));
+    }
+
+    @Test
+    public void testRebuild_staysUnreadyWhenReadingFails() {
+        // Arrange
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), any()))
+                .thenThrow(new MongoSocketReadException("connection reset", new ServerAddress()));
+        EventSearchIndex rebuilt = new EventSearchIndex(mongoTemplate, true, 1, 100);
+
+        // Act
+        rebuilt.rebuild();
+
+        // Assert
+        assertFalse(rebuilt.isReady());
+        verify(mongoTemplate, times(3)).find(any(Query.class), eq(Document.class), any());
+    }
+
+    @Test
+    public void testRebuild_becomesReadyOnceAWalkCompletes() {
+        // Arrange
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), any()))
+                .thenThrow(new MongoSocketReadException("connection reset", new ServerAddress()))
+                .thenReturn(List.of());
+        EventSearchIndex rebuilt = new EventSearchIndex(mongoTemplate, true, 1, 100);
+
+        // Act
+        rebuilt.rebuild();
+
+        // Assert
+        assertTrue(rebuilt.isReady());
+    }
+
+    @Test
+    public void testSearch_nameMatchesOutrankDescriptionMatches() {
+        // Act
+        EventSearchIndex.Hits hits = index.search("jazz", null, null, null, null, 0, 10);
+
+        // Assert
+        assertEquals(List.of("e1", "e2"), hits.ids());
+        assertEquals(2, hits.total());
+    }
+
+    @Test
+    public void testSearch_lastWordMatchesAsPrefixAndTyposAreTolerated() {
+        // Act & Assert
+        assertEquals(List.of("e3"), index.search("monsoon fest", null, null, null, null, 0, 10).ids());
+        assertEquals(List.of("e3"), index.search("festivl", null, null, null, null, 0, 10).ids());
+        assertEquals(List.of("e1"), index.search("riversdie jazz", null, null, null, null, 0, 10).ids());
+    }
+
+    @Test
+    public void testSearch_everyWordMustMatchAndFiltersApply() {
+        // Act & Assert
+        assertEquals(List.of(), index.search("jazz food", null, null, null, null, 0, 10).ids());
+        assertEquals(List.of("e2"), index.search("jazz", "Business", null, null, null, 0, 10).ids());
+        assertEquals(List.of("e1"), index.search("jazz", null, "pune", null, null, 0, 10).ids());
+        assertEquals(List.of("e2"), index.search("jazz", null, null, date.plusDays(1), date.plusDays(5), 0, 10).ids());
+    }
+
+    @Test
+    public void testIndex_replacesTheEventAndDropsItWhenUnpublished() {
+        // Act
+        index.index(event("e1", "Riverside Blues Night", "Live blues by the river", "music", "Pune", date));
+
+        // Assert
+        assertEquals(List.of("e2"), index.search("jazz", null, null, null, null, 0, 10).ids());
+        assertEquals(List.of("e1"), index.search("blues", null, null, null, null, 0, 10).ids());
+
+        // Act
+        Event cancelled = event("e1", "Riverside Blues Night", "Live blues by the river", "music", "Pune", date);
+        cancelled.setStatus(Event.EventStatus.CANCELLED);
+        index.index(cancelled);
+        index.remove("e3");
+
+        // Assert
+        assertEquals(0, index.search("blues", null, null, null, null, 0, 10).total());
+        assertEquals(0, index.search("food", null, null, null, null, 0, 10).total());
+        assertEquals(1, index.stats().get("events"));
+    }
+
+    @Test
+    public void testSuggest_returnsTheBestMatchesForAPrefix() {
+        // Act & Assert
+        assertEquals("Riverside Jazz Night", index.suggest("rive", 5).get(0).name());
+        assertEquals(List.of(), index.suggest("", 5));
+    }
+
+    @Test
+    public void testSearch_rejectsPagesPastTheResultLimit() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search("jazz", null, null, null, null, EventSearchIndex.MAX_RESULTS, 10));
+    }
+
+    @Test
+    public void testDistance_countsTranspositionsAsOneEdit() {
+        // Act & Assert
+        assertEquals(1, EventSearchIndex.distance("riversdie", "riverside", 2));
+        assertEquals(1, EventSearchIndex.distance("festivl", "festival", 1));
+        assertEquals(2, EventSearchIndex.distance("jazz", "blues", 1));
+        assertEquals(List.of("cafe", "crepes", "chateau"), EventSearchIndex.tokens("Café & Crêpes at the Château"));
+    }
+
+    private static Event event(String id, String name, String description, String category, String city, LocalDateTime date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName(name);
+        event.setDescription(description);
+        event.setCategory(category);
+        event.setCity(city);
+        event.setEventDate(date);
+        event.setTags(List.of(category));
+        event.setStatus(Event.EventStatus.PUBLISHED);
+        event.setPublished(true);
+        return event;
+    }
+}
@@ -26,6 +26,15 @@ public class EventServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EventCatalogCache catalogCache;
+
+    @Mock
+    private EventSearchIndex searchIndex;
+
+    @Mock
+    private EventGeocoder geocoder;
+
     @InjectMocks
     private EventService eventService;
 
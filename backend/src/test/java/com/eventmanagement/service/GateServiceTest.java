@@ -0,0 +1,274 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.repository.TicketRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GateServiceTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private QrCodeService qrCodeService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private BulkWriteResult bulkWriteResult;
+
+    @Mock
+    private CheckInStatsService checkInStatsService;
+
+    private GateService gateService;
+
+    private final List<Ticket> tickets = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        gateService = new GateService(ticketRepository, eventRepository, qrCodeService, mongoTemplate, checkInStatsService,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(gateService, "flushBatchSize", 2);
+        ReflectionTestUtils.setField(gateService, "acceptLegacyPayloads", true);
+
+        Event event = new Event();
+        event.setId("eventId");
+        event.setOrganizerId("organizer@example.com");
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+
+        tickets.add(ticket("id1", "TKT-1", Ticket.TicketStatus.ACTIVE, Ticket.PaymentStatus.COMPLETED));
+        tickets.add(ticket("id2", "TKT-2", Ticket.TicketStatus.ACTIVE, Ticket.PaymentStatus.COMPLETED));
+        Ticket used = ticket("id3", "TKT-3", Ticket.TicketStatus.USED, Ticket.PaymentStatus.COMPLETED);
+        used.setValidatedAt(LocalDateTime.of(2026, 5, 1, 18, 30));
+        used.setValidatedBy("door1@example.com");
+        tickets.add(used);
+        tickets.add(ticket("id4", "TKT-4", Ticket.TicketStatus.ACTIVE, Ticket.PaymentStatus.PENDING));
+        tickets.add(ticket("id5", "TKT-5", Ticket.TicketStatus.REFUNDED, Ticket.PaymentStatus.REFUNDED));
+        when(ticketRepository.streamByEventId("eventId")).thenAnswer(inv -> tickets.stream());
+        when(qrCodeService.payload(anyString())).thenAnswer(inv -> inv.getArgument(0) + ".sig");
+
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Ticket.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+    }
+
+    @Test
+    public void testOpen_loadsOnlyAdmissibleTickets() {
+        // Act
+        var status = gateService.open("eventId", "organizer@example.com", false);
+
+        // Assert
+        assertEquals(3, status.get("tickets"));
+        assertEquals(1L, status.get("used"));
+        assertThrows(RuntimeException.class, () -> gateService.open("eventId", "someone@example.com", false));
+    }
+
+    @Test
+    public void testOpen_reloadKeepsAdmissionsAndRevocationsFromTheOldSet() {
+        // Arrange: the reload reads TKT-1 as still active, as it would if read before the write landed
+        gateService.open("eventId", "organizer@example.com", false);
+        gateService.checkIn("TKT-1", "door1@example.com", LocalDateTime.now());
+        gateService.revoke(tickets.get(1));
+
+        // Act
+        var status = gateService.open("eventId", "organizer@example.com", false);
+        CheckInResult again = gateService.checkIn("TKT-1", "door2@example.com", LocalDateTime.now()).orElseThrow();
+        CheckInResult revoked = gateService.checkIn("TKT-2", "door2@example.com", LocalDateTime.now()).orElseThrow();
+
+        // Assert
+        assertEquals(2L, status.get("used"));
+        assertEquals(CheckInResult.Outcome.ALREADY_USED, again.outcome());
+        assertEquals("door1@example.com", again.ticket().getValidatedBy());
+        assertEquals(CheckInResult.Outcome.REFUNDED, revoked.outcome());
+    }
+
+    @Test
+    public void testOpen_reloadIsRefusedWhenPendingAdmissionsCannotBeWritten() {
+        // Arrange
+        gateService.open("eventId", "organizer@example.com", false);
+        gateService.checkIn("TKT-1", "door1@example.com", LocalDateTime.now());
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> gateService.open("eventId", "organizer@example.com", false));
+        verify(ticketRepository, times(1)).streamByEventId("eventId");
+        assertEquals(1, gateService.status("eventId").orElseThrow().get("pendingWrites"));
+    }
+
+    @Test
+    public void testCheckIn_answeredFromMemoryAndFirstScanWins() {
+        // Arrange
+        gateService.open("eventId", "organizer@example.com", false);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Act
+        CheckInResult first = gateService.checkInByQR("id1.sig", "door1@example.com", now).orElseThrow();
+        CheckInResult second = gateService.checkIn("TKT-1", "door2@example.com", now.plusSeconds(5)).orElseThrow();
+        CheckInResult legacy = gateService.checkInByQR("TKT-2|eventId|attendee-id2", "door1@example.com", now).orElseThrow();
+        CheckInResult preloadedUsed = gateService.checkIn("TKT-3", "door1@example.com", now).orElseThrow();
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.ACCEPTED, first.outcome());
+        assertEquals("Guest id1", first.ticket().getAttendeeName());
+        assertEquals(CheckInResult.Outcome.ALREADY_USED, second.outcome());
+        assertEquals("door1@example.com", second.ticket().getValidatedBy());
+        assertEquals(CheckInResult.Outcome.ACCEPTED, legacy.outcome());
+        assertEquals(CheckInResult.Outcome.ALREADY_USED, preloadedUsed.outcome());
+        assertEquals(LocalDateTime.of(2026, 5, 1, 18, 30), preloadedUsed.ticket().getValidatedAt());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Ticket.class));
+        // Counted as not yet in the database; the flush writes them later
+        verify(checkInStatsService, times(2)).record(any(Ticket.class), eq(false));
+    }
+
+    @Test
+    public void testCheckIn_unknownCodesFallThroughToTheDatabase() {
+        // Arrange
+        gateService.open("eventId", "organizer@example.com", false);
+
+        // Act & Assert
+        assertTrue(gateService.checkInByQR("id4.sig", "door1@example.com", LocalDateTime.now()).isEmpty());
+        assertTrue(gateService.checkIn("TKT-99", "door1@example.com", LocalDateTime.now()).isEmpty());
+        assertTrue(gateService.checkInByQR("TKT-1|eventId|someone-else", "door1@example.com", LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    public void testRevoke_refundedTicketIsTurnedAway() {
+        // Arrange
+        gateService.open("eventId", "organizer@example.com", false);
+
+        // Act
+        gateService.revoke(tickets.get(1));
+        CheckInResult result = gateService.checkInByQR("id2.sig", "door1@example.com", LocalDateTime.now()).orElseThrow();
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.REFUNDED, result.outcome());
+    }
+
+    @Test
+    public void testFlush_writesAdmissionsInBatchesAndRetriesAfterFailure() {
+        // Arrange
+        gateService.open("eventId", "organizer@example.com", false);
+        gateService.checkIn("TKT-1", "door1@example.com", LocalDateTime.now());
+        gateService.checkIn("TKT-2", "door1@example.com", LocalDateTime.now());
+        when(bulkOperations.execute())
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getModifiedCount()).thenReturn(2);
+
+        // Act
+        gateService.flush();
+        var pendingAfterFailure = gateService.status("eventId").orElseThrow().get("pendingWrites");
+        gateService.flush();
+
+        // Assert
+        assertEquals(2, pendingAfterFailure);
+        assertEquals(0, gateService.status("eventId").orElseThrow().get("pendingWrites"));
+        // Two attempts at the same batch of two conditional updates
+        verify(bulkOperations, times(4)).updateOne(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    public void testSnapshot_isSortedDeltaEncodedWithUsedIndexes() {
+        // Arrange
+        gateService.open("eventId", "organizer@example.com", false);
+        gateService.checkInByQR("id1.sig", "door1@example.com", LocalDateTime.now());
+
+        // Act
+        ByteBuffer snapshot = ByteBuffer.wrap(gateService.snapshot("eventId", "organizer@example.com", false).orElseThrow());
+
+        // Assert
+        byte[] magic = new byte[4];
+        snapshot.get(magic);
+        assertEquals("GATE", new String(magic));
+        assertEquals(GateSet.SNAPSHOT_FORMAT, snapshot.get());
+        assertEquals(1L, snapshot.getLong());
+        int shift = 63 - snapshot.get();
+        int count = (int) varint(snapshot);
+        // Signed and legacy payload for each of the three tickets
+        assertEquals(6, count);
+        List<Long> keys = new ArrayList<>();
+        long key = 0;
+        for (int i = 0; i < count; i++) {
+            key += varint(snapshot);
+            keys.add(key);
+        }
+        int usedCount = (int) varint(snapshot);
+        List<Long> usedKeys = new ArrayList<>();
+        int index = 0;
+        for (int i = 0; i < usedCount; i++) {
+            index += (int) varint(snapshot);
+            usedKeys.add(keys.get(index));
+        }
+        assertFalse(snapshot.hasRemaining());
+        // id1 and id3, each by both payloads
+        assertEquals(4, usedCount);
+        assertTrue(usedKeys.contains(GateSet.key("id1.sig") >>> shift));
+        assertTrue(usedKeys.contains(GateSet.key("TKT-3|eventId|attendee-id3") >>> shift));
+        assertFalse(usedKeys.contains(GateSet.key("id2.sig") >>> shift));
+        assertTrue(keys.contains(GateSet.key("id2.sig") >>> shift));
+    }
+
+    private static long varint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static Ticket ticket(String id, String ticketNumber, Ticket.TicketStatus status, Ticket.PaymentStatus paymentStatus) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setTicketNumber(ticketNumber);
+        ticket.setEventId("eventId");
+        ticket.setAttendeeId("attendee-" + id);
+        ticket.setAttendeeName("Guest " + id);
+        ticket.setTicketTypeName("General");
+        ticket.setStatus(status);
+        ticket.setPaymentStatus(paymentStatus);
+        return ticket;
+    }
+}
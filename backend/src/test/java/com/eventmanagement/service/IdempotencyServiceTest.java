@@ -0,0 +1,146 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.exception.IdempotencyConflictException;
+import com.eventmanagement.model.IdempotencyRecord;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.IdempotencyRecordRepository;
+import com.eventmanagement.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(recordRepository, ticketRepository, mongoTemplate,
+                new SimpleMeterRegistry(), 100, 24, 60);
+    }
+
+    private Ticket ticket(String id) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        return ticket;
+    }
+
+    @Test
+    public void testRetry_ReturnsOriginalTicketsFromCache() {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        List<Ticket> issued = List.of(ticket("t1"), ticket("t2"));
+
+        // Act
+        IdempotencyService.Outcome first = idempotencyService.execute("razorpay:o|p", "user", "fp", () -> {
+            runs.incrementAndGet();
+            return issued;
+        });
+        IdempotencyService.Outcome retry = idempotencyService.execute("razorpay:o|p", "user", "fp", () -> {
+            runs.incrementAndGet();
+            return List.of(ticket("t3"));
+        });
+
+        // Assert
+        assertEquals(1, runs.get());
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertSame(issued, retry.tickets());
+        verify(recordRepository, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    public void testRetry_AfterCacheMiss_ReadsStoredTicketIdsWithoutWriting() {
+        // Arrange: the first attempt completed on another instance
+        IdempotencyRecord stored = new IdempotencyRecord();
+        stored.setId("razorpay:o|p");
+        stored.setOwnerId("user");
+        stored.setFingerprint("fp");
+        stored.setStatus(IdempotencyRecord.RecordStatus.COMPLETED);
+        stored.setTicketIds(List.of("t1", "t2"));
+        stored.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(recordRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(recordRepository.findById("razorpay:o|p")).thenReturn(Optional.of(stored));
+        when(ticketRepository.findAllById(List.of("t1", "t2"))).thenReturn(List.of(ticket("t1"), ticket("t2")));
+
+        // Act
+        IdempotencyService.Outcome retry = idempotencyService.execute("razorpay:o|p", "user", "fp", () -> {
+            throw new AssertionError("action must not run on a replay");
+        });
+
+        // Assert
+        assertTrue(retry.replayed());
+        assertEquals(2, retry.tickets().size());
+        verify(ticketRepository, never()).saveAll(any());
+        verify(mongoTemplate, never()).updateFirst(any(), any(), any(Class.class));
+    }
+
+    @Test
+    public void testRetry_WhileFirstAttemptRunning_Conflicts() {
+        // Arrange
+        IdempotencyRecord running = new IdempotencyRecord();
+        running.setId("key:user:abc");
+        running.setOwnerId("user");
+        running.setFingerprint("fp");
+        running.setStatus(IdempotencyRecord.RecordStatus.IN_PROGRESS);
+        running.setLockedUntil(LocalDateTime.now().plusSeconds(60));
+        when(recordRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(recordRepository.findById("key:user:abc")).thenReturn(Optional.of(running));
+
+        // Act & Assert
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute("key:user:abc", "user", "fp", List::of));
+    }
+
+    @Test
+    public void testKeyReusedForDifferentRequest_IsRejected() {
+        // Arrange
+        idempotencyService.execute("key:user:abc", "user", "fp", () -> List.of(ticket("t1")));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyService.execute("key:user:abc", "user", "other", () -> List.of(ticket("t2"))));
+    }
+
+    @Test
+    public void testFailedAttempt_ReleasesKeyForRetry() {
+        // Act
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("razorpay:o|p", "user", "fp", () -> {
+            throw new RuntimeException("Not enough tickets available");
+        }));
+
+        // Assert
+        verify(mongoTemplate, times(1)).remove(any(Query.class), any(Class.class));
+    }
+}
@@ -0,0 +1,232 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.InventoryHold;
+import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.repository.InventoryHoldRepository;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.calls;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InventoryHoldServiceTest {
+
+    @Mock
+    private InventoryHoldRepository holdRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private InventoryHoldService holdService;
+    private Event event;
+    private Event.TicketType general;
+    private Event.TicketType vip;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        holdService = new InventoryHoldService(holdRepository, eventRepository, inventoryService, mongoTemplate,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(holdService, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(holdService, "sweepBatch", 500);
+        ReflectionTestUtils.setField(holdService, "releaseRetrySeconds", 60L);
+        general = type("general");
+        vip = type("vip");
+        event = new Event();
+        event.setId("event-1");
+        event.setTicketTypes(List.of(general, vip));
+        when(eventRepository.findById("event-1")).thenReturn(Optional.of(event));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(InventoryHold.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(InventoryHold.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(holdRepository.save(any(InventoryHold.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    public void testPlace_takesTheSeatsAndSavesAnActiveHold() {
+        // Arrange
+        when(inventoryService.reserve(event, general, 2)).thenReturn(true);
+
+        // Act
+        Optional<InventoryHold> hold = holdService.place(event, general, 2, "user-1");
+
+        // Assert
+        assertTrue(hold.isPresent());
+        assertEquals(InventoryHold.HoldStatus.ACTIVE, hold.get().getStatus());
+        assertTrue(hold.get().getExpiresAt().isAfter(LocalDateTime.now().plusSeconds(590)));
+    }
+
+    @Test
+    public void testPlace_givesTheSeatsBackWhenTheHoldCannotBeSaved() {
+        // Arrange
+        when(inventoryService.reserve(event, general, 2)).thenReturn(true);
+        when(holdRepository.save(any(InventoryHold.class))).thenThrow(new IllegalStateException("down"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> holdService.place(event, general, 2, "user-1"));
+        verify(inventoryService).release(event, general, 2);
+    }
+
+    @Test
+    public void testPlace_returnsEmptyWhenSoldOut() {
+        // Arrange
+        when(inventoryService.reserve(event, general, 2)).thenReturn(false);
+
+        // Act & Assert
+        assertFalse(holdService.place(event, general, 2, "user-1").isPresent());
+        verify(holdRepository, never()).save(any());
+    }
+
+    @Test
+    public void testAttachOrder_onlyWritesToAnActiveHold() {
+        // Arrange
+        InventoryHold hold = hold("hold-1", general, 2);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(InventoryHold.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> holdService.attachOrder(hold, "order_1"));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(InventoryHold.class));
+        assertEquals(InventoryHold.HoldStatus.ACTIVE, query.getValue().getQueryObject().get("status"));
+        verify(holdRepository, never()).save(any());
+    }
+
+    @Test
+    public void testConvert_claimsOnlyALiveHold() {
+        // Arrange
+        InventoryHold hold = hold("hold-1", general, 2);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(InventoryHold.class))).thenReturn(hold).thenReturn(null);
+
+        // Act & Assert
+        assertEquals(Optional.of(hold), holdService.convert("order_1"));
+        assertEquals(Optional.empty(), holdService.convert("order_1"));
+    }
+
+    @Test
+    public void testSweepExpired_releasesOncePerTicketTypeBeforeMarkingReleased() {
+        // Arrange
+        List<InventoryHold> expired = List.of(hold("h1", general, 2), hold("h2", general, 3), hold("h3", vip, 1));
+        when(holdRepository.findExpiredHoldIds(any(LocalDateTime.class), any(Pageable.class))).thenReturn(expired);
+        when(holdRepository.findBySweepId(anyString())).thenReturn(expired);
+
+        // Act
+        holdService.sweepExpired();
+
+        // Assert
+        InOrder order = inOrder(mongoTemplate, inventoryService);
+        ArgumentCaptor<Update> claim = ArgumentCaptor.forClass(Update.class);
+        order.verify(mongoTemplate, calls(1)).updateMulti(any(Query.class), claim.capture(), eq(InventoryHold.class));
+        order.verify(inventoryService, calls(1)).release(eq(event), any(Event.TicketType.class), anyInt());
+        verify(inventoryService).release(event, general, 5);
+        verify(inventoryService).release(event, vip, 1);
+        Document set = claim.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(InventoryHold.HoldStatus.EXPIRED, set.get("status"));
+        assertEquals(false, set.get("released"));
+        assertTrue(releasedMarks().size() >= 2);
+    }
+
+    @Test
+    public void testSweepExpired_retriesHoldsLeftUnreleasedByACrash() {
+        // Arrange
+        List<InventoryHold> stranded = List.of(hold("h1", vip, 4));
+        when(holdRepository.findExpiredHoldIds(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+        when(holdRepository.findUnreleasedHoldIds(any(LocalDateTime.class), any(Pageable.class))).thenReturn(stranded);
+        when(holdRepository.findBySweepId(anyString())).thenReturn(stranded);
+
+        // Act
+        holdService.sweepExpired();
+
+        // Assert
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce())
+                .updateMulti(claim.capture(), any(Update.class), eq(InventoryHold.class));
+        Document guard = claim.getAllValues().get(0).getQueryObject().getList("$and", Document.class).get(0);
+        LocalDateTime claimedBefore = (LocalDateTime) guard.get("releaseClaimedAt", Document.class).get("$lt");
+        assertTrue(claimedBefore.isBefore(LocalDateTime.now().minusSeconds(59)));
+        assertEquals(false, guard.get("released"));
+        verify(inventoryService).release(event, vip, 4);
+    }
+
+    @Test
+    public void testRelease_marksTheHoldReleasedOnlyAfterTheSeatsAreBack() {
+        // Arrange
+        InventoryHold hold = hold("hold-1", general, 2);
+
+        // Act
+        holdService.release(hold, event, general);
+
+        // Assert
+        InOrder order = inOrder(mongoTemplate, inventoryService);
+        order.verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(InventoryHold.class));
+        order.verify(inventoryService).release(event, general, 2);
+        order.verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(InventoryHold.class));
+    }
+
+    // Updates that set released=true
+    private List<Update> releasedMarks() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce())
+                .updateMulti(any(Query.class), updates.capture(), eq(InventoryHold.class));
+        return updates.getAllValues().stream()
+                .filter(u -> Boolean.TRUE.equals(u.getUpdateObject().get("$set", Document.class).get("released")))
+                .toList();
+    }
+
+    private static Event.TicketType type(String id) {
+        Event.TicketType type = new Event.TicketType();
+        type.setId(id);
+        type.setActive(true);
+        type.setAvailableQuantity(100);
+        return type;
+    }
+
+    private static InventoryHold hold(String id, Event.TicketType type, int quantity) {
+        InventoryHold hold = new InventoryHold();
+        hold.setId(id);
+        hold.setEventId("event-1");
+        hold.setTicketTypeId(type.getId());
+        hold.setQuantity(quantity);
+        hold.setStatus(InventoryHold.HoldStatus.ACTIVE);
+        hold.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        return hold;
+    }
+}
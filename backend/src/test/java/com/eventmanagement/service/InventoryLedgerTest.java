@@ -0,0 +1,132 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InventoryLedgerTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private InventoryJournal journal;
+    private InventoryLedger ledger;
+    private Event event;
+    private Event.TicketType type;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        journal = new InventoryJournal(dir.toString(), true, 16 * 1024 * 1024);
+        ledger = new InventoryLedger(mongoTemplate, journal, 4);
+        ledger.recover();
+        event = new Event();
+        event.setId("event-1");
+        type = new Event.TicketType();
+        type.setId("type-1");
+        type.setActive(true);
+        type.setAvailableQuantity(100);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    public void testFlush_retriesAFailedBatchUnderItsOriginalSeq() {
+        // Arrange: the first write reaches the server but the reply is lost
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Event.class)))
+                .thenThrow(new MongoSocketReadException("reply lost", new ServerAddress()))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ledger.reserve(event, type, 2);
+        ledger.flush();
+
+        // Act
+        ledger.reserve(event, type, 3);
+        ledger.flush();
+
+        // Assert
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).updateFirst(queries.capture(), updates.capture(), eq(Event.class));
+        assertEquals(seq(updates.getAllValues().get(0)), seq(updates.getAllValues().get(1)));
+        assertEquals(-2, soldDelta(updates.getAllValues().get(1)));
+        assertEquals(-3, soldDelta(updates.getAllValues().get(2)));
+        assertTrue(seq(updates.getAllValues().get(2)) > seq(updates.getAllValues().get(1)));
+        assertEquals(95, ledger.available(event, type));
+    }
+
+    @Test
+    public void testJournal_concurrentMovementsAreAllReplayed() throws Exception {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        // Act
+        for (int i = 0; i < 2000; i++) {
+            pool.submit(() -> ledger.reserve(event, type, 1));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        journal.close();
+        InventoryJournal reopened = new InventoryJournal(dir.toString(), true, 16 * 1024 * 1024);
+        List<InventoryJournal.Entry> replay = reopened.open();
+        reopened.close();
+
+        // Assert
+        assertEquals(100, replay.size());
+        assertEquals(100, replay.stream().mapToLong(InventoryJournal.Entry::seq).distinct().count());
+        assertEquals(0, ledger.available(event, type));
+    }
+
+    @Test
+    public void testReserve_givesTheSeatsBackWhenTheJournalFails() throws Exception {
+        // Arrange
+        ledger.reserve(event, type, 2);
+        journal.close();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> ledger.reserve(event, type, 5));
+        assertEquals(98, ledger.available(event, type));
+    }
+
+    private static long seq(Update update) {
+        return ((Number) update.getUpdateObject().get("$set", Document.class).get("inventoryLedgerSeq")).longValue();
+    }
+
+    private static int soldDelta(Update update) {
+        return ((Number) update.getUpdateObject().get("$inc", Document.class)
+                .get("ticketTypes.$[t0].availableQuantity")).intValue();
+    }
+}
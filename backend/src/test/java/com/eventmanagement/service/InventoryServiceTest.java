@@ -0,0 +1,74 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InventoryServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private InventoryLedger inventoryLedger;
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        inventoryService = new InventoryService(mongoTemplate, inventoryLedger);
+    }
+
+    @Test
+    public void testReserve_matchesTheEmbeddedTypeByItsStoredId() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Event.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        boolean reserved = inventoryService.reserve("event-1", "type-1", 2);
+
+        // Assert
+        assertTrue(reserved);
+        assertEquals(new Document("_id", "type-1").append("isActive", true)
+                .append("availableQuantity", new Document("$gte", 2)), elemMatch());
+    }
+
+    @Test
+    public void testRelease_matchesTheEmbeddedTypeByItsStoredId() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Event.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        boolean released = inventoryService.release("event-1", "type-1", 3);
+
+        // Assert
+        assertFalse(released);
+        assertEquals(new Document("_id", "type-1").append("soldQuantity", new Document("$gte", 3)), elemMatch());
+    }
+
+    // TicketType.id is stored as _id inside the array; spell it that way rather than rely on the mapper
+    private Document elemMatch() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(Event.class));
+        return query.getValue().getQueryObject().get("ticketTypes", Document.class).get("$elemMatch", Document.class);
+    }
+}
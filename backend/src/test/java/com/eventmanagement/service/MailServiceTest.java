@@ -0,0 +1,60 @@
+package com.eventmanagement.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MailServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private MailService mailService;
+
+    @BeforeEach
+    public void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        mailService = new MailService(mailSender);
+        ReflectionTestUtils.setField(mailService, "fromAddress", "tickets@eventhub.local");
+    }
+
+    @Test
+    public void testSendBatch_deliversEveryMessageOverOneConnectionPerBatch() throws Exception {
+        // Arrange
+        int total = 1000;
+        int batchSize = 100;
+        byte[] png = new byte[]{(byte) 0x89, 'P', 'N', 'G'};
+
+        // Act
+        long started = System.nanoTime();
+        for (int sent = 0; sent < total; sent += batchSize) {
+            List<MimeMessage> batch = new ArrayList<>(batchSize);
+            for (int i = sent; i < sent + batchSize; i++) {
+                batch.add(mailService.buildHtml("buyer" + i + "@example.com", "Your Ticket",
+                        "<img src=\"cid:qr-" + i + "\" />", Map.of("qr-" + i, png)));
+            }
+            Map<Integer, Exception> failures = mailService.sendBatch(batch);
+            assertTrue(failures.isEmpty());
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        // Assert
+        assertTrue(greenMail.waitForIncomingEmail(10_000, total));
+        assertEquals(total, greenMail.getReceivedMessages().length);
+        System.out.printf("Outbox SMTP throughput: %.0f messages/s%n", total / seconds);
+    }
+}
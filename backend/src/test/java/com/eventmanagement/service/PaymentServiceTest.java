@@ -0,0 +1,140 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.PaymentDtos.VerifyPaymentRequest;
+import com.eventmanagement.dto.TicketPurchaseRequest;
+import com.eventmanagement.model.InventoryHold;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.TicketRepository;
+import com.razorpay.RazorpayClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PaymentServiceTest {
+
+    private static final String KEY_SECRET = "test-key-secret";
+
+    @Mock
+    private RazorpayClient razorpayClient;
+
+    @Mock
+    private EventService eventService;
+
+    @Mock
+    private TicketService ticketService;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private InventoryHoldService inventoryHoldService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private PaymentService paymentService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        paymentService = new PaymentService(razorpayClient, eventService, ticketService, ticketRepository,
+                inventoryService, inventoryHoldService, idempotencyService);
+        ReflectionTestUtils.setField(paymentService, "keySecret", KEY_SECRET);
+        when(idempotencyService.execute(anyString(), anyString(), anyString(), any()))
+                .thenAnswer(inv -> new IdempotencyService.Outcome(((Supplier<List<Ticket>>) inv.getArgument(3)).get(), false));
+        when(ticketRepository.findByPaymentId(anyString())).thenReturn(List.of());
+    }
+
+    @Test
+    public void testVerifyPayment_lapsedHoldIssuesWhatWasPaidFor() throws Exception {
+        // Arrange: the hold was for 1 seat and has been swept; the verify body asks for 10
+        InventoryHold hold = hold(InventoryHold.HoldStatus.EXPIRED);
+        when(inventoryHoldService.findByOrder("order_1")).thenReturn(Optional.of(hold));
+        when(inventoryHoldService.convert("order_1")).thenReturn(Optional.empty());
+        ArgumentCaptor<TicketPurchaseRequest> issued = ArgumentCaptor.forClass(TicketPurchaseRequest.class);
+
+        // Act
+        paymentService.verifyPayment(request(10), "buyer@example.com", null);
+
+        // Assert
+        verify(ticketService).purchaseTickets(issued.capture(), eq("buyer@example.com"), eq("pay_1"));
+        assertEquals(1, issued.getValue().getQuantity());
+        assertEquals("event-1", issued.getValue().getEventId());
+        assertEquals("type-1", issued.getValue().getTicketTypeId());
+    }
+
+    @Test
+    public void testVerifyPayment_rejectsAnOrderWithoutACheckout() {
+        // Arrange
+        when(inventoryHoldService.findByOrder("order_1")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> paymentService.verifyPayment(request(1), "buyer@example.com", null));
+        verify(ticketService, never()).purchaseTickets(any(), anyString(), anyString());
+    }
+
+    @Test
+    public void testVerifyPayment_clientKeyStillClaimsThePayment() throws Exception {
+        // Arrange
+        when(inventoryHoldService.findByOrder("order_1")).thenReturn(Optional.of(hold(InventoryHold.HoldStatus.ACTIVE)));
+        when(inventoryHoldService.convert("order_1")).thenReturn(Optional.of(hold(InventoryHold.HoldStatus.CONVERTED)));
+
+        // Act
+        paymentService.verifyPayment(request(1), "buyer@example.com", "retry-1");
+
+        // Assert: a new header key on a later retry would still meet the payment's own claim
+        verify(idempotencyService).execute(eq("key:buyer@example.com:retry-1"), eq("buyer@example.com"), anyString(), any());
+        verify(idempotencyService).execute(eq("razorpay:order_1|pay_1"), eq("buyer@example.com"), anyString(), any());
+    }
+
+    private static InventoryHold hold(InventoryHold.HoldStatus status) {
+        InventoryHold hold = new InventoryHold();
+        hold.setId("hold-1");
+        hold.setRazorpayOrderId("order_1");
+        hold.setEventId("event-1");
+        hold.setTicketTypeId("type-1");
+        hold.setQuantity(1);
+        hold.setHolderId("buyer@example.com");
+        hold.setStatus(status);
+        return hold;
+    }
+
+    private static VerifyPaymentRequest request(int quantity) throws Exception {
+        VerifyPaymentRequest req = new VerifyPaymentRequest();
+        req.setRazorpayOrderId("order_1");
+        req.setRazorpayPaymentId("pay_1");
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        req.setRazorpaySignature(HexFormat.of().formatHex(mac.doFinal("order_1|pay_1".getBytes(StandardCharsets.UTF_8))));
+        req.setEventId("event-1");
+        req.setTicketTypeId("type-1");
+        req.setQuantity(quantity);
+        req.setAttendeeName("Asha Rao");
+        req.setAttendeeEmail("buyer@example.com");
+        return req;
+    }
+}
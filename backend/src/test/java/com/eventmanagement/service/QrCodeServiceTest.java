@@ -0,0 +1,159 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.util.QRCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QrCodeServiceTest {
+
+    @Mock
+    private QRCodeGenerator qrCodeGenerator;
+
+    @Mock
+    private QrImageStore qrImageStore;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private QrCodeService qrCodeService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        when(qrCodeGenerator.generateQRCodeBytes(anyString())).thenAnswer(inv -> new byte[100]);
+        // Room for two 100-byte images
+        qrCodeService = new QrCodeService(qrCodeGenerator, qrImageStore, meterRegistry, "test-secret", "jwt-secret", 250, 300);
+    }
+
+    @Test
+    public void testPayload_roundTripsAndRejectsForgeries() {
+        // Arrange
+        String payload = qrCodeService.payload("0ABCDEFGHJKMN");
+        QrCodeService otherKey = new QrCodeService(qrCodeGenerator, qrImageStore, meterRegistry, "other-secret", "jwt-secret", 250, 300);
+
+        // Act & Assert
+        assertEquals(Optional.of("0ABCDEFGHJKMN"), qrCodeService.ticketIdFrom(payload));
+        assertEquals(Optional.empty(), qrCodeService.ticketIdFrom(payload.replace("0ABCDEFGHJKMN", "0ABCDEFGHJKMP")));
+        assertEquals(Optional.empty(), qrCodeService.ticketIdFrom(otherKey.payload("0ABCDEFGHJKMN")));
+        assertEquals(Optional.empty(), qrCodeService.ticketIdFrom("TKT-01HX3-K7Q9-ZABC|eventId|buyer@example.com"));
+        assertEquals(Optional.empty(), qrCodeService.ticketIdFrom("0ABCDEFGHJKMN.not*base64"));
+    }
+
+    @Test
+    public void testIsValidRef_acceptsStoredDigestsAndSignedPayloadsOnly() {
+        // Act & Assert
+        assertTrue(qrCodeService.isValidRef(qrCodeService.payload("0ABCDEFGHJKMN")));
+        assertTrue(qrCodeService.isValidRef(HexFormat.of().formatHex(new byte[32])));
+        assertFalse(qrCodeService.isValidRef("0ABCDEFGHJKMN.forged"));
+        assertFalse(qrCodeService.isValidRef("TKT-01HX3-K7Q9-ZABC|eventId|buyer@example.com"));
+    }
+
+    @Test
+    public void testPayload_keyIsDerivedFromTheJwtSecretWhenNoneIsSet() {
+        // Arrange
+        QrCodeService derived = new QrCodeService(qrCodeGenerator, qrImageStore, meterRegistry, "", "jwt-secret", 250, 300);
+        QrCodeService rawJwtKey = new QrCodeService(qrCodeGenerator, qrImageStore, meterRegistry, "jwt-secret", "jwt-secret", 250, 300);
+
+        // Act
+        String payload = derived.payload("0ABCDEFGHJKMN");
+
+        // Assert
+        assertEquals(Optional.of("0ABCDEFGHJKMN"), derived.ticketIdFrom(payload));
+        assertEquals(Optional.empty(), rawJwtKey.ticketIdFrom(payload));
+    }
+
+    @Test
+    public void testHkdf_matchesRfc5869TestCase3() {
+        // Arrange: 22 bytes of 0x0b, no salt, no info
+        byte[] inputKey = new byte[22];
+        Arrays.fill(inputKey, (byte) 0x0b);
+
+        // Act
+        byte[] key = QrCodeService.hkdf(inputKey, "");
+
+        // Assert
+        assertEquals("8da4e775a563c18f715f802a063c5a31b8a11f5c5ee1879ec3454e5f3c738d2d", HexFormat.of().formatHex(key));
+    }
+
+    @Test
+    public void testImage_rendersOnceThenServesFromCache() {
+        // Arrange
+        String payload = qrCodeService.payload("0ABCDEFGHJKMN");
+
+        // Act
+        QrCodeService.Image first = qrCodeService.image(payload).orElseThrow();
+        QrCodeService.Image second = qrCodeService.image(payload).orElseThrow();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(qrCodeService.etag(payload), first.etag());
+        verify(qrCodeGenerator, times(1)).generateQRCodeBytes(payload);
+        assertEquals(1.0, meterRegistry.counter("qr.cache.hits").count());
+        assertEquals(1.0, meterRegistry.counter("qr.cache.misses").count());
+    }
+
+    @Test
+    public void testRender_evictsLeastRecentlyUsedBeyondByteBudget() {
+        // Arrange
+        String a = qrCodeService.payload("A");
+        String b = qrCodeService.payload("B");
+        String c = qrCodeService.payload("C");
+        qrCodeService.render(a);
+        qrCodeService.render(b);
+        qrCodeService.render(a); // B is now the eldest
+
+        // Act
+        qrCodeService.render(c);
+        qrCodeService.render(a);
+        qrCodeService.render(b);
+
+        // Assert
+        verify(qrCodeGenerator, times(1)).generateQRCodeBytes(a);
+        verify(qrCodeGenerator, times(2)).generateQRCodeBytes(b);
+        assertTrue(qrCodeService.cachedBytes() <= 250);
+        assertEquals(2.0, meterRegistry.counter("qr.cache.evictions").count());
+    }
+
+    @Test
+    public void testImage_unsignedReferenceIsNotRendered() {
+        // Act
+        Optional<QrCodeService.Image> image = qrCodeService.image("0ABCDEFGHJKMN.AAAAAAAAAAAAAAAA");
+
+        // Assert
+        assertTrue(image.isEmpty());
+        verify(qrCodeGenerator, never()).generateQRCodeBytes(anyString());
+    }
+
+    @Test
+    public void testImage_migratedReferenceIsReadFromStore() {
+        // Arrange
+        String ref = "a".repeat(64);
+        when(qrImageStore.get(ref)).thenReturn(Optional.of(new byte[] {1, 2, 3}));
+
+        // Act
+        QrCodeService.Image image = qrCodeService.image(ref).orElseThrow();
+
+        // Assert
+        assertEquals("\"" + ref + "\"", image.etag());
+        assertNotEquals(qrCodeService.etag(qrCodeService.payload("A")), qrCodeService.etag(qrCodeService.payload("B")));
+        verify(qrCodeGenerator, never()).generateQRCodeBytes(anyString());
+    }
+}
@@ -0,0 +1,80 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QueryShapeTest {
+
+    private static final List<List<String>> EVENT_INDEXES = List.of(
+            List.of("status", "isPublished", "eventDate", "_id"),
+            List.of("status", "isPublished", "city", "eventDate"),
+            List.of(QueryShape.TEXT, QueryShape.TEXT));
+
+    @Test
+    public void testParse_splitsEqualityFromRange() {
+        // Act
+        List<QueryShape> shapes = QueryShape.parse(
+                "{'status': 'PUBLISHED', 'isPublished': true, 'tags': {$in: ?0}, 'eventDate': {$gte: ?1, $lte: ?2}}", "");
+
+        // Assert
+        assertEquals(1, shapes.size());
+        assertEquals(Set.of("status", "isPublished", "tags"), shapes.get(0).equality());
+        assertEquals(Set.of("eventDate"), shapes.get(0).range());
+    }
+
+    @Test
+    public void testParse_givesEachOrBranchItsOwnShape() {
+        // Act
+        List<QueryShape> shapes = QueryShape.parse(
+                "{$or: [{'status': 'PENDING', 'nextAttemptAt': {$lte: ?0}}, {'status': 'SENDING', 'lockedUntil': {$lt: ?0}}]}", null);
+
+        // Assert
+        assertEquals(2, shapes.size());
+        assertEquals(Set.of("nextAttemptAt"), shapes.get(0).range());
+        assertEquals(Set.of("lockedUntil"), shapes.get(1).range());
+        assertTrue(shapes.stream().allMatch(shape -> shape.equality().equals(Set.of("status"))));
+    }
+
+    @Test
+    public void testDerived_readsMethodNames() {
+        // Act
+        List<QueryShape> shapes = QueryShape.derived("findByEmail", User.class);
+
+        // Assert
+        assertEquals(List.of(new QueryShape(Set.of("email"), List.of(), Set.of(), false)), shapes);
+    }
+
+    @Test
+    public void testSupportedBy_needsEqualityPrefixThenRange() {
+        // Arrange
+        QueryShape upcoming = QueryShape.parse("{'status': 'PUBLISHED', 'isPublished': true, 'eventDate': {$gte: ?0}}", null).get(0);
+        QueryShape byCity = QueryShape.parse("{'status': 'PUBLISHED', 'isPublished': true, 'city': ?0}", null).get(0);
+        QueryShape byCategory = QueryShape.parse("{'status': 'PUBLISHED', 'isPublished': true, 'category': ?0}", null).get(0);
+        QueryShape byOrganizer = QueryShape.parse("{'organizerId': ?0}", null).get(0);
+        QueryShape search = QueryShape.parse("{'status': 'PUBLISHED', $text: {$search: ?0}}", null).get(0);
+
+        // Act & Assert
+        assertEquals(QueryShape.Support.INDEXED, upcoming.supportedBy(EVENT_INDEXES));
+        assertEquals(QueryShape.Support.INDEXED, byCity.supportedBy(EVENT_INDEXES));
+        assertEquals(QueryShape.Support.PARTIAL, byCategory.supportedBy(EVENT_INDEXES));
+        assertEquals(QueryShape.Support.UNINDEXED, byOrganizer.supportedBy(EVENT_INDEXES));
+        assertEquals(QueryShape.Support.INDEXED, search.supportedBy(EVENT_INDEXES));
+        assertEquals(QueryShape.Support.UNINDEXED, search.supportedBy(EVENT_INDEXES.subList(0, 2)));
+    }
+
+    @Test
+    public void testSupportedBy_sortMustFollowTheEqualityPrefix() {
+        // Arrange
+        QueryShape stream = QueryShape.parse("{'eventId': ?0}", "{'_id': 1}").get(0);
+
+        // Act & Assert
+        assertEquals(QueryShape.Support.INDEXED, stream.supportedBy(List.of(List.of("eventId", "_id"))));
+        assertEquals(QueryShape.Support.PARTIAL, stream.supportedBy(List.of(List.of("eventId", "status"))));
+    }
+}
@@ -0,0 +1,230 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.dto.CheckInResult;
+import com.eventmanagement.dto.ScanSyncRequest;
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.EventRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ScanSyncServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private QrCodeService qrCodeService;
+
+    // No event in gate mode: Optional-returning stubs default to empty
+    @Mock
+    private GateService gateService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private BulkWriteResult bulkWriteResult;
+
+    @Mock
+    private CheckInStatsService checkInStatsService;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private ScanSyncService scanSyncService;
+
+    private final LocalDateTime doorsOpen = LocalDateTime.now().minusHours(2).truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        scanSyncService = new ScanSyncService(mongoTemplate, qrCodeService, gateService, checkInStatsService, eventRepository);
+        ReflectionTestUtils.setField(scanSyncService, "maxScans", 100);
+        ReflectionTestUtils.setField(scanSyncService, "maxBackdateMinutes", 720L);
+        ReflectionTestUtils.setField(scanSyncService, "clockSkewSeconds", 120L);
+        Event event = new Event();
+        event.setId("eventId");
+        event.setOrganizerId("organizer-1");
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+        ReflectionTestUtils.setField(scanSyncService, "acceptLegacyPayloads", true);
+        when(qrCodeService.ticketIdFrom(anyString())).thenAnswer(inv -> {
+            String payload = inv.getArgument(0);
+            return payload.endsWith(".sig") ? Optional.of(payload.substring(0, payload.length() - 4)) : Optional.empty();
+        });
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Ticket.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+    }
+
+    @Test
+    public void testSync_earliestScanWinsWithOneReadAndOneWrite() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(Ticket.class)))
+                .thenReturn(List.of(ticket("id1", "TKT-1"), ticket("id2", "TKT-2")));
+        when(bulkWriteResult.getModifiedCount()).thenReturn(2);
+        List<ScanSyncRequest.Scan> scans = List.of(
+                scan("a", "id1.sig", null, doorsOpen.plusMinutes(5)),
+                scan("b", null, "TKT-1", doorsOpen),
+                scan("c", "TKT-2|eventId|attendee-id2", null, doorsOpen.plusMinutes(10)),
+                scan("d", "not-a-ticket", null, doorsOpen));
+
+        // Act
+        List<CheckInResult> results = scanSyncService.sync(scans, "door1@example.com", "organizer-1", false);
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.ALREADY_USED, results.get(0).outcome());
+        assertEquals(doorsOpen, results.get(0).ticket().getValidatedAt());
+        assertEquals(CheckInResult.Outcome.ACCEPTED, results.get(1).outcome());
+        assertEquals(CheckInResult.Outcome.ACCEPTED, results.get(2).outcome());
+        assertEquals(CheckInResult.Outcome.UNKNOWN, results.get(3).outcome());
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Ticket.class));
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).execute();
+        verify(checkInStatsService, times(2)).record(any(Ticket.class), eq(true));
+    }
+
+    @Test
+    public void testSync_earlierOfflineScanTakesOverLaterCheckIn() {
+        // Arrange
+        LocalDateTime onlineCheckIn = doorsOpen.plusMinutes(30);
+        Ticket used = ticket("id1", "TKT-1");
+        used.setStatus(Ticket.TicketStatus.USED);
+        used.setValidatedAt(onlineCheckIn);
+        used.setValidatedBy("door2@example.com");
+        when(mongoTemplate.find(any(Query.class), eq(Ticket.class))).thenReturn(List.of(used));
+        when(bulkWriteResult.getModifiedCount()).thenReturn(1);
+        ArgumentCaptor<Query> written = ArgumentCaptor.forClass(Query.class);
+
+        // Act
+        List<CheckInResult> results = scanSyncService.sync(List.of(scan("a", "id1.sig", null, doorsOpen)), "door1@example.com", "organizer-1", false);
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.ACCEPTED, results.get(0).outcome());
+        assertEquals(doorsOpen, results.get(0).ticket().getValidatedAt());
+        verify(bulkOperations).updateOne(written.capture(), any(Update.class));
+        assertEquals(onlineCheckIn, written.getValue().getQueryObject().get("validatedAt"));
+        // Still one check-in, just an earlier one
+        verify(checkInStatsService, never()).record(any(Ticket.class), anyBoolean());
+    }
+
+    @Test
+    public void testSync_writeLostToConcurrentCheckInIsReportedAsRepeat() {
+        // Arrange
+        Ticket meanwhile = ticket("id1", "TKT-1");
+        meanwhile.setStatus(Ticket.TicketStatus.USED);
+        meanwhile.setValidatedAt(doorsOpen.plusMinutes(1));
+        meanwhile.setValidatedBy("door9@example.com");
+        when(mongoTemplate.find(any(Query.class), eq(Ticket.class)))
+                .thenReturn(List.of(ticket("id1", "TKT-1")))
+                .thenReturn(List.of(meanwhile));
+        when(bulkWriteResult.getModifiedCount()).thenReturn(0);
+
+        // Act
+        List<CheckInResult> results = scanSyncService.sync(List.of(
+                scan("a", "id1.sig", null, doorsOpen.plusMinutes(2)),
+                scan("b", null, "TKT-1", doorsOpen.plusMinutes(3))), "door1@example.com", "organizer-1", false);
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.ALREADY_USED, results.get(0).outcome());
+        assertTrue(results.get(0).message().endsWith("by door9@example.com"));
+        assertTrue(results.get(1).message().endsWith("by door9@example.com"));
+    }
+
+    @Test
+    public void testSync_gateModeEventsNeverTouchTheDatabase() {
+        // Arrange
+        Ticket admitted = ticket("id1", "TKT-1");
+        when(gateService.checkInByQR(eq("id1.sig"), anyString(), any(LocalDateTime.class), any()))
+                .thenReturn(Optional.of(new CheckInResult(CheckInResult.Outcome.ACCEPTED, admitted)));
+
+        // Act
+        List<CheckInResult> results = scanSyncService.sync(List.of(scan("a", "id1.sig", null, doorsOpen)), "door1@example.com", "organizer-1", false);
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.ACCEPTED, results.get(0).outcome());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Ticket.class));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Ticket.class));
+    }
+
+    @Test
+    public void testSync_ticketsOfAnotherOrganizersEventAreUnknown() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(Ticket.class))).thenReturn(List.of(ticket("id1", "TKT-1")));
+
+        // Act
+        List<CheckInResult> results = scanSyncService.sync(List.of(scan("a", "id1.sig", null, doorsOpen)),
+                "door1@example.com", "organizer-2", false);
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.UNKNOWN, results.get(0).outcome());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Ticket.class));
+    }
+
+    @Test
+    public void testSync_rejectsScansOutsideTheClockWindow() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+
+        // Act
+        List<CheckInResult> results = scanSyncService.sync(List.of(
+                scan("a", "id1.sig", null, now.minusDays(2)),
+                scan("b", null, "TKT-1", now.plusHours(1))), "door1@example.com", "organizer-1", false);
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.OUTSIDE_SCAN_WINDOW, results.get(0).outcome());
+        assertEquals(CheckInResult.Outcome.OUTSIDE_SCAN_WINDOW, results.get(1).outcome());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Ticket.class));
+    }
+
+    @Test
+    public void testSync_rejectsOversizedBatch() {
+        // Arrange
+        ReflectionTestUtils.setField(scanSyncService, "maxScans", 1);
+        List<ScanSyncRequest.Scan> scans = List.of(scan("a", null, "TKT-1", doorsOpen), scan("b", null, "TKT-2", doorsOpen));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> scanSyncService.sync(scans, "door1@example.com", "organizer-1", false));
+    }
+
+    private static ScanSyncRequest.Scan scan(String scanId, String qrCode, String ticketNumber, LocalDateTime scannedAt) {
+        return new ScanSyncRequest.Scan(scanId, qrCode, ticketNumber, scannedAt);
+    }
+
+    private static Ticket ticket(String id, String ticketNumber) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setTicketNumber(ticketNumber);
+        ticket.setEventId("eventId");
+        ticket.setAttendeeId("attendee-" + id);
+        ticket.setAttendeeName("Guest " + id);
+        ticket.setStatus(Ticket.TicketStatus.ACTIVE);
+        ticket.setPaymentStatus(Ticket.PaymentStatus.COMPLETED);
+        return ticket;
+    }
+}
@@ -0,0 +1,154 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
+import com.eventmanagement.repository.EventRepository;
+import com.eventmanagement.repository.TicketRepository;
+import com.eventmanagement.util.QrEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class TicketExportServiceTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private QrCodeService qrCodeService;
+
+    private TicketExportService exportService;
+
+    private final byte[] png = new QrEncoder().png("0ABCDEFGHJKMN.sig", 120);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new TicketExportService(ticketRepository, eventRepository, qrCodeService, 2, 2, 60);
+
+        Event event = new Event();
+        event.setId("eventId");
+        event.setName("Spring Gala");
+        event.setOrganizerId("organizer@example.com");
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setId("id" + i);
+            ticket.setTicketNumber("TKT-" + i);
+            ticket.setEventId("eventId");
+            ticket.setEventName("Spring Gala");
+            ticket.setAttendeeName(i == 2 ? "=HYPERLINK(\"x\")" : "Guest (" + i + ")");
+            ticket.setTicketTypeName("General");
+            ticket.setStatus(Ticket.TicketStatus.ACTIVE);
+            tickets.add(ticket);
+        }
+        when(ticketRepository.countByEventId("eventId")).thenReturn(3L);
+        // Each pass opens a fresh cursor
+        when(ticketRepository.streamByEventId("eventId")).thenAnswer(inv -> tickets.stream());
+        when(qrCodeService.payload(anyString())).thenAnswer(inv -> inv.getArgument(0) + ".sig");
+        when(qrCodeService.uncachedImage(anyString())).thenReturn(Optional.of(new QrCodeService.Image(png, "\"etag\"")));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        exportService.shutdown();
+    }
+
+    @Test
+    public void testZipExport_manifestThenImagesInCursorOrder() throws Exception {
+        // Arrange
+        TicketExportService.ExportJob job = exportService.start("eventId", TicketExportService.Format.ZIP, "organizer@example.com", false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.write(job, out);
+
+        // Assert
+        List<String> names = new ArrayList<>();
+        String manifest = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                byte[] body = zip.readAllBytes();
+                if (entry.getName().equals("tickets.csv")) {
+                    manifest = new String(body, StandardCharsets.UTF_8);
+                } else {
+                    assertEquals(png.length, body.length);
+                }
+            }
+        }
+        assertEquals(List.of("tickets.csv", "qr/TKT-1.png", "qr/TKT-2.png", "qr/TKT-3.png"), names);
+        assertTrue(manifest.contains("TKT-2,\"'=HYPERLINK(\"\"x\"\")\",,General,ACTIVE,qr/TKT-2.png\n"));
+        assertEquals(TicketExportService.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getWritten());
+        assertEquals("Spring-Gala-tickets.zip", job.fileName());
+    }
+
+    @Test
+    public void testPdfExport_onePagePerTicketWithValidXref() throws Exception {
+        // Arrange
+        TicketExportService.ExportJob job = exportService.start("eventId", TicketExportService.Format.PDF, "organizer@example.com", false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.write(job, out);
+
+        // Assert
+        String pdf = new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        assertTrue(pdf.contains("/Type /Pages /Count 3 "));
+        assertTrue(pdf.contains("(Guest \\(1\\)) Tj"));
+        assertTrue(pdf.contains("/ColorSpace /DeviceGray /BitsPerComponent 1"));
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n").matcher(pdf);
+        assertTrue(startxref.find());
+        int xref = Integer.parseInt(startxref.group(1));
+        assertTrue(pdf.startsWith("xref\n0 14\n", xref));
+        // Every object sits exactly where the cross-reference table says
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n \n").matcher(pdf.substring(xref));
+        int object = 1;
+        while (entries.find()) {
+            assertTrue(pdf.startsWith(object + " 0 obj\n", Integer.parseInt(entries.group(1))), "object " + object);
+            object++;
+        }
+        assertEquals(14, object);
+        assertEquals(3, exportService.progress(job.getId(), "organizer@example.com", false).orElseThrow().getWritten());
+    }
+
+    @Test
+    public void testStart_rejectsOtherOrganizersButAllowsAdmin() {
+        // Act & Assert
+        assertThrows(RuntimeException.class,
+                () -> exportService.start("eventId", TicketExportService.Format.ZIP, "someone@else.com", false));
+        TicketExportService.ExportJob job = exportService.start("eventId", TicketExportService.Format.ZIP, "admin@example.com", true);
+        assertEquals(3, job.getTotal());
+        assertTrue(exportService.progress(job.getId(), "someone@else.com", false).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> TicketExportService.Format.parse("docx"));
+    }
+}
@@ -1,26 +1,55 @@
 package com.eventmanagement.service;
 
+import com.eventmanagement.dto.CheckInResult;
 import com.eventmanagement.dto.TicketPurchaseRequest;
 import com.eventmanagement.model.Event;
+import com.eventmanagement.model.Ticket;
 import com.eventmanagement.model.User;
 import com.eventmanagement.repository.EventRepository;
 import com.eventmanagement.repository.TicketRepository;
 import com.eventmanagement.repository.UserRepository;
-import com.eventmanagement.util.QRCodeGenerator;
+import com.eventmanagement.util.IdGenerator;
+import com.eventmanagement.util.SnowflakeIdGenerator;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TicketServiceTest {
@@ -38,14 +67,38 @@ public class TicketServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private QRCodeGenerator qrCodeGenerator;
+    private EmailOutboxService emailOutboxService;
 
     @Mock
-    private EmailService emailService;
+    private InventoryService inventoryService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private QrCodeService qrCodeService;
+
+    // No event in gate mode: Optional-returning stubs default to empty, so check-in goes to the database
+    @Mock
+    private GateService gateService;
+
+    @Mock
+    private CheckInStatsService checkInStatsService;
+
+    @Spy
+    private IdGenerator idGenerator = new SnowflakeIdGenerator(1);
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Ticket.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(qrCodeService.payload(anyString())).thenAnswer(inv -> inv.getArgument(0) + ".sig");
+        when(qrCodeService.ticketIdFrom(anyString())).thenReturn(Optional.empty());
+        ReflectionTestUtils.setField(ticketService, "acceptLegacyPayloads", true);
     }
 
     @Test
@@ -84,4 +137,357 @@ public class TicketServiceTest {
             ticketService.purchaseTickets(request, attendeeId);
         });
     }
+
+    @Test
+    public void testPurchaseTickets_parallelBuyersNeverOversell() throws Exception {
+        // Arrange
+        String eventId = "eventId";
+        String ticketTypeId = "ticketTypeId";
+        String attendeeId = "attendeeId";
+        int capacity = 100;
+        int buyers = 5000;
+
+        Event.TicketType ticketType = new Event.TicketType();
+        ticketType.setId(ticketTypeId);
+        ticketType.setName("General");
+        ticketType.setPrice(BigDecimal.TEN);
+        ticketType.setAvailableQuantity(capacity);
+        ticketType.setActive(true);
+
+        List<Event.TicketType> ticketTypes = new ArrayList<>();
+        ticketTypes.add(ticketType);
+
+        Event event = new Event();
+        event.setId(eventId);
+        event.setEventDate(LocalDateTime.now().plusDays(30));
+        event.setTicketTypes(ticketTypes);
+
+        User user = new User();
+        user.setId(attendeeId);
+
+        // Stand-in for the conditional update: the guard and the decrement happen as one step
+        AtomicInteger available = new AtomicInteger(capacity);
+        AtomicInteger lowest = new AtomicInteger(capacity);
+        when(inventoryService.reserve(eq(event), eq(ticketType), anyInt())).thenAnswer(i -> {
+            int quantity = i.getArgument(2);
+            while (true) {
+                int current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - quantity)) {
+                    lowest.accumulateAndGet(current - quantity, Math::min);
+                    return true;
+                }
+            }
+        });
+        when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+        when(userRepository.findById(attendeeId)).thenReturn(Optional.of(user));
+
+        // Act
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        for (int i = 0; i < buyers; i++) {
+            pool.execute(() -> {
+                TicketPurchaseRequest request = new TicketPurchaseRequest();
+                request.setEventId(eventId);
+                request.setTicketTypeId(ticketTypeId);
+                request.setQuantity(1);
+                try {
+                    start.await();
+                    sold.addAndGet(ticketService.purchaseTickets(request, attendeeId).size());
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(capacity, sold.get());
+        assertEquals(buyers - capacity, rejected.get());
+        assertEquals(0, available.get());
+        assertTrue(lowest.get() >= 0);
+    }
+
+    @Test
+    public void testPurchaseTickets_groupOrderIsWrittenWithOneBulkInsert() {
+        // Arrange
+        String eventId = "eventId";
+        String ticketTypeId = "ticketTypeId";
+        String attendeeId = "attendeeId";
+
+        Event.TicketType ticketType = new Event.TicketType();
+        ticketType.setId(ticketTypeId);
+        ticketType.setPrice(BigDecimal.TEN);
+        ticketType.setAvailableQuantity(50);
+        ticketType.setActive(true);
+
+        List<Event.TicketType> ticketTypes = new ArrayList<>();
+        ticketTypes.add(ticketType);
+
+        Event event = new Event();
+        event.setId(eventId);
+        event.setEventDate(LocalDateTime.now().plusDays(30));
+        event.setTicketTypes(ticketTypes);
+
+        User user = new User();
+        user.setId(attendeeId);
+
+        TicketPurchaseRequest request = new TicketPurchaseRequest();
+        request.setEventId(eventId);
+        request.setTicketTypeId(ticketTypeId);
+        request.setQuantity(10);
+
+        when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+        when(userRepository.findById(attendeeId)).thenReturn(Optional.of(user));
+        when(inventoryService.reserve(eq(event), eq(ticketType), eq(10))).thenReturn(true);
+
+        // Act
+        List<Ticket> tickets = ticketService.purchaseTickets(request, attendeeId, "pay_123");
+
+        // Assert
+        assertEquals(10, tickets.size());
+        assertTrue(tickets.stream().allMatch(t -> "pay_123".equals(t.getPaymentId())));
+        assertTrue(tickets.stream().allMatch(t -> (t.getId() + ".sig").equals(t.getQrImageRef())));
+        verify(emailOutboxService, times(1)).enqueueOrder(anyList(), any());
+        verify(bulkOperations, times(1)).insert(anyList());
+        verify(bulkOperations, times(1)).execute();
+        verify(ticketRepository, never()).save(any());
+        verify(ticketRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testPurchaseTickets_outboxFailureKeepsTheSeatsSold() {
+        // Arrange
+        Event event = orderableEvent();
+        TicketPurchaseRequest request = orderRequest(3);
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+        when(userRepository.findById("attendeeId")).thenReturn(Optional.of(new User()));
+        when(inventoryService.reserve(eq(event), any(Event.TicketType.class), eq(3))).thenReturn(true);
+        doThrow(new IllegalStateException("outbox down")).when(emailOutboxService).enqueueOrder(anyList(), any());
+
+        // Act
+        List<Ticket> tickets = ticketService.purchaseTickets(request, "attendeeId", "pay_123");
+
+        // Assert
+        assertEquals(3, tickets.size());
+        verify(emailOutboxService, times(3)).enqueueOrder(anyList(), any());
+        verify(inventoryService, never()).release(any(Event.class), any(Event.TicketType.class), anyInt());
+    }
+
+    @Test
+    public void testPurchaseTickets_failedInsertGivesTheSeatsBack() {
+        // Arrange
+        Event event = orderableEvent();
+        TicketPurchaseRequest request = orderRequest(3);
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+        when(userRepository.findById("attendeeId")).thenReturn(Optional.of(new User()));
+        when(inventoryService.reserve(eq(event), any(Event.TicketType.class), eq(3))).thenReturn(true);
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("insert failed"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> ticketService.purchaseTickets(request, "attendeeId", "pay_123"));
+        verify(inventoryService).release(event, event.getTicketTypes().get(0), 3);
+        verify(emailOutboxService, never()).enqueueOrder(anyList(), any());
+    }
+
+    @Test
+    public void testPurchaseTickets_ambiguousInsertFailureOnlyGivesBackUnwrittenSeats() {
+        // Arrange: two of the three tickets reached the database before the connection dropped
+        Event event = orderableEvent();
+        TicketPurchaseRequest request = orderRequest(3);
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+        when(userRepository.findById("attendeeId")).thenReturn(Optional.of(new User()));
+        when(inventoryService.reserve(eq(event), any(Event.TicketType.class), eq(3))).thenReturn(true);
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("connection reset"));
+        when(mongoTemplate.count(any(Query.class), eq(Ticket.class))).thenReturn(2L);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> ticketService.purchaseTickets(request, "attendeeId", "pay_123"));
+        verify(inventoryService).release(event, event.getTicketTypes().get(0), 1);
+    }
+
+    @Test
+    public void testPurchaseTickets_keepsTheSeatsWhenTheInsertCannotBeChecked() {
+        // Arrange
+        Event event = orderableEvent();
+        TicketPurchaseRequest request = orderRequest(3);
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+        when(userRepository.findById("attendeeId")).thenReturn(Optional.of(new User()));
+        when(inventoryService.reserve(eq(event), any(Event.TicketType.class), eq(3))).thenReturn(true);
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("connection reset"));
+        when(mongoTemplate.count(any(Query.class), eq(Ticket.class))).thenThrow(new IllegalStateException("still down"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> ticketService.purchaseTickets(request, "attendeeId", "pay_123"));
+        verify(inventoryService, never()).release(any(Event.class), any(Event.TicketType.class), anyInt());
+    }
+
+    private static Event orderableEvent() {
+        Event.TicketType ticketType = new Event.TicketType();
+        ticketType.setId("ticketTypeId");
+        ticketType.setPrice(BigDecimal.TEN);
+        ticketType.setAvailableQuantity(50);
+        ticketType.setActive(true);
+        Event event = new Event();
+        event.setId("eventId");
+        event.setEventDate(LocalDateTime.now().plusDays(30));
+        event.setTicketTypes(new ArrayList<>(List.of(ticketType)));
+        return event;
+    }
+
+    private static TicketPurchaseRequest orderRequest(int quantity) {
+        TicketPurchaseRequest request = new TicketPurchaseRequest();
+        request.setEventId("eventId");
+        request.setTicketTypeId("ticketTypeId");
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    @Test
+    public void testValidateTicketByQR_matchesWholePayloadOnly() {
+        // Arrange: only a query carrying all three legacy fields finds the ticket
+        Ticket ticket = new Ticket();
+        ticket.setTicketNumber("TKT-01HX3-K7Q9-ZABC");
+        ticket.setStatus(Ticket.TicketStatus.USED);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Ticket.class)))
+                .thenAnswer(inv -> json(inv.getArgument(0)).contains("\"attendeeId\": \"buyer@example.com\"") ? ticket : null);
+
+        // Act
+        boolean forged = ticketService.validateTicketByQR("TKT-01HX3-K7Q9-ZABC|eventId|someone@else.com", "staff");
+        boolean genuine = ticketService.validateTicketByQR("TKT-01HX3-K7Q9-ZABC|eventId|buyer@example.com", "staff");
+
+        // Assert
+        assertFalse(forged);
+        assertTrue(genuine);
+    }
+
+    @Test
+    public void testValidateTicketByQR_signedPayloadLooksUpById() {
+        // Arrange
+        Ticket ticket = new Ticket();
+        ticket.setId("0ABCDEFGHJKMN");
+        ticket.setStatus(Ticket.TicketStatus.USED);
+        when(qrCodeService.ticketIdFrom("0ABCDEFGHJKMN.sig")).thenReturn(Optional.of("0ABCDEFGHJKMN"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Ticket.class)))
+                .thenAnswer(inv -> json(inv.getArgument(0)).contains("\"_id\": \"0ABCDEFGHJKMN\"") ? ticket : null);
+        ReflectionTestUtils.setField(ticketService, "acceptLegacyPayloads", false);
+
+        // Act
+        boolean legacy = ticketService.validateTicketByQR("TKT-01HX3-K7Q9-ZABC|eventId|buyer@example.com", "staff");
+        boolean signed = ticketService.validateTicketByQR("0ABCDEFGHJKMN.sig", "staff");
+
+        // Assert
+        assertFalse(legacy);
+        assertTrue(signed);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Ticket.class));
+    }
+
+    @Test
+    public void testCheckIn_isOneConditionalFindAndModify() {
+        // Arrange
+        Ticket admitted = new Ticket();
+        admitted.setTicketNumber("TKT-1");
+        admitted.setStatus(Ticket.TicketStatus.USED);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(mongoTemplate.findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Ticket.class)))
+                .thenReturn(admitted);
+
+        // Act
+        CheckInResult result = ticketService.checkIn("TKT-1", "gate-1");
+
+        // Assert
+        assertEquals(CheckInResult.Outcome.ACCEPTED, result.outcome());
+        String condition = json(query.getValue());
+        assertTrue(condition.contains("\"ticketNumber\": \"TKT-1\""));
+        assertTrue(condition.contains("\"status\": \"ACTIVE\""));
+        assertTrue(condition.contains("\"paymentStatus\": \"COMPLETED\""));
+        assertTrue(condition.contains("\"eventDate\": {\"$gt\""));
+        assertEquals("USED", update.getValue().getUpdateObject().get("$set", Document.class).get("status"));
+        assertEquals("gate-1", update.getValue().getUpdateObject().get("$set", Document.class).get("validatedBy"));
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Ticket.class));
+        verify(ticketRepository, never()).save(any());
+    }
+
+    @Test
+    public void testCheckIn_secondScanIsToldWhenAndByWhom() {
+        // Arrange: the conditional update no longer matches once the first gate has admitted the ticket
+        Ticket used = new Ticket();
+        used.setTicketNumber("TKT-1");
+        used.setStatus(Ticket.TicketStatus.USED);
+        used.setPaymentStatus(Ticket.PaymentStatus.COMPLETED);
+        used.setValidatedAt(LocalDateTime.of(2026, 5, 1, 18, 4, 12));
+        used.setValidatedBy("gate-1@example.com");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Ticket.class)))
+                .thenReturn(used, (Ticket) null);
+        when(mongoTemplate.findOne(any(Query.class), eq(Ticket.class))).thenReturn(used);
+
+        // Act
+        CheckInResult first = ticketService.checkIn("TKT-1", "gate-1@example.com");
+        CheckInResult second = ticketService.checkIn("TKT-1", "gate-2@example.com");
+
+        // Assert
+        assertTrue(first.accepted());
+        assertEquals(CheckInResult.Outcome.ALREADY_USED, second.outcome());
+        assertEquals("Ticket already used at 2026-05-01T18:04:12 by gate-1@example.com", second.message());
+        assertEquals(false, second.toMap(true).get("valid"));
+        assertEquals("gate-1@example.com", second.toMap(true).get("validatedBy"));
+    }
+
+    @Test
+    public void testCheckInResult_hidesWhoFromCallersOutsideTheEvent() {
+        // Arrange
+        Ticket used = new Ticket();
+        used.setTicketNumber("TKT-1");
+        used.setAttendeeName("Asha Rao");
+        used.setStatus(Ticket.TicketStatus.USED);
+        used.setValidatedAt(LocalDateTime.of(2026, 5, 1, 18, 4, 12));
+        used.setValidatedBy("gate-1@example.com");
+        CheckInResult result = new CheckInResult(CheckInResult.Outcome.ALREADY_USED, used);
+
+        // Act
+        Map<String, Object> outsider = result.toMap(false);
+        Map<String, Object> staff = result.toMap(true);
+
+        // Assert
+        assertFalse(outsider.containsKey("attendeeName"));
+        assertFalse(outsider.containsKey("validatedBy"));
+        assertEquals("Ticket already used", outsider.get("message"));
+        assertEquals("Asha Rao", staff.get("attendeeName"));
+        assertEquals("gate-1@example.com", staff.get("validatedBy"));
+    }
+
+    @Test
+    public void testCheckIn_classifiesRejections() {
+        // Arrange
+        Ticket refunded = new Ticket();
+        refunded.setStatus(Ticket.TicketStatus.REFUNDED);
+        refunded.setPaymentStatus(Ticket.PaymentStatus.REFUNDED);
+        Ticket unpaid = new Ticket();
+        unpaid.setStatus(Ticket.TicketStatus.ACTIVE);
+        unpaid.setPaymentStatus(Ticket.PaymentStatus.PENDING);
+        Ticket past = new Ticket();
+        past.setStatus(Ticket.TicketStatus.ACTIVE);
+        past.setPaymentStatus(Ticket.PaymentStatus.COMPLETED);
+        past.setEventDate(LocalDateTime.now().minusDays(1).toString());
+        when(mongoTemplate.findOne(any(Query.class), eq(Ticket.class))).thenReturn(refunded, unpaid, past, null);
+
+        // Act & Assert
+        assertEquals(CheckInResult.Outcome.REFUNDED, ticketService.checkIn("TKT-1", "gate").outcome());
+        assertEquals(CheckInResult.Outcome.PAYMENT_PENDING, ticketService.checkIn("TKT-2", "gate").outcome());
+        assertEquals(CheckInResult.Outcome.EXPIRED, ticketService.checkIn("TKT-3", "gate").outcome());
+        assertEquals(CheckInResult.Outcome.UNKNOWN, ticketService.checkIn("TKT-4", "gate").outcome());
+    }
+
+    private static String json(Query query) {
+        return query.getQueryObject().toJson();
+    }
 }
@@ -0,0 +1,144 @@
+package com.eventmanagement.service;
+
+import com.eventmanagement.model.Event;
+import com.eventmanagement.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WaitingRoomServiceTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private WaitingRoomService waitingRoomService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        waitingRoomService = new WaitingRoomService(eventRepository, "test-secret", 50, 900, 30000, 2);
+    }
+
+    @Test
+    public void testBurstIsAdmittedAtConfiguredRate() throws Exception {
+        // Arrange
+        int rate = 100;
+        int buyers = 20000;
+        Event event = new Event();
+        event.setId("eventId");
+        event.setSettings(new Event.EventSettings());
+        event.getSettings().setHighDemand(true);
+        event.getSettings().setAdmissionRatePerSecond(rate);
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+
+        // Act: everyone arrives at once
+        List<String> tokens = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        for (int i = 0; i < buyers; i++) {
+            pool.execute(() -> tokens.add(waitingRoomService.join("eventId").orElseThrow().token()));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(buyers, tokens.size());
+
+        // Assert: every simulated second lets exactly `rate` buyers through to the purchase endpoint
+        long start = System.nanoTime();
+        for (int second = 1; second <= 10; second++) {
+            waitingRoomService.tick(start + second * 1_000_000_000L);
+            int admitted = 0;
+            for (String token : tokens) {
+                if (waitingRoomService.admit("eventId", token) == WaitingRoomService.Admission.ADMITTED) {
+                    admitted++;
+                }
+            }
+            assertEquals(rate, admitted);
+        }
+        assertEquals(10L * rate, waitingRoomService.snapshot().get("eventId").get("admitted"));
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected() {
+        // Arrange
+        Event event = new Event();
+        event.setId("eventId");
+        event.setSettings(new Event.EventSettings());
+        event.getSettings().setHighDemand(true);
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(event));
+        String token = waitingRoomService.join("eventId").orElseThrow().token();
+        waitingRoomService.tick(System.nanoTime() + 1_000_000_000L);
+
+        // Act & Assert
+        String forged = token.substring(0, token.indexOf('.') + 1) + "AAAAAAAAAAAAAAAAAAAAAA";
+        assertEquals(WaitingRoomService.Admission.INVALID, waitingRoomService.admit("eventId", forged));
+        assertEquals(WaitingRoomService.Admission.ADMITTED, waitingRoomService.admit("eventId", token));
+        assertEquals(WaitingRoomService.Admission.USED, waitingRoomService.admit("eventId", token));
+    }
+
+    @Test
+    public void testGiveBack_letsAFailedPurchaseUseTheTokenAgain() {
+        // Arrange
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(hotEvent("eventId")));
+        String token = waitingRoomService.join("eventId").orElseThrow().token();
+        waitingRoomService.tick(System.nanoTime() + 1_000_000_000L);
+        assertEquals(WaitingRoomService.Admission.ADMITTED, waitingRoomService.admit("eventId", token));
+
+        // Act
+        waitingRoomService.giveBack("eventId", token);
+
+        // Assert
+        assertEquals(WaitingRoomService.Admission.ADMITTED, waitingRoomService.admit("eventId", token));
+        assertEquals(WaitingRoomService.Admission.USED, waitingRoomService.admit("eventId", token));
+    }
+
+    @Test
+    public void testJoin_unknownEventsOpenNoRoomAndAreCachedWithinABound() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertFalse(waitingRoomService.join("missing").isPresent());
+        }
+        waitingRoomService.join("missing-2");
+        waitingRoomService.join("missing-3");
+        waitingRoomService.join("missing");
+
+        // Assert: cached until the bound of two pushed it out
+        verify(eventRepository, times(2)).findById("missing");
+        assertTrue(waitingRoomService.snapshot().isEmpty());
+    }
+
+    @Test
+    public void testEvictIdle_dropsRoomsOnceTheirTokensHaveExpired() {
+        // Arrange
+        when(eventRepository.findById("eventId")).thenReturn(Optional.of(hotEvent("eventId")));
+        waitingRoomService.join("eventId");
+
+        // Act & Assert
+        waitingRoomService.evictIdle(System.currentTimeMillis() + 60_000);
+        assertEquals(1, waitingRoomService.snapshot().size());
+        waitingRoomService.evictIdle(System.currentTimeMillis() + 901_000);
+        assertTrue(waitingRoomService.snapshot().isEmpty());
+    }
+
+    private static Event hotEvent(String id) {
+        Event event = new Event();
+        event.setId(id);
+        event.setSettings(new Event.EventSettings());
+        event.getSettings().setHighDemand(true);
+        return event;
+    }
+}
@@ -0,0 +1,54 @@
+package com.eventmanagement.util;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdRangeWalkTest {
+
+    @Test
+    public void testWalksStringIdsThenObjectIdsResumingAfterEachBatch() throws Exception {
+        // Arrange
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        ObjectId oid = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("events")))
+                .thenReturn(List.of(new Document("_id", "a"), new Document("_id", "b")))
+                .thenReturn(List.of(new Document("_id", "c")))
+                .thenReturn(List.of(new Document("_id", oid)));
+        List<Object> seen = new ArrayList<>();
+
+        // Act
+        IdRangeWalk.walk(mongoTemplate, "events", Criteria.where("city").exists(true), 2,
+                batch -> batch.forEach(doc -> seen.add(doc.get("_id"))), "city");
+
+        // Assert
+        assertEquals(List.of("a", "b", "c", oid), seen);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).find(queries.capture(), eq(Document.class), eq("events"));
+        assertEquals("", lowerBound(queries.getAllValues().get(0)));
+        assertEquals("b", lowerBound(queries.getAllValues().get(1)));
+        assertEquals(new ObjectId(new byte[12]), lowerBound(queries.getAllValues().get(2)));
+        assertEquals(2, queries.getAllValues().get(0).getLimit());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object lowerBound(Query query) {
+        List<Document> and = (List<Document>) query.getQueryObject().get("$and");
+        return and.get(0).get("_id", Document.class).get("$gt");
+    }
+}
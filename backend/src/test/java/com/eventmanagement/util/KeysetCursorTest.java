@@ -0,0 +1,83 @@
+package com.eventmanagement.util;
+
+import com.eventmanagement.dto.CursorPage;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KeysetCursorTest {
+
+    private final KeysetCursor cursor = new KeysetCursor("tickets:attendee", "purchaseDate", Sort.Direction.DESC);
+
+    private final LocalDateTime bought = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_000_000);
+
+    @Test
+    public void testTokenRoundTrips() {
+        // Act
+        KeysetCursor.Position position = cursor.decode(cursor.encode(bought, "0ABCDEFGHJKMN"));
+
+        // Assert
+        assertEquals(bought, position.value());
+        assertEquals("0ABCDEFGHJKMN", position.id());
+    }
+
+    @Test
+    public void testTokensAreRejectedOutsideTheirListing() {
+        // Arrange
+        KeysetCursor events = new KeysetCursor("events:published", "eventDate", Sort.Direction.ASC);
+        String token = events.encode(bought, "event-1");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> cursor.decode(token));
+        assertThrows(IllegalArgumentException.class, () -> cursor.decode("not a token"));
+        assertThrows(IllegalArgumentException.class, () -> cursor.from("dGlja2V0czphdHRlbmRlZQ"));
+    }
+
+    @Test
+    public void testPage_fullPageCarriesTokenForItsLastRow() {
+        // Arrange: fetchSize(2) rows came back, one more than the page
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < cursor.fetchSize(2); i++) {
+            rows.add(new String[] {"id" + i, bought.minusMinutes(i).toString()});
+        }
+
+        // Act
+        CursorPage<String[]> page = cursor.page(rows, 2, r -> LocalDateTime.parse(r[1]), r -> r[0], null);
+        CursorPage<String[]> last = cursor.page(rows.subList(0, 1), 2, r -> LocalDateTime.parse(r[1]), r -> r[0], 7L);
+
+        // Assert
+        assertEquals(2, page.items().size());
+        assertEquals(new KeysetCursor.Position(bought.minusMinutes(1), "id1"), cursor.decode(page.next()));
+        assertNull(page.total());
+        assertNull(last.next());
+        assertEquals(7L, last.total());
+    }
+
+    @Test
+    public void testAfter_descendingContinuesBelowThePositionWithIdTieBreak() {
+        // Act
+        Document criteria = cursor.after(new KeysetCursor.Position(bought, "id1")).getCriteriaObject();
+
+        // Assert
+        assertEquals(new Document("$lte", bought), criteria.get("purchaseDate"));
+        assertEquals(List.of(new Document("purchaseDate", new Document("$lt", bought)),
+                new Document("_id", new Document("$lt", "id1"))), criteria.get("$or"));
+        assertEquals(Sort.by(Sort.Order.desc("purchaseDate"), Sort.Order.desc("_id")), cursor.sort());
+    }
+
+    @Test
+    public void testFetchSize_rejectsOutOfRangeSizes() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> cursor.fetchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> cursor.fetchSize(KeysetCursor.MAX_PAGE_SIZE + 1));
+        assertEquals(KeysetCursor.MAX_PAGE_SIZE + 1, cursor.fetchSize(KeysetCursor.MAX_PAGE_SIZE));
+    }
+}
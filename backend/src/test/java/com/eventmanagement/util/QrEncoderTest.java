@@ -0,0 +1,99 @@
+package com.eventmanagement.util;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QrEncoderTest {
+
+    private static final String PAYLOAD = "0ABCDEFGHJKMN.q1w2e3r4t5y6u7i8";
+
+    private final QrEncoder encoder = new QrEncoder();
+
+    @Test
+    public void testPng_isPixelIdenticalToQrCodeWriter() throws Exception {
+        // Arrange
+        BitMatrix expected = new QRCodeWriter().encode(PAYLOAD, BarcodeFormat.QR_CODE, 300, 300);
+
+        // Act
+        byte[] png = encoder.png(PAYLOAD, 300);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+
+        // Assert
+        assertEquals(1, png[24], "bit depth");
+        assertEquals(0, png[25], "colour type");
+        assertEquals(expected.getWidth(), image.getWidth());
+        assertEquals(expected.getHeight(), image.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                boolean dark = (image.getRGB(x, y) & 0xFFFFFF) == 0;
+                assertEquals(expected.get(x, y), dark, "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testPng_decodesBackToPayload() throws Exception {
+        // Act
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(encoder.png(PAYLOAD, 120)));
+        String decoded = new QRCodeReader()
+                .decode(new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image))))
+                .getText();
+
+        // Assert
+        assertEquals(PAYLOAD, decoded);
+    }
+
+    @Test
+    public void testPng_reusedBuffersDoNotLeakBetweenSizes() throws Exception {
+        // Arrange
+        byte[] first = encoder.png(PAYLOAD, 300);
+
+        // Act: a larger and a smaller image on the same thread, then the original again
+        encoder.png(PAYLOAD + PAYLOAD, 600);
+        encoder.png("x", 50);
+        byte[] again = encoder.png(PAYLOAD, 300);
+
+        // Assert
+        assertArrayEquals(first, again);
+    }
+
+    @Test
+    public void testModulesAndSvg_matchTheModuleMatrix() throws Exception {
+        // Arrange
+        BitMatrix expected = new QRCodeWriter().encode(PAYLOAD, BarcodeFormat.QR_CODE, 0, 0, Map.of(EncodeHintType.MARGIN, 0));
+
+        // Act
+        BitMatrix modules = encoder.modules(PAYLOAD);
+        String svg = encoder.svg(PAYLOAD, 300);
+
+        // Assert
+        assertEquals(expected, modules);
+        int viewBox = modules.getWidth() + 2 * QrEncoder.DEFAULT_QUIET_ZONE;
+        assertTrue(svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"300\" height=\"300\""));
+        assertTrue(svg.contains("viewBox=\"0 0 " + viewBox + " " + viewBox + "\""));
+        // The top-left finder pattern starts with a 7-module run at the quiet zone's corner
+        assertTrue(svg.contains("M4 4h7v1h-7z"));
+    }
+
+    @Test
+    public void testEmptyDataIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> encoder.png("", 300));
+    }
+}
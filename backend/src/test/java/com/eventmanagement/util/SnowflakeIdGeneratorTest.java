@@ -0,0 +1,108 @@
+package com.eventmanagement.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SnowflakeIdGeneratorTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testIdsAreUniqueAcrossThreadsAndNodes() throws Exception {
+        // Arrange
+        int perThread = 50_000;
+        List<SnowflakeIdGenerator> nodes = List.of(new SnowflakeIdGenerator(1), new SnowflakeIdGenerator(2));
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act: four threads per node, all in the same few milliseconds
+        for (int t = 0; t < 8; t++) {
+            SnowflakeIdGenerator generator = nodes.get(t % 2);
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(8 * perThread, ids.size());
+    }
+
+    @Test
+    public void testIdsSortInCreationOrder() {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        List<String> ids = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 20_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // Assert
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+        }
+    }
+
+    @Test
+    public void testEncodeRoundTripsAndCarriesTimestamp() {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1023);
+        long before = System.currentTimeMillis();
+
+        // Act
+        long id = generator.nextLong();
+        String encoded = SnowflakeIdGenerator.encode(id);
+
+        // Assert
+        assertEquals(13, encoded.length());
+        assertEquals(id, SnowflakeIdGenerator.decode(encoded));
+        assertTrue(SnowflakeIdGenerator.timestampMillis(id) >= before);
+    }
+
+    @Test
+    public void testTicketNumberIsGroupedIdWithKeyedCheck() {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, KEY);
+
+        // Act
+        String number = generator.ticketNumber("01HX3K7Q9ZABC");
+
+        // Assert
+        assertTrue(number.startsWith("TKT-01HX3-K7Q9-ZABC-"));
+        assertEquals(25, number.length());
+        assertEquals(number, new SnowflakeIdGenerator(4, KEY).ticketNumber("01HX3K7Q9ZABC"));
+        assertNotEquals(number.substring(20), generator.ticketNumber("01HX3K7Q9ZABD").substring(20));
+        assertNotEquals(number, new SnowflakeIdGenerator(3, "another-key-of-32-bytes-for-test".getBytes(StandardCharsets.US_ASCII))
+                .ticketNumber("01HX3K7Q9ZABC"));
+    }
+
+    @Test
+    public void testRejectsShortTicketNumberKey() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(3, new byte[8]));
+    }
+
+    @Test
+    public void testRejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    }
+}
@@ -181,9 +181,9 @@ const EventList = () => {
                         </Box>
                         
                         <Typography variant="body2" sx={{ mb: 2, color: 'text.secondary', lineHeight: 1.5 }}>
-                          {event.description?.length > 100 
-                            ? `${event.description.substring(0, 100)}...` 
-                            : event.description
+                          {event.summary?.length > 100 
+                            ? `${event.summary.substring(0, 100)}...` 
+                            : event.summary
                           }
                         </Typography>
                         
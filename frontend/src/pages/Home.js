@@ -218,7 +218,7 @@ const Home = () => {
                         {event.name}
                       </Typography>
                       <Typography variant="body2" color="text.secondary" gutterBottom sx={{ mb: 2 }}>
-                        {event.description}
+                        {event.summary}
                       </Typography>
                       <Box sx={{ display: 'flex', alignItems: 'center', mb: 1 }}>
                         <CalendarIcon sx={{ fontSize: 16, mr: 1, color: 'text.secondary' }} />
@@ -70,8 +70,8 @@ const MyTickets = () => {
                       <Chip label={`Ticket #${t.ticketNumber}`} size="small" />
                       <Chip label={t.status} size="small" color={t.status === 'ACTIVE' ? 'success' : 'default'} />
                     </Box>
-                    {t.qrCode && (
-                      <img src={`data:image/png;base64,${t.qrCode}`} alt="QR" style={{ width: '100%', borderRadius: 8 }} />
+                    {t.qrImageRef && (
+                      <img src={ticketService.qrImageUrl(t.qrImageRef)} alt="QR" style={{ width: '100%', borderRadius: 8 }} />
                     )}
                     <Box sx={{ display: 'flex', gap: 1, mt: 2, flexWrap: 'wrap' }}>
                       {t.status === 'ACTIVE' && (
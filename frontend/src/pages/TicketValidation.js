@@ -103,7 +103,10 @@ const TicketValidation = () => {
                 <Typography variant="h6" sx={{ mb: 2 }}>Result</Typography>
                 {result ? (
                   result.valid ? (
-                    <Alert severity="success">Valid ticket. {result.message || ''}</Alert>
+                    <Alert severity="success">
+                      Valid ticket. {result.message || ''}
+                      {result.attendeeName && <div>{result.attendeeName} · {result.ticketType}</div>}
+                    </Alert>
                   ) : (
                     <Alert severity="error">Invalid ticket. {result.message || ''}</Alert>
                   )
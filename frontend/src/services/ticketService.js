@@ -118,9 +118,13 @@ export const ticketService = {
     }
   },
 
+  qrImageUrl(ref) {
+    return `${api.defaults.baseURL}/tickets/qr/${ref}`;
+  },
+
   async validateByNumber(ticketNumber) {
     const { data } = await api.post('/tickets/validate', { ticketNumber });
-    return data; // expected: { valid: boolean, message?: string }
+    return data; // { valid, message, result: ACCEPTED | ALREADY_USED | REFUNDED | ..., attendeeName?, validatedAt?, validatedBy? }
   },
   async validateByQr(qrCode) {
     const { data } = await api.post('/tickets/validate', { qrCode });
@@ -40,7 +40,7 @@ echo "🎉 To run the application:"
 echo ""
 echo "1. Start MongoDB (make sure it's running on localhost:27017)"
 echo "2. Start the backend:"
-echo "   cd backend && mvn spring-boot:run"
+echo "   cd backend && mvn spring-boot:run -Dspring-boot.run.profiles=dev"
 echo ""
 echo "3. Start the frontend (in a new terminal):"
 echo "   cd frontend && npm start"